@@ -0,0 +1,104 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.PlatzBesucher;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Misst, wie viele Bytes die Abfragen der Platzbelegung pro Aufruf auf dem
+ * Heap anlegen. Gemessen wird mit dem Allokationszähler des aktuellen
+ * Threads, den die HotSpot-JVM über com.sun.management.ThreadMXBean
+ * bereitstellt. Die Abfragen über Reihe und Sitz, die Reihenmasken und das
+ * Durchlaufen der verkauften Plätze sollen 0 Bytes pro Aufruf anlegen.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.benchmark.AllokationsBenchmark
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class AllokationsBenchmark
+{
+    private static final int REIHEN = 20;
+    private static final int SITZE = 25;
+    private static final int DURCHLAEUFE = 1_000_000;
+
+    private static final com.sun.management.ThreadMXBean _threads = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+
+    // Nimmt die Ergebnisse der Abfragen auf, damit sie nicht wegoptimiert
+    // werden.
+    private static long _summe;
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args die Aufrufparameter (werden ignoriert).
+     */
+    public static void main(String[] args)
+    {
+        Kinosaal saal = new Kinosaal("Saal 1", REIHEN, SITZE);
+        Vorstellung vorstellung = new Vorstellung(saal, new Film("Rio", 96,
+                FSK.FSK0, false), new Uhrzeit(17, 30), new Uhrzeit(20, 0),
+                Datum.heute(), 795);
+        Random zufall = new Random(42);
+        for (int i = 0; i < REIHEN * SITZE / 2; i++)
+        {
+            vorstellung.verkaufePlatzWennFrei(new Platz(zufall.nextInt(REIHEN),
+                    zufall.nextInt(SITZE)));
+        }
+        long[] maske = new long[(SITZE + 63) / 64];
+        PlatzBesucher zaehler = (reihe, sitz) -> _summe += sitz;
+
+        miss("istPlatzVerkauft(Platz)", i -> {
+            if (vorstellung.istPlatzVerkauft(new Platz(i % REIHEN, i % SITZE)))
+            {
+                _summe++;
+            }
+        });
+        miss("istPlatzVerkauft(int, int)", i -> {
+            if (vorstellung.istPlatzVerkauft(i % REIHEN, i % SITZE))
+            {
+                _summe++;
+            }
+        });
+        miss("getVerkaufteSitze(reihe, maske)", i -> {
+            vorstellung.getVerkaufteSitze(i % REIHEN, maske);
+            _summe += maske[0];
+        });
+        miss("besucheVerkauftePlaetze", i -> vorstellung
+                .besucheVerkauftePlaetze(zaehler));
+        miss("Kinosaal.getPlaetze()", i -> _summe += saal.getPlaetze().size());
+        miss("Kinosaal.besuchePlaetze", i -> saal.besuchePlaetze(zaehler));
+        System.out.println("(" + _summe + ")");
+    }
+
+    /**
+     * Führt die Abfrage zum Aufwärmen und dann zum Messen jeweils
+     * DURCHLAEUFE-mal aus und gibt die angelegten Bytes pro Aufruf aus.
+     */
+    private static void miss(String name, IntConsumer abfrage)
+    {
+        for (int i = 0; i < DURCHLAEUFE; i++)
+        {
+            abfrage.accept(i);
+        }
+        long id = Thread.currentThread().getId();
+        long vorher = _threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < DURCHLAEUFE; i++)
+        {
+            abfrage.accept(i);
+        }
+        long angelegt = _threads.getThreadAllocatedBytes(id) - vorher;
+        System.out.printf("%-32s %10.2f Bytes pro Aufruf%n", name,
+                (double) angelegt / DURCHLAEUFE);
+    }
+}
@@ -0,0 +1,130 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kino;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Programmdatei;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Misst den Heap, den ein Kino nach dem Durchblättern aller Tage eines
+ * wachsenden Archivs belegt: einmal mit allen Tagen im Speicher und einmal
+ * mit Tagen, die bei Bedarf aus der Programmdatei geladen und unter einem
+ * Budget von 16 MB verdrängt werden. Jeder Tag hat 50 Vorstellungen in 10
+ * Sälen mit 20 Reihen zu je 25 Sitzen.
+ * 
+ * Aufruf: java -Xmx2g de.uni_hamburg.informatik.swt.se2.kino.benchmark.ArchivBenchmark
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class ArchivBenchmark
+{
+    private static final int SAELE = 10;
+    private static final int VORSTELLUNGEN_PRO_SAAL = 5;
+    private static final int[] JAHRE = { 1, 4, 16 };
+    private static final long BUDGET = 16L << 20;
+
+    // Hält das gemessene Kino erreichbar, bis der Speicher gemessen ist.
+    private static Kino _gemessen;
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args die Aufrufparameter (werden ignoriert).
+     */
+    public static void main(String[] args) throws IOException
+    {
+        Path datei = Files.createTempFile("archiv", ".kino");
+        for (int jahre : JAHRE)
+        {
+            int tage = 365 * jahre;
+            Datum erster = Datum.heute().minus(tage);
+            schreibeProgramm(datei, erster, tage);
+
+            long vorher = belegterSpeicher();
+            _gemessen = Programmdatei.lade(datei);
+            blaettere(_gemessen, erster, tage);
+            long alle = belegterSpeicher() - vorher;
+            _gemessen = null;
+
+            vorher = belegterSpeicher();
+            long anfang = System.nanoTime();
+            _gemessen = new Kino(Programmdatei.oeffne(datei), 7, BUDGET);
+            blaettere(_gemessen, erster, tage);
+            long dauer = System.nanoTime() - anfang;
+            long geladen = belegterSpeicher() - vorher;
+            _gemessen = null;
+
+            System.out.printf(
+                    "%2d Jahre, %,9d Vorstellungen: alle Tage %,6d MB, bei Bedarf %,4d MB (%.1f µs pro Tag)%n",
+                    jahre, tage * SAELE * VORSTELLUNGEN_PRO_SAAL,
+                    alle >> 20, geladen >> 20, dauer / 1e3 / tage);
+        }
+        Files.delete(datei);
+    }
+
+    /**
+     * Holt jeden Tag des Archivs einmal.
+     */
+    private static void blaettere(Kino kino, Datum erster, int tage)
+    {
+        for (int tag = 0; tag < tage; tag++)
+        {
+            kino.getTagesplan(erster.plus(tag)).getVorstellungen();
+        }
+    }
+
+    /**
+     * Schreibt eine Programmdatei mit Vorstellungen an allen Tagen ab dem
+     * ersten.
+     */
+    private static void schreibeProgramm(Path datei, Datum erster, int tage)
+            throws IOException
+    {
+        Kinosaal[] saele = new Kinosaal[SAELE];
+        for (int s = 0; s < SAELE; s++)
+        {
+            saele[s] = new Kinosaal("Saal " + (s + 1), 20, 25);
+        }
+        Film film = new Film("Rio", 96, FSK.FSK0, false);
+        Vorstellung[] vorstellungen = new Vorstellung[tage * SAELE
+                * VORSTELLUNGEN_PRO_SAAL];
+        int i = 0;
+        for (int tag = 0; tag < tage; tag++)
+        {
+            Datum datum = erster.plus(tag);
+            for (int s = 0; s < SAELE; s++)
+            {
+                for (int v = 0; v < VORSTELLUNGEN_PRO_SAAL; v++)
+                {
+                    vorstellungen[i++] = new Vorstellung(saele[s], film,
+                            new Uhrzeit(12 + 2 * v, 0), new Uhrzeit(13 + 2 * v,
+                                    50), datum, 800);
+                }
+            }
+        }
+        Programmdatei.schreibe(datei, new Kino(saele, vorstellungen));
+    }
+
+    /**
+     * Gibt den derzeit belegten Heap-Speicher nach einer Garbage Collection
+     * zurück.
+     */
+    private static long belegterSpeicher()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,129 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kino;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Platzmaske;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Misst Massenoperationen über einen Monat mit sechs Vorstellungen pro Tag in
+ * einem Saal mit 1.200 Plätzen, der zu etwa 70 % belegt ist: das Blockieren
+ * defekter Sitze in allen Vorstellungen des Saals und das Stornieren aller
+ * Vorstellungen. Zum Vergleich wird das Stornieren Platz für Platz gemessen.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.benchmark.MassenoperationBenchmark
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class MassenoperationBenchmark
+{
+    private static final int REIHEN = 40;
+    private static final int SITZE = 30;
+    private static final int TAGE = 30;
+    private static final int VORSTELLUNGEN_PRO_TAG = 6;
+    private static final int DURCHLAEUFE = 20;
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args die Aufrufparameter (werden ignoriert).
+     */
+    public static void main(String[] args)
+    {
+        Kinosaal saal = new Kinosaal("Groß", REIHEN, SITZE);
+        List<Platz> defekt = new ArrayList<>();
+        for (int reihe = 0; reihe < REIHEN; reihe += 4)
+        {
+            defekt.add(new Platz(reihe, reihe % SITZE));
+        }
+        Platzmaske defekteSitze = Platzmaske.ausPlaetzen(defekt);
+
+        long blockieren = 0;
+        long stornieren = 0;
+        long einzeln = 0;
+        int erstattet = 0;
+        for (int durchlauf = 0; durchlauf < DURCHLAEUFE; durchlauf++)
+        {
+            Datum anfang = Datum.heute();
+            Vorstellung[] vorstellungen = erzeugeMonat(saal, anfang);
+            Kino kino = new Kino(new Kinosaal[] { saal }, vorstellungen);
+
+            long start = System.nanoTime();
+            for (Platzmaske maske : kino.blockierePlaetze(saal, defekteSitze,
+                    anfang).values())
+            {
+                erstattet += maske.getAnzahlPlaetze();
+            }
+            blockieren += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (Vorstellung vorstellung : vorstellungen)
+            {
+                erstattet += vorstellung.storniereAlle().getAnzahlPlaetze();
+            }
+            stornieren += System.nanoTime() - start;
+
+            vorstellungen = erzeugeMonat(saal, anfang);
+            start = System.nanoTime();
+            for (Vorstellung vorstellung : vorstellungen)
+            {
+                for (Platz platz : saal.getPlaetze())
+                {
+                    if (vorstellung.istPlatzVerkauft(platz))
+                    {
+                        if (!vorstellung.stornierePlatz(platz))
+                        {
+                            throw new IllegalStateException("Falsch storniert");
+                        }
+                        erstattet++;
+                    }
+                }
+            }
+            einzeln += System.nanoTime() - start;
+        }
+        System.out.printf("Defekte Sitze blockieren: %.2f ms pro Monat%n",
+                blockieren / 1e6 / DURCHLAEUFE);
+        System.out.printf("Alle Vorstellungen stornieren: %.2f ms pro Monat%n",
+                stornieren / 1e6 / DURCHLAEUFE);
+        System.out.printf("Platz für Platz stornieren: %.2f ms pro Monat (%d)%n",
+                einzeln / 1e6 / DURCHLAEUFE, erstattet);
+    }
+
+    /**
+     * Erzeugt die Vorstellungen eines Monats und verkauft etwa 70 % der
+     * Plätze.
+     */
+    private static Vorstellung[] erzeugeMonat(Kinosaal saal, Datum anfang)
+    {
+        Film film = new Film("Thor", 115, FSK.FSK12, false);
+        Random zufall = new Random(42);
+        Vorstellung[] vorstellungen = new Vorstellung[TAGE
+                * VORSTELLUNGEN_PRO_TAG];
+        for (int i = 0; i < vorstellungen.length; i++)
+        {
+            int stunde = 12 + 2 * (i % VORSTELLUNGEN_PRO_TAG);
+            Vorstellung vorstellung = new Vorstellung(saal, film, new Uhrzeit(
+                    stunde, 0), new Uhrzeit(stunde + 1, 55), anfang.plus(i
+                            / VORSTELLUNGEN_PRO_TAG), 995);
+            for (Platz platz : saal.getPlaetze())
+            {
+                if (zufall.nextInt(10) < 7 && !vorstellung.verkaufePlatz(platz))
+                {
+                    throw new IllegalStateException("Falsch verkauft");
+                }
+            }
+            vorstellungen[i] = vorstellung;
+        }
+        return vorstellungen;
+    }
+}
@@ -0,0 +1,126 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Belegungsspeicher;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kino;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Misst, wie lange ein Neustart mit Belegungsspeicher dauert, wenn das Kino
+ * 100.000 Vorstellungen hat. Verglichen wird mit dem Aufbau desselben Kinos
+ * ohne Speicher. Pro Lauf wird eine andere Anzahl verkaufter Plätze pro
+ * Vorstellung vorbereitet; die Dauer des Neustarts soll davon nicht abhängen,
+ * weil die Belegungen nicht eingespielt, sondern nur geprüft werden.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.benchmark.NeustartBenchmark [anzahlVorstellungen]
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class NeustartBenchmark
+{
+    private static final int VORSTELLUNGEN_PRO_TAG = 10;
+    private static final int WIEDERHOLUNGEN = 5;
+
+    private static final Kinosaal[] SAELE = {
+            new Kinosaal("Saal 1", 20, 25), new Kinosaal("Saal 2", 16, 20),
+            new Kinosaal("Saal 3", 10, 16) };
+    private static final Film FILM = new Film("Thor", 115, FSK.FSK12, false);
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args optional die Anzahl der Vorstellungen.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int anzahl = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+
+        // Aufwärmen, damit der JIT-Compiler die Methoden übersetzt.
+        miss(anzahl / 10, 1);
+
+        for (int verkauft : new int[] { 1, 16, 160 })
+        {
+            miss(anzahl, verkauft);
+        }
+    }
+
+    /**
+     * Legt einen Speicher an, in dem jede Vorstellung die angegebene Anzahl
+     * verkaufter Plätze hat, und misst den Neustart.
+     */
+    private static void miss(int anzahl, int verkauftProVorstellung)
+            throws IOException
+    {
+        Path datei = Files.createTempFile("belegung", ".speicher");
+        Vorstellung[] vorstellungen = erzeugeVorstellungen(anzahl);
+        Belegungsspeicher speicher = Belegungsspeicher.oeffne(datei,
+                new Kino(SAELE, vorstellungen));
+        for (Vorstellung vorstellung : vorstellungen)
+        {
+            int sitze = vorstellung.getKinosaal().getAnzahlSitzeProReihe();
+            for (int i = 0; i < verkauftProVorstellung; i++)
+            {
+                if (!vorstellung.verkaufePlatz(new Platz(i / sitze, i % sitze)))
+                {
+                    throw new IllegalStateException("Falsch verkauft");
+                }
+            }
+        }
+        speicher.schliesse();
+
+        long ohne = Long.MAX_VALUE;
+        long mit = Long.MAX_VALUE;
+        int wiederhergestellt = 0;
+        for (int w = 0; w < WIEDERHOLUNGEN; w++)
+        {
+            long anfang = System.nanoTime();
+            new Kino(SAELE, erzeugeVorstellungen(anzahl));
+            ohne = Math.min(ohne, System.nanoTime() - anfang);
+
+            anfang = System.nanoTime();
+            speicher = Belegungsspeicher.oeffne(datei, new Kino(SAELE,
+                    erzeugeVorstellungen(anzahl)));
+            mit = Math.min(mit, System.nanoTime() - anfang);
+            wiederhergestellt = speicher
+                    .getAnzahlWiederhergestellterVorstellungen();
+            speicher.schliesse();
+        }
+        System.out.printf(
+                "%,8d Vorstellungen, %3d verkauft pro Vorstellung: ohne Speicher %6.1f ms, mit Speicher %6.1f ms, %,d wiederhergestellt, %,d KB%n",
+                anzahl, verkauftProVorstellung, ohne / 1e6, mit / 1e6,
+                wiederhergestellt, Files.size(datei) / 1024);
+        Files.delete(datei);
+    }
+
+    /**
+     * Erzeugt die angegebene Anzahl Vorstellungen, die auf Tage und Säle
+     * verteilt sind und bei jedem Aufruf dieselben Schlüssel haben.
+     */
+    private static Vorstellung[] erzeugeVorstellungen(int anzahl)
+    {
+        Vorstellung[] vorstellungen = new Vorstellung[anzahl];
+        Datum datum = new Datum(1, 1, 2025);
+        for (int i = 0; i < anzahl; i++)
+        {
+            int nummer = i % VORSTELLUNGEN_PRO_TAG;
+            if (i > 0 && nummer == 0)
+            {
+                datum = datum.naechsterTag();
+            }
+            vorstellungen[i] = new Vorstellung(SAELE[nummer % SAELE.length],
+                    FILM, new Uhrzeit(10 + nummer, 0), new Uhrzeit(11 + nummer,
+                            55), datum, 995);
+        }
+        return vorstellungen;
+    }
+}
@@ -0,0 +1,88 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import java.util.Random;
+import java.util.Set;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Lueckenregel;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Misst, wie lange die Suche nach den besten nebeneinanderliegenden freien
+ * Plätzen in einem Saal mit 1.200 Plätzen dauert, der zu etwa 70 % belegt
+ * ist. Außerdem wird gemessen, wie lange die Prüfung einer Auswahl gegen die
+ * Lückenregel dauert.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.benchmark.PlatzsucheBenchmark
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class PlatzsucheBenchmark
+{
+    private static final int REIHEN = 40;
+    private static final int SITZE = 30;
+    private static final int DURCHLAEUFE = 200_000;
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args die Aufrufparameter (werden ignoriert).
+     */
+    public static void main(String[] args)
+    {
+        Vorstellung vorstellung = new Vorstellung(new Kinosaal("Groß",
+                REIHEN, SITZE), new Film("Thor", 115, FSK.FSK12, false),
+                new Uhrzeit(20, 0), new Uhrzeit(22, 0), Datum.heute(), 995);
+        Random zufall = new Random(42);
+        for (int reihe = 0; reihe < REIHEN; reihe++)
+        {
+            for (int sitz = 0; sitz < SITZE; sitz++)
+            {
+                if (zufall.nextInt(10) < 7
+                        && !vorstellung.verkaufePlatz(new Platz(reihe, sitz)))
+                {
+                    throw new IllegalStateException("Falsch verkauft");
+                }
+            }
+        }
+
+        for (int anzahl : new int[] { 1, 2, 4, 6 })
+        {
+            int gefunden = 0;
+            for (int i = 0; i < DURCHLAEUFE; i++)
+            {
+                gefunden += vorstellung.sucheBesteFreiePlaetze(anzahl).size();
+            }
+            long anfang = System.nanoTime();
+            for (int i = 0; i < DURCHLAEUFE; i++)
+            {
+                gefunden += vorstellung.sucheBesteFreiePlaetze(anzahl).size();
+            }
+            long dauer = System.nanoTime() - anfang;
+            System.out.printf("%d Plätze: %.2f µs pro Suche (%d)%n", anzahl,
+                    dauer / 1000.0 / DURCHLAEUFE, gefunden);
+        }
+
+        vorstellung.setLueckenregel(new Lueckenregel(3, true));
+        Set<Platz> auswahl = vorstellung.sucheBesteFreiePlaetze(2);
+        int luecken = 0;
+        for (int i = 0; i < DURCHLAEUFE; i++)
+        {
+            luecken += vorstellung.pruefeLuecken(auswahl).size();
+        }
+        long anfang = System.nanoTime();
+        for (int i = 0; i < DURCHLAEUFE; i++)
+        {
+            luecken += vorstellung.pruefeLuecken(auswahl).size();
+        }
+        long dauer = System.nanoTime() - anfang;
+        System.out.printf("Lückenregel: %.2f µs pro Prüfung (%d)%n",
+                dauer / 1000.0 / DURCHLAEUFE, luecken);
+    }
+}
@@ -0,0 +1,102 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kino;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Programmimport;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+
+/**
+ * Misst den Import einer CSV-Datei mit 1.000.000 Vorstellungen in ein leeres
+ * Kino mit 1, 2 und 4 Threads zum Zerlegen. Jede tausendste Zeile ist
+ * fehlerhaft.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.benchmark.ProgrammimportBenchmark [anzahlVorstellungen]
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class ProgrammimportBenchmark
+{
+    private static final int SAELE = 10;
+    private static final int FILME = 200;
+    private static final int VORSTELLUNGEN_PRO_SAAL = 5;
+    private static final int WIEDERHOLUNGEN = 3;
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args optional die Anzahl der Vorstellungen.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int anzahl = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        Kinosaal[] saele = new Kinosaal[SAELE];
+        for (int s = 0; s < SAELE; s++)
+        {
+            saele[s] = new Kinosaal("Saal " + (s + 1), 10 + s, 16 + s);
+        }
+        Path csv = Files.createTempFile("programm", ".csv");
+        erzeugeCsv(csv, anzahl);
+        System.out.printf("%,d Zeilen, %,d KB%n", anzahl,
+                Files.size(csv) / 1024);
+
+        for (int threads : new int[] { 1, 2, 4 })
+        {
+            long beste = Long.MAX_VALUE;
+            Programmimport.Bericht bericht = null;
+            for (int w = 0; w < WIEDERHOLUNGEN; w++)
+            {
+                Kino kino = new Kino(saele, new Vorstellung[0]);
+                long anfang = System.nanoTime();
+                try (BufferedReader ein = Files.newBufferedReader(csv,
+                        StandardCharsets.UTF_8))
+                {
+                    bericht = Programmimport.importiere(ein, kino, threads);
+                }
+                beste = Math.min(beste, System.nanoTime() - anfang);
+            }
+            System.out.printf(
+                    "%d Threads: %,8.0f ms (%.2f µs pro Zeile), %,d importiert, %,d fehlerhaft%n",
+                    threads, beste / 1e6, beste / 1e3 / anzahl,
+                    bericht.getAnzahlVorstellungen(),
+                    bericht.getAnzahlFehler());
+        }
+        Files.delete(csv);
+    }
+
+    /**
+     * Schreibt eine CSV-Datei mit der angegebenen Anzahl Vorstellungen, die
+     * über Säle und aufeinanderfolgende Tage verteilt sind.
+     */
+    private static void erzeugeCsv(Path csv, int anzahl) throws IOException
+    {
+        try (BufferedWriter aus = Files.newBufferedWriter(csv,
+                StandardCharsets.UTF_8))
+        {
+            aus.write("saal,datum,anfang,ende,film,laenge,fsk,ueberlaenge,preis\n");
+            int epochentag = new Datum(1, 1, 2000).getEpochentag();
+            int proTag = SAELE * VORSTELLUNGEN_PRO_SAAL;
+            for (int i = 0; i < anzahl; i++)
+            {
+                Datum datum = Datum.ausEpochentag(epochentag + i / proTag);
+                int nummer = i % proTag;
+                int stunde = 12 + 2 * (nummer / SAELE);
+                int film = i % FILME;
+                aus.write(String.format(
+                        "Saal %d,%04d-%02d-%02d,%02d:00,%02d:50,"
+                                + "\"Film %d, Teil %d\",%d,FSK12,nein,%d\n",
+                        nummer % SAELE + 1, datum.getJahr(), datum.getMonat(),
+                        datum.getTag(), stunde, stunde + 1, film, film % 3,
+                        90 + film % 60, i % 1000 == 999 ? -1 : 800 + i % 5 * 100));
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kino;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Programmdatei;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+
+/**
+ * Misst, wie lange das Laden eines Kinos aus einer Programmdatei mit
+ * 1.000.000 Vorstellungen dauert. Das Programm wird zuerst im Textformat
+ * erzeugt und in eine Programmdatei übersetzt; gemessen werden Übersetzen und
+ * Laden. Beim Laden ist auch der Aufbau des Kinos mit seinen Tagesplänen
+ * enthalten.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.benchmark.ProgrammladenBenchmark [anzahlVorstellungen]
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class ProgrammladenBenchmark
+{
+    private static final int SAELE = 10;
+    private static final int FILME = 200;
+    private static final int VORSTELLUNGEN_PRO_SAAL = 5;
+    private static final int WIEDERHOLUNGEN = 3;
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args optional die Anzahl der Vorstellungen.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int anzahl = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        Path text = Files.createTempFile("programm", ".txt");
+        Path datei = Files.createTempFile("programm", ".kino");
+        erzeugeText(text, anzahl);
+
+        long konvertieren = Long.MAX_VALUE;
+        long laden = Long.MAX_VALUE;
+        for (int w = 0; w < WIEDERHOLUNGEN; w++)
+        {
+            long anfang = System.nanoTime();
+            try (BufferedReader ein = Files.newBufferedReader(text,
+                    StandardCharsets.UTF_8))
+            {
+                Programmdatei.konvertiere(ein, datei);
+            }
+            konvertieren = Math.min(konvertieren, System.nanoTime() - anfang);
+
+            anfang = System.nanoTime();
+            Kino kino = Programmdatei.lade(datei);
+            laden = Math.min(laden, System.nanoTime() - anfang);
+            if (kino.getKinosaele().size() != SAELE)
+            {
+                throw new IllegalStateException("Falsch geladen");
+            }
+        }
+        System.out.printf(
+                "%,d Vorstellungen: Text %,d KB, Programmdatei %,d KB%n",
+                anzahl, Files.size(text) / 1024, Files.size(datei) / 1024);
+        System.out.printf(
+                "Übersetzen %,8.0f ms, Laden %,8.0f ms (%.2f µs pro Vorstellung)%n",
+                konvertieren / 1e6, laden / 1e6, laden / 1e3 / anzahl);
+        Files.delete(text);
+        Files.delete(datei);
+    }
+
+    /**
+     * Schreibt ein Programm im Textformat mit der angegebenen Anzahl
+     * Vorstellungen, die über Säle und aufeinanderfolgende Tage verteilt
+     * sind.
+     */
+    private static void erzeugeText(Path text, int anzahl) throws IOException
+    {
+        try (BufferedWriter aus = Files.newBufferedWriter(text,
+                StandardCharsets.UTF_8))
+        {
+            for (int s = 0; s < SAELE; s++)
+            {
+                aus.write("saal;Saal " + (s + 1) + ";" + (10 + s) + ";"
+                        + (16 + s) + "\n");
+            }
+            for (int f = 0; f < FILME; f++)
+            {
+                aus.write("film;Film " + f + ";" + (90 + f % 60)
+                        + ";FSK12;nein\n");
+            }
+            int epochentag = new Datum(1, 1, 2000).getEpochentag();
+            int proTag = SAELE * VORSTELLUNGEN_PRO_SAAL;
+            for (int i = 0; i < anzahl; i++)
+            {
+                Datum datum = Datum.ausEpochentag(epochentag + i / proTag);
+                int nummer = i % proTag;
+                int stunde = 12 + 2 * (nummer / SAELE);
+                aus.write("vorstellung;Saal " + (nummer % SAELE + 1)
+                        + ";Film " + (i % FILME) + ";"
+                        + datum.getFormatiertenString() + ";" + stunde
+                        + ":00;" + (stunde + 1) + ":50;" + (800 + i % 5 * 100)
+                        + "\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Misst den Speicherbedarf einer Vorstellung in einem Kinosaal mit 20 Reihen
+ * zu je 25 Sitzen. Zum Vergleich wird der Speicherbedarf der früheren
+ * Platzbelegung als boolean[][] gemessen.
+ * 
+ * Aufruf: java -Xmx1g de.uni_hamburg.informatik.swt.se2.kino.benchmark.SpeicherbedarfBenchmark
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class SpeicherbedarfBenchmark
+{
+    private static final int ANZAHL = 100_000;
+    private static final int REIHEN = 20;
+    private static final int SITZE = 25;
+
+    // Hält die gemessenen Objekte erreichbar, bis der Speicher gemessen ist.
+    private static Object _gemessen;
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args die Aufrufparameter (werden ignoriert).
+     */
+    public static void main(String[] args)
+    {
+        Kinosaal saal = new Kinosaal("Saal 1", REIHEN, SITZE);
+        Film film = new Film("Rio", 96, FSK.FSK0, false);
+        Uhrzeit anfang = new Uhrzeit(17, 30);
+        Uhrzeit ende = new Uhrzeit(20, 0);
+        Datum datum = Datum.heute();
+
+        long vorher = belegterSpeicher();
+        boolean[][][] alt = new boolean[ANZAHL][][];
+        for (int i = 0; i < ANZAHL; i++)
+        {
+            alt[i] = new boolean[REIHEN][SITZE];
+        }
+        _gemessen = alt;
+        long alterBedarf = belegterSpeicher() - vorher;
+        System.out.println("boolean[" + REIHEN + "][" + SITZE + "]: "
+                + (alterBedarf / ANZAHL) + " Bytes pro Vorstellung");
+        alt = null;
+        _gemessen = null;
+
+        vorher = belegterSpeicher();
+        long[][] neu = new long[ANZAHL][];
+        for (int i = 0; i < ANZAHL; i++)
+        {
+            // Zwei Bits pro Sitz, also 32 Sitze pro long-Wort.
+            neu[i] = new long[REIHEN * ((SITZE + 31) / 32)];
+        }
+        _gemessen = neu;
+        long neuerBedarf = belegterSpeicher() - vorher;
+        System.out.println("long[] Belegung:   " + (neuerBedarf / ANZAHL)
+                + " Bytes pro Vorstellung");
+        neu = null;
+        _gemessen = null;
+
+        vorher = belegterSpeicher();
+        Vorstellung[] vorstellungen = new Vorstellung[ANZAHL];
+        for (int i = 0; i < ANZAHL; i++)
+        {
+            vorstellungen[i] = new Vorstellung(saal, film, anfang, ende, datum,
+                    795);
+        }
+        _gemessen = vorstellungen;
+        long gesamtBedarf = belegterSpeicher() - vorher;
+        System.out.println("Vorstellung gesamt: " + (gesamtBedarf / ANZAHL)
+                + " Bytes pro Vorstellung (" + vorstellungen.length
+                + " Vorstellungen)");
+    }
+
+    /**
+     * Gibt den derzeit belegten Heap-Speicher nach einer Garbage Collection
+     * zurück.
+     */
+    private static long belegterSpeicher()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
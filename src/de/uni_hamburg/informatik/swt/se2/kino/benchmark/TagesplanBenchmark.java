@@ -0,0 +1,112 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kino;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Misst, wie schnell ein Kino mit zehn Jahren Programm im Speicher die
+ * Tagespläne zufälliger Tage nachschlägt und ihre Vorstellungen liest, mit
+ * einem Thread und mit mehreren Threads gleichzeitig.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.benchmark.TagesplanBenchmark [threads]
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class TagesplanBenchmark
+{
+    private static final int TAGE = 3650;
+    private static final int VORSTELLUNGEN_PRO_TAG = 8;
+    private static final int ABFRAGEN = 5000000;
+    private static final int WIEDERHOLUNGEN = 5;
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args optional die Anzahl der Threads.
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        Kinosaal saal = new Kinosaal("Saal 1", 10, 20);
+        Film film = new Film("Film", 100, FSK.FSK0, false);
+        Datum erster = new Datum(1, 1, 2020);
+        List<Vorstellung> vorstellungen = new ArrayList<>();
+        Datum[] tage = new Datum[TAGE];
+        for (int tag = 0; tag < TAGE; tag++)
+        {
+            tage[tag] = Datum.ausEpochentag(erster.getEpochentag() + tag);
+            for (int v = 0; v < VORSTELLUNGEN_PRO_TAG; v++)
+            {
+                vorstellungen.add(new Vorstellung(saal, film, new Uhrzeit(
+                        10 + v, 0), new Uhrzeit(11 + v, 50), tage[tag], 900));
+            }
+        }
+        Kino kino = new Kino(new Kinosaal[] { saal },
+                vorstellungen.toArray(new Vorstellung[0]));
+
+        for (int w = 0; w < WIEDERHOLUNGEN; w++)
+        {
+            long einzeln = miss(kino, tage, 1);
+            long parallel = miss(kino, tage, threads);
+            System.out.printf(
+                    "1 Thread: %6.1f ns pro Abfrage, %d Threads: %6.1f ns pro Abfrage%n",
+                    (double) einzeln / ABFRAGEN, threads, (double) parallel
+                            / ABFRAGEN);
+        }
+    }
+
+    /**
+     * Verteilt die Abfragen auf die angegebene Anzahl Threads und gibt die
+     * gesamte Laufzeit in Nanosekunden zurück.
+     */
+    private static long miss(Kino kino, Datum[] tage, int threads)
+            throws InterruptedException
+    {
+        Thread[] arbeiter = new Thread[threads];
+        long[] summen = new long[threads];
+        for (int t = 0; t < threads; t++)
+        {
+            int nummer = t;
+            arbeiter[t] = new Thread(() -> {
+                int zufall = 17 + nummer;
+                long summe = 0;
+                for (int i = nummer; i < ABFRAGEN; i += threads)
+                {
+                    zufall = zufall * 1103515245 + 12345;
+                    Datum tag = tage[(zufall >>> 1) % TAGE];
+                    summe += kino.getTagesplan(tag).getVorstellungen().size();
+                }
+                summen[nummer] = summe;
+            });
+        }
+        long anfang = System.nanoTime();
+        for (Thread thread : arbeiter)
+        {
+            thread.start();
+        }
+        for (Thread thread : arbeiter)
+        {
+            thread.join();
+        }
+        long dauer = System.nanoTime() - anfang;
+        long summe = 0;
+        for (long s : summen)
+        {
+            summe += s;
+        }
+        if (summe != (long) ABFRAGEN * VORSTELLUNGEN_PRO_TAG)
+        {
+            throw new IllegalStateException("Falsch gezählt: " + summe);
+        }
+        return dauer;
+    }
+}
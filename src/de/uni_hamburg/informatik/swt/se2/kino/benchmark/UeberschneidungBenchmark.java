@@ -0,0 +1,110 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kino;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Misst, wie lange ein Kino braucht, um ein Programm auf Überschneidungen
+ * zu prüfen: Jede Vorstellung wird vor dem Hinzufügen geprüft, und danach
+ * wird das ganze Programm noch einmal geprüft. Jeder Saal zeigt sechs
+ * Vorstellungen am Tag, die letzte endet nach Mitternacht. Zum Schluss wird
+ * gemessen, wie schnell das Kino zu einem Zeitpunkt die laufende Vorstellung
+ * eines Saals findet.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.benchmark.UeberschneidungBenchmark [jahre]
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class UeberschneidungBenchmark
+{
+    private static final int SAELE = 20;
+    private static final int VORSTELLUNGEN_PRO_TAG = 6;
+    private static final int ABFRAGEN = 1000000;
+    private static final int WIEDERHOLUNGEN = 5;
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args optional die Anzahl der Jahre.
+     */
+    public static void main(String[] args)
+    {
+        int jahre = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        Kinosaal[] saele = new Kinosaal[SAELE];
+        for (int s = 0; s < SAELE; s++)
+        {
+            saele[s] = new Kinosaal("Saal " + (s + 1), 15, 20);
+        }
+        Film film = new Film("Film", 140, FSK.FSK12, true);
+        int ersterTag = new Datum(1, 1, 2025).getEpochentag();
+        int tage = 365 * jahre;
+        Vorstellung[] vorstellungen = new Vorstellung[tage * SAELE
+                * VORSTELLUNGEN_PRO_TAG];
+        int anzahl = 0;
+        for (int tag = 0; tag < tage; tag++)
+        {
+            Datum datum = Datum.ausEpochentag(ersterTag + tag);
+            for (Kinosaal saal : saele)
+            {
+                for (int v = 0; v < VORSTELLUNGEN_PRO_TAG; v++)
+                {
+                    // 11:00, 13:30, ... 23:30; die letzte endet um 1:50.
+                    int anfang = 11 * 60 + v * 150;
+                    int ende = (anfang + 140) % (24 * 60);
+                    vorstellungen[anzahl++] = new Vorstellung(saal, film,
+                            new Uhrzeit(anfang / 60, anfang % 60), new Uhrzeit(
+                                    ende / 60, ende % 60), datum, 900);
+                }
+            }
+        }
+
+        for (int w = 0; w < WIEDERHOLUNGEN; w++)
+        {
+            long anfang = System.nanoTime();
+            Kino geprueft = new Kino(saele, vorstellungen);
+            long aufbauen = System.nanoTime() - anfang;
+
+            anfang = System.nanoTime();
+            int ueberschneidungen = 0;
+            for (Vorstellung vorstellung : vorstellungen)
+            {
+                if (geprueft.getUeberschneidung(vorstellung) != null)
+                {
+                    ueberschneidungen++;
+                }
+            }
+            long pruefen = System.nanoTime() - anfang;
+
+            anfang = System.nanoTime();
+            int laufend = 0;
+            int zufall = 17;
+            for (int i = 0; i < ABFRAGEN; i++)
+            {
+                zufall = zufall * 1103515245 + 12345;
+                int minute = (zufall >>> 1) % (tage * 24 * 60);
+                if (geprueft.getLaufendeVorstellung(saele[i % SAELE], Datum
+                        .ausEpochentag(ersterTag + minute / (24 * 60)),
+                        new Uhrzeit(minute / 60 % 24, minute % 60)) != null)
+                {
+                    laufend++;
+                }
+            }
+            long nachschlagen = System.nanoTime() - anfang;
+
+            if (ueberschneidungen != 0)
+            {
+                throw new IllegalStateException("Falsch geprüft");
+            }
+            System.out.printf(
+                    "%,d Vorstellungen: Aufbauen mit Prüfung %,6.0f ms, ganzes Programm prüfen %,6.0f ms, laufende Vorstellung %5.0f ns (%d%% belegt)%n",
+                    anzahl, aufbauen / 1e6, pruefen / 1e6, (double) nachschlagen
+                            / ABFRAGEN, 100L * laufend / ABFRAGEN);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kino;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Verkaufsjournal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Misst, wie lange Kassen auf einen Verkauf warten, während das
+ * Verkaufsjournal verdichtet wird. Mehrere Kassen verkaufen und stornieren
+ * fortlaufend Plätze in vielen Vorstellungen; in einer ersten Runde ohne, in
+ * einer zweiten mit ständigem Verdichten. Ausgegeben werden Median, 99. Perzentil
+ * und Maximum der Dauer eines Verkaufs, dazu Größe des Journals und Dauer des
+ * Verdichtens. Die Werte hängen stark vom Dateisystem ab.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.benchmark.VerdichtungBenchmark [anzahlVorstellungen]
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class VerdichtungBenchmark
+{
+    private static final int KASSEN = 4;
+    private static final int VERKAEUFE_PRO_KASSE = 5000;
+
+    private static final Kinosaal SAAL = new Kinosaal("Saal 1", 10, 20);
+    private static final Film FILM = new Film("Thor", 115, FSK.FSK12, false);
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args optional die Anzahl der Vorstellungen.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int anzahl = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        Vorstellung[] vorstellungen = new Vorstellung[anzahl];
+        Datum datum = new Datum(1, 1, 2025);
+        for (int i = 0; i < anzahl; i++)
+        {
+            if (i > 0 && i % 10 == 0)
+            {
+                datum = datum.naechsterTag();
+            }
+            vorstellungen[i] = new Vorstellung(SAAL, FILM, new Uhrzeit(
+                    10 + i % 10, 0), new Uhrzeit(11 + i % 10, 55), datum, 995);
+        }
+        Kino kino = new Kino(new Kinosaal[] { SAAL }, vorstellungen);
+        Path datei = Files.createTempFile("verkaeufe", ".journal");
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+
+        // Aufwärmen und das Journal wachsen lassen.
+        verkaufe(vorstellungen, journal, false);
+
+        verkaufe(vorstellungen, journal, false);
+        verkaufe(vorstellungen, journal, true);
+        journal.schliesse();
+        Files.delete(datei);
+    }
+
+    /**
+     * Lässt die Kassen verkaufen und stornieren, verdichtet auf Wunsch
+     * währenddessen fortlaufend und gibt die Messwerte aus.
+     */
+    private static void verkaufe(Vorstellung[] vorstellungen,
+            Verkaufsjournal journal, boolean verdichten) throws Exception
+    {
+        long[][] dauern = new long[KASSEN][VERKAEUFE_PRO_KASSE];
+        List<Thread> kassen = new ArrayList<>();
+        for (int k = 0; k < KASSEN; k++)
+        {
+            int kasse = k;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < VERKAEUFE_PRO_KASSE; i++)
+                {
+                    Vorstellung vorstellung = vorstellungen[(i * 7919 + kasse)
+                            % vorstellungen.length];
+                    Platz platz = new Platz(kasse, i % 20);
+                    long anfang = System.nanoTime();
+                    if (!vorstellung.verkaufePlatzWennFrei(platz)
+                            && !vorstellung.stornierePlatz(platz))
+                    {
+                        throw new IllegalStateException("Falsch storniert");
+                    }
+                    dauern[kasse][i] = System.nanoTime() - anfang;
+                }
+            });
+            kassen.add(thread);
+        }
+
+        AtomicBoolean fertig = new AtomicBoolean();
+        long[] verdichtung = new long[2];
+        Thread verdichter = new Thread(() -> {
+            while (verdichten && !fertig.get())
+            {
+                long anfang = System.nanoTime();
+                try
+                {
+                    journal.verdichte();
+                }
+                catch (IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+                verdichtung[0]++;
+                verdichtung[1] += System.nanoTime() - anfang;
+            }
+        });
+        long vorher = journal.getAnzahlSynchronisierungen();
+        for (Thread kasse : kassen)
+        {
+            kasse.start();
+        }
+        verdichter.start();
+        for (Thread kasse : kassen)
+        {
+            kasse.join();
+        }
+        fertig.set(true);
+        verdichter.join();
+
+        long[] alle = Arrays.stream(dauern).flatMapToLong(Arrays::stream)
+                .sorted().toArray();
+        System.out.printf(
+                "%s: Median %6.2f ms, 99%% %6.2f ms, Maximum %6.2f ms, %,d Synchronisierungen",
+                verdichten ? "mit Verdichten " : "ohne Verdichten",
+                alle[alle.length / 2] / 1e6,
+                alle[alle.length * 99 / 100] / 1e6,
+                alle[alle.length - 1] / 1e6,
+                journal.getAnzahlSynchronisierungen() - vorher);
+        if (verdichten)
+        {
+            System.out.printf(", %d-mal verdichtet in je %.1f ms",
+                    verdichtung[0], verdichtung[1] / 1e6 / verdichtung[0]);
+        }
+        System.out.println();
+    }
+}
@@ -0,0 +1,119 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Misst den Durchsatz von Verkäufen und Stornierungen, wenn 1 bis N Kassen
+ * gleichzeitig Plätze derselben Vorstellung verkaufen. Jede Kasse arbeitet
+ * auf eigenen Reihen, so dass sich die Kassen nur über die gemeinsame
+ * Vorstellung berühren.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.benchmark.VerkaufsdurchsatzBenchmark [maxKassen]
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class VerkaufsdurchsatzBenchmark
+{
+    private static final int SITZE_PRO_REIHE = 64;
+    private static final int DURCHLAEUFE = 20_000;
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args optional die maximale Anzahl Kassen (Threads).
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        int maxKassen = args.length > 0 ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors();
+
+        // Aufwärmen, damit der JIT-Compiler die Verkaufsmethoden übersetzt.
+        miss(maxKassen);
+
+        for (int kassen = 1; kassen <= maxKassen; kassen++)
+        {
+            double durchsatz = miss(kassen);
+            System.out.printf("%2d Kassen: %,14.0f Verkäufe/s%n", kassen,
+                    durchsatz);
+        }
+    }
+
+    /**
+     * Lässt die angegebene Anzahl Kassen gleichzeitig verkaufen und stornieren
+     * und gibt die Anzahl der Verkäufe pro Sekunde zurück.
+     */
+    private static double miss(int anzahlKassen) throws InterruptedException
+    {
+        Kinosaal saal = new Kinosaal("Saal", anzahlKassen, SITZE_PRO_REIHE);
+        Vorstellung vorstellung = new Vorstellung(saal,
+                new Film("Thor", 115, FSK.FSK12, false), new Uhrzeit(20, 0),
+                new Uhrzeit(22, 0), Datum.heute(), 995);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> kassen = new ArrayList<>();
+        for (int k = 0; k < anzahlKassen; k++)
+        {
+            Platz[] reihe = new Platz[SITZE_PRO_REIHE];
+            for (int sitz = 0; sitz < SITZE_PRO_REIHE; sitz++)
+            {
+                reihe[sitz] = new Platz(k, sitz);
+            }
+            Thread kasse = new Thread(() -> verkaufe(vorstellung, reihe, start));
+            kassen.add(kasse);
+            kasse.start();
+        }
+
+        long anfang = System.nanoTime();
+        start.countDown();
+        for (Thread kasse : kassen)
+        {
+            kasse.join();
+        }
+        long dauer = System.nanoTime() - anfang;
+
+        long verkaeufe = (long) anzahlKassen * DURCHLAEUFE * SITZE_PRO_REIHE;
+        return verkaeufe * 1e9 / dauer;
+    }
+
+    /**
+     * Verkauft und storniert wiederholt alle angegebenen Plätze.
+     */
+    private static void verkaufe(Vorstellung vorstellung, Platz[] plaetze,
+            CountDownLatch start)
+    {
+        try
+        {
+            start.await();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (int i = 0; i < DURCHLAEUFE; i++)
+        {
+            for (Platz platz : plaetze)
+            {
+                vorstellung.verkaufePlatzWennFrei(platz);
+            }
+            for (Platz platz : plaetze)
+            {
+                if (!vorstellung.stornierePlatz(platz))
+                {
+                    throw new IllegalStateException("Falsch storniert");
+                }
+            }
+        }
+    }
+}
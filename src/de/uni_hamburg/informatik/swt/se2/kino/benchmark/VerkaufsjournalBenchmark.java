@@ -0,0 +1,120 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kino;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Verkaufsjournal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Misst den Durchsatz von Verkäufen mit Verkaufsjournal, wenn 1 bis N Kassen
+ * gleichzeitig Plätze verkaufen. Jeder Verkauf kehrt erst zurück, wenn er auf
+ * der Platte gesichert ist. Ausgegeben wird auch, wie viele Verkäufe sich im
+ * Mittel eine Synchronisierung der Datei teilen. Das Journal wird in einer
+ * temporären Datei angelegt, die Werte hängen also stark vom Dateisystem ab.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.benchmark.VerkaufsjournalBenchmark [maxKassen]
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class VerkaufsjournalBenchmark
+{
+    private static final int SITZE_PRO_REIHE = 64;
+    private static final int REIHEN_PRO_KASSE = 8;
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args optional die maximale Anzahl Kassen (Threads).
+     */
+    public static void main(String[] args) throws IOException,
+            InterruptedException
+    {
+        int maxKassen = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+
+        // Aufwärmen, damit der JIT-Compiler die Verkaufsmethoden übersetzt.
+        miss(2);
+
+        for (int kassen = 1; kassen <= maxKassen; kassen *= 2)
+        {
+            miss(kassen);
+        }
+    }
+
+    /**
+     * Lässt die angegebene Anzahl Kassen gleichzeitig Platz für Platz
+     * verkaufen und gibt Durchsatz und Verkäufe pro Synchronisierung aus.
+     */
+    private static void miss(int anzahlKassen) throws IOException,
+            InterruptedException
+    {
+        Kinosaal saal = new Kinosaal("Saal", anzahlKassen * REIHEN_PRO_KASSE,
+                SITZE_PRO_REIHE);
+        Vorstellung vorstellung = new Vorstellung(saal,
+                new Film("Thor", 115, FSK.FSK12, false), new Uhrzeit(20, 0),
+                new Uhrzeit(21, 55), Datum.heute(), 995);
+        Kino kino = new Kino(new Kinosaal[] { saal },
+                new Vorstellung[] { vorstellung });
+        Path datei = Files.createTempFile("verkaeufe", ".journal");
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+        long vorher = journal.getAnzahlSynchronisierungen();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> kassen = new ArrayList<>();
+        for (int k = 0; k < anzahlKassen; k++)
+        {
+            int ersteReihe = k * REIHEN_PRO_KASSE;
+            Thread kasse = new Thread(() -> {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+                for (int reihe = ersteReihe; reihe < ersteReihe
+                        + REIHEN_PRO_KASSE; reihe++)
+                {
+                    for (int sitz = 0; sitz < SITZE_PRO_REIHE; sitz++)
+                    {
+                        vorstellung.verkaufePlatzWennFrei(new Platz(reihe,
+                                sitz));
+                    }
+                }
+            });
+            kasse.start();
+            kassen.add(kasse);
+        }
+
+        long anfang = System.nanoTime();
+        start.countDown();
+        for (Thread kasse : kassen)
+        {
+            kasse.join();
+        }
+        long dauer = System.nanoTime() - anfang;
+        long synchronisierungen = journal.getAnzahlSynchronisierungen()
+                - vorher;
+        journal.schliesse();
+        Files.delete(datei);
+
+        int verkaeufe = anzahlKassen * REIHEN_PRO_KASSE * SITZE_PRO_REIHE;
+        System.out.printf(
+                "%2d Kassen: %,10.0f Verkäufe/s, %5.1f Verkäufe pro Synchronisierung%n",
+                anzahlKassen, verkaeufe / (dauer / 1e9), verkaeufe
+                        / (double) synchronisierungen);
+    }
+}
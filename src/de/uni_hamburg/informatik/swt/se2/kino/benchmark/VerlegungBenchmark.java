@@ -0,0 +1,97 @@
+package de.uni_hamburg.informatik.swt.se2.kino.benchmark;
+
+import java.util.Random;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kino;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Verlegung;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Misst die Verlegung einer Vorstellung mit 500 verkauften Plätzen in einen
+ * größeren Saal und in einen gleich großen Saal mit anderem Zuschnitt. Die
+ * Plätze sind in Gruppen von ein bis sechs Plätzen verkauft, wie sie an der
+ * Kasse entstehen.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.benchmark.VerlegungBenchmark
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class VerlegungBenchmark
+{
+    private static final int VERKAUFT = 500;
+    private static final int DURCHLAEUFE = 200;
+
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args die Aufrufparameter (werden ignoriert).
+     */
+    public static void main(String[] args)
+    {
+        Kinosaal alt = new Kinosaal("Alt", 20, 28);
+        Kinosaal groesser = new Kinosaal("Größer", 25, 30);
+        Kinosaal anders = new Kinosaal("Anders", 14, 40);
+
+        miss("Verlegung in größeren Saal", alt, groesser);
+        miss("Verlegung in anders geschnittenen Saal", alt, anders);
+    }
+
+    /**
+     * Misst die Verlegung aus dem alten in den neuen Saal und gibt die
+     * mittlere Dauer und die Anzahl nicht verlegter Plätze aus.
+     */
+    private static void miss(String name, Kinosaal alt, Kinosaal neu)
+    {
+        long dauer = 0;
+        int nichtVerlegt = 0;
+        for (int durchlauf = 0; durchlauf < DURCHLAEUFE; durchlauf++)
+        {
+            Vorstellung vorstellung = erzeugeVorstellung(alt, durchlauf);
+            Kino kino = new Kino(new Kinosaal[] { alt, neu },
+                    new Vorstellung[] { vorstellung });
+            long start = System.nanoTime();
+            Verlegung verlegung = kino.verlegeVorstellung(vorstellung, neu);
+            dauer += System.nanoTime() - start;
+            nichtVerlegt += verlegung.getNichtVerlegtePlaetze().size();
+        }
+        System.out.printf("%s: %.3f ms pro Vorstellung, %.1f nicht verlegt%n",
+                name, dauer / 1e6 / DURCHLAEUFE, nichtVerlegt
+                        / (double) DURCHLAEUFE);
+    }
+
+    /**
+     * Erzeugt eine Vorstellung und verkauft zufällig Gruppen, bis 500 Plätze
+     * verkauft sind.
+     */
+    private static Vorstellung erzeugeVorstellung(Kinosaal saal, int seed)
+    {
+        Vorstellung vorstellung = new Vorstellung(saal, new Film("Thor", 115,
+                FSK.FSK12, false), new Uhrzeit(20, 0), new Uhrzeit(21, 55),
+                Datum.heute(), 995);
+        Random zufall = new Random(seed);
+        int verkauft = 0;
+        while (verkauft < VERKAUFT)
+        {
+            int reihe = zufall.nextInt(saal.getAnzahlReihen());
+            int sitz = zufall.nextInt(saal.getAnzahlSitzeProReihe());
+            int laenge = 1 + zufall.nextInt(6);
+            for (int i = 0; i < laenge && verkauft < VERKAUFT
+                    && sitz + i < saal.getAnzahlSitzeProReihe(); i++)
+            {
+                if (vorstellung.verkaufePlatzWennFrei(new Platz(reihe,
+                        sitz + i)))
+                {
+                    verkauft++;
+                }
+            }
+        }
+        return vorstellung;
+    }
+}
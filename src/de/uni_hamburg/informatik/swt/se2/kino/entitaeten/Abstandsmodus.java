@@ -0,0 +1,322 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Abstandsregel;
+
+/**
+ * Der Abstandsmodus hält die Nachbarn verkaufter Sitze nach einer
+ * {@link Abstandsregel} frei, indem er sie blockiert. Die Sperrzone einer
+ * Reihe entsteht aus den verkauften Sitzen durch bitweises Ausdehnen: In der
+ * Reihe werden die Masken um bis zu {@link Abstandsregel#getSitze()} Sitze
+ * verschoben, über die Reihen hinweg werden die gedehnten Masken der
+ * benachbarten Reihen verodert.
+ * 
+ * Solange der Modus aktiv ist, laufen alle Wechsel außer dem Reservieren
+ * freier Sitze nacheinander über diesen Modus. Ein Verkauf in der Sperrzone wird
+ * als Konflikt abgelehnt. Nach jedem Wechsel werden nur die gedehnten Masken
+ * der geänderten Reihen und die Sperren der Reihen in deren Reichweite neu
+ * berechnet. Blockierungen, die nicht vom Modus stammen, bleiben erhalten.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+final class Abstandsmodus
+{
+    private final Platzbelegung _belegung;
+    private final Abstandsregel _regel;
+    private final int _anzahlReihen;
+    private final int _woerterProReihe;
+
+    // Pro Reihe die verkauften Sitze, in der Reihe um den Abstand gedehnt.
+    private final long[][] _gedehnt;
+
+    // Pro Reihe die Sitze, die dieser Modus selbst blockiert hat.
+    private final long[][] _gesperrt;
+
+    // Pro Reihe die Sitze, die weder verkauft noch blockiert sind.
+    private final int[] _verkaufbar;
+
+    /**
+     * Erzeugt einen noch nicht aktiven Abstandsmodus.
+     * 
+     * @param belegung die Platzbelegung.
+     * @param regel die Abstandsregel.
+     * 
+     * @require belegung != null
+     * @require regel != null
+     */
+    Abstandsmodus(Platzbelegung belegung, Abstandsregel regel)
+    {
+        assert belegung != null : "Vorbedingung verletzt: belegung != null";
+        assert regel != null : "Vorbedingung verletzt: regel != null";
+
+        _belegung = belegung;
+        _regel = regel;
+        _woerterProReihe = belegung.getWoerterProReihe();
+        _anzahlReihen = belegung.getAnzahlWoerter() / _woerterProReihe;
+        _gedehnt = new long[_anzahlReihen][_woerterProReihe];
+        _gesperrt = new long[_anzahlReihen][_woerterProReihe];
+        _verkaufbar = new int[_anzahlReihen];
+    }
+
+    /**
+     * Gibt die Abstandsregel dieses Modus zurück.
+     */
+    Abstandsregel getRegel()
+    {
+        return _regel;
+    }
+
+    /**
+     * Meldet den Modus bei der Platzbelegung an und blockiert die Nachbarn
+     * aller bereits verkauften Sitze.
+     */
+    synchronized void aktiviere()
+    {
+        _belegung.setAbstandsmodus(this);
+        aktualisiere(0, _anzahlReihen - 1);
+    }
+
+    /**
+     * Meldet den Modus bei der Platzbelegung ab und gibt alle Sitze frei, die
+     * er blockiert hat.
+     */
+    synchronized void deaktiviere()
+    {
+        _belegung.setAbstandsmodus(null);
+        for (int reihe = 0; reihe < _anzahlReihen; reihe++)
+        {
+            for (int i = 0; i < _woerterProReihe; i++)
+            {
+                wechsle(reihe * _woerterProReihe + i, _gesperrt[reihe][i],
+                        Platzbelegung.BLOCKIERT, Platzbelegung.FREI);
+                _gesperrt[reihe][i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der Sitze zurück, die weder verkauft noch blockiert
+     * sind. Die Werte pro Reihe werden bei jeder Neuberechnung der Sperren
+     * mitgeführt, so dass hier nur über die Reihen summiert wird.
+     */
+    synchronized int getAnzahlVerkaufbarePlaetze()
+    {
+        int anzahl = 0;
+        for (int reihe = 0; reihe < _anzahlReihen; reihe++)
+        {
+            anzahl += _verkaufbar[reihe];
+        }
+        return anzahl;
+    }
+
+    /**
+     * Wechselt den Zustand innerhalb eines Worts wie
+     * {@link Platzbelegung#wechsleWort(int, long, int, int)}. Ein Verkauf von
+     * Sitzen in der Sperrzone wird abgelehnt.
+     * 
+     * @return die Sitze, die nicht im Ausgangszustand oder in der Sperrzone
+     *         waren.
+     */
+    synchronized long wechsleWort(int index, long maske, int von, int nach)
+    {
+        int reihe = index / _woerterProReihe;
+        long konflikte = 0;
+        if (nach == Platzbelegung.VERKAUFT)
+        {
+            konflikte = maske & sperrzone(reihe)[index % _woerterProReihe];
+        }
+        if (konflikte == 0)
+        {
+            konflikte = _belegung.wechsleWortDirekt(index, maske, von, nach);
+            if (konflikte == 0)
+            {
+                aktualisiere(reihe, reihe);
+            }
+        }
+        return konflikte;
+    }
+
+    /**
+     * Wechselt den Zustand aller Sitze der Maske wie
+     * {@link Platzbelegung#wechsleZustand(long[], int, int)}. Ein Verkauf,
+     * der Sitze in der Sperrzone enthält, wird ganz abgelehnt.
+     * 
+     * @return <code>null</code>, falls gewechselt wurde, sonst die Sitze, die
+     *         nicht im Ausgangszustand oder in der Sperrzone waren.
+     */
+    synchronized long[] wechsleZustand(long[] maske, int von, int nach)
+    {
+        long[] konflikte = null;
+        int ersteReihe = _anzahlReihen;
+        int letzteReihe = -1;
+        for (int i = 0; i < maske.length; i++)
+        {
+            if (maske[i] != 0)
+            {
+                int reihe = i / _woerterProReihe;
+                ersteReihe = Math.min(ersteReihe, reihe);
+                letzteReihe = reihe;
+                if (nach == Platzbelegung.VERKAUFT)
+                {
+                    long sperre = maske[i]
+                            & sperrzone(reihe)[i % _woerterProReihe];
+                    if (sperre != 0)
+                    {
+                        if (konflikte == null)
+                        {
+                            konflikte = new long[maske.length];
+                        }
+                        konflikte[i] = sperre;
+                    }
+                }
+            }
+        }
+        if (konflikte == null)
+        {
+            konflikte = _belegung.wechsleZustandDirekt(maske, von, nach);
+            if (konflikte == null && letzteReihe >= 0)
+            {
+                aktualisiere(ersteReihe, letzteReihe);
+            }
+        }
+        return konflikte;
+    }
+
+    /**
+     * Wechselt alle Sitze der Maske, die den Ausgangszustand haben, wie
+     * {@link Platzbelegung#wechsleAlle(long[], int, int)} und berechnet
+     * danach alle Sperren neu. Sollen freie Sitze blockiert werden, die der
+     * Modus schon blockiert hat, gibt er sie vorher frei, damit sie wie alle
+     * anderen festgehalten werden und auch außerhalb der Sperrzone blockiert
+     * bleiben.
+     * 
+     * @return die Sitze, die gewechselt wurden.
+     */
+    synchronized long[] wechsleAlle(long[] maske, int von, int nach)
+    {
+        if (von == Platzbelegung.FREI && nach == Platzbelegung.BLOCKIERT)
+        {
+            for (int i = 0; i < _anzahlReihen * _woerterProReihe; i++)
+            {
+                long bereich = (maske != null) ? maske[i] : -1L;
+                long[] gesperrt = _gesperrt[i / _woerterProReihe];
+                gesperrt[i % _woerterProReihe] &= ~wechsle(i,
+                        gesperrt[i % _woerterProReihe] & bereich,
+                        Platzbelegung.BLOCKIERT, Platzbelegung.FREI);
+            }
+        }
+        long[] gewechselt = _belegung.wechsleAlleDirekt(maske, von, nach);
+        if (nach == Platzbelegung.BLOCKIERT)
+        {
+            for (int i = 0; i < gewechselt.length; i++)
+            {
+                long bereich = (maske != null) ? maske[i] : -1L;
+                _gesperrt[i / _woerterProReihe][i % _woerterProReihe] &= ~bereich;
+            }
+        }
+        aktualisiere(0, _anzahlReihen - 1);
+        return gewechselt;
+    }
+
+    /**
+     * Gibt die blockierten Sitze eines Worts zurück, die nicht dieser Modus
+     * blockiert hat.
+     */
+    synchronized long blockierteSitze(int index)
+    {
+        return _belegung.sitzeImZustand(index, Platzbelegung.BLOCKIERT)
+                & ~_gesperrt[index / _woerterProReihe][index % _woerterProReihe];
+    }
+
+    /**
+     * Berechnet die gedehnten Masken der angegebenen Reihen und danach die
+     * Sperren aller Reihen in deren Reichweite neu.
+     */
+    private void aktualisiere(int ersteReihe, int letzteReihe)
+    {
+        for (int reihe = ersteReihe; reihe <= letzteReihe; reihe++)
+        {
+            _gedehnt[reihe] = Reihenmasken.dehne(
+                    _belegung.sitzeDerReiheImZustand(reihe,
+                            Platzbelegung.VERKAUFT), _regel.getSitze());
+        }
+        int von = Math.max(0, ersteReihe - _regel.getReihen());
+        int bis = Math.min(_anzahlReihen - 1, letzteReihe + _regel.getReihen());
+        for (int reihe = von; reihe <= bis; reihe++)
+        {
+            sperre(reihe);
+        }
+    }
+
+    /**
+     * Gleicht die Sperren einer Reihe mit ihrer Sperrzone ab: Sitze, die der
+     * Modus blockiert hat und die nicht mehr in der Zone liegen, werden frei,
+     * freie Sitze in der Zone werden blockiert.
+     */
+    private void sperre(int reihe)
+    {
+        long[] zone = sperrzone(reihe);
+        long[] frei = _belegung.sitzeDerReiheImZustand(reihe,
+                Platzbelegung.FREI);
+        int erstes = reihe * _woerterProReihe;
+        for (int i = 0; i < _woerterProReihe; i++)
+        {
+            long alt = _gesperrt[reihe][i];
+            long freigegeben = wechsle(erstes + i, alt & ~zone[i],
+                    Platzbelegung.BLOCKIERT, Platzbelegung.FREI);
+            long gesperrt = wechsle(erstes + i, zone[i] & frei[i],
+                    Platzbelegung.FREI, Platzbelegung.BLOCKIERT);
+            _gesperrt[reihe][i] = (alt & ~freigegeben) | gesperrt;
+        }
+        _verkaufbar[reihe] = zaehle(reihe, Platzbelegung.FREI)
+                + zaehle(reihe, Platzbelegung.RESERVIERT);
+    }
+
+    /**
+     * Gibt die Sperrzone einer Reihe zurück, also die gedehnten Masken aller
+     * Reihen im Abstand von höchstens {@link Abstandsregel#getReihen()}
+     * verodert.
+     */
+    private long[] sperrzone(int reihe)
+    {
+        long[] zone = new long[_woerterProReihe];
+        int von = Math.max(0, reihe - _regel.getReihen());
+        int bis = Math.min(_anzahlReihen - 1, reihe + _regel.getReihen());
+        for (int r = von; r <= bis; r++)
+        {
+            Reihenmasken.oder(zone, _gedehnt[r]);
+        }
+        return zone;
+    }
+
+    /**
+     * Wechselt so viele Sitze der Maske wie möglich und gibt die gewechselten
+     * Sitze zurück. Sitze, die nicht mehr im Ausgangszustand sind, etwa weil
+     * sie gerade reserviert wurden, werden übergangen.
+     */
+    private long wechsle(int index, long maske, int von, int nach)
+    {
+        long konflikte;
+        while (maske != 0 && (konflikte = _belegung.wechsleSperreDirekt(index,
+                maske, von, nach)) != 0)
+        {
+            maske &= ~konflikte;
+        }
+        return maske;
+    }
+
+    /**
+     * Zählt die Sitze einer Reihe, die den angegebenen Zustand haben.
+     */
+    private int zaehle(int reihe, int zustand)
+    {
+        int anzahl = 0;
+        int erstes = reihe * _woerterProReihe;
+        for (int i = 0; i < _woerterProReihe; i++)
+        {
+            anzahl += Long.bitCount(_belegung.sitzeImZustand(erstes + i,
+                    zustand));
+        }
+        return anzahl;
+    }
+}
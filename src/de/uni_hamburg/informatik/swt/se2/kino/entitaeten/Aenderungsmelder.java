@@ -0,0 +1,184 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ein Aenderungsmelder sammelt die Änderungen der Platzbelegung einer
+ * Vorstellung und meldet sie an die angemeldeten {@link BelegungsListener}.
+ * 
+ * Der Thread, der Plätze verkauft, legt jede Änderung nur in einer
+ * nebenläufigen Warteschlange ab und plant den Melder beim
+ * {@link Belegungsverteiler} ein, falls er noch nicht eingeplant ist. Das
+ * kostet unabhängig von der Anzahl der Listener gleich viel. Erst der
+ * Verteiler fasst alle bis dahin gesammelten Änderungen pro Reihe zu einem
+ * Event zusammen und benachrichtigt die Listener.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+final class Aenderungsmelder
+{
+    private final Vorstellung _vorstellung;
+    private final Platzbelegung _belegung;
+    private final Belegungsverteiler _verteiler;
+    private final List<BelegungsListener> _listener;
+    private final Queue<Aenderung> _offen;
+
+    // Gibt an, ob der Melder beim Verteiler eingeplant ist.
+    private final AtomicBoolean _geplant;
+
+    /**
+     * Erzeugt einen Melder ohne Listener.
+     * 
+     * @param vorstellung die Vorstellung, die als Quelle der Events gemeldet
+     *            wird.
+     * @param belegung die Platzbelegung der Vorstellung.
+     * @param verteiler der Verteiler, der die Events ausliefert.
+     */
+    Aenderungsmelder(Vorstellung vorstellung, Platzbelegung belegung,
+            Belegungsverteiler verteiler)
+    {
+        _vorstellung = vorstellung;
+        _belegung = belegung;
+        _verteiler = verteiler;
+        _listener = new CopyOnWriteArrayList<>();
+        _offen = new ConcurrentLinkedQueue<>();
+        _geplant = new AtomicBoolean();
+    }
+
+    /**
+     * Erzeugt einen Melder für eine andere Platzbelegung derselben
+     * Vorstellung, der dieselben Listener über denselben Verteiler
+     * benachrichtigt.
+     */
+    Aenderungsmelder fuer(Platzbelegung belegung)
+    {
+        Aenderungsmelder melder = new Aenderungsmelder(_vorstellung, belegung,
+                _verteiler);
+        melder._listener.addAll(_listener);
+        return melder;
+    }
+
+    /**
+     * Meldet einen Listener an.
+     */
+    void addListener(BelegungsListener listener)
+    {
+        _listener.add(listener);
+    }
+
+    /**
+     * Meldet einen Listener ab.
+     */
+    void removeListener(BelegungsListener listener)
+    {
+        _listener.remove(listener);
+    }
+
+    /**
+     * Merkt sich die Änderung der Sitze der Maske in einem Wort.
+     */
+    void merke(int index, long maske)
+    {
+        if (!_listener.isEmpty())
+        {
+            _offen.add(new Aenderung(index, new long[] { maske }));
+            plane();
+        }
+    }
+
+    /**
+     * Merkt sich die Änderung der Sitze der Maske, die ein Wort pro
+     * Belegungswort hat.
+     */
+    void merke(long[] maske)
+    {
+        if (!_listener.isEmpty())
+        {
+            _offen.add(new Aenderung(0, maske.clone()));
+            plane();
+        }
+    }
+
+    /**
+     * Fasst alle gesammelten Änderungen pro Reihe zusammen und meldet sie an
+     * die Listener. Wird vom Verteiler aufgerufen.
+     */
+    void verteile()
+    {
+        // Wird vor dem Leeren der Warteschlange zurückgesetzt, damit eine
+        // Änderung, die danach abgelegt wird, den Melder wieder einplant.
+        _geplant.set(false);
+
+        long[] geaendert = new long[_belegung.getAnzahlWoerter()];
+        Aenderung aenderung;
+        while ((aenderung = _offen.poll()) != null)
+        {
+            for (int i = 0; i < aenderung._maske.length; i++)
+            {
+                geaendert[aenderung._erstesWort + i] |= aenderung._maske[i];
+            }
+        }
+        // Die Version wird erst nach den Änderungen erhöht, die hier
+        // zusammengefasst wurden, ist also mindestens so neu wie sie.
+        long version = _belegung.getVersion();
+
+        int woerterProReihe = _belegung.getWoerterProReihe();
+        for (int reihe = 0; reihe < geaendert.length / woerterProReihe; reihe++)
+        {
+            long[] sitze = null;
+            for (int i = 0; i < woerterProReihe; i++)
+            {
+                long wort = geaendert[reihe * woerterProReihe + i];
+                if (wort != 0)
+                {
+                    if (sitze == null)
+                    {
+                        sitze = new long[(woerterProReihe + 1) / 2];
+                    }
+                    sitze[i / 2] |= wort << (i % 2 * Platzbelegung.SITZE_PRO_WORT);
+                }
+            }
+            if (sitze != null)
+            {
+                BelegungsEvent event = new BelegungsEvent(_vorstellung,
+                        version, reihe, sitze);
+                for (BelegungsListener listener : _listener)
+                {
+                    listener.belegungGeaendert(event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Plant den Melder beim Verteiler ein, sofern er noch nicht eingeplant
+     * ist.
+     */
+    private void plane()
+    {
+        if (_geplant.compareAndSet(false, true))
+        {
+            _verteiler.plane(this);
+        }
+    }
+
+    /**
+     * Eine einzelne Änderung: eine Maske ab dem angegebenen Belegungswort.
+     */
+    private static final class Aenderung
+    {
+        private final int _erstesWort;
+        private final long[] _maske;
+
+        Aenderung(int erstesWort, long[] maske)
+        {
+            _erstesWort = erstesWort;
+            _maske = maske;
+        }
+    }
+}
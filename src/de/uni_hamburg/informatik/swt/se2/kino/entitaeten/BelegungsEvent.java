@@ -0,0 +1,102 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.util.EventObject;
+
+/**
+ * Event, das über die Änderung der Belegung einer Reihe informiert. Es enthält
+ * die Version der Belegung nach der Änderung und eine Bitmaske der Sitze der
+ * Reihe, deren Zustand sich geändert hat: Sitz s hat sich geändert, wenn in
+ * Wort s / 64 das Bit s % 64 gesetzt ist. Den neuen Zustand erfährt man aus
+ * {@link Vorstellung#getBelegungsstand()}.
+ * 
+ * Änderungen, die kurz nacheinander dieselbe Reihe betreffen, werden zu einem
+ * Event zusammengefasst. Ein Gruppenverkauf in einer Reihe führt so zu genau
+ * einem Event.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class BelegungsEvent extends EventObject
+{
+    private final long _version;
+    private final int _reihe;
+    private final long[] _geaenderteSitze;
+
+    /**
+     * Erstellt ein neues BelegungsEvent.
+     * 
+     * @param source die Vorstellung, deren Belegung sich geändert hat.
+     * @param version die Version der Belegung nach der Änderung.
+     * @param reihe die geänderte Reihe.
+     * @param geaenderteSitze die Maske der geänderten Sitze. Sie wird nicht
+     *            kopiert und darf danach nicht mehr verändert werden.
+     */
+    BelegungsEvent(Vorstellung source, long version, int reihe,
+            long[] geaenderteSitze)
+    {
+        super(source);
+        _version = version;
+        _reihe = reihe;
+        _geaenderteSitze = geaenderteSitze;
+    }
+
+    /**
+     * Gibt die Vorstellung zurück, deren Belegung sich geändert hat.
+     */
+    public Vorstellung getVorstellung()
+    {
+        return (Vorstellung) source;
+    }
+
+    /**
+     * Gibt die Version der Belegung zurück, die mindestens alle Änderungen
+     * dieses Events enthält.
+     */
+    public long getVersion()
+    {
+        return _version;
+    }
+
+    /**
+     * Gibt die Reihe zurück, in der sich Sitze geändert haben.
+     */
+    public int getReihe()
+    {
+        return _reihe;
+    }
+
+    /**
+     * Gibt die Maske der geänderten Sitze zurück.
+     * 
+     * @ensure result != null
+     */
+    public long[] getGeaenderteSitze()
+    {
+        return _geaenderteSitze.clone();
+    }
+
+    /**
+     * Prüft, ob sich der angegebene Sitz der Reihe geändert hat.
+     * 
+     * @param sitz der Sitz.
+     * 
+     * @require sitz >= 0
+     */
+    public boolean istSitzGeaendert(int sitz)
+    {
+        assert sitz >= 0 : "Vorbedingung verletzt: sitz >= 0";
+
+        int wort = sitz / Long.SIZE;
+        return wort < _geaenderteSitze.length
+                && (_geaenderteSitze[wort] & (1L << sitz)) != 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BelegungsEvent[source=" + source + ", version=" + _version
+                + ", reihe=" + _reihe + "]";
+    }
+
+    private static final long serialVersionUID = 1L;
+}
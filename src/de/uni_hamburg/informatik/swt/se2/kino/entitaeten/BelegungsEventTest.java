@@ -0,0 +1,112 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BelegungsEventTest
+{
+    private Vorstellung _vorstellung;
+    private Belegungsverteiler _verteiler;
+    private List<BelegungsEvent> _events;
+
+    @Before
+    public void setUp()
+    {
+        _vorstellung = new Vorstellung(new Kinosaal("A", 4, 40), new Film(
+                "Rio", 96, FSK.FSK0, false), new Uhrzeit(17, 30), new Uhrzeit(
+                20, 0), new Datum(11, 7, 2008), 895);
+        _verteiler = new Belegungsverteiler();
+        _events = new ArrayList<>();
+        _vorstellung.addBelegungsListener(_events::add, _verteiler);
+    }
+
+    @Test
+    public void testeGruppenverkaufErgibtEinEvent()
+    {
+        Set<Platz> gruppe = new HashSet<>();
+        for (int sitz = 5; sitz < 35; sitz++)
+        {
+            gruppe.add(new Platz(2, sitz));
+        }
+        _vorstellung.verkaufePlaetze(gruppe);
+        _verteiler.verteile();
+
+        assertEquals(1, _events.size());
+        BelegungsEvent event = _events.get(0);
+        assertSame(_vorstellung, event.getVorstellung());
+        assertEquals(2, event.getReihe());
+        assertEquals(_vorstellung.getBelegungsstand().getVersion(),
+                event.getVersion());
+        assertEquals(((1L << 30) - 1) << 5, event.getGeaenderteSitze()[0]);
+        assertTrue(event.istSitzGeaendert(34));
+        assertFalse(event.istSitzGeaendert(35));
+    }
+
+    @Test
+    public void testeAenderungenWerdenProReiheZusammengefasst()
+    {
+        _vorstellung.verkaufePlatz(new Platz(0, 1));
+        _vorstellung.verkaufePlatz(new Platz(0, 39));
+        _vorstellung.verkaufePlatz(new Platz(3, 0));
+        _vorstellung.stornierePlatz(new Platz(0, 1));
+        assertFalse(_vorstellung.verkaufePlatzWennFrei(new Platz(3, 0)));
+        _verteiler.verteile();
+
+        assertEquals(2, _events.size());
+        BelegungsEvent reihe0 = _events.get(0);
+        assertEquals(0, reihe0.getReihe());
+        assertTrue(reihe0.istSitzGeaendert(1));
+        assertTrue(reihe0.istSitzGeaendert(39));
+        assertFalse(reihe0.istSitzGeaendert(2));
+        assertEquals(3, _events.get(1).getReihe());
+        assertEquals(4, reihe0.getVersion());
+
+        _verteiler.verteile();
+        assertEquals(2, _events.size());
+    }
+
+    @Test
+    public void testeAbgemeldeterListenerWirdNichtBenachrichtigt()
+    {
+        List<BelegungsEvent> andere = new ArrayList<>();
+        BelegungsListener listener = andere::add;
+        _vorstellung.addBelegungsListener(listener, _verteiler);
+        _vorstellung.verkaufePlatz(new Platz(1, 1));
+        _verteiler.verteile();
+        _vorstellung.removeBelegungsListener(listener);
+        _vorstellung.verkaufePlatz(new Platz(1, 2));
+        _verteiler.verteile();
+
+        assertEquals(1, andere.size());
+        assertEquals(2, _events.size());
+    }
+
+    @Test
+    public void testeStandardVerteilerLiefertAus() throws InterruptedException
+    {
+        CountDownLatch geliefert = new CountDownLatch(1);
+        Vorstellung vorstellung = new Vorstellung(new Kinosaal("B", 2, 2),
+                new Film("Rio", 96, FSK.FSK0, false), new Uhrzeit(17, 30),
+                new Uhrzeit(20, 0), new Datum(11, 7, 2008), 895);
+        vorstellung.addBelegungsListener(event -> geliefert.countDown());
+        vorstellung.verkaufePlatz(new Platz(1, 1));
+        assertTrue(geliefert.await(5, TimeUnit.SECONDS));
+    }
+}
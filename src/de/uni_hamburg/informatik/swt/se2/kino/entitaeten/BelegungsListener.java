@@ -0,0 +1,22 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.util.EventListener;
+
+/**
+ * Interface eines Listeners, der über Änderungen der Platzbelegung einer
+ * Vorstellung benachrichtigt wird.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public interface BelegungsListener extends EventListener
+{
+    /**
+     * Wird aufgerufen, wenn sich die Belegung einer Reihe geändert hat. Der
+     * Aufruf erfolgt nicht in dem Thread, der die Plätze verkauft hat, sondern
+     * im Thread des Verteilers.
+     * 
+     * @param event das Event, das die Änderung beschreibt.
+     */
+    void belegungGeaendert(BelegungsEvent event);
+}
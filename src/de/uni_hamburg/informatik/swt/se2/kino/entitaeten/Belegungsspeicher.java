@@ -0,0 +1,551 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Saalplan;
+
+/**
+ * Ein Speicher, der die Platzbelegungen aller Vorstellungen eines Kinos in
+ * einer Datei hält, die in den Speicher abgebildet ist. Jede Vorstellung
+ * belegt einen Slot fester Größe; ihre Belegungswörter werden direkt im Slot
+ * per compare-and-set geändert. Nach einem Neustart sind die Belegungen ohne
+ * Einlesen sofort wieder da, die Startzeit hängt also nicht davon ab, wie
+ * viel verkauft wurde.
+ * 
+ * Jeder Slot enthält den Hash des Schlüssels seiner Vorstellung, eine
+ * Prüfsumme, die Anzahl seiner Wörter und die Wörter selbst. Die Prüfsumme ist
+ * die Summe eines Mischwerts pro Wort. Bei jedem Wechsel wird nur die
+ * Differenz des geänderten Worts atomar addiert, so dass nebenläufige Wechsel
+ * sich nicht sperren. Wird das Programm zwischen Wort und Prüfsumme
+ * abgebrochen oder die Seite nur teilweise auf die Platte geschrieben, passt
+ * die Prüfsumme nicht mehr und der Slot wird beim Öffnen verworfen. Seine
+ * Verkäufe stellt dann das {@link Verkaufsjournal} wieder her.
+ * 
+ * Reservierungen und Blockierungen eines wiederhergestellten Slots werden
+ * freigegeben, wenn seine Vorstellung nach dem Öffnen angebunden wird, denn
+ * der Slot unterscheidet Blockierungen von Hand nicht von den Sperren einer
+ * Abstandsregel. Die Blockierungen von Hand stellt danach das Journal
+ * wieder her. Eine
+ * Vorstellung, die in einen anderen Saal verlegt wird oder deren Saal mehr
+ * Wörter braucht, als ein Slot der Datei fasst, bleibt im Heap; ihre
+ * Verkäufe hält dann nur das Journal fest. Die Datei wird in der
+ * Bytereihenfolge der Maschine geschrieben.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public final class Belegungsspeicher
+{
+    // "KINOBEL1"
+    private static final long KENNUNG = 0x4B494E4F42454C31L;
+
+    // Der Dateikopf: Kennung, Wörter pro Slot, Anzahl der Slots.
+    private static final int DATEIKOPF = 64;
+    private static final int KOPF_WOERTER_PRO_SLOT = 8;
+    private static final int KOPF_ANZAHL_SLOTS = 12;
+
+    // Der Aufbau eines Slots.
+    private static final int SLOT_SCHLUESSEL = 0;
+    private static final int SLOT_PRUEFSUMME = 8;
+    private static final int SLOT_ANZAHL = 16;
+    private static final int SLOT_BELEGT = 20;
+    private static final int SLOT_WOERTER = 24;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(
+            long[].class, ByteOrder.nativeOrder());
+
+    private static final int ANFANGSGROESSE = 1024;
+
+    private final FileChannel _kanal;
+    private final MappedByteBuffer _puffer;
+
+    // Die Slots nach dem Hash des Schlüssels ihrer Vorstellung. Über sie
+    // bekommt jede Vorstellung ihre Belegung, sobald sie geladen wird.
+    private final Slotverzeichnis _verzeichnis;
+    private final int _woerterProSlot;
+    private final int _wiederhergestellt;
+
+    /**
+     * Erzeugt einen Speicher über der abgebildeten Datei.
+     */
+    private Belegungsspeicher(FileChannel kanal, MappedByteBuffer puffer,
+            Slotverzeichnis verzeichnis, int woerterProSlot,
+            int wiederhergestellt)
+    {
+        _kanal = kanal;
+        _puffer = puffer;
+        _verzeichnis = verzeichnis;
+        _woerterProSlot = woerterProSlot;
+        _wiederhergestellt = wiederhergestellt;
+    }
+
+    /**
+     * Öffnet den Speicher in der angegebenen Datei oder legt ihn an und
+     * ersetzt die Platzbelegungen aller Vorstellungen des Kinos durch
+     * Belegungen in ihren Slots. Hat eine Vorstellung einen gültigen Slot,
+     * übernimmt sie dessen verkaufte Plätze, sonst bekommt sie einen leeren
+     * Slot. Slots von Vorstellungen, die es in dem Kino nicht mehr gibt,
+     * werden wiederverwendet.
+     * 
+     * Der Speicher muss geöffnet werden, bevor das {@link Verkaufsjournal}
+     * geöffnet, ein Listener angemeldet oder eine Abstandsregel gesetzt wird.
+     * Hat das Kino einen {@link Tagesspeicher}, wird dafür ein Tag nach dem
+     * anderen geladen und wieder verdrängt; jede Vorstellung bekommt ihren
+     * Slot, sobald das Kino sie lädt.
+     * 
+     * @param datei die Datei.
+     * @param kino das Kino.
+     * 
+     * @throws IOException falls die Datei nicht geöffnet oder abgebildet
+     *             werden kann.
+     * 
+     * @require datei != null
+     * @require kino != null
+     * 
+     * @ensure result != null
+     */
+    public static Belegungsspeicher oeffne(Path datei, Kino kino)
+            throws IOException
+    {
+        assert datei != null : "Vorbedingung verletzt: datei != null";
+        assert kino != null : "Vorbedingung verletzt: kino != null";
+
+        // Von jeder Vorstellung werden nur der Hash ihres Schlüssels und die
+        // Anzahl ihrer Wörter gebraucht.
+        long[] hashes = new long[ANFANGSGROESSE];
+        int[] anzahlen = new int[ANFANGSGROESSE];
+        int vorstellungen = 0;
+        int woerterProSlot = 1;
+        for (Vorstellung vorstellung : kino.durchlaufeVorstellungen())
+        {
+            if (vorstellungen == hashes.length)
+            {
+                hashes = Arrays.copyOf(hashes, 2 * vorstellungen);
+                anzahlen = Arrays.copyOf(anzahlen, 2 * vorstellungen);
+            }
+            hashes[vorstellungen] = hash(vorstellung.getSchluessel());
+            anzahlen[vorstellungen] = Platzbelegung.anzahlWoerter(vorstellung
+                    .getKinosaal().getSaalplan());
+            woerterProSlot = Math.max(woerterProSlot, anzahlen[vorstellungen]);
+            vorstellungen++;
+        }
+
+        FileChannel kanal = FileChannel.open(datei, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int anzahlSlots = 0;
+        ByteBuffer kopf = ByteBuffer.allocate(DATEIKOPF).order(
+                ByteOrder.nativeOrder());
+        if (kanal.read(kopf, 0) == DATEIKOPF && kopf.getLong(0) == KENNUNG)
+        {
+            woerterProSlot = kopf.getInt(KOPF_WOERTER_PRO_SLOT);
+            anzahlSlots = (int) Math.min(kopf.getInt(KOPF_ANZAHL_SLOTS),
+                    (kanal.size() - DATEIKOPF)
+                            / slotGroesse(woerterProSlot));
+        }
+        int slotGroesse = slotGroesse(woerterProSlot);
+
+        // Die belegten Slots nach dem Hash ihres Schlüssels.
+        MappedByteBuffer puffer = bilde(kanal, anzahlSlots, slotGroesse);
+        Map<Long, Integer> slots = new HashMap<>();
+        for (int slot = 0; slot < anzahlSlots; slot++)
+        {
+            int anfang = DATEIKOPF + slot * slotGroesse;
+            if (puffer.getInt(anfang + SLOT_BELEGT) != 0)
+            {
+                slots.putIfAbsent(puffer.getLong(anfang + SLOT_SCHLUESSEL),
+                        slot);
+            }
+        }
+
+        Set<Integer> benutzt = new HashSet<>();
+        for (int i = 0; i < vorstellungen; i++)
+        {
+            Integer slot = slots.get(hashes[i]);
+            if (slot != null)
+            {
+                benutzt.add(slot);
+            }
+        }
+        Queue<Integer> frei = new ArrayDeque<>();
+        for (int slot = 0; slot < anzahlSlots; slot++)
+        {
+            if (!benutzt.contains(slot))
+            {
+                frei.add(slot);
+            }
+        }
+        int neu = vorstellungen - benutzt.size();
+        if (neu > frei.size())
+        {
+            int bisher = anzahlSlots;
+            anzahlSlots += neu - frei.size();
+            puffer = bilde(kanal, anzahlSlots, slotGroesse);
+            for (int slot = bisher; slot < anzahlSlots; slot++)
+            {
+                frei.add(slot);
+            }
+        }
+
+        int wiederhergestellt = 0;
+        Slotverzeichnis verzeichnis = new Slotverzeichnis(vorstellungen);
+        for (int i = 0; i < vorstellungen; i++)
+        {
+            long hash = hashes[i];
+            int woerter = anzahlen[i];
+            if (woerter <= woerterProSlot)
+            {
+                Integer slot = slots.remove(hash);
+                boolean gueltig = slot != null
+                        && istGueltig(puffer, DATEIKOPF + slot * slotGroesse,
+                                hash, woerter);
+                if (slot == null)
+                {
+                    slot = frei.remove();
+                }
+                int anfang = DATEIKOPF + slot * slotGroesse;
+                if (!gueltig)
+                {
+                    initialisiere(puffer, anfang, hash, woerter);
+                }
+                verzeichnis.trageEin(hash, anfang, gueltig);
+                if (gueltig)
+                {
+                    wiederhergestellt++;
+                }
+            }
+        }
+        for (int slot : frei)
+        {
+            puffer.putInt(DATEIKOPF + slot * slotGroesse + SLOT_BELEGT, 0);
+        }
+
+        puffer.putLong(0, KENNUNG);
+        puffer.putInt(KOPF_WOERTER_PRO_SLOT, woerterProSlot);
+        puffer.putInt(KOPF_ANZAHL_SLOTS, anzahlSlots);
+        puffer.force();
+        Belegungsspeicher speicher = new Belegungsspeicher(kanal, puffer,
+                verzeichnis, woerterProSlot, wiederhergestellt);
+        kino.meldeAn(speicher.new Wiederanbindung());
+        return speicher;
+    }
+
+    /**
+     * Gibt die Größe eines Slots mit der angegebenen Anzahl Wörter zurück.
+     */
+    private static int slotGroesse(int woerterProSlot)
+    {
+        return SLOT_WOERTER + woerterProSlot * Long.BYTES;
+    }
+
+    /**
+     * Bildet den Dateikopf und die angegebene Anzahl Slots ab. Die Datei
+     * wird dabei falls nötig verlängert.
+     */
+    private static MappedByteBuffer bilde(FileChannel kanal, int anzahlSlots,
+            int slotGroesse) throws IOException
+    {
+        long groesse = DATEIKOPF + (long) anzahlSlots * slotGroesse;
+        if (groesse > Integer.MAX_VALUE)
+        {
+            throw new IOException("Belegungsspeicher zu groß: " + groesse
+                    + " Bytes");
+        }
+        MappedByteBuffer puffer = kanal.map(FileChannel.MapMode.READ_WRITE, 0,
+                groesse);
+        puffer.order(ByteOrder.nativeOrder());
+        return puffer;
+    }
+
+    /**
+     * Prüft, ob der Slot belegt ist, zu dem Schlüssel gehört, die erwartete
+     * Anzahl Wörter hat und seine Prüfsumme stimmt.
+     */
+    private static boolean istGueltig(ByteBuffer puffer, int anfang,
+            long hash, int woerter)
+    {
+        return puffer.getInt(anfang + SLOT_BELEGT) != 0
+                && puffer.getLong(anfang + SLOT_SCHLUESSEL) == hash
+                && puffer.getInt(anfang + SLOT_ANZAHL) == woerter
+                && puffer.getLong(anfang + SLOT_PRUEFSUMME) == berechnePruefsumme(
+                        puffer, anfang, hash, woerter);
+    }
+
+    /**
+     * Setzt einen Slot auf eine leere Belegung der Vorstellung mit dem
+     * angegebenen Schlüssel. Der Slot gilt erst als belegt, wenn alles andere
+     * geschrieben ist.
+     */
+    private static void initialisiere(ByteBuffer puffer, int anfang,
+            long hash, int woerter)
+    {
+        puffer.putInt(anfang + SLOT_BELEGT, 0);
+        for (int i = 0; i < woerter; i++)
+        {
+            puffer.putLong(anfang + SLOT_WOERTER + i * Long.BYTES, 0);
+        }
+        puffer.putLong(anfang + SLOT_SCHLUESSEL, hash);
+        puffer.putInt(anfang + SLOT_ANZAHL, woerter);
+        puffer.putLong(anfang + SLOT_PRUEFSUMME, berechnePruefsumme(puffer,
+                anfang, hash, woerter));
+        puffer.putInt(anfang + SLOT_BELEGT, 1);
+    }
+
+    /**
+     * Berechnet die Prüfsumme eines Slots aus Schlüssel, Anzahl und Wörtern.
+     */
+    private static long berechnePruefsumme(ByteBuffer puffer, int anfang,
+            long hash, int woerter)
+    {
+        long summe = mische(-1, hash) + mische(-2, woerter);
+        for (int i = 0; i < woerter; i++)
+        {
+            summe += mische(i, puffer.getLong(anfang + SLOT_WOERTER + i
+                    * Long.BYTES));
+        }
+        return summe;
+    }
+
+    /**
+     * Mischt ein Wort mit seinem Index, so dass vertauschte oder gekippte Bits
+     * die Summe fast sicher ändern.
+     */
+    private static long mische(long index, long wort)
+    {
+        long x = wort ^ (index * 0x9E3779B97F4A7C15L);
+        x = (x ^ (x >>> 31)) * 0xBF58476D1CE4E5B9L;
+        return x ^ (x >>> 29);
+    }
+
+    /**
+     * Berechnet den 64-Bit-FNV-1a-Hash eines Schlüssels.
+     */
+    private static long hash(String schluessel)
+    {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : schluessel.getBytes(StandardCharsets.UTF_8))
+        {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Prüft, ob die Belegung der Vorstellung mit dem angegebenen Schlüssel
+     * beim Öffnen in ihrem Slot gefunden wurde.
+     */
+    boolean istWiederhergestellt(String schluessel)
+    {
+        return _verzeichnis.istWiederhergestellt(hash(schluessel));
+    }
+
+    /**
+     * Gibt die Anzahl der Vorstellungen zurück, deren Belegung beim Öffnen
+     * in ihrem Slot gefunden wurde.
+     */
+    public int getAnzahlWiederhergestellterVorstellungen()
+    {
+        return _wiederhergestellt;
+    }
+
+    /**
+     * Schreibt alle geänderten Seiten auf die Platte und schließt die Datei.
+     * Die Belegungen bleiben abgebildet und können weiter benutzt werden,
+     * werden aber nicht mehr zuverlässig gesichert.
+     * 
+     * @throws IOException falls die Datei nicht geschlossen werden kann.
+     */
+    public void schliesse() throws IOException
+    {
+        _puffer.force();
+        _kanal.close();
+    }
+
+    /**
+     * Gibt jeder Vorstellung, die das Kino geladen hat oder lädt, die
+     * Belegung in ihrem Slot. Wird ein wiederhergestellter Slot zum ersten
+     * Mal gebunden, werden seine Reservierungen und Blockierungen
+     * freigegeben.
+     */
+    private final class Wiederanbindung implements Kino.Anbindung
+    {
+        @Override
+        public void binde(Vorstellung vorstellung)
+        {
+            Saalplan saalplan = vorstellung.getKinosaal().getSaalplan();
+            int woerter = Platzbelegung.anzahlWoerter(saalplan);
+            long hash = hash(vorstellung.getSchluessel());
+            int anfang = _verzeichnis.suche(hash);
+            // Eine verlegte Vorstellung behält ihre Belegung im Heap, auch
+            // wenn sie in einen Saal zurückkehrt, der einen Slot hat.
+            if (anfang >= 0 && woerter <= _woerterProSlot
+                    && !vorstellung.istVerlegt())
+            {
+                Platzbelegung belegung = new Platzbelegung(saalplan, new Slot(
+                        _puffer, anfang, woerter));
+                if (_verzeichnis.nimmFreigabe(hash))
+                {
+                    belegung.wechsleAlleDirekt(null, Platzbelegung.RESERVIERT,
+                            Platzbelegung.FREI);
+                    belegung.wechsleAlleDirekt(null, Platzbelegung.BLOCKIERT,
+                            Platzbelegung.FREI);
+                }
+                vorstellung.setBelegung(belegung);
+            }
+        }
+
+        @Override
+        public void loese(Vorstellung vorstellung)
+        {
+            // Die Belegung bleibt im Slot.
+        }
+    }
+
+    /**
+     * Ordnet den Hashes der Schlüssel die Anfänge ihrer Slots zu und merkt
+     * sich, welche Slots beim Öffnen gültig waren. Offene Adressierung über
+     * Arrays braucht pro Vorstellung nur vierzehn Bytes und keine Objekte.
+     */
+    private static final class Slotverzeichnis
+    {
+        private final long[] _hashes;
+        private final int[] _anfaenge;
+
+        // Ob der Slot beim Öffnen gültig war und ob seine Reservierungen und
+        // Blockierungen noch freigegeben werden müssen.
+        private final boolean[] _wiederhergestellt;
+        private final boolean[] _freizugeben;
+
+        Slotverzeichnis(int anzahl)
+        {
+            int kapazitaet = Integer.highestOneBit(
+                    Math.max(anzahl, 1) * 2 - 1) << 1;
+            _hashes = new long[kapazitaet];
+            _anfaenge = new int[kapazitaet];
+            _wiederhergestellt = new boolean[kapazitaet];
+            _freizugeben = new boolean[kapazitaet];
+        }
+
+        /**
+         * Trägt den Anfang des Slots zu einem Hash ein.
+         */
+        void trageEin(long hash, int anfang, boolean wiederhergestellt)
+        {
+            int i = position(hash);
+            _hashes[i] = hash;
+            _anfaenge[i] = anfang + 1;
+            _wiederhergestellt[i] = wiederhergestellt;
+            _freizugeben[i] = wiederhergestellt;
+        }
+
+        /**
+         * Gibt den Anfang des Slots zu einem Hash zurück oder -1.
+         */
+        int suche(long hash)
+        {
+            return _anfaenge[position(hash)] - 1;
+        }
+
+        /**
+         * Prüft, ob der Slot zu einem Hash beim Öffnen gültig war.
+         */
+        boolean istWiederhergestellt(long hash)
+        {
+            return _wiederhergestellt[position(hash)];
+        }
+
+        /**
+         * Prüft, ob Reservierungen und Blockierungen im Slot zu einem Hash
+         * noch freigegeben werden müssen, und merkt sich, dass es ab jetzt
+         * nicht mehr nötig ist.
+         */
+        boolean nimmFreigabe(long hash)
+        {
+            int i = position(hash);
+            boolean freizugeben = _freizugeben[i];
+            _freizugeben[i] = false;
+            return freizugeben;
+        }
+
+        /**
+         * Gibt die Position des Hashs zurück oder die freie Position, an der
+         * er stehen müsste. Ein Anfang von 0 markiert eine freie Position.
+         */
+        private int position(long hash)
+        {
+            int maske = _hashes.length - 1;
+            int i = (int) (hash ^ (hash >>> 32)) & maske;
+            while (_anfaenge[i] != 0 && _hashes[i] != hash)
+            {
+                i = (i + 1) & maske;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Die Belegungswörter einer Vorstellung in ihrem Slot.
+     */
+    private static final class Slot implements Belegungswoerter
+    {
+        private final ByteBuffer _puffer;
+        private final int _pruefsumme;
+        private final int _woerter;
+        private final int _anzahl;
+
+        Slot(ByteBuffer puffer, int anfang, int anzahl)
+        {
+            _puffer = puffer;
+            _pruefsumme = anfang + SLOT_PRUEFSUMME;
+            _woerter = anfang + SLOT_WOERTER;
+            _anzahl = anzahl;
+        }
+
+        @Override
+        public int length()
+        {
+            return _anzahl;
+        }
+
+        @Override
+        public long get(int index)
+        {
+            return (long) LONG.getVolatile(_puffer, _woerter + index
+                    * Long.BYTES);
+        }
+
+        @Override
+        public boolean compareAndSet(int index, long erwartet, long neu)
+        {
+            boolean gesetzt = LONG.compareAndSet(_puffer, _woerter + index
+                    * Long.BYTES, erwartet, neu);
+            if (gesetzt && erwartet != neu)
+            {
+                LONG.getAndAdd(_puffer, _pruefsumme, mische(index, neu)
+                        - mische(index, erwartet));
+            }
+            return gesetzt;
+        }
+
+        @Override
+        public boolean istDauerhaft()
+        {
+            return true;
+        }
+    }
+}
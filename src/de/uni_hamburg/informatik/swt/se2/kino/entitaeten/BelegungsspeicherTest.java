@@ -0,0 +1,136 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platzzustand;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BelegungsspeicherTest
+{
+    @Rule
+    public TemporaryFolder _ordner = new TemporaryFolder();
+
+    private final Kinosaal _saal = new Kinosaal("Saal 1", 4, 40);
+    private final Film _film = new Film("Thor", 115, FSK.FSK12, false);
+    private final Datum _datum = new Datum(11, 7, 2008);
+
+    /**
+     * Erzeugt ein Kino mit frischen Vorstellungen zu den angegebenen Stunden.
+     */
+    private Kino erzeugeKino(int... stunden)
+    {
+        Vorstellung[] vorstellungen = new Vorstellung[stunden.length];
+        for (int i = 0; i < stunden.length; i++)
+        {
+            vorstellungen[i] = new Vorstellung(_saal, _film, new Uhrzeit(
+                    stunden[i], 0), new Uhrzeit(stunden[i] + 2, 0), _datum, 800);
+        }
+        return new Kino(new Kinosaal[] { _saal }, vorstellungen);
+    }
+
+    @Test
+    public void testeBelegungIstNachNeustartSofortDa() throws IOException
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("belegung.speicher");
+        Kino kino = erzeugeKino(17, 20);
+        Belegungsspeicher speicher = Belegungsspeicher.oeffne(datei, kino);
+        assertEquals(0, speicher.getAnzahlWiederhergestellterVorstellungen());
+        Vorstellung frueh = kino.getVorstellungen().get(0);
+        frueh.verkaufePlatz(new Platz(0, 0));
+        frueh.verkaufePlatz(new Platz(3, 39));
+        frueh.stornierePlatz(new Platz(0, 0));
+        frueh.verkaufePlatz(new Platz(2, 33));
+        frueh.erzeugeReservierung(60000).reserviere(
+                Collections.singleton(new Platz(1, 1)));
+        frueh.blockierePlaetze(Platzmaske.ausPlaetzen(Collections
+                .singleton(new Platz(1, 2))));
+        kino.getVorstellungen().get(1).verkaufePlatz(new Platz(1, 20));
+        speicher.schliesse();
+
+        kino = erzeugeKino(17, 20);
+        speicher = Belegungsspeicher.oeffne(datei, kino);
+        assertEquals(2, speicher.getAnzahlWiederhergestellterVorstellungen());
+        frueh = kino.getVorstellungen().get(0);
+        assertEquals(2, frueh.getAnzahlVerkauftePlaetze());
+        assertTrue(frueh.istPlatzVerkauft(new Platz(3, 39)));
+        assertTrue(frueh.istPlatzVerkauft(new Platz(2, 33)));
+        assertEquals(Platzzustand.FREI, frueh.getPlatzzustand(1, 1));
+        assertEquals(Platzzustand.FREI, frueh.getPlatzzustand(1, 2));
+        assertEquals(40, frueh.getLaengsteFreieFolge(1));
+        assertTrue(kino.getVorstellungen().get(1).istPlatzVerkauft(
+                new Platz(1, 20)));
+        speicher.schliesse();
+    }
+
+    @Test
+    public void testeZerrissenerSlotWirdAusDemJournalWiederhergestellt()
+            throws IOException
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("belegung.speicher");
+        Path journaldatei = _ordner.getRoot().toPath().resolve(
+                "verkauf.journal");
+        Kino kino = erzeugeKino(17);
+        Belegungsspeicher speicher = Belegungsspeicher.oeffne(datei, kino);
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(journaldatei, kino,
+                speicher);
+        kino.getVorstellungen().get(0).verkaufePlatz(new Platz(0, 5));
+        journal.schliesse();
+        speicher.schliesse();
+
+        // Ein Wort ändert sich, ohne dass die Prüfsumme nachgezogen wird.
+        try (RandomAccessFile zugriff = new RandomAccessFile(datei.toFile(),
+                "rw"))
+        {
+            zugriff.seek(64 + 24 + 8);
+            zugriff.write(0xFF);
+        }
+
+        kino = erzeugeKino(17);
+        speicher = Belegungsspeicher.oeffne(datei, kino);
+        assertEquals(0, speicher.getAnzahlWiederhergestellterVorstellungen());
+        Vorstellung vorstellung = kino.getVorstellungen().get(0);
+        assertEquals(0, vorstellung.getAnzahlVerkauftePlaetze());
+        journal = Verkaufsjournal.oeffne(journaldatei, kino, speicher);
+        assertEquals(1, vorstellung.getAnzahlVerkauftePlaetze());
+        assertTrue(vorstellung.istPlatzVerkauft(new Platz(0, 5)));
+        journal.schliesse();
+        speicher.schliesse();
+    }
+
+    @Test
+    public void testeSlotsVergangenerVorstellungenWerdenWiederverwendet()
+            throws IOException
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("belegung.speicher");
+        Kino kino = erzeugeKino(14, 17, 20);
+        Belegungsspeicher speicher = Belegungsspeicher.oeffne(datei, kino);
+        kino.getVorstellungen().get(2).verkaufePlatz(new Platz(2, 2));
+        speicher.schliesse();
+        long groesse = Files.size(datei);
+
+        kino = erzeugeKino(20, 11, 8);
+        speicher = Belegungsspeicher.oeffne(datei, kino);
+        assertEquals(1, speicher.getAnzahlWiederhergestellterVorstellungen());
+        assertEquals(groesse, Files.size(datei));
+        assertTrue(kino.getVorstellungen().get(2).istPlatzVerkauft(
+                new Platz(2, 2)));
+        assertFalse(kino.getVorstellungen().get(0).istPlatzVerkauft(
+                new Platz(2, 2)));
+        speicher.schliesse();
+    }
+}
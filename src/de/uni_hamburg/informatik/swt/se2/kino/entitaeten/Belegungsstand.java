@@ -0,0 +1,246 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platzzustand;
+
+/**
+ * Ein unveränderlicher Stand der Platzbelegung einer Vorstellung. Alle
+ * Abfragen eines Stands beziehen sich auf denselben Zeitpunkt, auch wenn an
+ * anderen Kassen währenddessen Plätze verkauft werden. Ein Stand, der nur
+ * teilweise verkauft wurde, ist nie zu sehen.
+ * 
+ * Jeder Stand trägt die Version der Belegung, aus der er erzeugt wurde. Die
+ * Version steigt mit jeder Änderung, so dass Leser an ihr erkennen, ob sich
+ * seit ihrem letzten Stand etwas geändert hat. Aufeinanderfolgende Stände
+ * teilen sich die Reihen, die sich nicht geändert haben.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public final class Belegungsstand
+{
+    private final long _version;
+    private final long[][] _reihen;
+    private final int _anzahlSitzeProReihe;
+    private final int _woerterProReihe;
+    private final long[] _vorhanden;
+
+    /**
+     * Erzeugt einen Stand. Die Reihen werden nicht kopiert und dürfen danach
+     * nicht mehr verändert werden.
+     * 
+     * @param version die Version der Belegung.
+     * @param reihen die Wörter der Belegung, nach Reihen aufgeteilt.
+     * @param anzahlSitzeProReihe die Anzahl der Sitze pro Reihe.
+     * @param vorhanden pro Wort der Belegung die Sitze, die existieren. Das
+     *            Array wird nicht kopiert und von allen Ständen geteilt.
+     */
+    Belegungsstand(long version, long[][] reihen, int anzahlSitzeProReihe,
+            long[] vorhanden)
+    {
+        _version = version;
+        _reihen = reihen;
+        _anzahlSitzeProReihe = anzahlSitzeProReihe;
+        _woerterProReihe = (reihen.length > 0) ? reihen[0].length : 0;
+        _vorhanden = vorhanden;
+    }
+
+    /**
+     * Gibt die Version der Belegung zurück, aus der dieser Stand erzeugt
+     * wurde. Ein späterer Stand derselben Vorstellung hat genau dann dieselbe
+     * Version, wenn sich die Belegung nicht geändert hat.
+     */
+    public long getVersion()
+    {
+        return _version;
+    }
+
+    /**
+     * Gibt den Zustand des Platzes mit der angegebenen Reihe und dem
+     * angegebenen Sitz in diesem Stand zurück.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     * 
+     * @require hatPlatz(reihe, sitz)
+     * 
+     * @ensure result != null
+     */
+    public Platzzustand getPlatzzustand(int reihe, int sitz)
+    {
+        assert hatPlatz(reihe, sitz) : "Vorbedingung verletzt: hatPlatz(reihe, sitz)";
+
+        return Platzbelegung.dekodiere(Platzbelegung.zustandImWort(
+                _reihen[reihe][sitz / Platzbelegung.SITZE_PRO_WORT], sitz));
+    }
+
+    /**
+     * Gibt an, ob der angegebene Platz in diesem Stand verkauft ist.
+     * 
+     * @param platz der Sitzplatz.
+     * 
+     * @require platz != null
+     * @require hatPlatz(platz.getReihe(), platz.getSitz())
+     */
+    public boolean istPlatzVerkauft(Platz platz)
+    {
+        assert platz != null : "Vorbedingung verletzt: platz != null";
+
+        return istPlatzVerkauft(platz.getReihe(), platz.getSitz());
+    }
+
+    /**
+     * Gibt an, ob der Platz mit der angegebenen Reihe und dem angegebenen Sitz
+     * in diesem Stand verkauft ist.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     * 
+     * @require hatPlatz(reihe, sitz)
+     */
+    public boolean istPlatzVerkauft(int reihe, int sitz)
+    {
+        return hatZustand(reihe, sitz, Platzbelegung.VERKAUFT);
+    }
+
+    /**
+     * Gibt an, ob der Platz mit der angegebenen Reihe und dem angegebenen Sitz
+     * in diesem Stand reserviert ist.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     * 
+     * @require hatPlatz(reihe, sitz)
+     */
+    public boolean istPlatzReserviert(int reihe, int sitz)
+    {
+        return hatZustand(reihe, sitz, Platzbelegung.RESERVIERT);
+    }
+
+    /**
+     * Prüft, ob es den angegebenen Platz in diesem Stand gibt.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     */
+    public boolean hatPlatz(int reihe, int sitz)
+    {
+        return reihe >= 0 && reihe < _reihen.length && sitz >= 0
+                && sitz < _anzahlSitzeProReihe
+                && (_vorhanden[reihe * _woerterProReihe + sitz
+                        / Platzbelegung.SITZE_PRO_WORT] & Platzbelegung
+                                .bitMaske(sitz)) != 0;
+    }
+
+    /**
+     * Gibt die Anzahl der verkauften Plätze in diesem Stand zurück.
+     */
+    public int getAnzahlVerkauftePlaetze()
+    {
+        return getAnzahlPlaetze(Platzzustand.VERKAUFT);
+    }
+
+    /**
+     * Gibt die Anzahl der Plätze zurück, die in diesem Stand den angegebenen
+     * Zustand haben.
+     * 
+     * @param zustand der Zustand.
+     * 
+     * @require zustand != null
+     */
+    public int getAnzahlPlaetze(Platzzustand zustand)
+    {
+        assert zustand != null : "Vorbedingung verletzt: zustand != null";
+
+        int kodierung = Platzbelegung.kodiere(zustand);
+        int result = 0;
+        for (int reihe = 0; reihe < _reihen.length; reihe++)
+        {
+            for (int i = 0; i < _woerterProReihe; i++)
+            {
+                result += Long.bitCount(sitzeImZustand(reihe, i, kodierung));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ruft den Besucher für jeden in diesem Stand verkauften Platz auf, Reihe
+     * für Reihe in aufsteigender Sitzfolge.
+     * 
+     * @param besucher der Besucher.
+     * 
+     * @require besucher != null
+     */
+    public void besucheVerkauftePlaetze(PlatzBesucher besucher)
+    {
+        besuchePlaetze(Platzzustand.VERKAUFT, besucher);
+    }
+
+    /**
+     * Ruft den Besucher für jeden Platz auf, der in diesem Stand den
+     * angegebenen Zustand hat, Reihe für Reihe in aufsteigender Sitzfolge.
+     * 
+     * @param zustand der Zustand.
+     * @param besucher der Besucher.
+     * 
+     * @require zustand != null
+     * @require besucher != null
+     */
+    public void besuchePlaetze(Platzzustand zustand, PlatzBesucher besucher)
+    {
+        assert zustand != null : "Vorbedingung verletzt: zustand != null";
+        assert besucher != null : "Vorbedingung verletzt: besucher != null";
+
+        int kodierung = Platzbelegung.kodiere(zustand);
+        for (int reihe = 0; reihe < _reihen.length; reihe++)
+        {
+            for (int i = 0; i < _woerterProReihe; i++)
+            {
+                long sitze = sitzeImZustand(reihe, i, kodierung);
+                while (sitze != 0)
+                {
+                    besucher.besuche(reihe, i * Platzbelegung.SITZE_PRO_WORT
+                            + Long.numberOfTrailingZeros(sitze));
+                    sitze &= sitze - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gibt die Wörter der angegebenen Reihe zurück. Das Array darf nicht
+     * verändert werden.
+     */
+    long[] getReihe(int reihe)
+    {
+        return _reihen[reihe];
+    }
+
+    /**
+     * Gibt die existierenden Sitze des angegebenen Worts einer Reihe zurück,
+     * die den angegebenen Zustand haben.
+     */
+    private long sitzeImZustand(int reihe, int i, int zustand)
+    {
+        return Platzbelegung.sitzeImZustand(_reihen[reihe][i], zustand)
+                & _vorhanden[reihe * _woerterProReihe + i];
+    }
+
+    /**
+     * Prüft, ob der angegebene Sitz den angegebenen Zustand hat.
+     */
+    private boolean hatZustand(int reihe, int sitz, int zustand)
+    {
+        assert hatPlatz(reihe, sitz) : "Vorbedingung verletzt: hatPlatz(reihe, sitz)";
+
+        return (sitzeImZustand(reihe, sitz / Platzbelegung.SITZE_PRO_WORT,
+                zustand) & Platzbelegung.bitMaske(sitz)) != 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Belegungsstand: Version=" + _version;
+    }
+}
@@ -0,0 +1,104 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BelegungsstandTest
+{
+    private Vorstellung _vorstellung;
+
+    @Before
+    public void setUp()
+    {
+        _vorstellung = new Vorstellung(new Kinosaal("A", 4, 40), new Film(
+                "Rio", 96, FSK.FSK0, false), new Uhrzeit(17, 30), new Uhrzeit(
+                20, 0), new Datum(11, 7, 2008), 895);
+    }
+
+    @Test
+    public void testeStandBleibtUnveraendert()
+    {
+        Belegungsstand vorher = _vorstellung.getBelegungsstand();
+        _vorstellung.verkaufePlatz(new Platz(1, 35));
+        Belegungsstand nachher = _vorstellung.getBelegungsstand();
+
+        assertFalse(vorher.istPlatzVerkauft(1, 35));
+        assertTrue(nachher.istPlatzVerkauft(new Platz(1, 35)));
+        assertFalse(nachher.istPlatzReserviert(1, 35));
+        assertEquals(0, vorher.getAnzahlVerkauftePlaetze());
+        assertEquals(1, nachher.getAnzahlVerkauftePlaetze());
+        assertTrue(nachher.getVersion() > vorher.getVersion());
+    }
+
+    @Test
+    public void testeStandWirdNurBeiAenderungNeuErzeugt()
+    {
+        Belegungsstand stand = _vorstellung.getBelegungsstand();
+        assertSame(stand, _vorstellung.getBelegungsstand());
+
+        _vorstellung.verkaufePlatz(new Platz(0, 0));
+        assertFalse(_vorstellung.verkaufePlatzWennFrei(new Platz(0, 0)));
+        Belegungsstand neu = _vorstellung.getBelegungsstand();
+        assertNotSame(stand, neu);
+        assertEquals(stand.getVersion() + 1, neu.getVersion());
+
+        // Die unveränderten Reihen werden übernommen.
+        assertNotSame(stand.getReihe(0), neu.getReihe(0));
+        assertSame(stand.getReihe(1), neu.getReihe(1));
+        assertSame(stand.getReihe(3), neu.getReihe(3));
+    }
+
+    @Test
+    public void testeBesucheVerkauftePlaetze()
+    {
+        _vorstellung.verkaufePlatz(new Platz(3, 39));
+        _vorstellung.verkaufePlatz(new Platz(0, 32));
+        Set<Platz> besucht = new HashSet<>();
+        _vorstellung.getBelegungsstand().besucheVerkauftePlaetze(
+                (reihe, sitz) -> besucht.add(new Platz(reihe, sitz)));
+
+        Set<Platz> erwartet = new HashSet<>();
+        erwartet.add(new Platz(3, 39));
+        erwartet.add(new Platz(0, 32));
+        assertEquals(erwartet, besucht);
+    }
+
+    @Test
+    public void testeStandZeigtKeineHalbenVerkaeufe() throws InterruptedException
+    {
+        Set<Platz> paar = new HashSet<>();
+        paar.add(new Platz(0, 0));
+        paar.add(new Platz(3, 39));
+        Thread verkaeufer = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++)
+            {
+                _vorstellung.verkaufePlaetze(paar);
+                _vorstellung.stornierePlaetze(paar);
+            }
+        });
+        verkaeufer.start();
+        while (verkaeufer.isAlive())
+        {
+            Belegungsstand stand = _vorstellung.getBelegungsstand();
+            assertEquals(stand.istPlatzVerkauft(0, 0),
+                    stand.istPlatzVerkauft(3, 39));
+        }
+        verkaeufer.join();
+        assertEquals(0, _vorstellung.getBelegungsstand()
+                .getAnzahlVerkauftePlaetze());
+    }
+}
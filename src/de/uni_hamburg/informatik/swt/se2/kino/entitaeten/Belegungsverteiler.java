@@ -0,0 +1,94 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Ein Belegungsverteiler liefert die Änderungen der Platzbelegungen an die
+ * Listener aus. Die Melder der Vorstellungen, deren Belegung sich geändert
+ * hat, werden in eine Warteschlange eingeplant und nacheinander abgearbeitet.
+ * So wird an der Kasse nicht auf die Listener gewartet, und alle Änderungen,
+ * die bis zur Auslieferung anfallen, werden zusammengefasst.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+final class Belegungsverteiler
+{
+    private static Belegungsverteiler _standard;
+
+    private final BlockingQueue<Aenderungsmelder> _geplant;
+
+    /**
+     * Erzeugt einen Verteiler, der nicht von selbst ausliefert.
+     */
+    Belegungsverteiler()
+    {
+        _geplant = new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Gibt den Verteiler zurück, der die Änderungen aller Vorstellungen
+     * ausliefert. Er wird beim ersten Aufruf erzeugt und von einem eigenen
+     * Daemon-Thread abgearbeitet.
+     * 
+     * @ensure result != null
+     */
+    static synchronized Belegungsverteiler getStandard()
+    {
+        if (_standard == null)
+        {
+            _standard = new Belegungsverteiler();
+            _standard.starte();
+        }
+        return _standard;
+    }
+
+    /**
+     * Plant einen Melder zum Ausliefern ein. Kann von beliebigen Threads
+     * aufgerufen werden.
+     * 
+     * @require melder != null
+     */
+    void plane(Aenderungsmelder melder)
+    {
+        assert melder != null : "Vorbedingung verletzt: melder != null";
+
+        _geplant.add(melder);
+    }
+
+    /**
+     * Liefert die Änderungen aller eingeplanten Melder aus.
+     */
+    synchronized void verteile()
+    {
+        Aenderungsmelder melder;
+        while ((melder = _geplant.poll()) != null)
+        {
+            melder.verteile();
+        }
+    }
+
+    /**
+     * Startet einen Daemon-Thread, der auf eingeplante Melder wartet und ihre
+     * Änderungen ausliefert.
+     */
+    private void starte()
+    {
+        Thread thread = new Thread(() -> {
+            try
+            {
+                while (true)
+                {
+                    _geplant.take().verteile();
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }, "Belegungsverteiler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,85 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Die Wörter, in denen eine {@link Platzbelegung} die Zustände ihrer Sitze
+ * speichert. Gelesen wird mit der Wirkung eines volatile-Zugriffs, geändert
+ * wird nur per compare-and-set. Die Wörter liegen entweder im Heap oder in
+ * einem Slot des {@link Belegungsspeicher}s.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+interface Belegungswoerter
+{
+    /**
+     * Gibt die Anzahl der Wörter zurück.
+     */
+    int length();
+
+    /**
+     * Gibt das Wort mit dem angegebenen Index zurück.
+     */
+    long get(int index);
+
+    /**
+     * Setzt das Wort mit dem angegebenen Index auf den neuen Wert, sofern es
+     * den erwarteten Wert hat.
+     * 
+     * @return <code>true</code>, falls das Wort gesetzt wurde.
+     */
+    boolean compareAndSet(int index, long erwartet, long neu);
+
+    /**
+     * Prüft, ob die Wörter außerhalb des Heaps gespeichert sind und ein
+     * neues Objekt sie wieder anbinden kann.
+     */
+    default boolean istDauerhaft()
+    {
+        return false;
+    }
+
+    /**
+     * Erzeugt die angegebene Anzahl Wörter im Heap, die alle 0 sind.
+     * 
+     * @require anzahl >= 0
+     */
+    static Belegungswoerter imHeap(int anzahl)
+    {
+        assert anzahl >= 0 : "Vorbedingung verletzt: anzahl >= 0";
+
+        return new Heapwoerter(anzahl);
+    }
+
+    /**
+     * Wörter im Heap.
+     */
+    final class Heapwoerter implements Belegungswoerter
+    {
+        private final AtomicLongArray _woerter;
+
+        private Heapwoerter(int anzahl)
+        {
+            _woerter = new AtomicLongArray(anzahl);
+        }
+
+        @Override
+        public int length()
+        {
+            return _woerter.length();
+        }
+
+        @Override
+        public long get(int index)
+        {
+            return _woerter.get(index);
+        }
+
+        @Override
+        public boolean compareAndSet(int index, long erwartet, long neu)
+        {
+            return _woerter.compareAndSet(index, erwartet, neu);
+        }
+    }
+}
@@ -1,15 +1,40 @@
 package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
 
 /**
  * Ein Kino mit mehreren Kinosälen, in denen Vorstellungen laufen koennen.
  * 
+ * Ein Kino hält entweder alle Tagespläne im Speicher oder lädt sie bei
+ * Bedarf aus einem {@link Tagesspeicher}. Im zweiten Fall werden die am
+ * längsten nicht benutzten Tage wieder verdrängt, sobald die geladenen
+ * Vorstellungen mehr als das Budget brauchen würden. Nie verdrängt werden
+ * die Tage von heute an bis zum Ende des heißen Fensters und Tage mit einer
+ * Vorstellung, die beim Neuladen etwas verlieren würde, etwa reservierte
+ * Plätze, die nur im Heap stehen, oder angemeldete Listener. Wer eine
+ * Vorstellung eines verdrängten Tages noch hält, muss sie über
+ * {@link #getTagesplan(Datum)} neu holen; hat das Kino ein
+ * {@link Verkaufsjournal}, schlägt ein Verkauf über die alte Instanz fehl.
+ * 
+ * Pro Kinosaal führt das Kino einen {@link Saalkalender} der geladenen
+ * Vorstellungen. Mit ihm wird geprüft, ob sich eine Vorstellung mit einer
+ * anderen im selben Saal überschneidet, auch über Mitternacht hinweg, und
+ * nachgeschlagen, was zu einer bestimmten Zeit in einem Saal läuft.
+ * 
  * @author SE2-Team
  * @version SoSe 2024
  */
@@ -17,8 +42,41 @@ public class Kino
 {
     private List<Kinosaal> _kinosaele;
 
-    // Die Vorstellungspläne, sortiert nach Tagen.
-    private SortedMap<Datum, Tagesplan> _tagesplaene;
+    // Die Vorstellungspläne, nach ihrem Epochentag abgelegt.
+    private final Tagesindex _tagesplaene;
+
+    // Die Saalkalender der Kinosäle mit allen geladenen Vorstellungen.
+    private final Map<Kinosaal, Saalkalender<Vorstellung>> _kalender;
+
+    // Der Speicher, aus dem Tage nachgeladen werden, oder null, falls alle
+    // Tage in _tagesplaene stehen.
+    private final Tagesspeicher _speicher;
+
+    // Die Tage, an denen im Tagesspeicher Vorstellungen laufen, aufsteigend,
+    // oder null, falls das Kino keinen Tagesspeicher hat.
+    private final Datum[] _tage;
+
+    // Die Tage von heute an, die nie verdrängt werden, und das Budget der
+    // geladenen Vorstellungen in Bytes.
+    private final int _fenster;
+    private final long _budget;
+
+    // Die geladenen Tagespläne, der am längsten nicht benutzte zuerst, und
+    // ihr geschätzter Speicherbedarf.
+    private final LinkedHashMap<Datum, Tagesplan> _benutzt;
+    private long _belegt;
+
+    private final List<Anbindung> _anbindungen;
+
+    // Die Vorstellungen, die sich beim Eintragen mit einer anderen
+    // überschnitten haben und im Saalkalender fehlen, nach ihrem Schlüssel,
+    // damit ein erneut geladener Tag sie nicht doppelt meldet.
+    private final Map<String, Vorstellung> _ueberschneidungen;
+
+    // Der geschätzte Speicherbedarf einer Vorstellung ohne ihre Belegung und
+    // pro Belegungswort.
+    private static final int GROESSE_VORSTELLUNG = 512;
+    private static final int GROESSE_WORT = 24;
 
     /**
      * Initialisiert ein Kino.
@@ -31,7 +89,7 @@ public class Kino
      * @require saele enthaelt keine Nullpointer
      * @require vorstellungen enthaelt keine Nullpointer
      * @require alle Vorstellungen laufen in uebergebenen Kinosälen
-     * @require alle Vorstellungen fangen zu unterschiedlichen Zeiten an
+     * @require keine zwei Vorstellungen überschneiden sich im selben Kinosaal
      */
     public Kino(Kinosaal[] saele, Vorstellung[] vorstellungen)
     {
@@ -39,24 +97,95 @@ public class Kino
         assert vorstellungen != null : "Vorbedingung verletzt: vorstellungen != null";
 
         _kinosaele = new ArrayList<>(saele.length);
-        _tagesplaene = new TreeMap<>();
+        _tagesplaene = new Tagesindex();
+        _kalender = new HashMap<>();
+        _speicher = null;
+        _tage = null;
+        _fenster = 0;
+        _budget = Long.MAX_VALUE;
+        _benutzt = new LinkedHashMap<>();
+        _anbindungen = new ArrayList<>();
+        _ueberschneidungen = new LinkedHashMap<>();
 
         for (Kinosaal saal : saele)
         {
             assert saal != null : "Vorbedingung verletzt: saele enthaelt keine Nullpointer";
             _kinosaele.add(saal);
+            _kalender.put(saal, new Saalkalender<>());
         }
 
         for (Vorstellung vorstellung : vorstellungen)
         {
             assert vorstellung != null : "Vorbedingung verletzt: vorstellungen enthaelt keine Nullpointer";
-            Kinosaal saal = vorstellung.getKinosaal();
-            assert _kinosaele.contains(saal) : "Vorbedingung verletzt: alle Vorstellungen laufen in uebergebenen Kinosaelen";
+            fuegeVorstellungHinzu(vorstellung);
+        }
+    }
+
+    /**
+     * Initialisiert ein Kino, das seine Tagespläne erst bei Bedarf aus dem
+     * angegebenen Speicher lädt.
+     * 
+     * @param speicher der Speicher mit den Kinosälen und Vorstellungen.
+     * @param fenster die Anzahl der Tage nach heute, die wie heute nie
+     *            verdrängt werden.
+     * @param budget der Speicher in Bytes, den die geladenen Vorstellungen
+     *            höchstens brauchen sollen.
+     * 
+     * @require speicher != null
+     * @require fenster >= 0
+     * @require budget >= 0
+     */
+    public Kino(Tagesspeicher speicher, int fenster, long budget)
+    {
+        assert speicher != null : "Vorbedingung verletzt: speicher != null";
+        assert fenster >= 0 : "Vorbedingung verletzt: fenster >= 0";
+        assert budget >= 0 : "Vorbedingung verletzt: budget >= 0";
+
+        _kinosaele = new ArrayList<>(speicher.getKinosaele());
+        _tagesplaene = new Tagesindex();
+        _kalender = new HashMap<>();
+        for (Kinosaal saal : _kinosaele)
+        {
+            _kalender.put(saal, new Saalkalender<>());
+        }
+        _speicher = speicher;
+        _tage = speicher.getTage().toArray(new Datum[0]);
+        _fenster = fenster;
+        _budget = budget;
+        _benutzt = new LinkedHashMap<>(16, 0.75f, true);
+        _anbindungen = new ArrayList<>();
+        _ueberschneidungen = new LinkedHashMap<>();
+    }
+
+    /**
+     * Fügt dem Tagesplan ihres Tages eine Vorstellung hinzu. So kann ein Kino
+     * nach und nach aufgebaut werden, ohne dass alle Vorstellungen vorher in
+     * einem Array gesammelt werden. Darf nicht gleichzeitig mit anderen
+     * Methoden des Kinos aufgerufen werden.
+     * 
+     * @param vorstellung die Vorstellung.
+     * 
+     * @require vorstellung != null
+     * @require hatKinosaal(vorstellung.getKinosaal())
+     * @require getUeberschneidung(vorstellung) == null
+     * @require das Kino hat keinen Tagesspeicher
+     */
+    void fuegeVorstellungHinzu(Vorstellung vorstellung)
+    {
+        assert vorstellung != null : "Vorbedingung verletzt: vorstellung != null";
+        assert hatKinosaal(vorstellung.getKinosaal()) : "Vorbedingung verletzt: alle Vorstellungen laufen in uebergebenen Kinosaelen";
+        assert _speicher == null : "Vorbedingung verletzt: das Kino hat keinen Tagesspeicher";
+        assert ueberschneidung(vorstellung.getKinosaal(), vorstellung) == null : "Vorbedingung verletzt: getUeberschneidung(vorstellung) == null";
 
-            Datum datum = vorstellung.getDatum();
-            Tagesplan tagesplan = _tagesplaene.computeIfAbsent(datum, k -> new Tagesplan(datum));
-            tagesplan.fuegeVorstellungHinzu(vorstellung);
+        trageEin(vorstellung);
+        Datum datum = vorstellung.getDatum();
+        Tagesplan tagesplan = _tagesplaene.get(datum.getEpochentag());
+        if (tagesplan == null)
+        {
+            tagesplan = new Tagesplan(datum);
+            _tagesplaene.setze(tagesplan);
         }
+        tagesplan.fuegeVorstellungHinzu(vorstellung);
     }
 
     /**
@@ -80,10 +209,15 @@ public class Kino
     }
 
     /**
-     * Gibt den Tagesplan fuer das angegebene Datum zurück.
+     * Gibt den Tagesplan fuer das angegebene Datum zurück. Hält das Kino alle
+     * Tage im Speicher, wird der Tagesplan ohne Sperre nachgeschlagen. Hat es
+     * einen Tagesspeicher, wird der Tag falls nötig geladen und dafür ein
+     * anderer verdrängt.
      * 
      * @param tag das Datum.
      * 
+     * @throws UncheckedIOException falls der Tag nicht geladen werden kann.
+     * 
      * @require tag != null
      * @ensure result != null
      */
@@ -91,11 +225,768 @@ public class Kino
     {
         assert tag != null : "Vorbedingung verletzt: tag != null";
 
-        Tagesplan tagesplan = _tagesplaene.get(tag);
+        Tagesplan tagesplan = _speicher == null ? _tagesplaene.get(tag
+                .getEpochentag()) : nachgeladenerTagesplan(tag);
         if (tagesplan == null)
         {
             tagesplan = new Tagesplan(tag);
         }
         return tagesplan;
     }
+
+    /**
+     * Gibt den Tagesplan des angegebenen Tages aus dem Tagesspeicher zurück
+     * oder <code>null</code>, falls an dem Tag nichts läuft, und verdrängt
+     * danach falls nötig andere Tage.
+     */
+    private synchronized Tagesplan nachgeladenerTagesplan(Datum tag)
+    {
+        Tagesplan tagesplan = geladenerTagesplan(tag);
+        verdraengeUeberBudget(tag);
+        return tagesplan;
+    }
+
+    /**
+     * Gibt alle Vorstellungen dieses Kinos zurück, nach Tag sortiert. Hat das
+     * Kino einen Tagesspeicher, werden dafür alle Tage geladen; verdrängt
+     * wird erst wieder beim nächsten Aufruf von {@link #getTagesplan(Datum)}.
+     * 
+     * @ensure result != null
+     */
+    synchronized List<Vorstellung> getVorstellungen()
+    {
+        List<Vorstellung> vorstellungen = new ArrayList<>();
+        for (Tagesplan tagesplan : tagesplaeneAb(null))
+        {
+            vorstellungen.addAll(tagesplan.getVorstellungen());
+        }
+        return vorstellungen;
+    }
+
+    /**
+     * Durchläuft alle Vorstellungen dieses Kinos, nach Tag sortiert. Anders
+     * als bei {@link #getVorstellungen()} lädt ein Kino mit Tagesspeicher
+     * dabei einen Tag nach dem anderen und verdrängt wie bei
+     * {@link #getTagesplan(Datum)} die übrigen, so dass nie das ganze Archiv
+     * geladen ist. Gesperrt wird nur, während ein Tag geladen wird.
+     * 
+     * @throws UncheckedIOException beim Durchlaufen, falls ein Tag nicht
+     *             geladen werden kann.
+     * 
+     * @ensure result != null
+     */
+    Iterable<Vorstellung> durchlaufeVorstellungen()
+    {
+        int erster;
+        if (_speicher == null)
+        {
+            erster = _tagesplaene.getErsterTag();
+        }
+        else
+        {
+            erster = _tage.length > 0 ? _tage[0].getEpochentag() : 0;
+        }
+        int letzter = letzterTag();
+        return () -> new Vorstellungsdurchlauf(new Tagesplandurchlauf(erster,
+                letzter));
+    }
+
+    /**
+     * Gibt den letzten Tag mit Vorstellungen als Epochentag zurück oder einen
+     * Tag vor dem ersten, falls es keinen gibt.
+     */
+    private int letzterTag()
+    {
+        int letzter;
+        if (_speicher == null)
+        {
+            letzter = _tagesplaene.getLetzterTag();
+        }
+        else
+        {
+            letzter = _tage.length > 0 ? _tage[_tage.length - 1]
+                    .getEpochentag() : -1;
+        }
+        return letzter;
+    }
+
+    /**
+     * Gibt die Tagespläne der Tage von <code>von</code> bis einschließlich
+     * <code>bis</code> zurück, an denen Vorstellungen laufen, nach Tag
+     * sortiert. Die Tage werden erst beim Durchlaufen nachgeschlagen und, hat
+     * das Kino einen Tagesspeicher, erst dann geladen; für Tage ohne
+     * Vorstellungen wird dabei nichts erzeugt.
+     * 
+     * @param von der erste Tag.
+     * @param bis der letzte Tag.
+     * 
+     * @throws UncheckedIOException beim Durchlaufen, falls ein Tag nicht
+     *             geladen werden kann.
+     * 
+     * @require von != null
+     * @require bis != null
+     * @ensure result != null
+     */
+    public Iterable<Tagesplan> getTagesplaene(Datum von, Datum bis)
+    {
+        assert von != null : "Vorbedingung verletzt: von != null";
+        assert bis != null : "Vorbedingung verletzt: bis != null";
+
+        int erster = von.getEpochentag();
+        int letzter = bis.getEpochentag();
+        return () -> new Tagesplandurchlauf(erster, letzter);
+    }
+
+    /**
+     * Gibt die Vorstellungen der Tage von <code>von</code> bis einschließlich
+     * <code>bis</code> zurück, nach Tag und Anfangszeit sortiert. Wie bei
+     * {@link #getTagesplaene(Datum, Datum)} werden die Tage erst beim
+     * Durchlaufen nachgeschlagen.
+     * 
+     * @param von der erste Tag.
+     * @param bis der letzte Tag.
+     * 
+     * @throws UncheckedIOException beim Durchlaufen, falls ein Tag nicht
+     *             geladen werden kann.
+     * 
+     * @require von != null
+     * @require bis != null
+     * @ensure result != null
+     */
+    public Iterable<Vorstellung> getVorstellungen(Datum von, Datum bis)
+    {
+        assert von != null : "Vorbedingung verletzt: von != null";
+        assert bis != null : "Vorbedingung verletzt: bis != null";
+
+        Iterable<Tagesplan> tagesplaene = getTagesplaene(von, bis);
+        return () -> new Vorstellungsdurchlauf(tagesplaene.iterator());
+    }
+
+    /**
+     * Gibt die Tage des angegebenen Monats zurück, an denen Vorstellungen
+     * laufen, aufsteigend sortiert. Hat das Kino einen Tagesspeicher, werden
+     * die Tage seinem Verzeichnis entnommen, ohne einen Tag zu laden.
+     * 
+     * @param monat der Monat im Jahr (1..12).
+     * @param jahr das Jahr.
+     * 
+     * @require monat >= 1 && monat <= 12
+     * @ensure result != null
+     */
+    public Iterable<Datum> getTageMitVorstellungen(int monat, int jahr)
+    {
+        assert monat >= 1 && monat <= 12 : "Vorbedingung verletzt: monat >= 1 && monat <= 12";
+
+        int erster = new Datum(1, monat, jahr).getEpochentag();
+        int letzter = (monat == 12 ? new Datum(1, 1, jahr + 1) : new Datum(1,
+                monat + 1, jahr)).getEpochentag() - 1;
+        Iterable<Datum> tage;
+        if (_speicher == null)
+        {
+            tage = () -> new Iterator<Datum>()
+            {
+                private final Iterator<Tagesplan> _tagesplaene = new Tagesplandurchlauf(
+                        erster, letzter);
+
+                @Override
+                public boolean hasNext()
+                {
+                    return _tagesplaene.hasNext();
+                }
+
+                @Override
+                public Datum next()
+                {
+                    return _tagesplaene.next().getDatum();
+                }
+            };
+        }
+        else
+        {
+            tage = Collections.unmodifiableList(Arrays.asList(_tage).subList(
+                    ersterTagAb(erster), ersterTagAb(letzter + 1)));
+        }
+        return tage;
+    }
+
+    /**
+     * Gibt den ersten Tag ab dem angegebenen Tag zurück, an dem Vorstellungen
+     * laufen, oder <code>null</code>, falls danach keine mehr laufen.
+     * 
+     * @param ab der erste Tag, der in Frage kommt.
+     * 
+     * @throws UncheckedIOException falls ein Tag nicht geladen werden kann.
+     * 
+     * @require ab != null
+     */
+    public Datum getNaechstenTagMitVorstellungen(Datum ab)
+    {
+        assert ab != null : "Vorbedingung verletzt: ab != null";
+
+        Tagesplan tagesplan = naechsterTagesplan(ab.getEpochentag(),
+                Integer.MAX_VALUE);
+        return tagesplan != null ? tagesplan.getDatum() : null;
+    }
+
+    /**
+     * Gibt eine andere Vorstellung zurück, die sich im selben Kinosaal mit
+     * der angegebenen Vorstellung überschneidet, oder <code>null</code>,
+     * falls es keine gibt. Die angegebene Vorstellung muss nicht zum Kino
+     * gehören; so kann eine neue Vorstellung geprüft werden, bevor sie
+     * hinzugefügt wird. Hat das Kino einen Tagesspeicher, werden dafür der
+     * Tag der Vorstellung und seine Nachbartage geladen.
+     * 
+     * @param vorstellung die Vorstellung.
+     * 
+     * @throws UncheckedIOException falls ein Tag nicht geladen werden kann.
+     * 
+     * @require vorstellung != null
+     * @require hatKinosaal(vorstellung.getKinosaal())
+     */
+    public synchronized Vorstellung getUeberschneidung(Vorstellung vorstellung)
+    {
+        assert vorstellung != null : "Vorbedingung verletzt: vorstellung != null";
+        assert hatKinosaal(vorstellung.getKinosaal()) : "Vorbedingung verletzt: hatKinosaal(vorstellung.getKinosaal())";
+
+        int tag = vorstellung.getDatum().getEpochentag();
+        ladeTage(tag - 1, tag + 1);
+        Vorstellung ueberschneidung = ueberschneidung(
+                vorstellung.getKinosaal(), vorstellung);
+        verdraengeUeberBudget(vorstellung.getDatum());
+        return ueberschneidung;
+    }
+
+    /**
+     * Gibt die Vorstellung zurück, die zu der angegebenen Zeit im
+     * angegebenen Kinosaal läuft, oder <code>null</code>, falls dort gerade
+     * nichts läuft. Berücksichtigt werden auch Vorstellungen vom Vortag, die
+     * über Mitternacht gehen. Eine Vorstellung läuft ab ihrer Anfangszeit bis
+     * vor ihre Endzeit.
+     * 
+     * @param kinosaal der Kinosaal.
+     * @param tag der Tag.
+     * @param zeit die Uhrzeit.
+     * 
+     * @throws UncheckedIOException falls ein Tag nicht geladen werden kann.
+     * 
+     * @require kinosaal != null
+     * @require hatKinosaal(kinosaal)
+     * @require tag != null
+     * @require zeit != null
+     */
+    public synchronized Vorstellung getLaufendeVorstellung(Kinosaal kinosaal,
+            Datum tag, Uhrzeit zeit)
+    {
+        assert kinosaal != null : "Vorbedingung verletzt: kinosaal != null";
+        assert hatKinosaal(kinosaal) : "Vorbedingung verletzt: hatKinosaal(kinosaal)";
+        assert tag != null : "Vorbedingung verletzt: tag != null";
+        assert zeit != null : "Vorbedingung verletzt: zeit != null";
+
+        ladeTage(tag.getEpochentag() - 1, tag.getEpochentag());
+        Vorstellung laufend = _kalender.get(kinosaal).getLaufend(
+                Saalkalender.minute(tag, zeit));
+        verdraengeUeberBudget(tag);
+        return laufend;
+    }
+
+    /**
+     * Verlegt eine Vorstellung dieses Kinos in einen anderen Kinosaal, wie
+     * {@link Vorstellung#verlegeIn(Kinosaal, Collection)}, und trägt sie
+     * dabei im Saalkalender des neuen Saals ein. Die angemeldeten
+     * Anbindungen, etwa das Verkaufsjournal, binden die Vorstellung unter
+     * ihrem neuen Schlüssel an, bevor wieder verkauft werden kann.
+     * 
+     * @param vorstellung die Vorstellung.
+     * @param kinosaal der neue Kinosaal.
+     * 
+     * @return die Zuordnung der alten zu den neuen Plätzen.
+     * 
+     * @throws UncheckedIOException falls ein Tag nicht geladen werden kann
+     *             oder das Verkaufsjournal die übertragenen Plätze nicht
+     *             festhalten kann.
+     * 
+     * @require vorstellung != null
+     * @require kinosaal != null
+     * @require hatKinosaal(kinosaal)
+     * @require die Vorstellung überschneidet sich im neuen Saal mit keiner
+     *          anderen
+     * 
+     * @ensure result != null
+     */
+    public synchronized Verlegung verlegeVorstellung(Vorstellung vorstellung,
+            Kinosaal kinosaal)
+    {
+        assert vorstellung != null : "Vorbedingung verletzt: vorstellung != null";
+        assert kinosaal != null : "Vorbedingung verletzt: kinosaal != null";
+        assert hatKinosaal(kinosaal) : "Vorbedingung verletzt: hatKinosaal(kinosaal)";
+
+        int tag = vorstellung.getDatum().getEpochentag();
+        ladeTage(tag - 1, tag + 1);
+        assert ueberschneidung(kinosaal, vorstellung) == null : "Vorbedingung verletzt: die Vorstellung überschneidet sich im neuen Saal mit keiner anderen";
+
+        trageAus(vorstellung);
+        Verlegung verlegung = vorstellung.verlegeIn(kinosaal, _anbindungen);
+        trageEin(vorstellung);
+        return verlegung;
+    }
+
+    /**
+     * Meldet eine Anbindung an, die ab jetzt über jede Vorstellung informiert
+     * wird, die aus dem Tagesspeicher geladen oder verdrängt wird. Die
+     * Vorstellungen, die schon geladen sind, werden sofort angebunden, bei
+     * einem Kino ohne Tagesspeicher also alle.
+     * 
+     * @require anbindung != null
+     */
+    synchronized void meldeAn(Anbindung anbindung)
+    {
+        assert anbindung != null : "Vorbedingung verletzt: anbindung != null";
+
+        _anbindungen.add(anbindung);
+        Collection<Tagesplan> geladen = _speicher == null ? tagesplaeneAb(null)
+                : _benutzt.values();
+        for (Tagesplan tagesplan : geladen)
+        {
+            for (Vorstellung vorstellung : tagesplan.getVorstellungen())
+            {
+                anbindung.binde(vorstellung);
+            }
+        }
+    }
+
+    /**
+     * Gibt die Tagespläne ab dem angegebenen Tag zurück, nach Tag sortiert.
+     * Hat das Kino einen Tagesspeicher, werden die Tage dafür geladen.
+     * 
+     * @param ab der erste Tag oder <code>null</code> für alle Tage.
+     */
+    private List<Tagesplan> tagesplaeneAb(Datum ab)
+    {
+        List<Tagesplan> tagesplaene = new ArrayList<>();
+        if (_speicher == null)
+        {
+            int letzter = _tagesplaene.getLetzterTag();
+            int tag = _tagesplaene.getErsterTag();
+            if (ab != null)
+            {
+                tag = Math.max(tag, ab.getEpochentag());
+            }
+            for (; tag <= letzter; tag++)
+            {
+                Tagesplan tagesplan = _tagesplaene.get(tag);
+                if (tagesplan != null)
+                {
+                    tagesplaene.add(tagesplan);
+                }
+            }
+        }
+        else
+        {
+            int erster = ab == null ? 0 : ersterTagAb(ab.getEpochentag());
+            for (int i = erster; i < _tage.length; i++)
+            {
+                Tagesplan tagesplan = geladenerTagesplan(_tage[i]);
+                if (tagesplan != null)
+                {
+                    tagesplaene.add(tagesplan);
+                }
+            }
+        }
+        return tagesplaene;
+    }
+
+    /**
+     * Gibt den Tagesplan des ersten Tages von <code>von</code> bis
+     * einschließlich <code>bis</code> zurück, an dem Vorstellungen laufen,
+     * oder <code>null</code>, falls es keinen gibt. Hat das Kino einen
+     * Tagesspeicher, wird nur dieser Tag geladen.
+     */
+    private Tagesplan naechsterTagesplan(int von, int bis)
+    {
+        Tagesplan tagesplan = null;
+        if (_speicher == null)
+        {
+            tagesplan = _tagesplaene.naechster(von, bis);
+        }
+        else
+        {
+            for (int i = ersterTagAb(von); tagesplan == null
+                    && i < _tage.length && _tage[i].getEpochentag() <= bis; i++)
+            {
+                tagesplan = nachgeladenerTagesplan(_tage[i]);
+            }
+        }
+        return tagesplan;
+    }
+
+    /**
+     * Gibt die Position des ersten Tages im Tagesspeicher zurück, der nicht
+     * vor dem angegebenen Tag liegt, oder die Anzahl der Tage, falls es
+     * keinen gibt.
+     */
+    private int ersterTagAb(int epochentag)
+    {
+        int von = 0;
+        int bis = _tage.length;
+        while (von < bis)
+        {
+            int mitte = (von + bis) >>> 1;
+            if (_tage[mitte].getEpochentag() < epochentag)
+            {
+                von = mitte + 1;
+            }
+            else
+            {
+                bis = mitte;
+            }
+        }
+        return von;
+    }
+
+    /**
+     * Gibt den Tagesplan des angegebenen Tages zurück, lädt ihn falls nötig
+     * aus dem Tagesspeicher, und gibt <code>null</code> zurück, falls an dem
+     * Tag nichts läuft.
+     */
+    private Tagesplan geladenerTagesplan(Datum tag)
+    {
+        Tagesplan tagesplan = _speicher != null ? _benutzt.get(tag)
+                : _tagesplaene.get(tag.getEpochentag());
+        if (tagesplan == null && _speicher != null)
+        {
+            List<Vorstellung> vorstellungen;
+            try
+            {
+                vorstellungen = _speicher.lade(tag);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            if (!vorstellungen.isEmpty())
+            {
+                tagesplan = new Tagesplan(tag);
+                for (Vorstellung vorstellung : vorstellungen)
+                {
+                    tagesplan.fuegeVorstellungHinzu(vorstellung);
+                    trageEin(vorstellung);
+                    for (Anbindung anbindung : _anbindungen)
+                    {
+                        anbindung.binde(vorstellung);
+                    }
+                }
+                _tagesplaene.setze(tagesplan);
+                _benutzt.put(tag, tagesplan);
+                _belegt += groesse(tagesplan);
+            }
+        }
+        return tagesplan;
+    }
+
+    /**
+     * Verdrängt die am längsten nicht benutzten Tage, bis die geladenen
+     * Vorstellungen das Budget einhalten oder kein Tag mehr verdrängt werden
+     * darf.
+     * 
+     * @param behalten ein Tag, der gerade gebraucht wird.
+     */
+    private void verdraenge(Datum behalten)
+    {
+        int heute = Datum.heute().getEpochentag();
+        Iterator<Tagesplan> tagesplaene = _benutzt.values().iterator();
+        while (_belegt > _budget && tagesplaene.hasNext())
+        {
+            Tagesplan tagesplan = tagesplaene.next();
+            int tag = tagesplan.getDatum().getEpochentag();
+            boolean heiss = tag >= heute && tag <= heute + _fenster;
+            if (!heiss && !tagesplan.getDatum().equals(behalten)
+                    && istVerdraengbar(tagesplan))
+            {
+                tagesplaene.remove();
+                _tagesplaene.entferne(tag);
+                _belegt -= groesse(tagesplan);
+                for (Vorstellung vorstellung : tagesplan.getVorstellungen())
+                {
+                    trageAus(vorstellung);
+                    for (Anbindung anbindung : _anbindungen)
+                    {
+                        anbindung.loese(vorstellung);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Lädt die angegebenen Tage, falls das Kino einen Tagesspeicher hat.
+     * 
+     * @param von der erste Tag.
+     * @param bis der letzte Tag, einschließlich.
+     */
+    private void ladeTage(int von, int bis)
+    {
+        if (_speicher != null)
+        {
+            for (int i = ersterTagAb(von); i < _tage.length
+                    && _tage[i].getEpochentag() <= bis; i++)
+            {
+                geladenerTagesplan(_tage[i]);
+            }
+        }
+    }
+
+    /**
+     * Verdrängt Tage, falls die geladenen Vorstellungen das Budget
+     * überschreiten.
+     * 
+     * @param behalten ein Tag, der gerade gebraucht wird.
+     */
+    private void verdraengeUeberBudget(Datum behalten)
+    {
+        if (_belegt > _budget)
+        {
+            verdraenge(behalten);
+        }
+    }
+
+    /**
+     * Gibt eine geladene Vorstellung zurück, die sich im angegebenen Saal mit
+     * der angegebenen Vorstellung überschneidet, oder <code>null</code>.
+     */
+    private Vorstellung ueberschneidung(Kinosaal kinosaal,
+            Vorstellung vorstellung)
+    {
+        return _kalender.get(kinosaal).getUeberschneidung(
+                Saalkalender.anfang(vorstellung),
+                Saalkalender.ende(vorstellung), vorstellung);
+    }
+
+    /**
+     * Trägt eine Vorstellung im Saalkalender ihres Saals ein. Überschneidet
+     * sie sich dort mit einer anderen, etwa in einer Programmdatei aus der
+     * Zeit vor den Saalkalendern, bleibt sie uneingetragen, damit die
+     * Einträge überschneidungsfrei bleiben, und wird für
+     * {@link #getUeberschneidungen()} vermerkt.
+     */
+    private void trageEin(Vorstellung vorstellung)
+    {
+        Saalkalender<Vorstellung> kalender = _kalender.get(vorstellung
+                .getKinosaal());
+        long anfang = Saalkalender.anfang(vorstellung);
+        long ende = Saalkalender.ende(vorstellung);
+        Vorstellung andere = kalender.getUeberschneidung(anfang, ende, null);
+        if (andere == null)
+        {
+            kalender.trageEin(anfang, ende, vorstellung);
+        }
+        else
+        {
+            _ueberschneidungen.put(vorstellung.getSchluessel(), vorstellung);
+        }
+    }
+
+    /**
+     * Gibt die Vorstellungen zurück, die sich beim Laden mit einer anderen im
+     * selben Saal überschnitten haben, in der Reihenfolge, in der sie geladen
+     * wurden. Sie laufen weiter in ihrem Tagesplan, fehlen aber im
+     * Saalkalender, so dass etwa {@link #getUeberschneidung(Vorstellung)}
+     * sie nicht findet. Hat das Kino einen Tagesspeicher, enthält die Liste
+     * nur die Vorstellungen der bisher geladenen Tage.
+     * 
+     * @ensure result != null
+     */
+    public synchronized List<Vorstellung> getUeberschneidungen()
+    {
+        return new ArrayList<>(_ueberschneidungen.values());
+    }
+
+    /**
+     * Trägt eine Vorstellung aus dem Saalkalender ihres Saals aus.
+     */
+    private void trageAus(Vorstellung vorstellung)
+    {
+        _kalender.get(vorstellung.getKinosaal()).trageAus(
+                Saalkalender.anfang(vorstellung), vorstellung);
+    }
+
+    /**
+     * Prüft, ob alle Vorstellungen des Tagesplans verdrängt werden dürfen.
+     */
+    private static boolean istVerdraengbar(Tagesplan tagesplan)
+    {
+        boolean verdraengbar = true;
+        for (Vorstellung vorstellung : tagesplan.getVorstellungen())
+        {
+            verdraengbar &= vorstellung.istVerdraengbar();
+        }
+        return verdraengbar;
+    }
+
+    /**
+     * Schätzt den Speicherbedarf der Vorstellungen eines Tagesplans.
+     */
+    private static long groesse(Tagesplan tagesplan)
+    {
+        long groesse = 0;
+        for (Vorstellung vorstellung : tagesplan.getVorstellungen())
+        {
+            groesse += GROESSE_VORSTELLUNG + GROESSE_WORT
+                    * vorstellung.getBelegung().getAnzahlWoerter();
+        }
+        return groesse;
+    }
+
+    /**
+     * Blockiert die angegebenen Plätze in allen Vorstellungen des angegebenen
+     * Kinosaals ab dem angegebenen Tag, etwa weil die Sitze defekt sind. Pro
+     * Vorstellung wird jedes Belegungswort nur einmal gewechselt. Bereits
+     * verkaufte Plätze werden storniert. Hat das Kino einen Tagesspeicher,
+     * wird dafür ein Tag nach dem anderen geladen und wie bei
+     * {@link #getTagesplan(Datum)} verdrängt.
+     * 
+     * @param kinosaal der Kinosaal.
+     * @param plaetze die Plätze.
+     * @param ab der erste Tag, an dem die Plätze blockiert werden.
+     * 
+     * @return pro Vorstellung, in der Plätze storniert wurden, die
+     *         stornierten Plätze. Die Vorstellungen sind nach Tag und
+     *         Anfangszeit sortiert.
+     * 
+     * @throws UncheckedIOException falls ein Tag nicht geladen werden kann.
+     * 
+     * @require kinosaal != null
+     * @require hatKinosaal(kinosaal)
+     * @require plaetze != null
+     * @require ab != null
+     * 
+     * @ensure result != null
+     */
+    public synchronized Map<Vorstellung, Platzmaske> blockierePlaetze(Kinosaal kinosaal,
+            Platzmaske plaetze, Datum ab)
+    {
+        assert kinosaal != null : "Vorbedingung verletzt: kinosaal != null";
+        assert hatKinosaal(kinosaal) : "Vorbedingung verletzt: hatKinosaal(kinosaal)";
+        assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
+        assert ab != null : "Vorbedingung verletzt: ab != null";
+
+        Map<Vorstellung, Platzmaske> storniert = new LinkedHashMap<>();
+        Iterator<Tagesplan> tagesplaene = new Tagesplandurchlauf(
+                ab.getEpochentag(), letzterTag());
+        while (tagesplaene.hasNext())
+        {
+            for (Vorstellung vorstellung : tagesplaene.next()
+                    .getVorstellungen())
+            {
+                if (vorstellung.getKinosaal().equals(kinosaal))
+                {
+                    Platzmaske erstattung = vorstellung
+                            .blockierePlaetze(plaetze);
+                    if (!erstattung.istLeer())
+                    {
+                        storniert.put(vorstellung, erstattung);
+                    }
+                }
+            }
+        }
+        return storniert;
+    }
+
+    /**
+     * Durchläuft die Tagespläne der Tage mit Vorstellungen in einem Zeitraum.
+     * Der nächste Tagesplan wird erst gesucht, wenn er gebraucht wird.
+     */
+    private final class Tagesplandurchlauf implements Iterator<Tagesplan>
+    {
+        private final int _bis;
+
+        // Der Tag, ab dem als nächstes gesucht wird, und der gefundene, aber
+        // noch nicht zurückgegebene Tagesplan.
+        private long _ab;
+        private Tagesplan _naechster;
+
+        Tagesplandurchlauf(int von, int bis)
+        {
+            _ab = von;
+            _bis = bis;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (_naechster == null && _ab <= _bis)
+            {
+                _naechster = naechsterTagesplan((int) _ab, _bis);
+                _ab = _naechster == null ? _bis + 1L : _naechster.getDatum()
+                        .getEpochentag() + 1L;
+            }
+            return _naechster != null;
+        }
+
+        @Override
+        public Tagesplan next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            Tagesplan tagesplan = _naechster;
+            _naechster = null;
+            return tagesplan;
+        }
+    }
+
+    /**
+     * Durchläuft die Vorstellungen einer Folge von Tagesplänen.
+     */
+    private static final class Vorstellungsdurchlauf implements
+            Iterator<Vorstellung>
+    {
+        private final Iterator<Tagesplan> _tagesplaene;
+        private Iterator<Vorstellung> _vorstellungen;
+
+        Vorstellungsdurchlauf(Iterator<Tagesplan> tagesplaene)
+        {
+            _tagesplaene = tagesplaene;
+            _vorstellungen = Collections.emptyIterator();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            while (!_vorstellungen.hasNext() && _tagesplaene.hasNext())
+            {
+                _vorstellungen = _tagesplaene.next().getVorstellungen()
+                        .iterator();
+            }
+            return _vorstellungen.hasNext();
+        }
+
+        @Override
+        public Vorstellung next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            return _vorstellungen.next();
+        }
+    }
+
+    /**
+     * Wird informiert, wenn ein Kino mit Tagesspeicher eine Vorstellung lädt
+     * oder verdrängt, damit etwa Journal und Belegungsspeicher die neu
+     * geladenen Vorstellungen wieder anbinden.
+     */
+    interface Anbindung
+    {
+        /**
+         * Bindet eine gerade geladene Vorstellung an.
+         */
+        void binde(Vorstellung vorstellung);
+
+        /**
+         * Löst eine Vorstellung, die verdrängt wird.
+         */
+        void loese(Vorstellung vorstellung);
+    }
 }
@@ -6,13 +6,21 @@ import org.junit.Test;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platzzustand;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class KinoTest
@@ -140,4 +148,333 @@ public class KinoTest
         assertFalse(_saal0.hatPlatz(new Platz(25, 0)));
         assertFalse(_saal0.hatPlatz(new Platz(25, 40)));
     }
+
+    @Test
+    public void testeBlockierePlaetze()
+    {
+        _vorstellungSaal2Film2a.verkaufePlatz(new Platz(3, 4));
+        _vorstellungSaal1Film0.verkaufePlatz(new Platz(3, 4));
+        Platzmaske defekt = Platzmaske.ausPlaetzen(Arrays.asList(new Platz(3,
+                4), new Platz(3, 5)));
+
+        Map<Vorstellung, Platzmaske> storniert = _kino.blockierePlaetze(
+                _saal2, defekt, _d1);
+        assertEquals(1, storniert.size());
+        assertTrue(storniert.get(_vorstellungSaal2Film2a).enthaelt(3, 4));
+        assertEquals(Platzzustand.BLOCKIERT, _vorstellungSaal2Film1
+                .getPlatzzustand(3, 5));
+        assertEquals(Platzzustand.BLOCKIERT, _vorstellungSaal2Film2b
+                .getPlatzzustand(3, 4));
+        assertEquals(Platzzustand.VERKAUFT, _vorstellungSaal1Film0
+                .getPlatzzustand(3, 4));
+
+        // Vorstellungen vor dem angegebenen Tag bleiben unverändert.
+        assertTrue(_kino.blockierePlaetze(_saal1, defekt, _d1.naechsterTag())
+                .isEmpty());
+        assertEquals(Platzzustand.VERKAUFT, _vorstellungSaal1Film0
+                .getPlatzzustand(3, 4));
+    }
+
+    @Test
+    public void testeZeitraumAbfragen()
+    {
+        Vorstellung uebermorgen = new Vorstellung(_saal0, _film0, _u1, _u2,
+                _d1.plus(2), 900);
+        Vorstellung august = new Vorstellung(_saal0, _film1, _u2, _u3,
+                _d1.plus(40), 900);
+        List<Vorstellung> vorstellungen = new ArrayList<>(
+                Arrays.asList(_alleVorstellungen));
+        vorstellungen.add(august);
+        vorstellungen.add(uebermorgen);
+        Kino kino = new Kino(_alleSaele,
+                vorstellungen.toArray(new Vorstellung[0]));
+
+        List<Datum> tage = new ArrayList<>();
+        for (Tagesplan tagesplan : kino.getTagesplaene(_d1.minus(3),
+                _d1.plus(39)))
+        {
+            tage.add(tagesplan.getDatum());
+        }
+        assertEquals(Arrays.asList(_d1, _d1.plus(2)), tage);
+
+        List<Vorstellung> zeitraum = new ArrayList<>();
+        kino.getVorstellungen(_d1.plus(1), _d1.plus(40)).forEach(
+                zeitraum::add);
+        assertEquals(Arrays.asList(uebermorgen, august), zeitraum);
+        assertEquals(_vorstellungSaal2Film2b, letztesElement(kino
+                .getVorstellungen(_d1, _d1)));
+
+        tage.clear();
+        kino.getTageMitVorstellungen(7, 2008).forEach(tage::add);
+        assertEquals(Arrays.asList(_d1, _d1.plus(2)), tage);
+        tage.clear();
+        kino.getTageMitVorstellungen(8, 2008).forEach(tage::add);
+        assertEquals(Arrays.asList(_d1.plus(40)), tage);
+        assertFalse(kino.getTageMitVorstellungen(12, 2008).iterator()
+                .hasNext());
+
+        assertEquals(_d1, kino.getNaechstenTagMitVorstellungen(_d1.minus(
+                1000)));
+        assertEquals(_d1.plus(2), kino.getNaechstenTagMitVorstellungen(_d1
+                .plus(1)));
+        assertNull(kino.getNaechstenTagMitVorstellungen(_d1.plus(41)));
+    }
+
+    @Test
+    public void testeZeitraumLaedtNurTageMitVorstellungen()
+    {
+        Testspeicher speicher = new Testspeicher(_d1, _d1.plus(2),
+                _d1.plus(3), _d1.plus(40));
+        Kino kino = new Kino(speicher, 0, Long.MAX_VALUE);
+
+        Iterator<Tagesplan> tagesplaene = kino.getTagesplaene(_d1.plus(1),
+                _d1.plus(39)).iterator();
+        assertEquals(0, speicher._geladen);
+        assertEquals(_d1.plus(2), tagesplaene.next().getDatum());
+        assertEquals(1, speicher._geladen);
+        assertEquals(_d1.plus(3), tagesplaene.next().getDatum());
+        assertFalse(tagesplaene.hasNext());
+        assertEquals(2, speicher._geladen);
+
+        assertEquals(_d1.plus(40), kino.getNaechstenTagMitVorstellungen(_d1
+                .plus(4)));
+        assertEquals(3, speicher._geladen);
+        assertNull(kino.getNaechstenTagMitVorstellungen(_d1.plus(41)));
+    }
+
+    @Test
+    public void testeUeberschneidungen()
+    {
+        Datum morgen = _d1.plus(1);
+        assertSame(_vorstellungSaal2Film2b, _kino.getUeberschneidung(
+                new Vorstellung(_saal2, _film0, new Uhrzeit(0, 30),
+                        new Uhrzeit(2, 0), morgen, 900)));
+        assertNull(_kino.getUeberschneidung(new Vorstellung(_saal2, _film0,
+                _u4, new Uhrzeit(3, 0), morgen, 900)));
+        assertSame(_vorstellungSaal2Film1, _kino.getUeberschneidung(
+                new Vorstellung(_saal2, _film0, new Uhrzeit(15, 0), _u2, _d1,
+                        900)));
+        assertNull(_kino.getUeberschneidung(new Vorstellung(_saal0, _film0,
+                _u1, _u2, _d1, 900)));
+        assertNull(_kino.getUeberschneidung(_vorstellungSaal2Film2a));
+    }
+
+    @Test
+    public void testeLaufendeVorstellung()
+    {
+        Datum morgen = _d1.plus(1);
+        assertSame(_vorstellungSaal2Film2b, _kino.getLaufendeVorstellung(
+                _saal2, morgen, new Uhrzeit(1, 0)));
+        assertNull(_kino.getLaufendeVorstellung(_saal2, morgen, _u4));
+        assertSame(_vorstellungSaal2Film2a, _kino.getLaufendeVorstellung(
+                _saal2, _d1, _u2));
+        assertSame(_vorstellungSaal1Film0, _kino.getLaufendeVorstellung(
+                _saal1, _d1, new Uhrzeit(19, 59)));
+        assertNull(_kino.getLaufendeVorstellung(_saal1, _d1, _u2));
+        assertNull(_kino.getLaufendeVorstellung(_saal0, _d1, _u2));
+
+        _kino.verlegeVorstellung(_vorstellungSaal1Film0, _saal0);
+        assertSame(_vorstellungSaal1Film0, _kino.getLaufendeVorstellung(
+                _saal0, _d1, _u1));
+        assertNull(_kino.getLaufendeVorstellung(_saal1, _d1, _u1));
+    }
+
+    @Test
+    public void testeLaufendeVorstellungLaedtTage()
+    {
+        Testspeicher speicher = new Testspeicher(_d1, _d1.plus(1),
+                _d1.plus(3));
+        Kino kino = new Kino(speicher, 0, Long.MAX_VALUE);
+
+        Vorstellung laufend = kino.getLaufendeVorstellung(_saal0, _d1,
+                new Uhrzeit(18, 0));
+        assertEquals(_d1, laufend.getDatum());
+        assertEquals(1, speicher._geladen);
+        assertSame(laufend, kino.getUeberschneidung(new Vorstellung(_saal0,
+                _film1, new Uhrzeit(19, 0), new Uhrzeit(21, 0), _d1, 900)));
+        assertEquals(2, speicher._geladen);
+        assertNull(kino.getUeberschneidung(new Vorstellung(_saal0, _film1,
+                new Uhrzeit(19, 0), new Uhrzeit(21, 0), _d1.plus(2), 900)));
+        assertEquals(3, speicher._geladen);
+    }
+
+    /**
+     * Gibt das letzte Element zurück.
+     */
+    private static <T> T letztesElement(Iterable<T> elemente)
+    {
+        T letztes = null;
+        for (T element : elemente)
+        {
+            letztes = element;
+        }
+        return letztes;
+    }
+
+    /**
+     * Ein Tagesspeicher mit einer Vorstellung im Saal 0 an jedem der
+     * angegebenen Tage, der mitzählt, wie oft er lädt.
+     */
+    private class Testspeicher implements Tagesspeicher
+    {
+        private final List<Datum> _tage;
+        private int _geladen;
+
+        Testspeicher(Datum... tage)
+        {
+            _tage = Arrays.asList(tage);
+        }
+
+        @Override
+        public List<Kinosaal> getKinosaele()
+        {
+            return Arrays.asList(_alleSaele);
+        }
+
+        @Override
+        public List<Datum> getTage()
+        {
+            return _tage;
+        }
+
+        @Override
+        public List<Vorstellung> lade(Datum tag)
+        {
+            List<Vorstellung> vorstellungen = new ArrayList<>();
+            if (_tage.contains(tag))
+            {
+                _geladen++;
+                vorstellungen.add(new Vorstellung(_saal0, _film0, _u1, _u2,
+                        tag, 900));
+            }
+            return vorstellungen;
+        }
+    }
+
+    // Ein Budget, in das genau zwei Vorstellungen im Saal 0 passen.
+    private static final long ZWEI_VORSTELLUNGEN = 2 * (512 + 24 * 25 * 2);
+
+    @Test
+    public void testeTageWerdenBeiBedarfGeladenUndVerdraengt()
+    {
+        Testspeicher speicher = new Testspeicher(_d1, _d1.plus(1),
+                _d1.plus(2), _d1.plus(3));
+        Kino kino = new Kino(speicher, 0, ZWEI_VORSTELLUNGEN);
+        assertEquals(0, speicher._geladen);
+
+        Vorstellung erste = kino.getTagesplan(_d1).getVorstellungen().get(0);
+        assertSame(erste, kino.getTagesplan(_d1).getVorstellungen().get(0));
+        kino.getTagesplan(_d1.plus(1));
+        kino.getTagesplan(_d1.plus(2));
+        kino.getTagesplan(_d1.plus(3));
+        assertEquals(4, speicher._geladen);
+        assertTrue(kino.getTagesplan(_d1.minus(1)).getVorstellungen()
+                .isEmpty());
+
+        // Der erste Tag wurde verdrängt und wird neu geladen.
+        Vorstellung neu = kino.getTagesplan(_d1).getVorstellungen().get(0);
+        assertEquals(5, speicher._geladen);
+        assertNotSame(erste, neu);
+        assertEquals(_d1, neu.getDatum());
+    }
+
+    @Test
+    public void testeTageMitVorstellungenLadenKeinenTag()
+    {
+        Datum august = new Datum(1, 8, 2008);
+        Testspeicher speicher = new Testspeicher(_d1, _d1.plus(2),
+                august.minus(1), august, august.plus(5));
+        Kino kino = new Kino(speicher, 0, 0);
+
+        List<Datum> tage = new ArrayList<>();
+        kino.getTageMitVorstellungen(7, 2008).forEach(tage::add);
+        assertEquals(Arrays.asList(_d1, _d1.plus(2), august.minus(1)), tage);
+        tage.clear();
+        kino.getTageMitVorstellungen(8, 2008).forEach(tage::add);
+        assertEquals(Arrays.asList(august, august.plus(5)), tage);
+        assertFalse(kino.getTageMitVorstellungen(12, 2008).iterator()
+                .hasNext());
+        assertEquals(0, speicher._geladen);
+    }
+
+    @Test
+    public void testeUngesicherteAenderungenWerdenNichtVerdraengt()
+    {
+        Testspeicher speicher = new Testspeicher(_d1, _d1.plus(1),
+                _d1.plus(2), _d1.plus(3));
+        Kino kino = new Kino(speicher, 0, ZWEI_VORSTELLUNGEN);
+        Vorstellung reserviert = kino.getTagesplan(_d1).getVorstellungen()
+                .get(0);
+        reserviert.erzeugeReservierung(60000).reserviere(
+                Collections.singleton(new Platz(1, 1)));
+        Vorstellung beobachtet = kino.getTagesplan(_d1.plus(1))
+                .getVorstellungen().get(0);
+        beobachtet.addBelegungsListener(event -> {
+        });
+        kino.getTagesplan(_d1.plus(2));
+        kino.getTagesplan(_d1.plus(3));
+
+        assertSame(reserviert, kino.getTagesplan(_d1).getVorstellungen()
+                .get(0));
+        assertSame(beobachtet, kino.getTagesplan(_d1.plus(1))
+                .getVorstellungen().get(0));
+        assertEquals(Platzzustand.RESERVIERT, reserviert
+                .getPlatzzustand(new Platz(1, 1)));
+        assertEquals(4, speicher._geladen);
+    }
+
+    @Test
+    public void testeHeisseTageWerdenNichtVerdraengt()
+    {
+        Datum heute = Datum.heute();
+        Testspeicher speicher = new Testspeicher(_d1, heute, heute.plus(2),
+                heute.plus(3));
+        Kino kino = new Kino(speicher, 2, 0);
+        Vorstellung heutige = kino.getTagesplan(heute).getVorstellungen()
+                .get(0);
+        Vorstellung uebermorgen = kino.getTagesplan(heute.plus(2))
+                .getVorstellungen().get(0);
+        kino.getTagesplan(heute.plus(3));
+        kino.getTagesplan(_d1);
+        kino.getTagesplan(heute.plus(3));
+
+        assertSame(heutige, kino.getTagesplan(heute).getVorstellungen().get(
+                0));
+        assertSame(uebermorgen, kino.getTagesplan(heute.plus(2))
+                .getVorstellungen().get(0));
+        assertEquals(5, speicher._geladen);
+    }
+
+    @Test
+    public void testeUeberschneidungBeimLadenWirdGemeldet()
+    {
+        Testspeicher speicher = new Testspeicher(_d1, _d1.naechsterTag())
+        {
+            @Override
+            public List<Vorstellung> lade(Datum tag)
+            {
+                List<Vorstellung> vorstellungen = super.lade(tag);
+                if (tag.equals(_d1))
+                {
+                    vorstellungen.add(new Vorstellung(_saal0, _film1,
+                            new Uhrzeit(19, 0), new Uhrzeit(21, 0), tag, 900));
+                }
+                return vorstellungen;
+            }
+        };
+        Kino kino = new Kino(speicher, 0, 0);
+        assertEquals(2, kino.getTagesplan(_d1).getVorstellungen().size());
+        // Ein erneut geladener Tag meldet dieselbe Vorstellung nicht doppelt.
+        kino.getTagesplan(_d1.naechsterTag());
+        kino.getTagesplan(_d1);
+        assertEquals(3, speicher._geladen);
+
+        List<Vorstellung> ueberschneidungen = kino.getUeberschneidungen();
+        assertEquals(1, ueberschneidungen.size());
+        assertEquals(_film1, ueberschneidungen.get(0).getFilm());
+        assertEquals(new Uhrzeit(19, 0), ueberschneidungen.get(0)
+                .getAnfangszeit());
+        assertEquals(_film0, kino.getLaufendeVorstellung(_saal0, _d1,
+                new Uhrzeit(19, 30)).getFilm());
+    }
 }
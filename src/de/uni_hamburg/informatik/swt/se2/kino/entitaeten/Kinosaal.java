@@ -4,10 +4,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Saalplan;
 
 /**
- * Ein Kinosaal. Ein Kinosaal hat einen Namen und kennt die Anzahl seiner
- * Sitzplätze.
+ * Ein Kinosaal. Ein Kinosaal hat einen Namen und kennt über seinen
+ * {@link Saalplan} seine Sitzplätze. Ein Saal muss nicht rechteckig sein:
+ * Reihen können unterschiedlich lang sein und Gänge oder Lücken haben. Ein
+ * Platz wird über seine Spalte im Saalplan adressiert.
  * 
  * @author SE2-Team
  * @version SoSe 2024
@@ -15,11 +18,10 @@ import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
 public class Kinosaal
 {
     private String _name;
-    private int _anzahlReihen;
-    private int _anzahlSitzeProReihe;
+    private Saalplan _saalplan;
 
     /**
-     * Initialisiert einen neuen Kinosaal.
+     * Initialisiert einen neuen, rechteckigen Kinosaal.
      * 
      * @param name der Name des Kinosaals.
      * @param anzahlReihen die Anzahl der Reihen.
@@ -40,8 +42,28 @@ public class Kinosaal
         assert anzahlSitzeProReihe > 0 : "Vorbedingung verletzt: anzahlSitzeProReihe > 0";
 
         _name = name;
-        _anzahlReihen = anzahlReihen;
-        _anzahlSitzeProReihe = anzahlSitzeProReihe;
+        _saalplan = Saalplan.ausRechteck(anzahlReihen, anzahlSitzeProReihe);
+    }
+
+    /**
+     * Initialisiert einen neuen Kinosaal mit dem angegebenen Saalplan.
+     * 
+     * @param name der Name des Kinosaals.
+     * @param saalplan der Saalplan.
+     * 
+     * @require name != null
+     * @require saalplan != null
+     * 
+     * @ensure getName() == name
+     * @ensure getSaalplan() == saalplan
+     */
+    public Kinosaal(String name, Saalplan saalplan)
+    {
+        assert name != null : "Vorbedingung verletzt: name != null";
+        assert saalplan != null : "Vorbedingung verletzt: saalplan != null";
+
+        _name = name;
+        _saalplan = saalplan;
     }
 
     /**
@@ -61,17 +83,39 @@ public class Kinosaal
      */
     public int getAnzahlReihen()
     {
-        return _anzahlReihen;
+        return _saalplan.getAnzahlReihen();
     }
 
     /**
-     * Gibt die Anzahl der Sitze pro Reihe in diesem Kinosaal zurück.
+     * Gibt die Anzahl der Sitze pro Reihe in diesem Kinosaal zurück. Ist der
+     * Saal nicht rechteckig, ist das die Breite des Saalplans einschließlich
+     * der Lücken.
      * 
      * @ensure result > 0
      */
     public int getAnzahlSitzeProReihe()
     {
-        return _anzahlSitzeProReihe;
+        return _saalplan.getBreite();
+    }
+
+    /**
+     * Gibt die Anzahl aller Plätze in diesem Kinosaal zurück.
+     * 
+     * @ensure result > 0
+     */
+    public int getAnzahlPlaetze()
+    {
+        return _saalplan.getAnzahlSitze();
+    }
+
+    /**
+     * Gibt den Saalplan dieses Kinosaals zurück.
+     * 
+     * @ensure result != null
+     */
+    public Saalplan getSaalplan()
+    {
+        return _saalplan;
     }
 
     /**
@@ -81,18 +125,39 @@ public class Kinosaal
      */
     public List<Platz> getPlaetze()
     {
-        List<Platz> kinoPlaetze = new ArrayList<>();
-        int reihen = getAnzahlReihen();
-        int plaetze = getAnzahlSitzeProReihe();
-        for (int i = 0; i < reihen; i++)
+        List<Platz> kinoPlaetze = new ArrayList<>(getAnzahlPlaetze());
+        besuchePlaetze((reihe, sitz) -> kinoPlaetze.add(new Platz(reihe, sitz)));
+        return kinoPlaetze;
+    }
+
+    /**
+     * Ruft den Besucher für jeden Platz in diesem Kinosaal auf, Reihe für
+     * Reihe. Anders als {@link #getPlaetze()} erzeugt dies keine Objekte.
+     * Die Sitze werden den Masken des Saalplans entnommen, Lücken kosten also
+     * nichts.
+     * 
+     * @param besucher der Besucher.
+     * 
+     * @require besucher != null
+     */
+    public void besuchePlaetze(PlatzBesucher besucher)
+    {
+        assert besucher != null : "Vorbedingung verletzt: besucher != null";
+
+        int woerter = (_saalplan.getBreite() + Long.SIZE - 1) / Long.SIZE;
+        for (int reihe = 0; reihe < _saalplan.getAnzahlReihen(); reihe++)
         {
-            for (int j = 0; j < plaetze; j++)
+            for (int i = 0; i < woerter; i++)
             {
-                Platz platz = new Platz(i, j);
-                kinoPlaetze.add(platz);
+                long sitze = _saalplan.getSitze(reihe, i);
+                while (sitze != 0)
+                {
+                    besucher.besuche(reihe, i * Long.SIZE
+                            + Long.numberOfTrailingZeros(sitze));
+                    sitze &= sitze - 1;
+                }
             }
         }
-        return kinoPlaetze;
     }
 
     /**
@@ -109,8 +174,23 @@ public class Kinosaal
     {
         assert platz != null : "Vorbedingung verletzt: platz != null";
 
-        return ((platz.getReihe() >= 0) && (platz.getReihe() < _anzahlReihen))
-                && ((platz.getSitz() >= 0) && (platz.getSitz() < _anzahlSitzeProReihe));
+        return hatPlatz(platz.getReihe(), platz.getSitz());
+    }
+
+    /**
+     * Prüft, ob es den Platz mit der angegebenen Reihe und dem angegebenen
+     * Sitz in dem Kinosaal gibt. Dazu wird nur das Bit des Sitzes in der Maske
+     * seiner Reihe gelesen.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     * 
+     * @return <code>true</code>, falls der Platz existiert, <code>false</code>
+     *         sonst.
+     */
+    public boolean hatPlatz(int reihe, int sitz)
+    {
+        return _saalplan.hatSitz(reihe, sitz);
     }
 
     @Override
@@ -121,9 +201,7 @@ public class Kinosaal
         {
             Kinosaal saal = (Kinosaal) obj;
             result = getName().equals(saal.getName())
-                    && getAnzahlReihen() == saal.getAnzahlReihen()
-                    && getAnzahlSitzeProReihe() == saal
-                            .getAnzahlSitzeProReihe();
+                    && getSaalplan().equals(saal.getSaalplan());
         }
         return result;
     }
@@ -133,8 +211,7 @@ public class Kinosaal
     {
         final int prime = 31;
         int result = 1;
-        result = prime * result + _anzahlReihen;
-        result = prime * result + _anzahlSitzeProReihe;
+        result = prime * result + _saalplan.hashCode();
         result = prime * result + ((_name == null) ? 0 : _name.hashCode());
         return result;
     }
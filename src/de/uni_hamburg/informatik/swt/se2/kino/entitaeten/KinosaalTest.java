@@ -3,11 +3,14 @@ package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
 import org.junit.Test;
 
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Saalplan;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -29,6 +32,18 @@ public class KinosaalTest
         Kinosaal k = new Kinosaal("Name", 90, 16);
         assertTrue(k.hatPlatz(new Platz(80, 8)));
         assertFalse(k.hatPlatz(new Platz(100, 4)));
+        assertTrue(k.hatPlatz(89, 15));
+        assertFalse(k.hatPlatz(89, 16));
+        assertFalse(k.hatPlatz(-1, 0));
+    }
+
+    @Test
+    public void testeBesuchePlaetze()
+    {
+        Kinosaal k = new Kinosaal("Name", 3, 4);
+        List<Platz> besucht = new ArrayList<>();
+        k.besuchePlaetze((reihe, sitz) -> besucht.add(new Platz(reihe, sitz)));
+        assertEquals(k.getPlaetze(), besucht);
     }
 
     @Test
@@ -51,4 +66,22 @@ public class KinosaalTest
         assertEquals(k2, k1);
         assertEquals(k1.hashCode(), k2.hashCode());
     }
+
+    @Test
+    public void testeUnregelmaessigerSaal()
+    {
+        Kinosaal k = new Kinosaal("Balkon", Saalplan.ausText("  XXX XXX",
+                "XXXX XXXX"));
+        assertEquals(2, k.getAnzahlReihen());
+        assertEquals(9, k.getAnzahlSitzeProReihe());
+        assertEquals(14, k.getAnzahlPlaetze());
+        assertFalse(k.hatPlatz(0, 0));
+        assertFalse(k.hatPlatz(new Platz(1, 4)));
+        assertTrue(k.hatPlatz(1, 8));
+        List<Platz> plaetze = k.getPlaetze();
+        assertEquals(14, plaetze.size());
+        assertEquals(new Platz(0, 2), plaetze.get(0));
+        assertFalse(plaetze.contains(new Platz(0, 5)));
+        assertNotEquals(k, new Kinosaal("Balkon", 2, 9));
+    }
 }
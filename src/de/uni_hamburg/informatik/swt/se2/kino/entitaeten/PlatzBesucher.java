@@ -0,0 +1,22 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+/**
+ * Ein PlatzBesucher wird beim Durchlaufen der Plätze eines Kinosaals oder
+ * einer Vorstellung für jeden Platz aufgerufen. Reihe und Sitz werden als
+ * einfache Zahlen übergeben, so dass beim Durchlaufen keine Platz-Objekte
+ * erzeugt werden.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+@FunctionalInterface
+public interface PlatzBesucher
+{
+    /**
+     * Wird für jeden besuchten Platz aufgerufen.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     */
+    void besuche(int reihe, int sitz);
+}
@@ -0,0 +1,1267 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platzzustand;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Saalplan;
+
+/**
+ * Die Belegung der Plätze einer Vorstellung. Jeder Sitz hat einen von vier
+ * Zuständen (frei, verkauft, reserviert, blockiert), der mit zwei Bits kodiert
+ * wird.
+ * 
+ * Jede Reihe belegt eine feste Anzahl aufeinanderfolgender long-Wörter. Ein
+ * Wort nimmt 32 Sitze auf: Die unteren 32 Bits bilden die erste, die oberen 32
+ * Bits die zweite Bitebene. Der Zustand eines Sitzes ergibt sich aus seinem
+ * Bit in beiden Ebenen. Dadurch lassen sich alle Sitze eines Worts mit einigen
+ * wenigen Bitoperationen auf einen Zustand prüfen, und ein Zustandswechsel
+ * betrifft immer genau ein Wort.
+ * Die Wörter liegen im Heap oder in einem Slot des
+ * {@link Belegungsspeicher}s, der in eine Datei abgebildet ist.
+ * 
+ * Welche Sitze es gibt, legt der {@link Saalplan} fest. Pro Wort wird eine
+ * Maske der vorhandenen Sitze gehalten, gegen die jede Abfrage und jeder
+ * Wechsel mit einem einzigen Und verknüpft wird. Die Bits fehlender Sitze
+ * bleiben immer frei, gehören aber zu keinem Zustand.
+ * 
+ * Die Wörter werden nur per compare-and-set verändert. Mehrere Kassen können
+ * deshalb gleichzeitig Plätze verkaufen, ohne sich gegenseitig zu sperren.
+ * 
+ * Jede Änderung erhöht die Version der Belegung. Für Leser, die einen
+ * konsistenten Stand brauchen, erzeugt die Belegung unveränderliche
+ * {@link Belegungsstand}-Objekte nach Art eines Seqlocks: Während einer
+ * Änderung ist ein Zähler laufender Änderungen erhöht, und eine Kopie gilt nur,
+ * wenn währenddessen weder eine Änderung lief noch sich die Version geändert
+ * hat. Ein Stand wird erst neu erzeugt, wenn sich die Version geändert hat,
+ * und übernimmt die Reihen des vorigen Stands, die sich nicht geändert haben.
+ * 
+ * Sobald sich ein Listener für die Vorstellung angemeldet hat, wird jede
+ * Änderung nach dem Erhöhen der Version an einen {@link Aenderungsmelder}
+ * übergeben.
+ * 
+ * Ist ein {@link Verkaufsjournal} gesetzt, wird jeder Wechsel von oder nach
+ * verkauft zusammen mit dem compare-and-set unter der Sperre des Journals
+ * angehängt, damit Wechsel derselben Sitze in ihrer Reihenfolge im Journal
+ * stehen. Auf das Schreiben wird erst nach dem Ende der Änderung gewartet.
+ * Schlägt es fehl, wird der Wechsel zurückgenommen. Danach lehnt das Journal
+ * jeden weiteren Wechsel von oder nach verkauft ab, bevor er etwas ändert.
+ * 
+ * Masken, die an diese Klasse übergeben oder von ihr geliefert werden, haben
+ * ein Wort pro Belegungswort, in dem nur die unteren 32 Bits benutzt werden.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+final class Platzbelegung
+{
+    /**
+     * Zustand eines freien Sitzes.
+     */
+    static final int FREI = 0;
+
+    /**
+     * Zustand eines verkauften Sitzes.
+     */
+    static final int VERKAUFT = 1;
+
+    /**
+     * Zustand eines Sitzes, der für eine Reservierung zurückgehalten wird.
+     */
+    static final int RESERVIERT = 2;
+
+    /**
+     * Zustand eines blockierten Sitzes.
+     */
+    static final int BLOCKIERT = 3;
+
+    // Die Zustände, nach ihrer Kodierung geordnet.
+    private static final Platzzustand[] ZUSTAENDE = { Platzzustand.FREI,
+            Platzzustand.VERKAUFT, Platzzustand.RESERVIERT,
+            Platzzustand.BLOCKIERT };
+
+    // Anzahl der Sitze, die in ein long-Wort passen.
+    static final int SITZE_PRO_WORT = Long.SIZE / 2;
+
+    // Die Bits der ersten Ebene eines Worts.
+    static final long UNTERE_EBENE = 0xFFFF_FFFFL;
+
+    private final Belegungswoerter _woerter;
+    private final int _woerterProReihe;
+    private final int _anzahlSitzeProReihe;
+
+    // Pro Wort die Sitze, die laut Saalplan existieren. Die übrigen Bits
+    // eines Worts gehören zu keinem Sitz. Das Array wird nie verändert.
+    private final long[] _vorhanden;
+
+    // Pro Reihe die Länge der längsten Folge freier Sitze. Die oberen 32 Bits
+    // zählen die Änderungen der Reihe, die unteren enthalten die Länge oder
+    // UNGUELTIG, falls sie seit der letzten Änderung noch nicht neu berechnet
+    // wurde. Über den Zähler erkennt ein compare-and-set, ob eine nebenläufige
+    // Änderung die gerade berechnete Länge schon wieder überholt hat.
+    private final AtomicLongArray _freieFolgen;
+    private static final long UNGUELTIG = UNTERE_EBENE;
+
+    // Die Version zählt die Änderungen. Die laufenden Änderungen zählen nur
+    // die Wechsel, die gerade Wörter ändern, nicht das Warten auf das
+    // Journal; auf sie wartet das Erzeugen eines Stands.
+    private final AtomicLong _version;
+    private final AtomicInteger _laufendeAenderungen;
+
+    // Der zuletzt erzeugte Stand.
+    private volatile Belegungsstand _stand;
+
+    // Meldet die Änderungen an Listener, sobald sich der erste anmeldet.
+    private volatile Aenderungsmelder _melder;
+
+    // Hält im Abstandsmodus die Nachbarn verkaufter Sitze frei, sonst null.
+    private volatile Abstandsmodus _abstandsmodus;
+
+    // Das Journal, in dem Verkäufe, Stornierungen und Blockierungen
+    // festgehalten werden, oder null, und die Nummer dieser Belegung darin
+    // oder -1, solange noch nichts festgehalten wurde.
+    private volatile Verkaufsjournal _journal;
+    private int _journalNummer;
+
+    // Gibt an, ob die Vorstellung verdrängt und die Belegung dabei vom Journal
+    // gelöst wurde. Wird nur unter der Sperre des Journals benutzt.
+    private boolean _geloest;
+
+    /**
+     * Erzeugt eine Belegung für den angegebenen Saalplan, in der alle Sitze
+     * frei sind.
+     * 
+     * @param saalplan der Saalplan.
+     * 
+     * @require saalplan != null
+     */
+    Platzbelegung(Saalplan saalplan)
+    {
+        this(saalplan, Belegungswoerter.imHeap(anzahlWoerter(saalplan)));
+    }
+
+    /**
+     * Erzeugt eine Belegung für den angegebenen Saalplan, deren Sitze in den
+     * angegebenen Wörtern gespeichert sind, etwa in einem Slot des
+     * {@link Belegungsspeicher}s. Die Wörter werden übernommen, wie sie sind.
+     * 
+     * @param saalplan der Saalplan.
+     * @param woerter die Wörter.
+     * 
+     * @require saalplan != null
+     * @require woerter != null
+     * @require woerter.length() == anzahlWoerter(saalplan)
+     */
+    Platzbelegung(Saalplan saalplan, Belegungswoerter woerter)
+    {
+        assert saalplan != null : "Vorbedingung verletzt: saalplan != null";
+        assert woerter != null : "Vorbedingung verletzt: woerter != null";
+        assert woerter.length() == anzahlWoerter(saalplan) : "Vorbedingung verletzt: woerter.length() == anzahlWoerter(saalplan)";
+
+        int anzahlReihen = saalplan.getAnzahlReihen();
+        _anzahlSitzeProReihe = saalplan.getBreite();
+        _woerterProReihe = (_anzahlSitzeProReihe + SITZE_PRO_WORT - 1)
+                / SITZE_PRO_WORT;
+        _woerter = woerter;
+        _vorhanden = new long[anzahlReihen * _woerterProReihe];
+        for (int i = 0; i < _vorhanden.length; i++)
+        {
+            int wort = i % _woerterProReihe;
+            _vorhanden[i] = teilwort(saalplan.getSitze(i / _woerterProReihe,
+                    wort / 2), wort);
+        }
+        _freieFolgen = new AtomicLongArray(anzahlReihen);
+        for (int reihe = 0; reihe < anzahlReihen; reihe++)
+        {
+            _freieFolgen.set(reihe, berechneLaengsteFreieFolge(reihe));
+        }
+        _version = new AtomicLong();
+        _laufendeAenderungen = new AtomicInteger();
+    }
+
+    /**
+     * Gibt die Anzahl der Wörter zurück, die eine Belegung für den
+     * angegebenen Saalplan braucht.
+     * 
+     * @require saalplan != null
+     */
+    static int anzahlWoerter(Saalplan saalplan)
+    {
+        assert saalplan != null : "Vorbedingung verletzt: saalplan != null";
+
+        return saalplan.getAnzahlReihen()
+                * ((saalplan.getBreite() + SITZE_PRO_WORT - 1) / SITZE_PRO_WORT);
+    }
+
+    /**
+     * Gibt die Kodierung des angegebenen Zustands zurück.
+     */
+    static int kodiere(Platzzustand zustand)
+    {
+        switch (zustand)
+        {
+        case VERKAUFT:
+            return VERKAUFT;
+        case RESERVIERT:
+            return RESERVIERT;
+        case BLOCKIERT:
+            return BLOCKIERT;
+        default:
+            return FREI;
+        }
+    }
+
+    /**
+     * Gibt den Zustand zu der angegebenen Kodierung zurück.
+     */
+    static Platzzustand dekodiere(int zustand)
+    {
+        return ZUSTAENDE[zustand];
+    }
+
+    /**
+     * Gibt die Anzahl der Wörter zurück, aus denen diese Belegung besteht.
+     */
+    int getAnzahlWoerter()
+    {
+        return _woerter.length();
+    }
+
+    /**
+     * Gibt die Anzahl der Wörter pro Reihe zurück.
+     */
+    int getWoerterProReihe()
+    {
+        return _woerterProReihe;
+    }
+
+    /**
+     * Gibt die Anzahl der Sitze pro Reihe zurück.
+     */
+    int getAnzahlSitzeProReihe()
+    {
+        return _anzahlSitzeProReihe;
+    }
+
+    /**
+     * Gibt die Version dieser Belegung zurück. Sie wird nach jeder Änderung
+     * erhöht.
+     */
+    long getVersion()
+    {
+        return _version.get();
+    }
+
+    /**
+     * Setzt den Melder, dem ab jetzt jede Änderung mitgeteilt wird.
+     * 
+     * @require melder != null
+     */
+    void setMelder(Aenderungsmelder melder)
+    {
+        assert melder != null : "Vorbedingung verletzt: melder != null";
+
+        _melder = melder;
+    }
+
+    /**
+     * Setzt das Journal, in dem ab jetzt jeder Verkauf, jede Stornierung und
+     * jede Blockierung festgehalten wird, bevor der Wechsel zurückkehrt.
+     * 
+     * @param journal das Journal.
+     * @param nummer die Nummer dieser Belegung im Journal oder -1, falls sie
+     *            erst mit dem ersten Wechsel eine bekommt.
+     * 
+     * @require journal != null
+     */
+    void setJournal(Verkaufsjournal journal, int nummer)
+    {
+        assert journal != null : "Vorbedingung verletzt: journal != null";
+
+        _journalNummer = nummer;
+        _journal = journal;
+    }
+
+    /**
+     * Gibt die Nummer dieser Belegung im Journal zurück oder -1. Muss unter
+     * der Sperre des Journals aufgerufen werden.
+     */
+    int getJournalNummer()
+    {
+        return _journalNummer;
+    }
+
+    /**
+     * Löst diese Belegung vom Journal, weil ihre Vorstellung verdrängt wird.
+     * Die neu geladene Vorstellung bekommt eine neue Belegung; jeder weitere
+     * Verkauf und jede weitere Stornierung über diese schlägt fehl, statt am
+     * Journal vorbei zu gehen. Muss unter der Sperre des Journals aufgerufen
+     * werden.
+     */
+    void loeseJournal()
+    {
+        _geloest = true;
+    }
+
+    /**
+     * Prüft unter der Sperre des Journals, ob diese Belegung noch angebunden
+     * ist.
+     * 
+     * @throws IllegalStateException falls ihre Vorstellung verdrängt wurde.
+     */
+    private void pruefeAngebunden()
+    {
+        if (_geloest)
+        {
+            throw new IllegalStateException(
+                    "Vorstellung wurde verdrängt und muss neu geholt werden");
+        }
+    }
+
+    /**
+     * Prüft, ob diese Belegung verworfen und neu angebunden werden kann, ohne
+     * dass ein Platz seinen Zustand verliert: Kein Platz ist reserviert, und
+     * die Wörter liegen im {@link Belegungsspeicher}, alle Plätze sind frei
+     * oder es sind nur Plätze verkauft oder blockiert, die das Journal
+     * festhält.
+     */
+    boolean istGesichert()
+    {
+        boolean festgehalten = _woerter.istDauerhaft() || _journal != null;
+        boolean gesichert = true;
+        for (int i = 0; i < _woerter.length() && gesichert; i++)
+        {
+            long wort = _woerter.get(i);
+            gesichert = festgehalten ? sitzeImZustand(wort, RESERVIERT) == 0
+                    : wort == 0;
+        }
+        return gesichert;
+    }
+
+    /**
+     * Gibt das Journal zurück, in dem ein Wechsel festgehalten werden muss,
+     * oder <code>null</code>. Festgehalten werden nur Wechsel von oder nach
+     * verkauft oder blockiert.
+     */
+    private Verkaufsjournal journalFuer(int von, int nach)
+    {
+        return (von == VERKAUFT || nach == VERKAUFT || von == BLOCKIERT
+                || nach == BLOCKIERT) ? _journal : null;
+    }
+
+    /**
+     * Gibt die blockierten Sitze eines Worts zurück, die nicht der
+     * Abstandsmodus blockiert hat. Nur sie werden festgehalten, denn seine
+     * Sperren leitet der Modus aus den verkauften Sitzen ab.
+     */
+    long blockierteSitze(int index)
+    {
+        Abstandsmodus modus = _abstandsmodus;
+        return (modus == null) ? sitzeImZustand(index, BLOCKIERT) : modus
+                .blockierteSitze(index);
+    }
+
+    /**
+     * Setzt den Abstandsmodus, über den ab jetzt alle Wechsel außer dem
+     * Reservieren freier Sitze laufen.
+     * 
+     * @param modus der Abstandsmodus oder <code>null</code>.
+     */
+    void setAbstandsmodus(Abstandsmodus modus)
+    {
+        _abstandsmodus = modus;
+    }
+
+    /**
+     * Gibt einen unveränderlichen, in sich konsistenten Stand dieser Belegung
+     * zurück. Solange sich die Belegung nicht ändert, wird immer derselbe
+     * Stand geliefert.
+     * 
+     * @ensure result != null
+     */
+    Belegungsstand getStand()
+    {
+        Belegungsstand stand = _stand;
+        if (stand == null || stand.getVersion() != _version.get())
+        {
+            stand = erzeugeStand(stand);
+            _stand = stand;
+        }
+        return stand;
+    }
+
+    /**
+     * Kopiert die Wörter in einen neuen Stand. Die Kopie wird wiederholt, bis
+     * sie nicht von einer Änderung überlappt wurde. Reihen, die mit dem
+     * vorigen Stand übereinstimmen, werden von ihm übernommen.
+     */
+    private Belegungsstand erzeugeStand(Belegungsstand vorher)
+    {
+        int anzahlReihen = _woerter.length() / _woerterProReihe;
+        long[][] reihen = new long[anzahlReihen][];
+        long[] puffer = new long[_woerterProReihe];
+        long version;
+        do
+        {
+            while (_laufendeAenderungen.get() != 0)
+            {
+                Thread.onSpinWait();
+            }
+            version = _version.get();
+            for (int reihe = 0; reihe < anzahlReihen; reihe++)
+            {
+                for (int i = 0; i < _woerterProReihe; i++)
+                {
+                    puffer[i] = _woerter.get(reihe * _woerterProReihe + i);
+                }
+                long[] alt = (vorher != null) ? vorher.getReihe(reihe) : null;
+                reihen[reihe] = Arrays.equals(puffer, alt) ? alt : puffer
+                        .clone();
+            }
+        }
+        // Die Reihenfolge ist wichtig: Eine Änderung erhöht die Version, bevor
+        // sie den Zähler der laufenden Änderungen verringert.
+        while (_laufendeAenderungen.get() != 0 || _version.get() != version);
+        return new Belegungsstand(version, reihen, _anzahlSitzeProReihe,
+                _vorhanden);
+    }
+
+    /**
+     * Gibt den Index des Worts zurück, in dem der angegebene Sitz gespeichert
+     * ist.
+     */
+    int wortIndex(int reihe, int sitz)
+    {
+        return reihe * _woerterProReihe + sitz / SITZE_PRO_WORT;
+    }
+
+    /**
+     * Gibt die Maske zurück, in der nur das Bit des angegebenen Sitzes
+     * innerhalb seines Worts gesetzt ist.
+     */
+    static long bitMaske(int sitz)
+    {
+        return 1L << (sitz % SITZE_PRO_WORT);
+    }
+
+    /**
+     * Gibt die Kodierung des Zustands des angegebenen Sitzes zurück.
+     */
+    int getZustand(int reihe, int sitz)
+    {
+        return zustandImWort(_woerter.get(wortIndex(reihe, sitz)), sitz);
+    }
+
+    /**
+     * Gibt die Kodierung des Zustands zurück, den der angegebene Sitz in dem
+     * Wort hat.
+     */
+    static int zustandImWort(long wort, int sitz)
+    {
+        int bit = sitz % SITZE_PRO_WORT;
+        return (int) ((wort >>> bit) & 1 | ((wort >>> (bit + SITZE_PRO_WORT)) & 1) << 1);
+    }
+
+    /**
+     * Prüft, ob der angegebene Sitz den angegebenen Zustand hat.
+     */
+    boolean hatZustand(int reihe, int sitz, int zustand)
+    {
+        return (sitzeImZustand(wortIndex(reihe, sitz), zustand)
+                & bitMaske(sitz)) != 0;
+    }
+
+    /**
+     * Prüft, ob es den angegebenen Sitz laut Saalplan gibt.
+     */
+    boolean hatSitz(int reihe, int sitz)
+    {
+        return (vorhandeneSitze(wortIndex(reihe, sitz)) & bitMaske(sitz)) != 0;
+    }
+
+    /**
+     * Gibt die Sitze des angegebenen Worts (als Bits der unteren Ebene)
+     * zurück, die den angegebenen Zustand haben.
+     */
+    long sitzeImZustand(int index, int zustand)
+    {
+        return sitzeImZustand(_woerter.get(index), zustand)
+                & vorhandeneSitze(index);
+    }
+
+    /**
+     * Gibt die Sitze einer Reihe zurück, die den angegebenen Zustand haben.
+     * Das Ergebnis hat ein Element pro Wort der Reihe, in dem nur die unteren
+     * 32 Bits benutzt werden.
+     */
+    long[] sitzeDerReiheImZustand(int reihe, int zustand)
+    {
+        long[] result = new long[_woerterProReihe];
+        int erstes = reihe * _woerterProReihe;
+        for (int i = 0; i < _woerterProReihe; i++)
+        {
+            result[i] = sitzeImZustand(erstes + i, zustand);
+        }
+        return result;
+    }
+
+    /**
+     * Schreibt die Sitze einer Reihe, die den angegebenen Zustand haben, in
+     * die angegebene Maske. Anders als in der Belegung werden alle 64 Bits
+     * eines Worts benutzt: Sitz s steht in Bit s % 64 von Wort s / 64.
+     */
+    void kopiereSitzeDerReiheImZustand(int reihe, int zustand, long[] maske)
+    {
+        int erstes = reihe * _woerterProReihe;
+        for (int i = 0; i < _woerterProReihe; i++)
+        {
+            long sitze = sitzeImZustand(erstes + i, zustand);
+            if (i % 2 == 0)
+            {
+                maske[i / 2] = sitze;
+            }
+            else
+            {
+                maske[i / 2] |= sitze << SITZE_PRO_WORT;
+            }
+        }
+    }
+
+    /**
+     * Ruft den Besucher für jeden Sitz auf, der den angegebenen Zustand hat,
+     * Reihe für Reihe in aufsteigender Sitzfolge.
+     */
+    void besucheSitzeImZustand(int zustand, PlatzBesucher besucher)
+    {
+        for (int i = 0; i < _woerter.length(); i++)
+        {
+            long sitze = sitzeImZustand(i, zustand);
+            while (sitze != 0)
+            {
+                besucher.besuche(i / _woerterProReihe, (i % _woerterProReihe)
+                        * SITZE_PRO_WORT + Long.numberOfTrailingZeros(sitze));
+                sitze &= sitze - 1;
+            }
+        }
+    }
+
+    /**
+     * Gibt die Länge der längsten Folge nebeneinanderliegender freier Sitze
+     * in der angegebenen Reihe zurück. Die Länge wird bei jeder Änderung der
+     * Reihe neu berechnet, so dass sie hier in der Regel nur gelesen wird.
+     */
+    int getLaengsteFreieFolge(int reihe)
+    {
+        long eintrag = _freieFolgen.get(reihe);
+        int laenge = (int) (eintrag & UNTERE_EBENE);
+        if ((eintrag & UNTERE_EBENE) == UNGUELTIG)
+        {
+            laenge = berechneLaengsteFreieFolge(reihe);
+            _freieFolgen.compareAndSet(reihe, eintrag, (eintrag & ~UNTERE_EBENE)
+                    | laenge);
+        }
+        return laenge;
+    }
+
+    /**
+     * Zählt die Sitze, die den angegebenen Zustand haben.
+     */
+    int zaehle(int zustand)
+    {
+        int anzahl = 0;
+        for (int i = 0; i < _woerter.length(); i++)
+        {
+            anzahl += Long.bitCount(sitzeImZustand(i, zustand));
+        }
+        return anzahl;
+    }
+
+    /**
+     * Prüft, ob alle Sitze der Maske den angegebenen Zustand haben.
+     */
+    boolean alleImZustand(long[] maske, int zustand)
+    {
+        boolean result = true;
+        for (int i = 0; i < maske.length && result; i++)
+        {
+            result = (maske[i] & ~sitzeImZustand(_woerter.get(i), zustand)) == 0;
+        }
+        return result;
+    }
+
+    /**
+     * Wechselt atomar den Zustand aller Sitze der Maske innerhalb eines Worts,
+     * sofern sie alle den Ausgangszustand haben. Im Abstandsmodus laufen alle
+     * Wechsel außer dem Reservieren freier Sitze über den
+     * {@link Abstandsmodus}.
+     * 
+     * @return 0, falls der Zustand gewechselt wurde, sonst die Sitze der
+     *         Maske, die nicht im Ausgangszustand waren oder im Abstandsmodus
+     *         gesperrt sind.
+     */
+    long wechsleWort(int index, long maske, int von, int nach)
+    {
+        Abstandsmodus modus = _abstandsmodus;
+        if (modus != null && betrifftAbstand(von, nach))
+        {
+            return modus.wechsleWort(index, maske, von, nach);
+        }
+        return wechsleWortDirekt(index, maske, von, nach);
+    }
+
+    /**
+     * Prüft, ob ein Wechsel die Sperren des Abstandsmodus verändern kann. Das
+     * gilt für alle Wechsel außer dem Reservieren freier Sitze, denn auch ein
+     * Sitz, der wieder frei wird, kann in einer Sperrzone liegen.
+     */
+    private static boolean betrifftAbstand(int von, int nach)
+    {
+        return von != FREI || nach != RESERVIERT;
+    }
+
+    /**
+     * Wechselt den Zustand innerhalb eines Worts wie
+     * {@link #wechsleWort(int, long, int, int)}, ohne den Abstandsmodus zu
+     * beachten.
+     */
+    long wechsleWortDirekt(int index, long maske, int von, int nach)
+    {
+        return wechsleWortDirekt(index, maske, von, nach, journalFuer(von,
+                nach));
+    }
+
+    /**
+     * Wechselt eine Sperre des Abstandsmodus innerhalb eines Worts wie
+     * {@link #wechsleWortDirekt(int, long, int, int)}, ohne sie im Journal
+     * festzuhalten. Der Modus leitet seine Sperren aus den verkauften Sitzen
+     * ab, so dass sie nach dem Neustart wieder entstehen.
+     */
+    long wechsleSperreDirekt(int index, long maske, int von, int nach)
+    {
+        return wechsleWortDirekt(index, maske, von, nach, null);
+    }
+
+    /**
+     * Wechselt den Zustand innerhalb eines Worts und hält den Wechsel im
+     * angegebenen Journal fest, falls es nicht <code>null</code> ist.
+     */
+    private long wechsleWortDirekt(int index, long maske, int von, int nach,
+            Verkaufsjournal journal)
+    {
+        if (journal != null)
+        {
+            journal.pruefeSchreibbar();
+        }
+        long konflikte;
+        long position = 0;
+        if (journal == null)
+        {
+            konflikte = wechsleGezaehlt(index, maske, von, nach);
+        }
+        else
+        {
+            synchronized (journal)
+            {
+                pruefeAngebunden();
+                konflikte = wechsleGezaehlt(index, maske, von, nach);
+                if (konflikte == 0)
+                {
+                    position = journal.haengeAn(this, nach, index,
+                            new long[] { maske });
+                }
+            }
+        }
+        Aenderungsmelder melder = _melder;
+        if (konflikte == 0 && melder != null)
+        {
+            melder.merke(index, maske);
+        }
+        if (position != 0)
+        {
+            try
+            {
+                journal.warteAuf(position);
+            }
+            catch (UncheckedIOException e)
+            {
+                long[] gewechselt = new long[_woerter.length()];
+                gewechselt[index] = maske;
+                nimmZurueck(gewechselt, von, nach);
+                throw e;
+            }
+        }
+        return konflikte;
+    }
+
+    /**
+     * Wechselt den Zustand innerhalb eines Worts wie
+     * {@link #wechsle(int, long, int, int)} und erhöht danach die Version.
+     * Als laufende Änderung gezählt wird nur der Wechsel selbst, damit
+     * {@link #erzeugeStand(Belegungsstand)} nicht auf das Journal wartet.
+     */
+    private long wechsleGezaehlt(int index, long maske, int von, int nach)
+    {
+        _laufendeAenderungen.incrementAndGet();
+        long konflikte = 0;
+        try
+        {
+            konflikte = wechsle(index, maske, von, nach);
+        }
+        finally
+        {
+            beendeAenderung(konflikte == 0);
+        }
+        return konflikte;
+    }
+
+    /**
+     * Beendet eine Änderung und erhöht die Version, falls sich die Belegung
+     * geändert hat.
+     */
+    private void beendeAenderung(boolean geaendert)
+    {
+        if (geaendert)
+        {
+            _version.incrementAndGet();
+        }
+        _laufendeAenderungen.decrementAndGet();
+    }
+
+    /**
+     * Wechselt den Zustand innerhalb eines Worts wie
+     * {@link #wechsleWort(int, long, int, int)}, aber ohne die Version zu
+     * erhöhen.
+     */
+    private long wechsle(int index, long maske, int von, int nach)
+    {
+        long alt;
+        long konflikte;
+        do
+        {
+            alt = _woerter.get(index);
+            konflikte = maske & ~(sitzeImZustand(alt, von) & vorhandeneSitze(index));
+            if (konflikte != 0)
+            {
+                return konflikte;
+            }
+        }
+        while (!_woerter.compareAndSet(index, alt, mitZustand(alt, maske, nach)));
+        if (von == FREI || nach == FREI)
+        {
+            aktualisiereFreieFolge(index / _woerterProReihe);
+        }
+        return 0;
+    }
+
+    /**
+     * Markiert die längste freie Folge einer geänderten Reihe als ungültig
+     * und berechnet sie neu. Ändert sich die Reihe währenddessen erneut,
+     * bleibt der Eintrag ungültig und wird beim nächsten Lesen berechnet.
+     */
+    private void aktualisiereFreieFolge(int reihe)
+    {
+        long alt;
+        long ungueltig;
+        do
+        {
+            alt = _freieFolgen.get(reihe);
+            ungueltig = ((alt >>> SITZE_PRO_WORT) + 1) << SITZE_PRO_WORT
+                    | UNGUELTIG;
+        }
+        while (!_freieFolgen.compareAndSet(reihe, alt, ungueltig));
+        getLaengsteFreieFolge(reihe);
+    }
+
+    /**
+     * Berechnet die Länge der längsten Folge freier Sitze einer Reihe aus
+     * ihren Belegungswörtern.
+     */
+    private int berechneLaengsteFreieFolge(int reihe)
+    {
+        int laengste = 0;
+        int aktuelle = 0;
+        int erstes = reihe * _woerterProReihe;
+        for (int i = erstes; i < erstes + _woerterProReihe; i++)
+        {
+            // Fehlende Sitze zählen wie belegte, ein Gang unterbricht also
+            // die Folge.
+            long frei = sitzeImZustand(i, FREI);
+            if (frei == UNTERE_EBENE)
+            {
+                aktuelle += SITZE_PRO_WORT;
+            }
+            else
+            {
+                // Die Folge aus dem vorigen Wort endet am ersten nicht freien
+                // Sitz dieses Worts, danach beginnt die Folge am Wortende.
+                aktuelle += Long.numberOfTrailingZeros(~frei);
+                laengste = Math.max(laengste, Math.max(aktuelle,
+                        laengsteFolgeImWort(frei)));
+                aktuelle = Long.numberOfLeadingZeros(~frei << SITZE_PRO_WORT);
+            }
+        }
+        return Math.max(laengste, aktuelle);
+    }
+
+    /**
+     * Gibt die Länge der längsten Folge gesetzter Bits in einem Wort zurück.
+     * Jeder Schritt verkürzt alle Folgen um eins.
+     */
+    private static int laengsteFolgeImWort(long wort)
+    {
+        int laenge = 0;
+        while (wort != 0)
+        {
+            wort &= wort >>> 1;
+            laenge++;
+        }
+        return laenge;
+    }
+
+    /**
+     * Wechselt den Zustand aller Sitze der Maske nach dem
+     * Alles-oder-nichts-Prinzip. Die Wörter werden nacheinander gewechselt.
+     * Nach dem ersten Konflikt wird nichts mehr gewechselt, die übrigen Wörter
+     * werden aber noch geprüft, damit alle Konflikte gemeldet werden. Die
+     * bereits gewechselten Wörter werden anschließend zurückgesetzt. Ein
+     * {@link Belegungsstand} zeigt nie einen teilweise gewechselten Zustand.
+     * Im Abstandsmodus laufen alle Wechsel außer dem Reservieren freier
+     * Sitze über den {@link Abstandsmodus}.
+     * 
+     * @return <code>null</code>, falls alle Sitze gewechselt wurden, sonst
+     *         eine Maske der Sitze, die nicht im Ausgangszustand waren oder im
+     *         Abstandsmodus gesperrt sind.
+     */
+    long[] wechsleZustand(long[] maske, int von, int nach)
+    {
+        Abstandsmodus modus = _abstandsmodus;
+        if (modus != null && betrifftAbstand(von, nach))
+        {
+            return modus.wechsleZustand(maske, von, nach);
+        }
+        return wechsleZustandDirekt(maske, von, nach);
+    }
+
+    /**
+     * Wechselt den Zustand aller Sitze der Maske wie
+     * {@link #wechsleZustand(long[], int, int)}, ohne den Abstandsmodus zu
+     * beachten.
+     */
+    long[] wechsleZustandDirekt(long[] maske, int von, int nach)
+    {
+        Verkaufsjournal journal = journalFuer(von, nach);
+        if (journal != null)
+        {
+            journal.pruefeSchreibbar();
+        }
+        long[] konflikte;
+        long position = 0;
+        if (journal == null)
+        {
+            konflikte = wechsleAlleWoerter(maske, von, nach);
+        }
+        else
+        {
+            synchronized (journal)
+            {
+                pruefeAngebunden();
+                konflikte = wechsleAlleWoerter(maske, von, nach);
+                if (konflikte == null)
+                {
+                    position = journal.haengeAn(this, nach, 0, maske);
+                }
+            }
+        }
+        Aenderungsmelder melder = _melder;
+        if (konflikte == null && melder != null)
+        {
+            melder.merke(maske);
+        }
+        if (position != 0)
+        {
+            try
+            {
+                journal.warteAuf(position);
+            }
+            catch (UncheckedIOException e)
+            {
+                nimmZurueck(maske, von, nach);
+                throw e;
+            }
+        }
+        return konflikte;
+    }
+
+    /**
+     * Wechselt den Zustand aller Sitze der Maske wie
+     * {@link #wechsleZustand(long[], int, int)} und erhöht danach die
+     * Version, falls gewechselt wurde. Als laufende Änderung gezählt werden
+     * nur die Wechsel selbst.
+     */
+    private long[] wechsleAlleWoerter(long[] maske, int von, int nach)
+    {
+        _laufendeAenderungen.incrementAndGet();
+        long[] konflikte = null;
+        try
+        {
+            konflikte = wechsleAlleWoerterUngezaehlt(maske, von, nach);
+        }
+        finally
+        {
+            beendeAenderung(konflikte == null);
+        }
+        return konflikte;
+    }
+
+    /**
+     * Wechselt den Zustand aller Sitze der Maske wie
+     * {@link #wechsleZustand(long[], int, int)}, aber ohne die Version zu
+     * erhöhen.
+     */
+    private long[] wechsleAlleWoerterUngezaehlt(long[] maske, int von,
+            int nach)
+    {
+        long[] konflikte = null;
+        int gewechseltBis = 0;
+        for (int i = 0; i < maske.length; i++)
+        {
+            if (maske[i] != 0)
+            {
+                if (konflikte == null)
+                {
+                    long konflikt = wechsle(i, maske[i], von, nach);
+                    if (konflikt == 0)
+                    {
+                        gewechseltBis = i + 1;
+                    }
+                    else
+                    {
+                        konflikte = new long[maske.length];
+                        konflikte[i] = konflikt;
+                    }
+                }
+                else
+                {
+                    konflikte[i] = maske[i]
+                            & ~sitzeImZustand(_woerter.get(i), von);
+                }
+            }
+        }
+
+        if (konflikte != null)
+        {
+            for (int i = 0; i < gewechseltBis; i++)
+            {
+                if (maske[i] != 0)
+                {
+                    wechsle(i, maske[i], nach, von);
+                }
+            }
+        }
+        return konflikte;
+    }
+
+    /**
+     * Wechselt alle Sitze der Maske, die den Ausgangszustand haben, in den
+     * Zielzustand. Sitze in anderen Zuständen bleiben unverändert, Konflikte
+     * gibt es also nicht. Jedes Wort wird in einem Durchgang mit einem
+     * compare-and-set gewechselt, die Version wird für die ganze Operation nur
+     * einmal erhöht. Im Abstandsmodus läuft der Wechsel wie bei
+     * {@link #wechsleZustand(long[], int, int)} über den
+     * {@link Abstandsmodus}.
+     * 
+     * @param maske die Sitze oder <code>null</code> für alle Sitze.
+     * @param von der Ausgangszustand.
+     * @param nach der Zielzustand.
+     * 
+     * @return die Sitze, die gewechselt wurden.
+     * 
+     * @ensure result != null
+     */
+    long[] wechsleAlle(long[] maske, int von, int nach)
+    {
+        Abstandsmodus modus = _abstandsmodus;
+        if (modus != null && betrifftAbstand(von, nach))
+        {
+            return modus.wechsleAlle(maske, von, nach);
+        }
+        return wechsleAlleDirekt(maske, von, nach);
+    }
+
+    /**
+     * Wechselt alle Sitze der Maske wie
+     * {@link #wechsleAlle(long[], int, int)}, ohne den Abstandsmodus zu
+     * beachten.
+     */
+    long[] wechsleAlleDirekt(long[] maske, int von, int nach)
+    {
+        Verkaufsjournal journal = journalFuer(von, nach);
+        if (journal != null)
+        {
+            journal.pruefeSchreibbar();
+        }
+        long[] gewechselt = new long[_woerter.length()];
+        long position = 0;
+        if (journal == null)
+        {
+            wechsleAlleSitze(maske, von, nach, gewechselt);
+        }
+        else
+        {
+            synchronized (journal)
+            {
+                pruefeAngebunden();
+                if (wechsleAlleSitze(maske, von, nach, gewechselt))
+                {
+                    position = journal.haengeAn(this, nach, 0, gewechselt);
+                }
+            }
+        }
+        melde(gewechselt);
+        if (position != 0)
+        {
+            try
+            {
+                journal.warteAuf(position);
+            }
+            catch (UncheckedIOException e)
+            {
+                nimmZurueck(gewechselt, von, nach);
+                throw e;
+            }
+        }
+        return gewechselt;
+    }
+
+    /**
+     * Nimmt einen Wechsel zurück, der nicht im Journal gesichert werden
+     * konnte. Die Rücknahme wird nicht angehängt. Sitze, die inzwischen nicht
+     * mehr im Zielzustand sind, bleiben unverändert.
+     * 
+     * @param maske die gewechselten Sitze.
+     * @param von der Ausgangszustand des Wechsels.
+     * @param nach der Zielzustand des Wechsels.
+     */
+    private void nimmZurueck(long[] maske, int von, int nach)
+    {
+        long[] zurueck = new long[_woerter.length()];
+        wechsleAlleSitze(maske, nach, von, zurueck);
+        melde(zurueck);
+    }
+
+    /**
+     * Übergibt die gewechselten Sitze dem Änderungsmelder, falls einer
+     * gesetzt ist.
+     */
+    private void melde(long[] gewechselt)
+    {
+        Aenderungsmelder melder = _melder;
+        for (int i = 0; melder != null && i < gewechselt.length; i++)
+        {
+            if (gewechselt[i] != 0)
+            {
+                melder.merke(i, gewechselt[i]);
+            }
+        }
+    }
+
+    /**
+     * Wechselt alle Sitze der Maske wie
+     * {@link #wechsleAlle(long[], int, int)}, trägt die gewechselten Sitze
+     * ein und erhöht danach die Version, falls gewechselt wurde. Als laufende
+     * Änderung gezählt werden nur die Wechsel selbst.
+     * 
+     * @return <code>true</code>, falls mindestens ein Sitz gewechselt wurde.
+     */
+    private boolean wechsleAlleSitze(long[] maske, int von, int nach,
+            long[] gewechselt)
+    {
+        _laufendeAenderungen.incrementAndGet();
+        boolean geaendert = false;
+        try
+        {
+            geaendert = wechsleAlleSitzeUngezaehlt(maske, von, nach,
+                    gewechselt);
+        }
+        finally
+        {
+            beendeAenderung(geaendert);
+        }
+        return geaendert;
+    }
+
+    /**
+     * Wechselt alle Sitze der Maske wie
+     * {@link #wechsleAlle(long[], int, int)}, aber ohne die Version zu
+     * erhöhen, und trägt die gewechselten Sitze ein.
+     * 
+     * @return <code>true</code>, falls mindestens ein Sitz gewechselt wurde.
+     */
+    private boolean wechsleAlleSitzeUngezaehlt(long[] maske, int von,
+            int nach, long[] gewechselt)
+    {
+        boolean geaendert = false;
+        boolean reiheGeaendert = false;
+        for (int i = 0; i < gewechselt.length; i++)
+        {
+            long bereich = (maske != null) ? maske[i] : UNTERE_EBENE;
+            long alt;
+            long sitze;
+            do
+            {
+                alt = _woerter.get(i);
+                sitze = sitzeImZustand(alt, von) & bereich
+                        & vorhandeneSitze(i);
+            }
+            while (sitze != 0
+                    && !_woerter.compareAndSet(i, alt, mitZustand(alt,
+                            sitze, nach)));
+            gewechselt[i] = sitze;
+            reiheGeaendert |= sitze != 0;
+            if (i % _woerterProReihe == _woerterProReihe - 1)
+            {
+                if (reiheGeaendert && (von == FREI || nach == FREI))
+                {
+                    aktualisiereFreieFolge(i / _woerterProReihe);
+                }
+                geaendert |= reiheGeaendert;
+                reiheGeaendert = false;
+            }
+        }
+        return geaendert;
+    }
+
+    /**
+     * Erzeugt eine Maske, in der genau die Bits der angegebenen Plätze gesetzt
+     * sind.
+     * 
+     * @require plaetze != null
+     */
+    long[] erzeugeMaske(Set<Platz> plaetze)
+    {
+        long[] maske = new long[_woerter.length()];
+        for (Platz platz : plaetze)
+        {
+            maske[wortIndex(platz.getReihe(), platz.getSitz())] |= bitMaske(platz
+                    .getSitz());
+        }
+        return maske;
+    }
+
+    /**
+     * Erzeugt eine Maske aus den Plätzen der Platzmaske, die es in dieser
+     * Belegung gibt. Pro Wort wird nur ein Wort der Platzmaske gelesen.
+     * 
+     * @require plaetze != null
+     */
+    long[] erzeugeMaske(Platzmaske plaetze)
+    {
+        long[] maske = new long[_woerter.length()];
+        for (int i = 0; i < maske.length; i++)
+        {
+            int wort = i % _woerterProReihe;
+            maske[i] = teilwort(plaetze.getSitze(i / _woerterProReihe,
+                    wort / 2), wort) & vorhandeneSitze(i);
+        }
+        return maske;
+    }
+
+    /**
+     * Erzeugt eine Platzmaske aus den Sitzen der angegebenen Maske.
+     * 
+     * @ensure result != null
+     */
+    Platzmaske erzeugePlatzmaske(long[] maske)
+    {
+        int anzahlReihen = maske.length / _woerterProReihe;
+        long[][] reihen = new long[anzahlReihen][(_woerterProReihe + 1) / 2];
+        for (int i = 0; i < maske.length; i++)
+        {
+            int wort = i % _woerterProReihe;
+            reihen[i / _woerterProReihe][wort / 2] |= maske[i] << (wort % 2
+                    * SITZE_PRO_WORT);
+        }
+        return new Platzmaske(reihen);
+    }
+
+    /**
+     * Gibt die Sitze eines Belegungsworts aus dem 64-Bit-Wort zurück, in dem
+     * ein Saalplan oder eine Platzmaske sie speichert. Ein 64-Bit-Wort nimmt
+     * zwei Belegungswörter auf.
+     * 
+     * @param sitze das 64-Bit-Wort.
+     * @param wort der Index des Belegungsworts innerhalb seiner Reihe.
+     */
+    private static long teilwort(long sitze, int wort)
+    {
+        return (sitze >>> (wort % 2 * SITZE_PRO_WORT)) & UNTERE_EBENE;
+    }
+
+    /**
+     * Erzeugt die Menge der Plätze, deren Bits in der angegebenen Maske
+     * gesetzt sind.
+     * 
+     * @ensure result != null
+     */
+    Set<Platz> erzeugePlaetze(long[] maske)
+    {
+        Set<Platz> plaetze = new HashSet<>();
+        for (int i = 0; i < maske.length; i++)
+        {
+            long wort = maske[i];
+            while (wort != 0)
+            {
+                int bit = Long.numberOfTrailingZeros(wort);
+                plaetze.add(new Platz(i / _woerterProReihe,
+                        (i % _woerterProReihe) * SITZE_PRO_WORT + bit));
+                wort &= wort - 1;
+            }
+        }
+        return plaetze;
+    }
+
+    /**
+     * Gibt die Sitze zurück, die in dem angegebenen Wort existieren.
+     */
+    private long vorhandeneSitze(int index)
+    {
+        return _vorhanden[index];
+    }
+
+    /**
+     * Gibt die Sitze eines Worts (als Bits der unteren Ebene) zurück, die den
+     * angegebenen Zustand haben.
+     */
+    static long sitzeImZustand(long wort, int zustand)
+    {
+        long untere = wort & UNTERE_EBENE;
+        long obere = wort >>> SITZE_PRO_WORT;
+        long treffer = ((zustand & 1) != 0) ? untere : ~untere;
+        treffer &= ((zustand & 2) != 0) ? obere : ~obere;
+        return treffer & UNTERE_EBENE;
+    }
+
+    /**
+     * Gibt das Wort zurück, in dem alle Sitze der Maske den angegebenen
+     * Zustand haben.
+     */
+    static long mitZustand(long wort, long maske, int zustand)
+    {
+        long result = wort & ~(maske | (maske << SITZE_PRO_WORT));
+        if ((zustand & 1) != 0)
+        {
+            result |= maske;
+        }
+        if ((zustand & 2) != 0)
+        {
+            result |= maske << SITZE_PRO_WORT;
+        }
+        return result;
+    }
+}
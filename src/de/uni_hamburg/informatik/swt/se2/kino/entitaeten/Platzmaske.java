@@ -0,0 +1,220 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+
+/**
+ * Eine unveränderliche, kompakte Menge von Plätzen. Pro Reihe wird eine
+ * Bitmaske gespeichert: Sitz s steht in Bit s % 64 von Wort s / 64. Eine
+ * Platzmaske ist an keinen Kinosaal gebunden und kann deshalb auf alle
+ * Vorstellungen eines Saals angewendet werden.
+ * 
+ * Massenoperationen wie {@link Vorstellung#storniereAlle()} liefern die
+ * betroffenen Plätze als Platzmaske, etwa für die Erstattung. Auch bei einem
+ * vollen Saal braucht eine Maske nur ein paar hundert Bytes.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public final class Platzmaske
+{
+    /**
+     * Die leere Platzmaske.
+     */
+    public static final Platzmaske LEER = new Platzmaske(new long[0][]);
+
+    private final long[][] _reihen;
+    private final int _anzahlPlaetze;
+
+    /**
+     * Erzeugt eine Platzmaske. Die Masken werden nicht kopiert und dürfen
+     * danach nicht mehr verändert werden.
+     */
+    Platzmaske(long[][] reihen)
+    {
+        _reihen = reihen;
+        int anzahl = 0;
+        for (long[] reihe : reihen)
+        {
+            for (long wort : reihe)
+            {
+                anzahl += Long.bitCount(wort);
+            }
+        }
+        _anzahlPlaetze = anzahl;
+    }
+
+    /**
+     * Erzeugt eine Platzmaske aus den angegebenen Plätzen.
+     * 
+     * @param plaetze die Plätze.
+     * 
+     * @require plaetze != null
+     * 
+     * @ensure result != null
+     */
+    public static Platzmaske ausPlaetzen(Collection<Platz> plaetze)
+    {
+        assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
+
+        int reihen = 0;
+        int breite = 0;
+        for (Platz platz : plaetze)
+        {
+            reihen = Math.max(reihen, platz.getReihe() + 1);
+            breite = Math.max(breite, platz.getSitz() + 1);
+        }
+        long[][] masken = new long[reihen][(breite + Long.SIZE - 1)
+                / Long.SIZE];
+        for (Platz platz : plaetze)
+        {
+            masken[platz.getReihe()][platz.getSitz() / Long.SIZE] |= 1L << platz
+                    .getSitz();
+        }
+        return new Platzmaske(masken);
+    }
+
+    /**
+     * Gibt die Anzahl der Plätze in dieser Maske zurück.
+     */
+    public int getAnzahlPlaetze()
+    {
+        return _anzahlPlaetze;
+    }
+
+    /**
+     * Prüft, ob diese Maske keinen Platz enthält.
+     */
+    public boolean istLeer()
+    {
+        return _anzahlPlaetze == 0;
+    }
+
+    /**
+     * Prüft, ob der Platz mit der angegebenen Reihe und dem angegebenen Sitz
+     * in dieser Maske enthalten ist.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     */
+    public boolean enthaelt(int reihe, int sitz)
+    {
+        return sitz >= 0
+                && (getSitze(reihe, sitz / Long.SIZE) & (1L << sitz)) != 0;
+    }
+
+    /**
+     * Gibt die Plätze der angegebenen Reihe zurück, die im angegebenen
+     * 64-Bit-Wort liegen: Sitz s steht in Bit s % 64 von Wort s / 64. Außerhalb
+     * der Maske ist das Ergebnis 0.
+     * 
+     * @param reihe die Reihe.
+     * @param wort der Index des Worts.
+     */
+    public long getSitze(int reihe, int wort)
+    {
+        long result = 0;
+        if (reihe >= 0 && reihe < _reihen.length && wort >= 0
+                && wort < _reihen[reihe].length)
+        {
+            result = _reihen[reihe][wort];
+        }
+        return result;
+    }
+
+    /**
+     * Ruft den Besucher für jeden Platz dieser Maske auf, Reihe für Reihe in
+     * aufsteigender Sitzfolge.
+     * 
+     * @param besucher der Besucher.
+     * 
+     * @require besucher != null
+     */
+    public void besuchePlaetze(PlatzBesucher besucher)
+    {
+        assert besucher != null : "Vorbedingung verletzt: besucher != null";
+
+        for (int reihe = 0; reihe < _reihen.length; reihe++)
+        {
+            for (int i = 0; i < _reihen[reihe].length; i++)
+            {
+                long sitze = _reihen[reihe][i];
+                while (sitze != 0)
+                {
+                    besucher.besuche(reihe, i * Long.SIZE
+                            + Long.numberOfTrailingZeros(sitze));
+                    sitze &= sitze - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gibt die Plätze dieser Maske als Menge zurück.
+     * 
+     * @ensure result != null
+     */
+    public Set<Platz> getPlaetze()
+    {
+        Set<Platz> plaetze = new HashSet<>();
+        besuchePlaetze((reihe, sitz) -> plaetze.add(new Platz(reihe, sitz)));
+        return plaetze;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        boolean ergebnis = false;
+        if (o instanceof Platzmaske)
+        {
+            Platzmaske maske = (Platzmaske) o;
+            ergebnis = _anzahlPlaetze == maske._anzahlPlaetze;
+            int reihen = Math.max(_reihen.length, maske._reihen.length);
+            for (int reihe = 0; ergebnis && reihe < reihen; reihe++)
+            {
+                int woerter = Math.max(laenge(reihe), maske.laenge(reihe));
+                for (int i = 0; ergebnis && i < woerter; i++)
+                {
+                    ergebnis = getSitze(reihe, i) == maske.getSitze(reihe, i);
+                }
+            }
+        }
+        return ergebnis;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        // Leere Wörter am Ende einer Reihe dürfen den Wert nicht ändern.
+        int result = _anzahlPlaetze;
+        for (int reihe = 0; reihe < _reihen.length; reihe++)
+        {
+            for (int i = 0; i < _reihen[reihe].length; i++)
+            {
+                if (_reihen[reihe][i] != 0)
+                {
+                    result = 31 * result + Long.hashCode(_reihen[reihe][i])
+                            + reihe * 257 + i;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gibt die Anzahl der Wörter der angegebenen Reihe zurück.
+     */
+    private int laenge(int reihe)
+    {
+        return reihe < _reihen.length ? _reihen[reihe].length : 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Platzmaske: " + _anzahlPlaetze + " Plätze";
+    }
+}
@@ -0,0 +1,51 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PlatzmaskeTest
+{
+    @Test
+    public void testeAusPlaetzen()
+    {
+        Platzmaske maske = Platzmaske.ausPlaetzen(Arrays.asList(new Platz(0,
+                3), new Platz(2, 70), new Platz(2, 1)));
+        assertEquals(3, maske.getAnzahlPlaetze());
+        assertFalse(maske.istLeer());
+        assertTrue(maske.enthaelt(2, 70));
+        assertFalse(maske.enthaelt(1, 3));
+        assertFalse(maske.enthaelt(5, 0));
+        assertEquals(1L << 6, maske.getSitze(2, 1));
+        assertEquals(0, maske.getSitze(2, 5));
+        assertEquals(3, maske.getPlaetze().size());
+
+        List<Platz> besucht = new ArrayList<>();
+        maske.besuchePlaetze((reihe, sitz) -> besucht.add(new Platz(reihe,
+                sitz)));
+        assertEquals(Arrays.asList(new Platz(0, 3), new Platz(2, 1),
+                new Platz(2, 70)), besucht);
+    }
+
+    @Test
+    public void testeEqualsUndHashCode()
+    {
+        Platzmaske kurz = Platzmaske.ausPlaetzen(Arrays.asList(new Platz(1,
+                2)));
+        Platzmaske lang = new Platzmaske(new long[][] { { 0, 0 }, { 4, 0 },
+                {} });
+        assertEquals(kurz, lang);
+        assertEquals(kurz.hashCode(), lang.hashCode());
+        assertNotEquals(kurz, Platzmaske.LEER);
+        assertTrue(Platzmaske.LEER.istLeer());
+    }
+}
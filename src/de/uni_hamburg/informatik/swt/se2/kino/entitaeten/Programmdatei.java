@@ -0,0 +1,950 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Saalplan;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Liest und schreibt das Programm eines Kinos, also seine Kinosäle, Filme und
+ * Vorstellungen, in einem kompakten Binärformat. Eine Programmdatei wird beim
+ * Laden in den Speicher abgebildet und Eintrag für Eintrag in ein Kino
+ * übersetzt. Namen und Titel stehen nur einmal in einer Texttabelle, Säle und
+ * Filme nur einmal in ihren Tabellen; eine Vorstellung ist ein Eintrag fester
+ * Länge, der sie über ihren Index anspricht. Gleiche Tage und Uhrzeiten
+ * werden beim Laden nur einmal erzeugt. Die Vorstellungen stehen nach Tagen
+ * sortiert, so dass ein Kino über {@link #oeffne(Path)} einzelne Tage erst
+ * laden kann, wenn es sie braucht.
+ * 
+ * Aufbau der Datei, alle Zahlen big-endian:
+ * 
+ * <pre>
+ * Kopf          Kennung "KINOPRG1", Anzahl Texte, Säle, Filme, Vorstellungen,
+ *               erster und letzter Tag als Epochentag (je 4 Bytes)
+ * Texte         Länge (2 Bytes), UTF-8
+ * Säle          Name (Index), Reihen (2), Wörter pro Reihe (2), Masken (je 8)
+ * Filme         Titel (Index), Länge in Minuten (2), FSK (1), Überlänge (1)
+ * Vorstellungen Epochentag, Film, Preis in Cent, Saal (2), Anfang und Ende
+ *               in Minuten nach Mitternacht (je 2)
+ * </pre>
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public final class Programmdatei
+{
+    // "KINOPRG1"
+    private static final long KENNUNG = 0x4B494E4F50524731L;
+
+    private static final int KOPF = Long.BYTES + 6 * Integer.BYTES;
+    private static final int VORSTELLUNG = 3 * Integer.BYTES + 3
+            * Short.BYTES;
+
+    private static final int MINUTEN_PRO_TAG = 24 * 60;
+
+    // Mehr Tage zwischen der ersten und letzten Vorstellung gelten beim Laden
+    // als beschädigt.
+    private static final int MAXIMALE_TAGE = 1 << 20;
+
+    private Programmdatei()
+    {
+    }
+
+    /**
+     * Lädt ein Kino aus der angegebenen Programmdatei.
+     * 
+     * @param datei die Datei.
+     * 
+     * @throws IOException falls die Datei nicht gelesen werden kann oder
+     *             keine gültige Programmdatei ist.
+     * 
+     * @require datei != null
+     * 
+     * @ensure result != null
+     */
+    public static Kino lade(Path datei) throws IOException
+    {
+        assert datei != null : "Vorbedingung verletzt: datei != null";
+
+        Programm programm = new Programm(datei);
+        try
+        {
+            Vorstellung[] vorstellungen = new Vorstellung[programm._anzahl];
+            // Jeder Tag wird nur einmal erzeugt.
+            Datum[] tage = new Datum[programm._anzahlTage];
+            for (int i = 0; i < vorstellungen.length; i++)
+            {
+                int tag = programm.tag(i);
+                if (tage[tag] == null)
+                {
+                    tage[tag] = Datum.ausEpochentag(programm._ersterTag + tag);
+                }
+                vorstellungen[i] = programm.vorstellung(i, tage[tag]);
+            }
+            return new Kino(programm._saele, vorstellungen);
+        }
+        catch (IndexOutOfBoundsException | IllegalArgumentException e)
+        {
+            throw new IOException("Programmdatei ist beschädigt: " + datei, e);
+        }
+    }
+
+    /**
+     * Öffnet die angegebene Programmdatei als {@link Tagesspeicher}, aus dem
+     * ein Kino die Vorstellungen eines Tages erst lädt, wenn es den Tag
+     * braucht. Im Speicher bleiben nur Säle, Filme und ein Verzeichnis mit
+     * vier Bytes pro Tag; die Vorstellungen werden jedes Mal aus der
+     * abgebildeten Datei gelesen.
+     * 
+     * @param datei die Datei.
+     * 
+     * @throws IOException falls die Datei nicht gelesen werden kann, keine
+     *             gültige Programmdatei ist oder ihre Vorstellungen nicht
+     *             nach Tagen sortiert sind, wie {@link #schreibe(Path, Kino)}
+     *             und {@link #konvertiere(BufferedReader, Path)} sie
+     *             schreiben.
+     * 
+     * @require datei != null
+     * 
+     * @ensure result != null
+     */
+    public static Tagesspeicher oeffne(Path datei) throws IOException
+    {
+        assert datei != null : "Vorbedingung verletzt: datei != null";
+
+        Programm programm = new Programm(datei);
+        try
+        {
+            programm.verzeichne();
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            throw new IOException("Programmdatei ist beschädigt: " + datei, e);
+        }
+        return programm;
+    }
+
+    /**
+     * Prüft eine gelesene Anzahl.
+     */
+    private static int pruefeAnzahl(int anzahl) throws IOException
+    {
+        if (anzahl < 0)
+        {
+            throw new IOException("Programmdatei ist beschädigt");
+        }
+        return anzahl;
+    }
+
+    /**
+     * Prüft eine gelesene Zahl, die positiv sein muss.
+     */
+    private static int pruefePositiv(int zahl) throws IOException
+    {
+        if (zahl <= 0)
+        {
+            throw new IOException("Programmdatei ist beschädigt");
+        }
+        return zahl;
+    }
+
+    /**
+     * Prüft einen gelesenen Index in eine Tabelle der angegebenen Länge.
+     */
+    private static int index(int index, int laenge) throws IOException
+    {
+        if (index < 0 || index >= laenge)
+        {
+            throw new IOException("Programmdatei ist beschädigt");
+        }
+        return index;
+    }
+
+    /**
+     * Schreibt die Kinosäle und Vorstellungen des Kinos in die angegebene
+     * Programmdatei. Eine vorhandene Datei wird überschrieben.
+     * 
+     * @param datei die Datei.
+     * @param kino das Kino.
+     * 
+     * @throws IOException falls die Datei nicht geschrieben werden kann.
+     * 
+     * @require datei != null
+     * @require kino != null
+     */
+    public static void schreibe(Path datei, Kino kino) throws IOException
+    {
+        assert datei != null : "Vorbedingung verletzt: datei != null";
+        assert kino != null : "Vorbedingung verletzt: kino != null";
+
+        Schreiber schreiber = new Schreiber();
+        for (Kinosaal saal : kino.getKinosaele())
+        {
+            schreiber.saal(saal);
+        }
+        for (Vorstellung vorstellung : kino.getVorstellungen())
+        {
+            schreiber.vorstellung(schreiber.saal(vorstellung.getKinosaal()),
+                    schreiber.film(vorstellung.getFilm()),
+                    vorstellung.getDatum(), vorstellung.getAnfangszeit(),
+                    vorstellung.getEndzeit(), vorstellung.getPreis());
+        }
+        schreiber.schreibe(datei);
+    }
+
+    /**
+     * Übersetzt ein Programm im Textformat in eine Programmdatei. Jede Zeile
+     * ist ein Saal, ein Film oder eine Vorstellung, die Felder sind durch
+     * Semikolons getrennt. Leere Zeilen und Zeilen, die mit # beginnen,
+     * werden übergangen. Ein Saal ist rechteckig oder als Saalplan angegeben,
+     * dessen Reihen durch | getrennt sind. Filme und Säle müssen vor ihren
+     * Vorstellungen stehen:
+     * 
+     * <pre>
+     * saal;Saal 1;20;25
+     * saal;Balkon;  XXXX  XXXX|XXXXXX  XXXXXX
+     * film;Thor;115;FSK12;nein
+     * vorstellung;Saal 1;Thor;11.7.2008;20:00;22:00;995
+     * </pre>
+     * 
+     * @param text das Programm im Textformat.
+     * @param datei die Programmdatei, die geschrieben wird.
+     * 
+     * @throws IOException falls der Text nicht gelesen oder die Datei nicht
+     *             geschrieben werden kann oder eine Zeile fehlerhaft ist,
+     *             etwa weil sich ihre Vorstellung im selben Saal mit einer
+     *             früheren überschneidet. Die Meldung nennt dann die Nummer
+     *             der Zeile.
+     * 
+     * @require text != null
+     * @require datei != null
+     */
+    public static void konvertiere(BufferedReader text, Path datei)
+            throws IOException
+    {
+        assert text != null : "Vorbedingung verletzt: text != null";
+        assert datei != null : "Vorbedingung verletzt: datei != null";
+
+        Schreiber schreiber = new Schreiber();
+        Map<String, Integer> saele = new HashMap<>();
+        Map<String, Integer> filme = new HashMap<>();
+        int nummer = 0;
+        String zeile;
+        while ((zeile = text.readLine()) != null)
+        {
+            nummer++;
+            if (!zeile.isEmpty() && zeile.charAt(0) != '#')
+            {
+                try
+                {
+                    konvertiereZeile(zeile.split(";", -1), schreiber, saele,
+                            filme);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    throw new IOException("Zeile " + nummer + ": "
+                            + e.getMessage(), e);
+                }
+            }
+        }
+        schreiber.schreibe(datei);
+    }
+
+    /**
+     * Übersetzt die Felder einer Zeile im Textformat.
+     * 
+     * @throws IllegalArgumentException falls die Zeile fehlerhaft ist.
+     */
+    private static void konvertiereZeile(String[] felder,
+            Schreiber schreiber, Map<String, Integer> saele,
+            Map<String, Integer> filme)
+    {
+        switch (felder[0])
+        {
+        case "saal":
+            pruefeFelder(felder, 3, 4);
+            Saalplan plan;
+            if (felder.length == 4)
+            {
+                plan = Saalplan.ausRechteck(positiv(felder[2]),
+                        positiv(felder[3]));
+            }
+            else
+            {
+                plan = saalplan(felder[2]);
+            }
+            saele.put(felder[1], schreiber.saal(new Kinosaal(felder[1], plan)));
+            break;
+        case "film":
+            pruefeFelder(felder, 5, 5);
+            FSK fsk;
+            try
+            {
+                fsk = FSK.valueOf(felder[3]);
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IllegalArgumentException("Unbekannte FSK: "
+                        + felder[3]);
+            }
+            filme.put(felder[1], schreiber.film(new Film(felder[1],
+                    positiv(felder[2]), fsk, janein(felder[4]))));
+            break;
+        case "vorstellung":
+            pruefeFelder(felder, 7, 7);
+            Integer saal = saele.get(felder[1]);
+            if (saal == null)
+            {
+                throw new IllegalArgumentException("Unbekannter Saal: "
+                        + felder[1]);
+            }
+            Integer film = filme.get(felder[2]);
+            if (film == null)
+            {
+                throw new IllegalArgumentException("Unbekannter Film: "
+                        + felder[2]);
+            }
+            schreiber.vorstellung(saal, film, datum(felder[3]),
+                    uhrzeit(felder[4]), uhrzeit(felder[5]), zahl(felder[6]));
+            break;
+        default:
+            throw new IllegalArgumentException("Unbekannte Zeilenart: "
+                    + felder[0]);
+        }
+    }
+
+    /**
+     * Prüft die Anzahl der Felder einer Zeile.
+     */
+    private static void pruefeFelder(String[] felder, int mindestens,
+            int hoechstens)
+    {
+        if (felder.length < mindestens || felder.length > hoechstens)
+        {
+            throw new IllegalArgumentException("Falsche Anzahl Felder für "
+                    + felder[0] + ": " + felder.length);
+        }
+    }
+
+    /**
+     * Liest eine nicht negative Zahl.
+     */
+    private static int zahl(String feld)
+    {
+        int zahl;
+        try
+        {
+            zahl = Integer.parseInt(feld.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Keine Zahl: " + feld);
+        }
+        if (zahl < 0)
+        {
+            throw new IllegalArgumentException("Negative Zahl: " + feld);
+        }
+        return zahl;
+    }
+
+    /**
+     * Liest eine positive Zahl.
+     */
+    private static int positiv(String feld)
+    {
+        int zahl = zahl(feld);
+        if (zahl == 0)
+        {
+            throw new IllegalArgumentException("Zahl muss positiv sein: "
+                    + feld);
+        }
+        return zahl;
+    }
+
+    /**
+     * Liest "ja" oder "nein".
+     */
+    private static boolean janein(String feld)
+    {
+        if (!feld.equals("ja") && !feld.equals("nein"))
+        {
+            throw new IllegalArgumentException("Erwartet ja oder nein: "
+                    + feld);
+        }
+        return feld.equals("ja");
+    }
+
+    /**
+     * Liest ein Datum der Form Tag.Monat.Jahr.
+     */
+    private static Datum datum(String feld)
+    {
+        String[] teile = feld.split("\\.", -1);
+        if (teile.length != 3)
+        {
+            throw new IllegalArgumentException("Kein Datum: " + feld);
+        }
+        int tag = zahl(teile[0]);
+        int monat = zahl(teile[1]);
+        int jahr = zahl(teile[2]);
+        if (!Datum.istGueltig(tag, monat, jahr))
+        {
+            throw new IllegalArgumentException("Kein gültiges Datum: " + feld);
+        }
+        return new Datum(tag, monat, jahr);
+    }
+
+    /**
+     * Liest eine Uhrzeit der Form Stunden:Minuten.
+     */
+    private static Uhrzeit uhrzeit(String feld)
+    {
+        String[] teile = feld.split(":", -1);
+        if (teile.length != 2)
+        {
+            throw new IllegalArgumentException("Keine Uhrzeit: " + feld);
+        }
+        int stunden = zahl(teile[0]);
+        int minuten = zahl(teile[1]);
+        if (stunden > 23 || minuten > 59)
+        {
+            throw new IllegalArgumentException("Keine gültige Uhrzeit: "
+                    + feld);
+        }
+        return new Uhrzeit(stunden, minuten);
+    }
+
+    /**
+     * Liest einen Saalplan, dessen Reihen durch | getrennt sind.
+     */
+    private static Saalplan saalplan(String feld)
+    {
+        String[] reihen = feld.split("\\|", -1);
+        boolean sitz = false;
+        for (String reihe : reihen)
+        {
+            sitz |= reihe.indexOf(Saalplan.SITZ) >= 0;
+        }
+        if (!sitz)
+        {
+            throw new IllegalArgumentException("Saalplan ohne Sitze: " + feld);
+        }
+        return Saalplan.ausText(reihen);
+    }
+
+    /**
+     * Die abgebildete Datei mit den gelesenen Tabellen. Vorstellungen werden
+     * erst gelesen, wenn sie gebraucht werden.
+     */
+    private static final class Programm implements Tagesspeicher
+    {
+        private final Path _datei;
+        private final ByteBuffer _puffer;
+        private final Kinosaal[] _saele;
+        private final Film[] _filme;
+        private final int _anzahl;
+        private final int _ersterTag;
+        private final int _anzahlTage;
+
+        // Der Anfang der Vorstellungen in der Datei.
+        private final int _vorstellungen;
+
+        // Jede Uhrzeit gibt es nur einmal.
+        private final Uhrzeit[] _zeiten;
+
+        // Pro Tag der Index seiner ersten Vorstellung; der Tag danach
+        // markiert das Ende. Wird nur für den Tagesspeicher angelegt.
+        private int[] _verzeichnis;
+
+        /**
+         * Bildet die Datei ab und liest ihren Kopf und ihre Tabellen.
+         */
+        Programm(Path datei) throws IOException
+        {
+            _datei = datei;
+            MappedByteBuffer puffer;
+            try (FileChannel kanal = FileChannel.open(datei,
+                    StandardOpenOption.READ))
+            {
+                if (kanal.size() > Integer.MAX_VALUE)
+                {
+                    throw new IOException("Programmdatei zu groß: "
+                            + kanal.size() + " Bytes");
+                }
+                puffer = kanal.map(FileChannel.MapMode.READ_ONLY, 0,
+                        kanal.size());
+            }
+            _puffer = puffer;
+            try
+            {
+                if (puffer.remaining() < KOPF || puffer.getLong() != KENNUNG)
+                {
+                    throw new IOException("Keine Programmdatei");
+                }
+                String[] texte = new String[pruefeAnzahl(puffer.getInt())];
+                _saele = new Kinosaal[pruefeAnzahl(puffer.getInt())];
+                _filme = new Film[pruefeAnzahl(puffer.getInt())];
+                _anzahl = pruefeAnzahl(puffer.getInt());
+                _ersterTag = puffer.getInt();
+                int letzterTag = puffer.getInt();
+                long tage = (long) letzterTag - _ersterTag + 1;
+                if ((long) _anzahl * VORSTELLUNG > puffer.remaining()
+                        || (_anzahl > 0 && (tage < 1 || tage > MAXIMALE_TAGE)))
+                {
+                    throw new IOException("Programmdatei ist beschädigt");
+                }
+                _anzahlTage = _anzahl > 0 ? (int) tage : 0;
+                leseTabellen(texte);
+            }
+            catch (BufferUnderflowException | IllegalArgumentException e)
+            {
+                throw new IOException("Programmdatei ist beschädigt: "
+                        + datei, e);
+            }
+            _vorstellungen = puffer.position();
+            _zeiten = new Uhrzeit[MINUTEN_PRO_TAG];
+            for (int i = 0; i < _zeiten.length; i++)
+            {
+                _zeiten[i] = new Uhrzeit(i / 60, i % 60);
+            }
+        }
+
+        /**
+         * Liest die Texte, Säle und Filme.
+         */
+        private void leseTabellen(String[] texte) throws IOException
+        {
+            ByteBuffer puffer = _puffer;
+            byte[] bytes = new byte[Short.MAX_VALUE * 2 + 1];
+            for (int i = 0; i < texte.length; i++)
+            {
+                int laenge = Short.toUnsignedInt(puffer.getShort());
+                puffer.get(bytes, 0, laenge);
+                texte[i] = new String(bytes, 0, laenge,
+                        StandardCharsets.UTF_8);
+            }
+            for (int i = 0; i < _saele.length; i++)
+            {
+                String name = texte[index(puffer.getInt(), texte.length)];
+                int anzahlReihen = pruefePositiv(puffer.getShort());
+                long[][] reihen = new long[anzahlReihen][pruefePositiv(puffer
+                        .getShort())];
+                long sitze = 0;
+                for (long[] reihe : reihen)
+                {
+                    for (int w = 0; w < reihe.length; w++)
+                    {
+                        reihe[w] = puffer.getLong();
+                        sitze |= reihe[w];
+                    }
+                }
+                if (sitze == 0)
+                {
+                    throw new IOException("Programmdatei ist beschädigt");
+                }
+                _saele[i] = new Kinosaal(name, Saalplan.ausMasken(reihen));
+            }
+            FSK[] freigaben = FSK.values();
+            for (int i = 0; i < _filme.length; i++)
+            {
+                String titel = texte[index(puffer.getInt(), texte.length)];
+                int laenge = pruefePositiv(puffer.getShort());
+                FSK fsk = freigaben[index(puffer.get(), freigaben.length)];
+                _filme[i] = new Film(titel, laenge, fsk, puffer.get() != 0);
+            }
+        }
+
+        /**
+         * Gibt den Tag der Vorstellung mit dem angegebenen Index relativ zum
+         * ersten Tag zurück.
+         */
+        int tag(int i) throws IOException
+        {
+            return index(_puffer.getInt(_vorstellungen + i * VORSTELLUNG)
+                    - _ersterTag, _anzahlTage);
+        }
+
+        /**
+         * Liest die Vorstellung mit dem angegebenen Index, die an dem
+         * angegebenen Tag läuft.
+         */
+        Vorstellung vorstellung(int i, Datum datum) throws IOException
+        {
+            int anfang = _vorstellungen + i * VORSTELLUNG + Integer.BYTES;
+            Film film = _filme[index(_puffer.getInt(anfang), _filme.length)];
+            int preis = _puffer.getInt(anfang + Integer.BYTES);
+            int position = anfang + 2 * Integer.BYTES;
+            Kinosaal saal = _saele[index(_puffer.getShort(position),
+                    _saele.length)];
+            Uhrzeit anfangszeit = _zeiten[index(_puffer.getShort(position
+                    + Short.BYTES), MINUTEN_PRO_TAG)];
+            Uhrzeit endzeit = _zeiten[index(_puffer.getShort(position + 2
+                    * Short.BYTES), MINUTEN_PRO_TAG)];
+            if (preis < 0)
+            {
+                throw new IOException("Programmdatei ist beschädigt");
+            }
+            return new Vorstellung(saal, film, anfangszeit, endzeit, datum,
+                    preis);
+        }
+
+        /**
+         * Legt das Verzeichnis der Tage an.
+         */
+        void verzeichne() throws IOException
+        {
+            int[] verzeichnis = new int[_anzahlTage + 1];
+            int vorher = 0;
+            for (int i = 0; i < _anzahl; i++)
+            {
+                int tag = tag(i);
+                if (tag < vorher)
+                {
+                    throw new IOException(
+                            "Vorstellungen nicht nach Tagen sortiert: "
+                                    + _datei);
+                }
+                verzeichnis[tag + 1]++;
+                vorher = tag;
+            }
+            for (int tag = 0; tag < _anzahlTage; tag++)
+            {
+                verzeichnis[tag + 1] += verzeichnis[tag];
+            }
+            _verzeichnis = verzeichnis;
+        }
+
+        @Override
+        public List<Kinosaal> getKinosaele()
+        {
+            return new ArrayList<>(Arrays.asList(_saele));
+        }
+
+        @Override
+        public List<Datum> getTage()
+        {
+            List<Datum> tage = new ArrayList<>();
+            for (int tag = 0; tag < _anzahlTage; tag++)
+            {
+                if (_verzeichnis[tag + 1] > _verzeichnis[tag])
+                {
+                    tage.add(Datum.ausEpochentag(_ersterTag + tag));
+                }
+            }
+            return tage;
+        }
+
+        @Override
+        public List<Vorstellung> lade(Datum tag) throws IOException
+        {
+            assert tag != null : "Vorbedingung verletzt: tag != null";
+
+            List<Vorstellung> vorstellungen = new ArrayList<>();
+            long index = (long) tag.getEpochentag() - _ersterTag;
+            if (index >= 0 && index < _anzahlTage)
+            {
+                int t = (int) index;
+                try
+                {
+                    for (int i = _verzeichnis[t]; i < _verzeichnis[t + 1]; i++)
+                    {
+                        vorstellungen.add(vorstellung(i, tag));
+                    }
+                }
+                catch (IndexOutOfBoundsException | IllegalArgumentException e)
+                {
+                    throw new IOException("Programmdatei ist beschädigt: "
+                            + _datei, e);
+                }
+            }
+            return vorstellungen;
+        }
+    }
+
+    /**
+     * Sammelt die Tabellen und Vorstellungen einer Programmdatei und schreibt
+     * sie.
+     */
+    private static final class Schreiber
+    {
+        private final Map<String, Integer> _texte;
+        private final Map<Kinosaal, Integer> _saele;
+        private final Map<Film, Integer> _filme;
+        private final List<Kinosaal> _saalliste;
+        private final List<Film> _filmliste;
+
+        // Pro Saal die Zeiträume der Vorstellungen, jeweils mit ihrem Anfang
+        // als Wert, damit Überschneidungen gemeldet werden können.
+        private final List<Saalkalender<Long>> _kalender;
+        private ByteBuffer _vorstellungen;
+        private int _anzahl;
+        private int _ersterTag;
+        private int _letzterTag;
+        private boolean _nachTagen;
+        private int _vorherigerTag;
+
+        Schreiber()
+        {
+            _texte = new LinkedHashMap<>();
+            _saele = new HashMap<>();
+            _filme = new HashMap<>();
+            _saalliste = new ArrayList<>();
+            _filmliste = new ArrayList<>();
+            _kalender = new ArrayList<>();
+            _vorstellungen = ByteBuffer.allocate(1 << 16);
+            _ersterTag = Integer.MAX_VALUE;
+            _letzterTag = Integer.MIN_VALUE;
+            _nachTagen = true;
+        }
+
+        /**
+         * Gibt den Index des Saals zurück und nimmt ihn beim ersten Mal in
+         * die Tabelle auf.
+         */
+        int saal(Kinosaal saal)
+        {
+            Integer index = _saele.get(saal);
+            if (index == null)
+            {
+                if (_saalliste.size() > Short.MAX_VALUE)
+                {
+                    throw new IllegalArgumentException("Zu viele Säle");
+                }
+                index = _saalliste.size();
+                text(saal.getName());
+                _saele.put(saal, index);
+                _saalliste.add(saal);
+                _kalender.add(new Saalkalender<>());
+            }
+            return index;
+        }
+
+        /**
+         * Gibt den Index des Films zurück und nimmt ihn beim ersten Mal in
+         * die Tabelle auf.
+         */
+        int film(Film film)
+        {
+            Integer index = _filme.get(film);
+            if (index == null)
+            {
+                if (film.getLaenge() > Short.MAX_VALUE)
+                {
+                    throw new IllegalArgumentException("Film zu lang: "
+                            + film.getLaenge());
+                }
+                index = _filmliste.size();
+                text(film.getTitel());
+                _filme.put(film, index);
+                _filmliste.add(film);
+            }
+            return index;
+        }
+
+        /**
+         * Gibt den Index des Texts zurück und nimmt ihn beim ersten Mal in
+         * die Tabelle auf.
+         */
+        private int text(String text)
+        {
+            Integer index = _texte.get(text);
+            if (index == null)
+            {
+                if (text.getBytes(StandardCharsets.UTF_8).length > 0xFFFF)
+                {
+                    throw new IllegalArgumentException("Text zu lang: "
+                            + text.length() + " Zeichen");
+                }
+                index = _texte.size();
+                _texte.put(text, index);
+            }
+            return index;
+        }
+
+        /**
+         * Hängt eine Vorstellung an.
+         * 
+         * @throws IllegalArgumentException falls sie sich mit einer schon
+         *             angehängten Vorstellung im selben Saal überschneidet.
+         */
+        void vorstellung(int saal, int film, Datum datum, Uhrzeit anfang,
+                Uhrzeit ende, int preis)
+        {
+            Long von = Saalkalender.minute(datum, anfang);
+            long bis = Saalkalender.ende(datum, anfang, ende);
+            Long andere = _kalender.get(saal).getUeberschneidung(von, bis,
+                    null);
+            if (andere != null)
+            {
+                throw new IllegalArgumentException(
+                        "Überschneidet sich mit der Vorstellung am "
+                                + Saalkalender.alsText(andere) + " in "
+                                + _saalliste.get(saal).getName());
+            }
+            _kalender.get(saal).trageEin(von, bis, von);
+            if (_vorstellungen.remaining() < VORSTELLUNG)
+            {
+                ByteBuffer groesser = ByteBuffer.allocate(2 * _vorstellungen
+                        .capacity());
+                _vorstellungen.flip();
+                groesser.put(_vorstellungen);
+                _vorstellungen = groesser;
+            }
+            int tag = datum.getEpochentag();
+            _nachTagen &= _anzahl == 0 || tag >= _vorherigerTag;
+            _vorherigerTag = tag;
+            _ersterTag = Math.min(_ersterTag, tag);
+            _letzterTag = Math.max(_letzterTag, tag);
+            _vorstellungen.putInt(tag);
+            _vorstellungen.putInt(film);
+            _vorstellungen.putInt(preis);
+            _vorstellungen.putShort((short) saal);
+            _vorstellungen.putShort((short) (anfang.getStunden() * 60 + anfang
+                    .getMinuten()));
+            _vorstellungen.putShort((short) (ende.getStunden() * 60 + ende
+                    .getMinuten()));
+            _anzahl++;
+        }
+
+        /**
+         * Schreibt die Programmdatei. Die Vorstellungen werden dabei nach
+         * Tagen sortiert, damit die Datei als {@link Tagesspeicher} geöffnet
+         * werden kann.
+         */
+        void schreibe(Path datei) throws IOException
+        {
+            if (_anzahl > 0 && (long) _letzterTag - _ersterTag >= MAXIMALE_TAGE)
+            {
+                throw new IOException("Programm umfasst zu viele Tage: "
+                        + ((long) _letzterTag - _ersterTag + 1));
+            }
+            if (!_nachTagen)
+            {
+                sortiereNachTagen();
+            }
+            ByteBuffer tabellen = ByteBuffer.allocate(1 << 16);
+            tabellen.putLong(KENNUNG);
+            tabellen.putInt(_texte.size());
+            tabellen.putInt(_saalliste.size());
+            tabellen.putInt(_filmliste.size());
+            tabellen.putInt(_anzahl);
+            tabellen.putInt(_anzahl > 0 ? _ersterTag : 0);
+            tabellen.putInt(_anzahl > 0 ? _letzterTag : 0);
+            for (String text : _texte.keySet())
+            {
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                tabellen = platzFuer(tabellen, Short.BYTES + bytes.length);
+                tabellen.putShort((short) bytes.length);
+                tabellen.put(bytes);
+            }
+            for (Kinosaal saal : _saalliste)
+            {
+                Saalplan plan = saal.getSaalplan();
+                int woerter = (plan.getBreite() + Long.SIZE - 1) / Long.SIZE;
+                tabellen = platzFuer(tabellen, Integer.BYTES + 2
+                        * Short.BYTES + plan.getAnzahlReihen() * woerter
+                        * Long.BYTES);
+                tabellen.putInt(_texte.get(saal.getName()));
+                tabellen.putShort((short) plan.getAnzahlReihen());
+                tabellen.putShort((short) woerter);
+                for (int r = 0; r < plan.getAnzahlReihen(); r++)
+                {
+                    for (int w = 0; w < woerter; w++)
+                    {
+                        tabellen.putLong(plan.getSitze(r, w));
+                    }
+                }
+            }
+            for (Film film : _filmliste)
+            {
+                tabellen = platzFuer(tabellen, Integer.BYTES + Short.BYTES
+                        + 2);
+                tabellen.putInt(_texte.get(film.getTitel()));
+                tabellen.putShort((short) film.getLaenge());
+                tabellen.put((byte) film.getFSK().ordinal());
+                tabellen.put((byte) (film.hatUeberlaenge() ? 1 : 0));
+            }
+
+            try (FileChannel kanal = FileChannel.open(datei,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE))
+            {
+                tabellen.flip();
+                _vorstellungen.flip();
+                while (tabellen.hasRemaining() || _vorstellungen.hasRemaining())
+                {
+                    kanal.write(new ByteBuffer[] { tabellen, _vorstellungen });
+                }
+            }
+        }
+
+        /**
+         * Sortiert die Vorstellungen stabil nach ihrem Tag.
+         */
+        private void sortiereNachTagen()
+        {
+            byte[] alt = _vorstellungen.array();
+            int[] anfang = new int[_letzterTag - _ersterTag + 2];
+            for (int i = 0; i < _anzahl; i++)
+            {
+                anfang[tag(i) + 1]++;
+            }
+            for (int tag = 1; tag < anfang.length; tag++)
+            {
+                anfang[tag] += anfang[tag - 1];
+            }
+            byte[] neu = new byte[alt.length];
+            for (int i = 0; i < _anzahl; i++)
+            {
+                System.arraycopy(alt, i * VORSTELLUNG, neu,
+                        anfang[tag(i)]++ * VORSTELLUNG, VORSTELLUNG);
+            }
+            _vorstellungen = ByteBuffer.wrap(neu);
+            _vorstellungen.position(_anzahl * VORSTELLUNG);
+            _nachTagen = true;
+        }
+
+        /**
+         * Gibt den Tag der Vorstellung mit dem angegebenen Index relativ zum
+         * ersten Tag zurück.
+         */
+        private int tag(int i)
+        {
+            return _vorstellungen.getInt(i * VORSTELLUNG) - _ersterTag;
+        }
+
+        /**
+         * Gibt einen Puffer zurück, der den Inhalt des angegebenen hat und
+         * Platz für die angegebene Anzahl Bytes.
+         */
+        private static ByteBuffer platzFuer(ByteBuffer puffer, int laenge)
+        {
+            ByteBuffer ergebnis = puffer;
+            if (puffer.remaining() < laenge)
+            {
+                ergebnis = ByteBuffer.allocate(Math.max(2 * puffer.capacity(),
+                        puffer.position() + laenge));
+                puffer.flip();
+                ergebnis.put(puffer);
+            }
+            return ergebnis;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Saalplan;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ProgrammdateiTest
+{
+    @Rule
+    public TemporaryFolder _ordner = new TemporaryFolder();
+
+    @Test
+    public void testeSchreibenUndLaden() throws IOException
+    {
+        Kinosaal saal = new Kinosaal("Saal 1", 20, 25);
+        Kinosaal balkon = new Kinosaal("Balkon", Saalplan.ausText(
+                "  XXXX  XXXX", "XXXXXX  XXXXXX"));
+        Film thor = new Film("Thor", 115, FSK.FSK12, false);
+        Film rio = new Film("Rio", 96, FSK.FSK0, true);
+        Datum heute = new Datum(31, 12, 2024);
+        Vorstellung[] vorstellungen = {
+                new Vorstellung(saal, rio, new Uhrzeit(17, 30), new Uhrzeit(
+                        19, 6), heute, 595),
+                new Vorstellung(saal, thor, new Uhrzeit(22, 30), new Uhrzeit(
+                        1, 0), heute, 795),
+                new Vorstellung(balkon, thor, new Uhrzeit(20, 0), new Uhrzeit(
+                        22, 0), heute.naechsterTag(), 1095) };
+        Path datei = _ordner.getRoot().toPath().resolve("programm.kino");
+        Programmdatei.schreibe(datei, new Kino(new Kinosaal[] { saal, balkon },
+                vorstellungen));
+
+        Kino kino = Programmdatei.lade(datei);
+        assertEquals(2, kino.getKinosaele().size());
+        assertTrue(kino.hatKinosaal(balkon));
+        List<Vorstellung> geladen = kino.getVorstellungen();
+        assertEquals(3, geladen.size());
+        Vorstellung spaet = geladen.get(1);
+        assertEquals(saal, spaet.getKinosaal());
+        assertEquals("Thor", spaet.getFilm().getTitel());
+        assertEquals(115, spaet.getFilm().getLaenge());
+        assertEquals(FSK.FSK12, spaet.getFilm().getFSK());
+        assertEquals(heute, spaet.getDatum());
+        assertEquals(new Uhrzeit(22, 30), spaet.getAnfangszeit());
+        assertEquals(new Uhrzeit(1, 0), spaet.getEndzeit());
+        assertEquals(795, spaet.getPreis());
+        assertTrue(geladen.get(0).getFilm().hatUeberlaenge());
+        assertEquals(balkon.getSaalplan(), geladen.get(2).getKinosaal()
+                .getSaalplan());
+        assertEquals(new Datum(1, 1, 2025), geladen.get(2).getDatum());
+
+        // Filme und Tage werden nur einmal erzeugt.
+        assertSame(spaet.getFilm(), geladen.get(2).getFilm());
+        assertSame(geladen.get(0).getDatum(), spaet.getDatum());
+    }
+
+    @Test
+    public void testeKonvertieren() throws IOException
+    {
+        String text = "# Programm\n"
+                + "saal;Saal 1;4;10\n"
+                + "saal;Balkon;  XXXX  XXXX|XXXXXX  XXXXXX\n"
+                + "\n"
+                + "film;Thor;115;FSK12;nein\n"
+                + "vorstellung;Saal 1;Thor;11.7.2008;20:00;22:00;995\n"
+                + "vorstellung;Balkon;Thor;12.7.2008;17:30;19:25;0\n";
+        Path datei = _ordner.getRoot().toPath().resolve("programm.kino");
+        Programmdatei.konvertiere(new BufferedReader(new StringReader(text)),
+                datei);
+
+        Kino kino = Programmdatei.lade(datei);
+        assertEquals(2, kino.getKinosaele().size());
+        List<Vorstellung> vorstellungen = kino.getVorstellungen();
+        assertEquals(2, vorstellungen.size());
+        assertEquals(new Datum(11, 7, 2008), vorstellungen.get(0).getDatum());
+        assertEquals(40, vorstellungen.get(0).getKinosaal().getAnzahlPlaetze());
+        assertEquals(20, vorstellungen.get(1).getKinosaal().getAnzahlPlaetze());
+        assertEquals(new Uhrzeit(17, 30), vorstellungen.get(1)
+                .getAnfangszeit());
+        assertEquals(0, vorstellungen.get(1).getPreis());
+    }
+
+    @Test
+    public void testeFehlerhafteZeileWirdMitNummerGemeldet()
+    {
+        String text = "saal;Saal 1;4;10\n"
+                + "film;Thor;115;FSK12;nein\n"
+                + "vorstellung;Saal 1;Rio;11.7.2008;20:00;22:00;995\n";
+        try
+        {
+            Programmdatei.konvertiere(new BufferedReader(new StringReader(
+                    text)), _ordner.getRoot().toPath().resolve("programm.kino"));
+            fail("Unbekannter Film wurde nicht gemeldet");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Zeile 3:"));
+        }
+
+        text = "saal;Saal 1;4;10\nvorstellung;Saal 1;Thor;30.2.2008\n";
+        try
+        {
+            Programmdatei.konvertiere(new BufferedReader(new StringReader(
+                    text)), _ordner.getRoot().toPath().resolve("programm.kino"));
+            fail("Falsche Anzahl Felder wurde nicht gemeldet");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Zeile 2:"));
+        }
+
+        text = "saal;Saal 1;4;10\nfilm;Thor;115;FSK12;nein\n"
+                + "vorstellung;Saal 1;Thor;11.7.2008;22:30;01:00;995\n"
+                + "vorstellung;Saal 1;Thor;12.7.2008;00:30;02:00;995\n";
+        try
+        {
+            Programmdatei.konvertiere(new BufferedReader(new StringReader(
+                    text)), _ordner.getRoot().toPath().resolve("programm.kino"));
+            fail("Überschneidung wurde nicht gemeldet");
+        }
+        catch (IOException e)
+        {
+            assertEquals("Zeile 4: Überschneidet sich mit der Vorstellung am "
+                    + "11.7.2008 22:30 in Saal 1", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testeBeschaedigteDateiWirdAbgelehnt() throws IOException
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("programm.kino");
+        Files.write(datei, new byte[] { 1, 2, 3 });
+        try
+        {
+            Programmdatei.lade(datei);
+            fail("Datei ohne Kennung wurde geladen");
+        }
+        catch (IOException e)
+        {
+            assertFalse(e.getMessage().isEmpty());
+        }
+
+        Kinosaal saal = new Kinosaal("Saal 1", 4, 10);
+        Programmdatei.schreibe(datei, new Kino(new Kinosaal[] { saal },
+                new Vorstellung[] { new Vorstellung(saal, new Film("Thor",
+                        115, FSK.FSK12, false), new Uhrzeit(20, 0),
+                        new Uhrzeit(22, 0), new Datum(11, 7, 2008), 995) }));
+        byte[] inhalt = Files.readAllBytes(datei);
+        Files.write(datei, Arrays.copyOf(inhalt, inhalt.length - 1));
+        try
+        {
+            Programmdatei.lade(datei);
+            fail("Abgeschnittene Datei wurde geladen");
+        }
+        catch (IOException e)
+        {
+            assertFalse(e.getMessage().isEmpty());
+        }
+    }
+
+    @Test
+    public void testeOeffnenAlsTagesspeicher() throws IOException
+    {
+        Kinosaal saal = new Kinosaal("Saal 1", 20, 25);
+        Datum heute = new Datum(31, 12, 2024);
+        Path text = _ordner.getRoot().toPath().resolve("programm.txt");
+        // Nicht nach Tagen sortiert; die Datei ist es trotzdem.
+        Files.write(text, Arrays.asList("saal;Saal 1;20;25",
+                "film;Thor;115;FSK12;nein",
+                "vorstellung;Saal 1;Thor;3.1.2025;20:00;22:00;995",
+                "vorstellung;Saal 1;Thor;31.12.2024;17:30;19:30;595",
+                "vorstellung;Saal 1;Thor;31.12.2024;22:30;01:00;795"));
+        Path datei = _ordner.getRoot().toPath().resolve("programm.kino");
+        try (BufferedReader ein = Files.newBufferedReader(text))
+        {
+            Programmdatei.konvertiere(ein, datei);
+        }
+
+        Tagesspeicher speicher = Programmdatei.oeffne(datei);
+        assertEquals(Arrays.asList(saal), speicher.getKinosaele());
+        assertEquals(Arrays.asList(heute, heute.plus(3)), speicher.getTage());
+        assertTrue(speicher.lade(heute.plus(1)).isEmpty());
+        assertTrue(speicher.lade(heute.minus(100)).isEmpty());
+        List<Vorstellung> silvester = speicher.lade(heute);
+        assertEquals(2, silvester.size());
+        assertEquals(new Uhrzeit(17, 30), silvester.get(0).getAnfangszeit());
+        assertEquals(795, silvester.get(1).getPreis());
+        assertEquals(Vorstellung.schluessel("Saal 1", heute.plus(3),
+                new Uhrzeit(20, 0)), speicher.lade(heute.plus(3)).get(0)
+                .getSchluessel());
+
+        Kino kino = new Kino(speicher, 0, 0);
+        assertEquals(2, kino.getTagesplan(heute).getVorstellungen().size());
+        assertEquals(3, kino.getVorstellungen().size());
+    }
+}
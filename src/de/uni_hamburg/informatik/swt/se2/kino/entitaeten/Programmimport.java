@@ -0,0 +1,654 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Importiert Vorstellungen aus einer CSV-Datei in ein Kino, ohne die Datei
+ * oder alle Vorstellungen vorher im Speicher zu sammeln. Jede Zeile ist eine
+ * Vorstellung in einem Saal des Kinos:
+ * 
+ * <pre>
+ * saal,datum,anfang,ende,film,laenge,fsk,ueberlaenge,preis
+ * Saal 1,2025-07-11,20:00,22:00,Thor,115,FSK12,nein,995
+ * "Saal 2",2025-07-11,22:30,01:00,"Fast &amp; Furious, Teil 5",130,FSK12,ja,895
+ * </pre>
+ * 
+ * Die Kopfzeile ist optional. Felder dürfen in Anführungszeichen stehen und
+ * dann Kommas und verdoppelte Anführungszeichen enthalten. Ein Film wird durch
+ * das erste Auftreten seines Titels festgelegt.
+ * 
+ * Die Zeilen werden in Paketen gelesen und von mehreren Threads zerlegt;
+ * übernommen werden die Vorstellungen in der Reihenfolge der Datei vom
+ * aufrufenden Thread. Da nur eine feste Anzahl Pakete gleichzeitig unterwegs
+ * ist, braucht der Import unabhängig von der Länge der Datei nur begrenzt
+ * Speicher über die Vorstellungen hinaus. Zerlegt wird ohne reguläre
+ * Ausdrücke und ohne {@link String#split(String)}. Fehlerhafte Zeilen und
+ * Vorstellungen, die sich im selben Saal mit einer schon vorhandenen
+ * überschneiden, werden übersprungen und mit ihrer Nummer gemeldet.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public final class Programmimport
+{
+    private static final int ZEILEN_PRO_PAKET = 4096;
+
+    // Mehr Meldungen werden nur noch gezählt.
+    private static final int MAXIMALE_MELDUNGEN = 1000;
+
+    private static final String KOPFZEILE = "saal,";
+
+    private static final int FELDER = 9;
+
+    private final Map<String, Kinosaal> _saele;
+    private final Map<String, Film> _filme;
+    private final Map<String, Film> _ersteFilme;
+    private final Map<String, Integer> _ersteZeilen;
+    private final Map<Integer, Datum> _tage;
+    private final Uhrzeit[] _uhrzeiten;
+
+    /**
+     * Erzeugt einen Import in die Säle des angegebenen Kinos.
+     */
+    private Programmimport(Kino kino)
+    {
+        _saele = new HashMap<>();
+        for (Kinosaal saal : kino.getKinosaele())
+        {
+            _saele.put(saal.getName(), saal);
+        }
+        _filme = new ConcurrentHashMap<>();
+        _ersteFilme = new HashMap<>();
+        _ersteZeilen = new HashMap<>();
+        _tage = new ConcurrentHashMap<>();
+        _uhrzeiten = new Uhrzeit[24 * 60];
+        for (int i = 0; i < _uhrzeiten.length; i++)
+        {
+            _uhrzeiten[i] = new Uhrzeit(i / 60, i % 60);
+        }
+    }
+
+    /**
+     * Liest die CSV-Zeilen und fügt die Vorstellungen dem Kino hinzu.
+     * Fehlerhafte Zeilen werden übersprungen und im Bericht gemeldet. Das Kino
+     * darf währenddessen nicht benutzt werden.
+     * 
+     * @param csv die CSV-Zeilen.
+     * @param kino das Kino, dessen Säle die Vorstellungen benutzen.
+     * @param threads die Anzahl der Threads, die Zeilen zerlegen.
+     * 
+     * @throws IOException falls nicht gelesen werden kann.
+     * 
+     * @require csv != null
+     * @require kino != null
+     * @require threads > 0
+     * 
+     * @ensure result != null
+     */
+    public static Bericht importiere(BufferedReader csv, Kino kino,
+            int threads) throws IOException
+    {
+        assert csv != null : "Vorbedingung verletzt: csv != null";
+        assert kino != null : "Vorbedingung verletzt: kino != null";
+        assert threads > 0 : "Vorbedingung verletzt: threads > 0";
+
+        Programmimport programmimport = new Programmimport(kino);
+        Bericht bericht = new Bericht();
+        ExecutorService zerleger = Executors.newFixedThreadPool(threads,
+                aufgabe -> {
+                    Thread thread = new Thread(aufgabe, "Programmimport");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Queue<Future<Paket>> unterwegs = new ArrayDeque<>();
+        try
+        {
+            int nummer = 0;
+            Paket paket = new Paket(1);
+            String zeile;
+            while ((zeile = csv.readLine()) != null)
+            {
+                nummer++;
+                boolean kopf = nummer == 1 && zeile.startsWith(KOPFZEILE);
+                if (kopf)
+                {
+                    paket._uebersprungen++;
+                }
+                else
+                {
+                    paket._zeilen.add(zeile);
+                }
+                if (paket._zeilen.size() == ZEILEN_PRO_PAKET)
+                {
+                    unterwegs.add(zerleger.submit(programmimport
+                            .zerlegeSpaeter(paket)));
+                    paket = new Paket(nummer + 1);
+                    if (unterwegs.size() >= 2 * threads)
+                    {
+                        programmimport.uebernimm(warteAuf(unterwegs.remove()), kino,
+                        bericht);
+                    }
+                }
+            }
+            unterwegs.add(zerleger.submit(programmimport
+                    .zerlegeSpaeter(paket)));
+            while (!unterwegs.isEmpty())
+            {
+                programmimport.uebernimm(warteAuf(unterwegs.remove()), kino,
+                        bericht);
+            }
+        }
+        finally
+        {
+            zerleger.shutdownNow();
+        }
+        return bericht;
+    }
+
+    /**
+     * Wartet auf ein zerlegtes Paket.
+     */
+    private static Paket warteAuf(Future<Paket> paket) throws IOException
+    {
+        try
+        {
+            return paket.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import unterbrochen");
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Fügt die Vorstellungen eines zerlegten Pakets in der Reihenfolge der
+     * Datei dem Kino hinzu. Erst hier steht fest, welches Auftreten eines
+     * Films das erste ist.
+     */
+    private void uebernimm(Paket paket, Kino kino, Bericht bericht)
+    {
+        for (int i = 0; i < paket._zeilen.size(); i++)
+        {
+            Vorstellung vorstellung = paket._vorstellungen[i];
+            String meldung = paket._meldungen[i];
+            if (vorstellung != null)
+            {
+                Film film = vorstellung.getFilm();
+                Film erster = _ersteFilme.putIfAbsent(film.getTitel(), film);
+                if (erster == null)
+                {
+                    _ersteZeilen.put(film.getTitel(), paket.nummer(i));
+                }
+                Vorstellung andere = kino.getUeberschneidung(vorstellung);
+                if (erster != null && erster != film)
+                {
+                    meldung = "Film " + film.getTitel() + " widerspricht Zeile "
+                            + _ersteZeilen.get(film.getTitel());
+                }
+                else if (andere != null)
+                {
+                    meldung = "Überschneidet sich mit "
+                            + andere.getFilm().getTitel() + " am "
+                            + andere.getDatum().getFormatiertenString()
+                            + " um "
+                            + andere.getAnfangszeit().getFormatiertenString();
+                }
+                else
+                {
+                    kino.fuegeVorstellungHinzu(vorstellung);
+                    bericht._vorstellungen++;
+                }
+            }
+            if (meldung != null)
+            {
+                bericht.melde("Zeile " + paket.nummer(i) + ": " + meldung);
+            }
+        }
+    }
+
+    /**
+     * Gibt eine Aufgabe zurück, die die Zeilen des Pakets zerlegt.
+     */
+    private Callable<Paket> zerlegeSpaeter(Paket paket)
+    {
+        return () -> {
+            Zerleger zerleger = new Zerleger();
+            for (int i = 0; i < paket._zeilen.size(); i++)
+            {
+                String zeile = paket._zeilen.get(i);
+                if (!zeile.isEmpty())
+                {
+                    try
+                    {
+                        paket._vorstellungen[i] = zerleger.vorstellung(zeile);
+                    }
+                    catch (IllegalArgumentException e)
+                    {
+                        paket._meldungen[i] = e.getMessage();
+                    }
+                }
+            }
+            return paket;
+        };
+    }
+
+    /**
+     * Ein Paket aufeinanderfolgender Zeilen und, nachdem es zerlegt ist,
+     * seine Vorstellungen und Meldungen.
+     */
+    private static final class Paket
+    {
+        private final int _ersteNummer;
+        private final List<String> _zeilen;
+        private final Vorstellung[] _vorstellungen;
+        private final String[] _meldungen;
+
+        // Die Kopfzeile ist nicht im Paket, wird aber mitgezählt.
+        private int _uebersprungen;
+
+        Paket(int ersteNummer)
+        {
+            _ersteNummer = ersteNummer;
+            _zeilen = new ArrayList<>(ZEILEN_PRO_PAKET);
+            _vorstellungen = new Vorstellung[ZEILEN_PRO_PAKET];
+            _meldungen = new String[ZEILEN_PRO_PAKET];
+        }
+
+        /**
+         * Gibt die Zeilennummer der Zeile mit dem angegebenen Index zurück.
+         */
+        int nummer(int index)
+        {
+            return _ersteNummer + _uebersprungen + index;
+        }
+    }
+
+    /**
+     * Zerlegt Zeilen in Felder und übersetzt sie in Vorstellungen. Jeder
+     * Thread benutzt einen eigenen Zerleger.
+     */
+    private final class Zerleger
+    {
+        private final int[] _anfang;
+        private final int[] _ende;
+        private final boolean[] _zitiert;
+        private final StringBuilder _text;
+        private String _zeile;
+
+        Zerleger()
+        {
+            _anfang = new int[FELDER];
+            _ende = new int[FELDER];
+            _zitiert = new boolean[FELDER];
+            _text = new StringBuilder();
+        }
+
+        /**
+         * Übersetzt eine Zeile in eine Vorstellung.
+         * 
+         * @throws IllegalArgumentException falls die Zeile fehlerhaft ist.
+         */
+        Vorstellung vorstellung(String zeile)
+        {
+            zerlege(zeile);
+            Kinosaal saal = _saele.get(text(0));
+            if (saal == null)
+            {
+                throw new IllegalArgumentException("Unbekannter Saal: "
+                        + text(0));
+            }
+            Datum datum = datum(1);
+            Uhrzeit anfang = uhrzeit(2);
+            Uhrzeit ende = uhrzeit(3);
+            Film film = film(text(4), zahl(5), fsk(6), janein(7));
+            return new Vorstellung(saal, film, anfang, ende, datum, zahl(8));
+        }
+
+        /**
+         * Merkt sich Anfang und Ende jedes Felds der Zeile.
+         */
+        private void zerlege(String zeile)
+        {
+            _zeile = zeile;
+            int feld = 0;
+            int i = 0;
+            boolean weiter = true;
+            while (weiter)
+            {
+                if (feld == FELDER)
+                {
+                    throw new IllegalArgumentException(
+                            "Zu viele Felder, erwartet " + FELDER);
+                }
+                _zitiert[feld] = i < zeile.length() && zeile.charAt(i) == '"';
+                if (_zitiert[feld])
+                {
+                    _anfang[feld] = i + 1;
+                    i = endeDesZitats(i + 1);
+                    _ende[feld] = i;
+                    i++;
+                    if (i < zeile.length() && zeile.charAt(i) != ',')
+                    {
+                        throw new IllegalArgumentException(
+                                "Zeichen nach Anführungszeichen in Feld "
+                                        + (feld + 1));
+                    }
+                }
+                else
+                {
+                    _anfang[feld] = i;
+                    while (i < zeile.length() && zeile.charAt(i) != ',')
+                    {
+                        i++;
+                    }
+                    _ende[feld] = i;
+                }
+                feld++;
+                weiter = i < zeile.length();
+                i++;
+            }
+            if (feld != FELDER)
+            {
+                throw new IllegalArgumentException("Zu wenige Felder: "
+                        + feld + " statt " + FELDER);
+            }
+        }
+
+        /**
+         * Gibt die Position des schließenden Anführungszeichens zurück.
+         * Verdoppelte Anführungszeichen werden übersprungen.
+         */
+        private int endeDesZitats(int i)
+        {
+            int position = i;
+            boolean gefunden = false;
+            while (!gefunden)
+            {
+                position = _zeile.indexOf('"', position);
+                if (position < 0)
+                {
+                    throw new IllegalArgumentException(
+                            "Anführungszeichen nicht geschlossen");
+                }
+                if (position + 1 < _zeile.length()
+                        && _zeile.charAt(position + 1) == '"')
+                {
+                    position += 2;
+                }
+                else
+                {
+                    gefunden = true;
+                }
+            }
+            return position;
+        }
+
+        /**
+         * Gibt den Text eines Felds zurück.
+         */
+        private String text(int feld)
+        {
+            String text;
+            if (_zitiert[feld])
+            {
+                _text.setLength(0);
+                for (int i = _anfang[feld]; i < _ende[feld]; i++)
+                {
+                    char c = _zeile.charAt(i);
+                    _text.append(c);
+                    if (c == '"')
+                    {
+                        i++;
+                    }
+                }
+                text = _text.toString();
+            }
+            else
+            {
+                text = _zeile.substring(_anfang[feld], _ende[feld]);
+            }
+            return text;
+        }
+
+        /**
+         * Prüft, ob ein Feld genau den angegebenen Text enthält.
+         */
+        private boolean ist(int feld, String text)
+        {
+            return _ende[feld] - _anfang[feld] == text.length()
+                    && _zeile.startsWith(text, _anfang[feld]);
+        }
+
+        /**
+         * Liest eine nicht negative Zahl aus einem Feld.
+         */
+        private int zahl(int feld)
+        {
+            return zahl(_anfang[feld], _ende[feld], feld);
+        }
+
+        /**
+         * Liest eine nicht negative Zahl zwischen den angegebenen Positionen.
+         */
+        private int zahl(int von, int bis, int feld)
+        {
+            if (von == bis || bis - von > 9)
+            {
+                throw new IllegalArgumentException("Keine Zahl in Feld "
+                        + (feld + 1) + ": " + text(feld));
+            }
+            int zahl = 0;
+            for (int i = von; i < bis; i++)
+            {
+                int ziffer = _zeile.charAt(i) - '0';
+                if (ziffer < 0 || ziffer > 9)
+                {
+                    throw new IllegalArgumentException("Keine Zahl in Feld "
+                            + (feld + 1) + ": " + text(feld));
+                }
+                zahl = zahl * 10 + ziffer;
+            }
+            return zahl;
+        }
+
+        /**
+         * Liest ein Datum der Form Jahr-Monat-Tag. Jeder Tag wird nur einmal
+         * erzeugt.
+         */
+        private Datum datum(int feld)
+        {
+            int von = _anfang[feld];
+            int bis = _ende[feld];
+            if (bis - von != 10 || _zeile.charAt(von + 4) != '-'
+                    || _zeile.charAt(von + 7) != '-')
+            {
+                throw new IllegalArgumentException("Kein Datum: " + text(feld));
+            }
+            int jahr = zahl(von, von + 4, feld);
+            int monat = zahl(von + 5, von + 7, feld);
+            int tag = zahl(von + 8, bis, feld);
+            if (monat < 1 || monat > 12 || tag < 1
+                    || tag > tageImMonat(monat, jahr))
+            {
+                throw new IllegalArgumentException("Kein gültiges Datum: "
+                        + text(feld));
+            }
+            return _tage.computeIfAbsent(jahr * 10000 + monat * 100 + tag,
+                    k -> new Datum(tag, monat, jahr));
+        }
+
+        /**
+         * Liest eine Uhrzeit der Form Stunden:Minuten.
+         */
+        private Uhrzeit uhrzeit(int feld)
+        {
+            int von = _anfang[feld];
+            int bis = _ende[feld];
+            if (bis - von != 5 || _zeile.charAt(von + 2) != ':')
+            {
+                throw new IllegalArgumentException("Keine Uhrzeit: "
+                        + text(feld));
+            }
+            int stunden = zahl(von, von + 2, feld);
+            int minuten = zahl(von + 3, bis, feld);
+            if (stunden > 23 || minuten > 59)
+            {
+                throw new IllegalArgumentException("Keine gültige Uhrzeit: "
+                        + text(feld));
+            }
+            return _uhrzeiten[stunden * 60 + minuten];
+        }
+
+        /**
+         * Liest eine FSK wie FSK12.
+         */
+        private FSK fsk(int feld)
+        {
+            FSK ergebnis = null;
+            for (FSK fsk : FSK.values())
+            {
+                if (ist(feld, fsk.name()))
+                {
+                    ergebnis = fsk;
+                }
+            }
+            if (ergebnis == null)
+            {
+                throw new IllegalArgumentException("Unbekannte FSK: "
+                        + text(feld));
+            }
+            return ergebnis;
+        }
+
+        /**
+         * Liest "ja" oder "nein".
+         */
+        private boolean janein(int feld)
+        {
+            if (!ist(feld, "ja") && !ist(feld, "nein"))
+            {
+                throw new IllegalArgumentException("Erwartet ja oder nein: "
+                        + text(feld));
+            }
+            return ist(feld, "ja");
+        }
+
+        /**
+         * Gibt den Film mit den angegebenen Eigenschaften zurück. Jeder Film
+         * wird nur einmal erzeugt, ob er dem ersten Auftreten seines Titels
+         * entspricht, prüft erst {@link Programmimport#uebernimm}.
+         */
+        private Film film(String titel, int laenge, FSK fsk,
+                boolean ueberlaenge)
+        {
+            if (laenge == 0)
+            {
+                throw new IllegalArgumentException("Film ohne Länge: "
+                        + titel);
+            }
+            return _filme.computeIfAbsent(titel + '\n' + laenge + '\n' + fsk
+                    + '\n' + ueberlaenge, k -> new Film(titel, laenge, fsk,
+                            ueberlaenge));
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der Tage im Monat zurück.
+     */
+    private static int tageImMonat(int monat, int jahr)
+    {
+        int tage;
+        if (monat == 2)
+        {
+            boolean schaltjahr = (jahr % 4 == 0 && jahr % 100 != 0)
+                    || jahr % 400 == 0;
+            tage = schaltjahr ? 29 : 28;
+        }
+        else
+        {
+            tage = (monat == 4 || monat == 6 || monat == 9 || monat == 11) ? 30
+                    : 31;
+        }
+        return tage;
+    }
+
+    /**
+     * Das Ergebnis eines Imports.
+     */
+    public static final class Bericht
+    {
+        private int _vorstellungen;
+        private int _fehler;
+        private final List<String> _meldungen;
+
+        private Bericht()
+        {
+            _meldungen = new ArrayList<>();
+        }
+
+        /**
+         * Zählt einen Fehler und merkt sich seine Meldung, solange nicht zu
+         * viele gemeldet sind.
+         */
+        private void melde(String meldung)
+        {
+            _fehler++;
+            if (_meldungen.size() < MAXIMALE_MELDUNGEN)
+            {
+                _meldungen.add(meldung);
+            }
+        }
+
+        /**
+         * Gibt die Anzahl der importierten Vorstellungen zurück.
+         */
+        public int getAnzahlVorstellungen()
+        {
+            return _vorstellungen;
+        }
+
+        /**
+         * Gibt die Anzahl der fehlerhaften Zeilen zurück.
+         */
+        public int getAnzahlFehler()
+        {
+            return _fehler;
+        }
+
+        /**
+         * Gibt die Meldungen zu den ersten fehlerhaften Zeilen zurück, in der
+         * Reihenfolge der Datei. Jede Meldung beginnt mit der Nummer ihrer
+         * Zeile.
+         * 
+         * @ensure result != null
+         */
+        public List<String> getMeldungen()
+        {
+            return Collections.unmodifiableList(_meldungen);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ProgrammimportTest
+{
+    private final Kinosaal _saal1 = new Kinosaal("Saal 1", 20, 25);
+    private final Kinosaal _saal2 = new Kinosaal("Saal, groß", 10, 10);
+
+    private Kino leeresKino()
+    {
+        return new Kino(new Kinosaal[] { _saal1, _saal2 }, new Vorstellung[0]);
+    }
+
+    private static BufferedReader csv(String text)
+    {
+        return new BufferedReader(new StringReader(text));
+    }
+
+    @Test
+    public void testeImport() throws IOException
+    {
+        Kino kino = leeresKino();
+        Programmimport.Bericht bericht = Programmimport.importiere(csv(
+                "saal,datum,anfang,ende,film,laenge,fsk,ueberlaenge,preis\n"
+                        + "Saal 1,2024-12-31,22:30,01:00,Thor,115,FSK12,nein,795\n"
+                        + "\"Saal, groß\",2024-12-31,17:30,19:06,"
+                        + "\"Rio \"\"2\"\"\",96,FSK0,ja,595\n"
+                        + "\n"
+                        + "Saal 1,2025-01-01,20:00,22:00,Thor,115,FSK12,nein,0\n"),
+                kino, 2);
+
+        assertEquals(3, bericht.getAnzahlVorstellungen());
+        assertEquals(0, bericht.getAnzahlFehler());
+        List<Vorstellung> silvester = kino.getTagesplan(new Datum(31, 12,
+                2024)).getVorstellungen();
+        assertEquals(2, silvester.size());
+        Vorstellung rio = silvester.get(0);
+        assertSame(_saal2, rio.getKinosaal());
+        assertEquals("Rio \"2\"", rio.getFilm().getTitel());
+        assertEquals(FSK.FSK0, rio.getFilm().getFSK());
+        assertTrue(rio.getFilm().hatUeberlaenge());
+        assertEquals(new Uhrzeit(19, 6), rio.getEndzeit());
+        assertEquals(595, rio.getPreis());
+        Vorstellung thor = kino.getTagesplan(new Datum(1, 1, 2025))
+                .getVorstellungen().get(0);
+        assertSame(silvester.get(1).getFilm(), thor.getFilm());
+        assertEquals(0, thor.getPreis());
+    }
+
+    @Test
+    public void testeFehlerMitZeilennummern() throws IOException
+    {
+        Kino kino = leeresKino();
+        Programmimport.Bericht bericht = Programmimport.importiere(csv(
+                "saal,datum,anfang,ende,film,laenge,fsk,ueberlaenge,preis\n"
+                        + "Saal 3,2024-12-31,20:00,22:00,Thor,115,FSK12,nein,795\n"
+                        + "Saal 1,2023-02-29,20:00,22:00,Thor,115,FSK12,nein,795\n"
+                        + "Saal 1,2024-12-31,24:00,22:00,Thor,115,FSK12,nein,795\n"
+                        + "Saal 1,2024-12-31,20:00,22:00,Thor,115,FSK12,nein\n"
+                        + "Saal 1,2024-12-31,20:00,22:00,\"Thor,115,FSK12,nein,7\n"
+                        + "Saal 1,2024-12-31,20:00,22:00,Thor,115,FSK12,nein,-5\n"
+                        + "Saal 1,2024-12-31,20:00,22:00,Thor,115,FSK12,nein,795\n"
+                        + "Saal 1,2024-12-31,22:30,00:30,Thor,120,FSK12,nein,795\n"),
+                kino, 3);
+
+        assertEquals(1, bericht.getAnzahlVorstellungen());
+        assertEquals(7, bericht.getAnzahlFehler());
+        List<String> meldungen = bericht.getMeldungen();
+        assertEquals("Zeile 2: Unbekannter Saal: Saal 3", meldungen.get(0));
+        assertEquals("Zeile 3: Kein gültiges Datum: 2023-02-29",
+                meldungen.get(1));
+        assertEquals("Zeile 4: Keine gültige Uhrzeit: 24:00", meldungen.get(2));
+        assertEquals("Zeile 5: Zu wenige Felder: 8 statt 9", meldungen.get(3));
+        assertEquals("Zeile 6: Anführungszeichen nicht geschlossen",
+                meldungen.get(4));
+        assertEquals("Zeile 7: Keine Zahl in Feld 9: -5", meldungen.get(5));
+        assertEquals("Zeile 9: Film Thor widerspricht Zeile 8",
+                meldungen.get(6));
+    }
+
+    @Test
+    public void testeUeberschneidungenWerdenGemeldet() throws IOException
+    {
+        Kino kino = leeresKino();
+        Programmimport.Bericht bericht = Programmimport.importiere(csv(
+                "Saal 1,2024-12-31,22:30,01:00,Thor,115,FSK12,nein,795\n"
+                        + "Saal 1,2025-01-01,00:30,02:00,Thor,115,FSK12,nein,795\n"
+                        + "\"Saal, groß\",2025-01-01,00:30,02:00,Thor,115,FSK12,nein,795\n"
+                        + "Saal 1,2025-01-01,01:00,03:00,Thor,115,FSK12,nein,795\n"),
+                kino, 2);
+
+        assertEquals(3, bericht.getAnzahlVorstellungen());
+        assertEquals(List.of("Zeile 2: Überschneidet sich mit Thor am "
+                + "31.12.2024 um 22:30"), bericht.getMeldungen());
+    }
+
+    @Test
+    public void testeVielePakete() throws IOException
+    {
+        StringBuilder text = new StringBuilder();
+        for (int tag = 0; tag < 10000; tag++)
+        {
+            Datum datum = Datum.ausEpochentag(19000 + tag);
+            text.append(String.format("Saal 1,%04d-%02d-%02d,20:00,22:00,"
+                    + "Thor,115,FSK12,nein,795\n", datum.getJahr(),
+                    datum.getMonat(), datum.getTag()));
+            if (tag == 7777)
+            {
+                text.append("kaputt\n");
+            }
+        }
+        Kino kino = leeresKino();
+        Programmimport.Bericht bericht = Programmimport.importiere(csv(text
+                .toString()), kino, 4);
+
+        assertEquals(10000, bericht.getAnzahlVorstellungen());
+        assertEquals(List.of("Zeile 7779: Zu wenige Felder: 1 statt 9"),
+                bericht.getMeldungen());
+        assertEquals(1, kino.getTagesplan(
+                Datum.ausEpochentag(19000 + 9999)).getVorstellungen()
+                .size());
+    }
+}
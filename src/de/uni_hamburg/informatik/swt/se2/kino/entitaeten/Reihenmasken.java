@@ -0,0 +1,300 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+/**
+ * Hilfsfunktionen für Bitmasken einzelner Sitzreihen. Eine Reihenmaske
+ * besteht aus einem Element pro Wort der Platzbelegung, von dem nur die
+ * unteren 32 Bits benutzt werden. Bit i des Elements k steht für den Sitz
+ * k * 32 + i.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+final class Reihenmasken
+{
+    private static final int BITS = Platzbelegung.SITZE_PRO_WORT;
+    private static final long ALLE_BITS = (1L << BITS) - 1;
+
+    private Reihenmasken()
+    {
+    }
+
+    /**
+     * Verschiebt eine Reihenmaske um die angegebene Anzahl Sitze zum
+     * Reihenanfang hin: Im Ergebnis ist das Bit für Sitz i gesetzt, wenn in
+     * der Maske das Bit für Sitz i + schritt gesetzt ist.
+     * 
+     * @require reihe != null
+     * @require schritt >= 0
+     */
+    static long[] verschiebeZumAnfang(long[] reihe, int schritt)
+    {
+        assert reihe != null : "Vorbedingung verletzt: reihe != null";
+        assert schritt >= 0 : "Vorbedingung verletzt: schritt >= 0";
+
+        long[] result = new long[reihe.length];
+        int woerter = schritt / BITS;
+        int bits = schritt % BITS;
+        for (int i = 0; i + woerter < reihe.length; i++)
+        {
+            long wert = reihe[i + woerter] >>> bits;
+            if (bits != 0 && i + woerter + 1 < reihe.length)
+            {
+                wert |= reihe[i + woerter + 1] << (BITS - bits);
+            }
+            result[i] = wert & ALLE_BITS;
+        }
+        return result;
+    }
+
+    /**
+     * Verschiebt eine Reihenmaske um die angegebene Anzahl Sitze zum
+     * Reihenende hin: Im Ergebnis ist das Bit für Sitz i + schritt gesetzt,
+     * wenn in der Maske das Bit für Sitz i gesetzt ist. Bits, die über das
+     * letzte Wort hinaus geschoben werden, fallen weg.
+     * 
+     * @require reihe != null
+     * @require schritt >= 0
+     */
+    static long[] verschiebeZumEnde(long[] reihe, int schritt)
+    {
+        assert reihe != null : "Vorbedingung verletzt: reihe != null";
+        assert schritt >= 0 : "Vorbedingung verletzt: schritt >= 0";
+
+        long[] result = new long[reihe.length];
+        int woerter = schritt / BITS;
+        int bits = schritt % BITS;
+        for (int i = woerter; i < reihe.length; i++)
+        {
+            long wert = reihe[i - woerter] << bits;
+            if (bits != 0 && i - woerter - 1 >= 0)
+            {
+                wert |= reihe[i - woerter - 1] >>> (BITS - bits);
+            }
+            result[i] = wert & ALLE_BITS;
+        }
+        return result;
+    }
+
+    /**
+     * Dehnt die gesetzten Bits einer Reihenmaske um die angegebene Anzahl
+     * Sitze nach beiden Seiten aus.
+     * 
+     * @require reihe != null
+     * @require breite >= 0
+     */
+    static long[] dehne(long[] reihe, int breite)
+    {
+        assert reihe != null : "Vorbedingung verletzt: reihe != null";
+        assert breite >= 0 : "Vorbedingung verletzt: breite >= 0";
+
+        long[] result = reihe.clone();
+        for (int schritt = 1; schritt <= breite; schritt++)
+        {
+            oder(result, verschiebeZumEnde(reihe, schritt));
+            oder(result, verschiebeZumAnfang(reihe, schritt));
+        }
+        return result;
+    }
+
+    /**
+     * Gibt die freien Sitze zurück, die zu einer Lücke von weniger als
+     * <code>mindestbreite</code> freien Sitzen gehören, welche an einen
+     * ausgewählten Sitz grenzt. Zuerst werden alle Sitze der ausreichend
+     * breiten Lücken bestimmt, indem die Blockanfänge über die Mindestbreite
+     * ausgedehnt werden. Die übrigen freien Sitze bilden die schmalen Lücken.
+     * Von den Nachbarn der Auswahl aus werden dann die schmalen Lücken
+     * markiert; weil eine solche Lücke kürzer als die Mindestbreite ist,
+     * genügen dafür <code>mindestbreite - 2</code> weitere Schritte.
+     * 
+     * @param frei die freien Sitze der Reihe, ohne die ausgewählten.
+     * @param auswahl die ausgewählten Sitze der Reihe.
+     * @param mindestbreite die Mindestbreite einer Lücke.
+     * 
+     * @require frei != null
+     * @require auswahl != null && auswahl.length == frei.length
+     * @require mindestbreite >= 2
+     */
+    static long[] schmaleLuecken(long[] frei, long[] auswahl, int mindestbreite)
+    {
+        assert frei != null : "Vorbedingung verletzt: frei != null";
+        assert auswahl != null && auswahl.length == frei.length : "Vorbedingung verletzt: auswahl != null && auswahl.length == frei.length";
+        assert mindestbreite >= 2 : "Vorbedingung verletzt: mindestbreite >= 2";
+
+        long[] breit = blockanfaenge(frei, mindestbreite);
+        long[] abgedeckt = breit.clone();
+        for (int schritt = 1; schritt < mindestbreite; schritt++)
+        {
+            oder(abgedeckt, verschiebeZumEnde(breit, schritt));
+        }
+        long[] schmal = new long[frei.length];
+        for (int i = 0; i < frei.length; i++)
+        {
+            schmal[i] = frei[i] & ~abgedeckt[i];
+        }
+
+        long[] result = nachbarn(auswahl);
+        for (int schritt = 0; schritt < mindestbreite - 1; schritt++)
+        {
+            if (schritt > 0)
+            {
+                oder(result, nachbarn(result));
+            }
+            for (int i = 0; i < result.length; i++)
+            {
+                result[i] &= schmal[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gibt die Sitze zurück, die direkt neben einem Sitz der Maske liegen.
+     */
+    private static long[] nachbarn(long[] reihe)
+    {
+        long[] result = verschiebeZumEnde(reihe, 1);
+        oder(result, verschiebeZumAnfang(reihe, 1));
+        return result;
+    }
+
+    /**
+     * Verodert die zweite Maske in die erste.
+     */
+    static void oder(long[] ziel, long[] maske)
+    {
+        for (int i = 0; i < ziel.length; i++)
+        {
+            ziel[i] |= maske[i];
+        }
+    }
+
+    /**
+     * Gibt die Maske der Sitze zurück, an denen ein Block von mindestens
+     * <code>anzahl</code> gesetzten Bits beginnt. Die Blocklänge wird dabei
+     * in jedem Schritt verdoppelt, so dass nur logarithmisch viele
+     * Verschiebungen nötig sind.
+     * 
+     * @require reihe != null
+     * @require anzahl > 0
+     */
+    static long[] blockanfaenge(long[] reihe, int anzahl)
+    {
+        assert reihe != null : "Vorbedingung verletzt: reihe != null";
+        assert anzahl > 0 : "Vorbedingung verletzt: anzahl > 0";
+
+        long[] result = reihe.clone();
+        int laenge = 1;
+        while (laenge < anzahl && !istLeer(result))
+        {
+            int schritt = Math.min(laenge, anzahl - laenge);
+            long[] verschoben = verschiebeZumAnfang(result, schritt);
+            for (int i = 0; i < result.length; i++)
+            {
+                result[i] &= verschoben[i];
+            }
+            laenge += schritt;
+        }
+        return result;
+    }
+
+    /**
+     * Gibt den Sitz zurück, dessen Bit gesetzt ist und der am nächsten an der
+     * angegebenen Position liegt, oder -1, falls kein Bit gesetzt ist.
+     * 
+     * @require reihe != null
+     */
+    static int naechsterSitz(long[] reihe, double position)
+    {
+        assert reihe != null : "Vorbedingung verletzt: reihe != null";
+
+        int result = -1;
+        double abstand = Double.MAX_VALUE;
+        for (int i = 0; i < reihe.length; i++)
+        {
+            long wort = reihe[i];
+            while (wort != 0)
+            {
+                int sitz = i * BITS + Long.numberOfTrailingZeros(wort);
+                double neuerAbstand = Math.abs(sitz - position);
+                if (neuerAbstand < abstand)
+                {
+                    abstand = neuerAbstand;
+                    result = sitz;
+                }
+                wort &= wort - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gibt den ersten Sitz ab dem angegebenen Sitz zurück, dessen Bit gesetzt
+     * ist, oder -1, falls es keinen gibt.
+     * 
+     * @require reihe != null
+     * @require ab >= 0
+     */
+    static int naechsterGesetzter(long[] reihe, int ab)
+    {
+        assert reihe != null : "Vorbedingung verletzt: reihe != null";
+        assert ab >= 0 : "Vorbedingung verletzt: ab >= 0";
+
+        return naechstesBit(reihe, ab, 0, -1);
+    }
+
+    /**
+     * Gibt den ersten Sitz ab dem angegebenen Sitz zurück, dessen Bit nicht
+     * gesetzt ist. Sind alle Bits bis zum Ende der Maske gesetzt, ist das
+     * Ergebnis der erste Sitz hinter der Maske.
+     * 
+     * @require reihe != null
+     * @require ab >= 0
+     */
+    static int naechsterNichtGesetzter(long[] reihe, int ab)
+    {
+        assert reihe != null : "Vorbedingung verletzt: reihe != null";
+        assert ab >= 0 : "Vorbedingung verletzt: ab >= 0";
+
+        return naechstesBit(reihe, ab, ALLE_BITS, reihe.length * BITS);
+    }
+
+    /**
+     * Sucht das erste gesetzte Bit ab dem angegebenen Sitz in der mit
+     * <code>umkehrung</code> verknüpften Maske.
+     */
+    private static int naechstesBit(long[] reihe, int ab, long umkehrung,
+            int keins)
+    {
+        int result = keins;
+        for (int i = ab / BITS; result == keins && i < reihe.length; i++)
+        {
+            long wort = (reihe[i] ^ umkehrung) & ALLE_BITS;
+            if (i == ab / BITS)
+            {
+                wort &= -1L << (ab % BITS);
+            }
+            if (wort != 0)
+            {
+                result = i * BITS + Long.numberOfTrailingZeros(wort);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Prüft, ob in der Reihenmaske kein Bit gesetzt ist.
+     * 
+     * @require reihe != null
+     */
+    static boolean istLeer(long[] reihe)
+    {
+        assert reihe != null : "Vorbedingung verletzt: reihe != null";
+
+        boolean leer = true;
+        for (int i = 0; i < reihe.length && leer; i++)
+        {
+            leer = reihe[i] == 0;
+        }
+        return leer;
+    }
+}
@@ -0,0 +1,263 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+
+/**
+ * Eine Reservierung hält Plätze einer Vorstellung zwischen der Auswahl an der
+ * Kasse und der Bezahlung für diese Kasse zurück. Reservierte Plätze können
+ * von anderen Kassen weder verkauft noch reserviert werden.
+ * 
+ * Die Reservierung selbst ist das Besitzmerkmal: Nur wer das
+ * Reservierungsobjekt kennt, kann die reservierten Plätze verkaufen oder
+ * freigeben. Jede Reservierung hat einen Ablaufzeitpunkt. Wird sie bis dahin
+ * weder verkauft noch aufgehoben, werden ihre Plätze automatisch wieder frei.
+ * Jede Änderung der reservierten Plätze verlängert die Reservierung.
+ * 
+ * Eine Reservierung ist offen, bis sie verkauft, aufgehoben oder abgelaufen
+ * ist. Danach kann sie nicht mehr verwendet werden.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public final class Reservierung
+{
+    private final Vorstellung _vorstellung;
+    private final Platzbelegung _belegung;
+    private final long _dauer;
+    private final Zeitrad _zeitrad;
+
+    // Die reservierten Plätze als Maske im Format der Platzbelegung.
+    private final long[] _maske;
+    private boolean _offen;
+    private volatile long _ablaufzeitpunkt;
+
+    /**
+     * Erzeugt eine offene, leere Reservierung.
+     * 
+     * @param vorstellung die Vorstellung, für die reserviert wird.
+     * @param belegung die Platzbelegung der Vorstellung.
+     * @param dauer die Dauer in Millisekunden, um die jede Änderung die
+     *            Reservierung verlängert.
+     * @param zeitrad das Zeitrad, das den Ablauf überwacht.
+     */
+    Reservierung(Vorstellung vorstellung, Platzbelegung belegung, long dauer,
+            Zeitrad zeitrad)
+    {
+        _vorstellung = vorstellung;
+        _belegung = belegung;
+        _dauer = dauer;
+        _zeitrad = zeitrad;
+        _maske = new long[belegung.getAnzahlWoerter()];
+        _offen = true;
+        _ablaufzeitpunkt = zeitrad.jetzt() + dauer;
+        vorstellung.vermerkeReservierung(true);
+    }
+
+    /**
+     * Gibt die Vorstellung zurück, für die diese Reservierung gilt.
+     * 
+     * @ensure result != null
+     */
+    public Vorstellung getVorstellung()
+    {
+        return _vorstellung;
+    }
+
+    /**
+     * Gibt den Zeitpunkt zurück, zu dem diese Reservierung abläuft, in
+     * Millisekunden seit dem 1.1.1970.
+     */
+    public long getAblaufzeitpunkt()
+    {
+        return _ablaufzeitpunkt;
+    }
+
+    /**
+     * Prüft, ob diese Reservierung noch offen ist, also weder verkauft,
+     * aufgehoben noch abgelaufen.
+     */
+    public synchronized boolean istOffen()
+    {
+        pruefeAblauf(_zeitrad.jetzt());
+        return _offen;
+    }
+
+    /**
+     * Gibt die reservierten Plätze zurück.
+     * 
+     * @ensure result != null
+     */
+    public synchronized Set<Platz> getPlaetze()
+    {
+        return _offen ? _belegung.erzeugePlaetze(_maske) : new HashSet<>();
+    }
+
+    /**
+     * Prüft, ob alle angegebenen Plätze von dieser Reservierung
+     * zurückgehalten werden.
+     * 
+     * @param plaetze die Plätze.
+     * 
+     * @require plaetze != null
+     * @require getVorstellung().hatPlaetze(plaetze)
+     */
+    public synchronized boolean umfasst(Set<Platz> plaetze)
+    {
+        assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
+        assert _vorstellung.hatPlaetze(plaetze) : "Vorbedingung verletzt: getVorstellung().hatPlaetze(plaetze)";
+
+        boolean result = istOffen();
+        long[] maske = _belegung.erzeugeMaske(plaetze);
+        for (int i = 0; i < maske.length && result; i++)
+        {
+            result = (maske[i] & ~_maske[i]) == 0;
+        }
+        return result;
+    }
+
+    /**
+     * Reserviert die angegebenen Plätze zusätzlich, sofern sie alle frei oder
+     * bereits von dieser Reservierung zurückgehalten sind. Andernfalls wird
+     * keiner der Plätze reserviert und die nicht verfügbaren Plätze werden
+     * zurückgegeben. Eine erfolgreiche Reservierung verlängert die
+     * Reservierung.
+     * 
+     * @param plaetze die Plätze.
+     * 
+     * @return die Plätze, die nicht verfügbar waren. Ist die Menge leer,
+     *         wurden alle Plätze reserviert.
+     * 
+     * @require plaetze != null
+     * @require getVorstellung().hatPlaetze(plaetze)
+     * @require istOffen()
+     * 
+     * @ensure result != null
+     */
+    public synchronized Set<Platz> reserviere(Set<Platz> plaetze)
+    {
+        assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
+        assert _vorstellung.hatPlaetze(plaetze) : "Vorbedingung verletzt: getVorstellung().hatPlaetze(plaetze)";
+        assert istOffen() : "Vorbedingung verletzt: istOffen()";
+
+        long[] neu = _belegung.erzeugeMaske(plaetze);
+        for (int i = 0; i < neu.length; i++)
+        {
+            neu[i] &= ~_maske[i];
+        }
+        long[] konflikte = _belegung.wechsleZustand(neu, Platzbelegung.FREI,
+                Platzbelegung.RESERVIERT);
+        if (konflikte != null)
+        {
+            return _belegung.erzeugePlaetze(konflikte);
+        }
+        for (int i = 0; i < neu.length; i++)
+        {
+            _maske[i] |= neu[i];
+        }
+        _ablaufzeitpunkt = _zeitrad.jetzt() + _dauer;
+        return new HashSet<>();
+    }
+
+    /**
+     * Gibt die angegebenen Plätze frei, soweit sie von dieser Reservierung
+     * zurückgehalten werden. Die übrigen Plätze bleiben reserviert.
+     * 
+     * @param plaetze die Plätze.
+     * 
+     * @require plaetze != null
+     * @require getVorstellung().hatPlaetze(plaetze)
+     */
+    public synchronized void gibFrei(Set<Platz> plaetze)
+    {
+        assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
+        assert _vorstellung.hatPlaetze(plaetze) : "Vorbedingung verletzt: getVorstellung().hatPlaetze(plaetze)";
+
+        if (istOffen())
+        {
+            long[] frei = _belegung.erzeugeMaske(plaetze);
+            for (int i = 0; i < frei.length; i++)
+            {
+                frei[i] &= _maske[i];
+                _maske[i] &= ~frei[i];
+            }
+            _belegung.wechsleZustand(frei, Platzbelegung.RESERVIERT,
+                    Platzbelegung.FREI);
+        }
+    }
+
+    /**
+     * Verkauft alle reservierten Plätze in einem Schritt und schließt die
+     * Reservierung. Ist die Reservierung nicht mehr offen, etwa weil sie
+     * abgelaufen ist, wird nichts verkauft. Verletzt der Verkauf die
+     * Abstandsregel der Vorstellung, wird ebenfalls nichts verkauft; die
+     * Reservierung bleibt dann offen.
+     * 
+     * @return <code>true</code>, falls die Plätze verkauft wurden,
+     *         <code>false</code> sonst.
+     * 
+     * @ensure result ? !istOffen() : true
+     */
+    public synchronized boolean verkaufe()
+    {
+        boolean verkauft = istOffen()
+                && _belegung.wechsleZustand(_maske, Platzbelegung.RESERVIERT,
+                        Platzbelegung.VERKAUFT) == null;
+        if (verkauft)
+        {
+            _offen = false;
+            _vorstellung.vermerkeReservierung(false);
+        }
+        return verkauft;
+    }
+
+    /**
+     * Hebt die Reservierung auf. Alle reservierten Plätze werden wieder frei.
+     * 
+     * @ensure !istOffen()
+     */
+    public synchronized void hebeAuf()
+    {
+        if (_offen)
+        {
+            schliesse();
+        }
+    }
+
+    /**
+     * Lässt diese Reservierung ablaufen, falls ihr Ablaufzeitpunkt erreicht
+     * ist. Wird vom Zeitrad aufgerufen.
+     * 
+     * @param jetzt die aktuelle Zeit.
+     * 
+     * @return <code>true</code>, falls die Reservierung danach noch offen ist
+     *         und weiter überwacht werden muss.
+     */
+    synchronized boolean pruefeAblauf(long jetzt)
+    {
+        if (_offen && jetzt >= _ablaufzeitpunkt)
+        {
+            schliesse();
+        }
+        return _offen;
+    }
+
+    /**
+     * Gibt alle reservierten Plätze frei und schließt die Reservierung.
+     */
+    private void schliesse()
+    {
+        _belegung.wechsleZustand(_maske, Platzbelegung.RESERVIERT,
+                Platzbelegung.FREI);
+        _offen = false;
+        _vorstellung.vermerkeReservierung(false);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Reservierung: " + _vorstellung + ", " + getPlaetze();
+    }
+}
@@ -0,0 +1,162 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReservierungTest
+{
+    private long _jetzt;
+    private Zeitrad _zeitrad;
+    private Vorstellung _vorstellung;
+    private Set<Platz> _plaetze;
+
+    @Before
+    public void setUp()
+    {
+        _jetzt = 1000;
+        // Ein kleines Rad, damit auch Reservierungen über mehrere Umdrehungen
+        // getestet werden.
+        _zeitrad = new Zeitrad(() -> _jetzt, 10, 8);
+        _vorstellung = new Vorstellung(new Kinosaal("A", 10, 40),
+                new Film("Rio", 96, FSK.FSK0, false), new Uhrzeit(17, 30),
+                new Uhrzeit(20, 0), new Datum(11, 7, 2008), 895);
+        _plaetze = new HashSet<>();
+        _plaetze.add(new Platz(2, 3));
+        _plaetze.add(new Platz(2, 35));
+    }
+
+    @Test
+    public void testeReserviertePlaetzeSindNichtVerkaufbar()
+    {
+        Reservierung r = _vorstellung.erzeugeReservierung(500, _zeitrad);
+        assertTrue(r.reserviere(_plaetze).isEmpty());
+
+        assertTrue(_vorstellung.istPlatzReserviert(new Platz(2, 3)));
+        assertFalse(_vorstellung.istPlatzVerkauft(new Platz(2, 3)));
+        assertFalse(_vorstellung.sindVerkaufbar(_plaetze));
+        assertFalse(_vorstellung.verkaufePlatzWennFrei(new Platz(2, 35)));
+        assertEquals(_plaetze, _vorstellung.verkaufePlaetzeWennFrei(_plaetze));
+        assertTrue(r.umfasst(_plaetze));
+        assertEquals(_plaetze, r.getPlaetze());
+    }
+
+    @Test
+    public void testeVerkaufeReservierung()
+    {
+        Reservierung r = _vorstellung.erzeugeReservierung(500, _zeitrad);
+        r.reserviere(_plaetze);
+
+        assertTrue(r.verkaufe());
+        assertFalse(r.istOffen());
+        assertTrue(_vorstellung.sindStornierbar(_plaetze));
+        assertFalse(_vorstellung.istPlatzReserviert(new Platz(2, 3)));
+        assertEquals(2, _vorstellung.getAnzahlVerkauftePlaetze());
+        assertFalse(r.verkaufe());
+    }
+
+    @Test
+    public void testeReservierungMeldetKonflikte()
+    {
+        Reservierung r1 = _vorstellung.erzeugeReservierung(500, _zeitrad);
+        Reservierung r2 = _vorstellung.erzeugeReservierung(500, _zeitrad);
+        r1.reserviere(_plaetze);
+        _vorstellung.verkaufePlatz(new Platz(5, 5));
+
+        Set<Platz> andere = new HashSet<>();
+        andere.add(new Platz(2, 35));
+        andere.add(new Platz(5, 5));
+        andere.add(new Platz(6, 6));
+
+        Set<Platz> konflikte = r2.reserviere(andere);
+        assertEquals(2, konflikte.size());
+        assertTrue(konflikte.contains(new Platz(2, 35)));
+        assertTrue(konflikte.contains(new Platz(5, 5)));
+        assertFalse(_vorstellung.istPlatzReserviert(new Platz(6, 6)));
+        assertTrue(r2.getPlaetze().isEmpty());
+    }
+
+    @Test
+    public void testeGibFreiUndHebeAuf()
+    {
+        Reservierung r = _vorstellung.erzeugeReservierung(500, _zeitrad);
+        r.reserviere(_plaetze);
+
+        Set<Platz> einer = new HashSet<>();
+        einer.add(new Platz(2, 3));
+        r.gibFrei(einer);
+        assertFalse(_vorstellung.istPlatzReserviert(new Platz(2, 3)));
+        assertTrue(_vorstellung.istPlatzReserviert(new Platz(2, 35)));
+        assertFalse(r.umfasst(_plaetze));
+
+        r.hebeAuf();
+        assertFalse(r.istOffen());
+        assertTrue(_vorstellung.sindVerkaufbar(_plaetze));
+    }
+
+    @Test
+    public void testeReservierungLaeuftAb()
+    {
+        Reservierung r = _vorstellung.erzeugeReservierung(500, _zeitrad);
+        r.reserviere(_plaetze);
+        _zeitrad.dreheWeiter();
+
+        _jetzt += 499;
+        _zeitrad.dreheWeiter();
+        assertTrue(_vorstellung.istPlatzReserviert(new Platz(2, 3)));
+
+        _jetzt += 20;
+        _zeitrad.dreheWeiter();
+        assertFalse(_vorstellung.istPlatzReserviert(new Platz(2, 3)));
+        assertTrue(_vorstellung.sindVerkaufbar(_plaetze));
+        assertFalse(r.istOffen());
+        assertFalse(r.verkaufe());
+        assertEquals(0, _vorstellung.getAnzahlVerkauftePlaetze());
+    }
+
+    @Test
+    public void testeAenderungVerlaengertReservierung()
+    {
+        Reservierung r = _vorstellung.erzeugeReservierung(500, _zeitrad);
+        r.reserviere(_plaetze);
+        _zeitrad.dreheWeiter();
+
+        _jetzt += 400;
+        _zeitrad.dreheWeiter();
+        Set<Platz> weiterer = new HashSet<>();
+        weiterer.add(new Platz(9, 39));
+        r.reserviere(weiterer);
+
+        _jetzt += 400;
+        _zeitrad.dreheWeiter();
+        assertTrue(r.istOffen());
+        assertTrue(_vorstellung.istPlatzReserviert(new Platz(2, 3)));
+
+        _jetzt += 200;
+        _zeitrad.dreheWeiter();
+        assertFalse(r.istOffen());
+        assertFalse(_vorstellung.istPlatzReserviert(new Platz(9, 39)));
+    }
+
+    @Test
+    public void testeAbgelaufeneReservierungIstOhneZeitradGeschlossen()
+    {
+        Reservierung r = _vorstellung.erzeugeReservierung(500, _zeitrad);
+        r.reserviere(_plaetze);
+
+        _jetzt += 500;
+        assertFalse(r.istOffen());
+        assertTrue(_vorstellung.sindVerkaufbar(_plaetze));
+    }
+}
@@ -0,0 +1,277 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.util.Arrays;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Ein Saalkalender verzeichnet, wann in einem Kinosaal etwas läuft. Jeder
+ * Eintrag belegt den Saal von seinem Anfang bis vor sein Ende; die Zeiten
+ * sind Minuten seit dem 1.1.1970, sodass Vorstellungen über Mitternacht
+ * einfach in den nächsten Tag reichen. Endet eine Vorstellung, wenn die
+ * nächste anfängt, überschneiden sie sich nicht.
+ * 
+ * Die Einträge eines Saalkalenders überschneiden sich nie. Sie liegen nach
+ * ihrem Anfang sortiert in Arrays primitiver Werte, deshalb reicht eine
+ * binäre Suche nach dem letzten Eintrag, der nicht später anfängt, und ein
+ * Blick auf den folgenden. Prüfen und Nachschlagen brauchen so nur
+ * logarithmische Zeit. Werden die Einträge wie beim Laden eines Programms
+ * nach ihrem Anfang eingetragen, wird nur angehängt.
+ * 
+ * @param <T> der Typ der eingetragenen Werte.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+final class Saalkalender<T>
+{
+    private static final int MINUTEN_PRO_TAG = 24 * 60;
+    private static final int ANFANGSGROESSE = 16;
+
+    // Anfang, Ende und Wert der Einträge in den ersten _anzahl Fächern,
+    // nach dem Anfang sortiert.
+    private long[] _anfaenge;
+    private long[] _enden;
+    private Object[] _werte;
+    private int _anzahl;
+
+    /**
+     * Erzeugt einen leeren Saalkalender.
+     */
+    Saalkalender()
+    {
+        _anfaenge = new long[ANFANGSGROESSE];
+        _enden = new long[ANFANGSGROESSE];
+        _werte = new Object[ANFANGSGROESSE];
+    }
+
+    /**
+     * Gibt den Anfang der angegebenen Vorstellung in Minuten seit dem
+     * 1.1.1970 zurück.
+     * 
+     * @require vorstellung != null
+     */
+    static long anfang(Vorstellung vorstellung)
+    {
+        assert vorstellung != null : "Vorbedingung verletzt: vorstellung != null";
+
+        return minute(vorstellung.getDatum(), vorstellung.getAnfangszeit());
+    }
+
+    /**
+     * Gibt das Ende der angegebenen Vorstellung in Minuten seit dem 1.1.1970
+     * zurück. Liegt die Endzeit nicht nach der Anfangszeit, endet die
+     * Vorstellung am nächsten Tag.
+     * 
+     * @require vorstellung != null
+     */
+    static long ende(Vorstellung vorstellung)
+    {
+        assert vorstellung != null : "Vorbedingung verletzt: vorstellung != null";
+
+        return ende(vorstellung.getDatum(), vorstellung.getAnfangszeit(),
+                vorstellung.getEndzeit());
+    }
+
+    /**
+     * Gibt das Ende einer Vorstellung in Minuten seit dem 1.1.1970 zurück.
+     * Liegt die Endzeit nicht nach der Anfangszeit, endet die Vorstellung am
+     * nächsten Tag.
+     * 
+     * @param tag der Tag, an dem die Vorstellung anfängt.
+     * @param anfangszeit die Anfangszeit.
+     * @param endzeit die Endzeit.
+     * 
+     * @require tag != null
+     * @require anfangszeit != null
+     * @require endzeit != null
+     */
+    static long ende(Datum tag, Uhrzeit anfangszeit, Uhrzeit endzeit)
+    {
+        assert anfangszeit != null : "Vorbedingung verletzt: anfangszeit != null";
+
+        long ende = minute(tag, endzeit);
+        if (endzeit.compareTo(anfangszeit) <= 0)
+        {
+            ende += MINUTEN_PRO_TAG;
+        }
+        return ende;
+    }
+
+    /**
+     * Gibt den angegebenen Zeitpunkt in Minuten seit dem 1.1.1970 zurück.
+     * 
+     * @require tag != null
+     * @require zeit != null
+     */
+    static long minute(Datum tag, Uhrzeit zeit)
+    {
+        assert tag != null : "Vorbedingung verletzt: tag != null";
+        assert zeit != null : "Vorbedingung verletzt: zeit != null";
+
+        return (long) tag.getEpochentag() * MINUTEN_PRO_TAG + zeit.getStunden()
+                * 60 + zeit.getMinuten();
+    }
+
+    /**
+     * Gibt einen Zeitpunkt in Minuten seit dem 1.1.1970 lesbar zurück, etwa
+     * "11.7.2008 20:00".
+     * 
+     * @ensure result != null
+     */
+    static String alsText(long minute)
+    {
+        int tag = (int) Math.floorDiv(minute, MINUTEN_PRO_TAG);
+        int imTag = Math.floorMod(minute, MINUTEN_PRO_TAG);
+        return Datum.ausEpochentag(tag).getFormatiertenString() + " "
+                + new Uhrzeit(imTag / 60, imTag % 60).getFormatiertenString();
+    }
+
+    /**
+     * Gibt den Wert eines Eintrags zurück, der sich mit dem angegebenen
+     * Zeitraum überschneidet, oder <code>null</code>, falls der Zeitraum frei
+     * ist.
+     * 
+     * @param anfang der Anfang des Zeitraums.
+     * @param ende das Ende des Zeitraums.
+     * @param ausser ein Wert, der nicht als Überschneidung zählt, etwa weil
+     *            gerade sein eigener Zeitraum geprüft wird, oder
+     *            <code>null</code>.
+     * 
+     * @require anfang < ende
+     */
+    T getUeberschneidung(long anfang, long ende, T ausser)
+    {
+        assert anfang < ende : "Vorbedingung verletzt: anfang < ende";
+
+        T ueberschneidung = null;
+        int davor = letzterBis(anfang);
+        int danach = davor + 1;
+        if (danach < _anzahl && _werte[danach] == ausser)
+        {
+            danach++;
+        }
+        if (davor >= 0 && _enden[davor] > anfang && _werte[davor] != ausser)
+        {
+            ueberschneidung = wert(davor);
+        }
+        else if (danach < _anzahl && _anfaenge[danach] < ende)
+        {
+            ueberschneidung = wert(danach);
+        }
+        return ueberschneidung;
+    }
+
+    /**
+     * Gibt den Wert des Eintrags zurück, der zu dem angegebenen Zeitpunkt
+     * läuft, oder <code>null</code>, falls zu der Zeit nichts läuft.
+     * 
+     * @param minute der Zeitpunkt.
+     */
+    T getLaufend(long minute)
+    {
+        T laufend = null;
+        int davor = letzterBis(minute);
+        if (davor >= 0 && _enden[davor] > minute)
+        {
+            laufend = wert(davor);
+        }
+        return laufend;
+    }
+
+    /**
+     * Trägt einen Wert für den angegebenen Zeitraum ein.
+     * 
+     * @param anfang der Anfang des Zeitraums.
+     * @param ende das Ende des Zeitraums.
+     * @param wert der Wert.
+     * 
+     * @require anfang < ende
+     * @require wert != null
+     * @require getUeberschneidung(anfang, ende, null) == null
+     */
+    void trageEin(long anfang, long ende, T wert)
+    {
+        assert anfang < ende : "Vorbedingung verletzt: anfang < ende";
+        assert wert != null : "Vorbedingung verletzt: wert != null";
+
+        if (_anzahl == _anfaenge.length)
+        {
+            _anfaenge = Arrays.copyOf(_anfaenge, 2 * _anzahl);
+            _enden = Arrays.copyOf(_enden, 2 * _anzahl);
+            _werte = Arrays.copyOf(_werte, 2 * _anzahl);
+        }
+        int fach = letzterBis(anfang) + 1;
+        int dahinter = _anzahl - fach;
+        if (dahinter > 0)
+        {
+            System.arraycopy(_anfaenge, fach, _anfaenge, fach + 1, dahinter);
+            System.arraycopy(_enden, fach, _enden, fach + 1, dahinter);
+            System.arraycopy(_werte, fach, _werte, fach + 1, dahinter);
+        }
+        _anfaenge[fach] = anfang;
+        _enden[fach] = ende;
+        _werte[fach] = wert;
+        _anzahl++;
+    }
+
+    /**
+     * Trägt den Wert aus, falls er unter dem angegebenen Anfang eingetragen
+     * ist.
+     * 
+     * @param anfang der Anfang seines Zeitraums.
+     * @param wert der Wert.
+     */
+    void trageAus(long anfang, T wert)
+    {
+        int fach = letzterBis(anfang);
+        if (fach >= 0 && _anfaenge[fach] == anfang && _werte[fach] == wert)
+        {
+            int dahinter = _anzahl - fach - 1;
+            System.arraycopy(_anfaenge, fach + 1, _anfaenge, fach, dahinter);
+            System.arraycopy(_enden, fach + 1, _enden, fach, dahinter);
+            System.arraycopy(_werte, fach + 1, _werte, fach, dahinter);
+            _anzahl--;
+            _werte[_anzahl] = null;
+        }
+    }
+
+    /**
+     * Gibt das Fach des letzten Eintrags zurück, der nicht nach der
+     * angegebenen Minute anfängt, oder -1, falls es keinen gibt. Liegt die
+     * Minute hinter dem Anfang des letzten Eintrags, wird nicht gesucht.
+     */
+    private int letzterBis(long minute)
+    {
+        int fach = _anzahl - 1;
+        if (fach >= 0 && _anfaenge[fach] > minute)
+        {
+            int von = 0;
+            int bis = fach;
+            while (von < bis)
+            {
+                int mitte = (von + bis) >>> 1;
+                if (_anfaenge[mitte] <= minute)
+                {
+                    von = mitte + 1;
+                }
+                else
+                {
+                    bis = mitte;
+                }
+            }
+            fach = von - 1;
+        }
+        return fach;
+    }
+
+    /**
+     * Gibt den Wert im angegebenen Fach zurück.
+     */
+    @SuppressWarnings("unchecked")
+    private T wert(int fach)
+    {
+        return (T) _werte[fach];
+    }
+}
@@ -0,0 +1,130 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SaalkalenderTest
+{
+    private static final Datum _tag = new Datum(11, 7, 2008);
+
+    private Saalkalender<String> _kalender;
+
+    @Before
+    public void setUp()
+    {
+        _kalender = new Saalkalender<>();
+    }
+
+    @Test
+    public void testeUeberschneidungen()
+    {
+        trageEin("abend", 20, 0, 22, 0);
+        trageEin("nachmittag", 17, 30, 19, 30);
+
+        assertEquals("abend", ueberschneidung(21, 0, 21, 30));
+        assertEquals("abend", ueberschneidung(19, 30, 20, 30));
+        assertEquals("nachmittag", ueberschneidung(17, 0, 18, 0));
+        assertEquals("nachmittag", ueberschneidung(16, 0, 23, 0));
+        assertNull(ueberschneidung(19, 30, 20, 0));
+        assertNull(ueberschneidung(22, 0, 23, 0));
+        assertNull(_kalender.getUeberschneidung(Saalkalender.minute(_tag,
+                new Uhrzeit(20, 0)), Saalkalender.minute(_tag, new Uhrzeit(22,
+                0)), "abend"));
+        assertNull(_kalender.getUeberschneidung(Saalkalender.minute(_tag,
+                new Uhrzeit(19, 30)), Saalkalender.minute(_tag, new Uhrzeit(21,
+                0)), "abend"));
+        assertEquals("nachmittag", _kalender.getUeberschneidung(Saalkalender
+                .minute(_tag, new Uhrzeit(19, 0)), Saalkalender.minute(_tag,
+                new Uhrzeit(21, 0)), "abend"));
+    }
+
+    @Test
+    public void testeVorstellungUeberMitternacht()
+    {
+        trageEin("spaet", 22, 30, 1, 0);
+
+        long nachMitternacht = Saalkalender.minute(_tag.naechsterTag(),
+                new Uhrzeit(0, 30));
+        assertEquals("spaet", _kalender.getLaufend(nachMitternacht));
+        assertEquals("spaet", _kalender.getUeberschneidung(nachMitternacht,
+                nachMitternacht + 60, null));
+        assertNull(_kalender.getLaufend(nachMitternacht + 30));
+        assertNull(_kalender.getLaufend(Saalkalender.minute(_tag,
+                new Uhrzeit(0, 30))));
+        assertEquals(Saalkalender.minute(_tag, new Uhrzeit(22, 30)) + 24 * 60,
+                Saalkalender.ende(_tag, new Uhrzeit(22, 30), new Uhrzeit(22,
+                        30)));
+    }
+
+    @Test
+    public void testeLaufendUndAustragen()
+    {
+        trageEin("abend", 20, 0, 22, 0);
+        trageEin("nachmittag", 17, 30, 19, 30);
+        trageEin("spaet", 22, 0, 23, 0);
+
+        long acht = Saalkalender.minute(_tag, new Uhrzeit(20, 0));
+        assertEquals("abend", _kalender.getLaufend(acht));
+        assertEquals("nachmittag", _kalender.getLaufend(acht - 31));
+        assertNull(_kalender.getLaufend(acht - 30));
+        assertEquals("spaet", _kalender.getLaufend(acht + 120));
+
+        _kalender.trageAus(acht, "anderer");
+        assertEquals("abend", _kalender.getLaufend(acht));
+        _kalender.trageAus(acht, "abend");
+        assertNull(_kalender.getLaufend(acht));
+        assertEquals("nachmittag", _kalender.getLaufend(acht - 31));
+        assertEquals("spaet", _kalender.getLaufend(acht + 120));
+    }
+
+    @Test
+    public void testeVieleEintraegeInBeliebigerReihenfolge()
+    {
+        for (int i = 0; i < 1000; i++)
+        {
+            int tag = (i * 7919) % 1000;
+            long anfang = Saalkalender.minute(_tag, new Uhrzeit(20, 0)) + tag
+                    * 24 * 60;
+            assertNull(_kalender.getUeberschneidung(anfang, anfang + 120,
+                    null));
+            _kalender.trageEin(anfang, anfang + 120, "Tag " + tag);
+        }
+        long anfang = Saalkalender.minute(_tag, new Uhrzeit(20, 0));
+        for (int tag = 0; tag < 1000; tag++)
+        {
+            assertEquals("Tag " + tag, _kalender.getLaufend(anfang + tag * 24
+                    * 60 + 119));
+            assertNull(_kalender.getLaufend(anfang + tag * 24 * 60 + 120));
+        }
+    }
+
+    /**
+     * Trägt einen Wert am Testtag ein.
+     */
+    private void trageEin(String wert, int vonStunde, int vonMinute,
+            int bisStunde, int bisMinute)
+    {
+        Uhrzeit anfangszeit = new Uhrzeit(vonStunde, vonMinute);
+        _kalender.trageEin(Saalkalender.minute(_tag, anfangszeit),
+                Saalkalender.ende(_tag, anfangszeit, new Uhrzeit(bisStunde,
+                        bisMinute)), wert);
+    }
+
+    /**
+     * Sucht eine Überschneidung mit einem Zeitraum am Testtag.
+     */
+    private String ueberschneidung(int vonStunde, int vonMinute,
+            int bisStunde, int bisMinute)
+    {
+        Uhrzeit anfangszeit = new Uhrzeit(vonStunde, vonMinute);
+        return _kalender.getUeberschneidung(Saalkalender.minute(_tag,
+                anfangszeit), Saalkalender.ende(_tag, anfangszeit, new Uhrzeit(
+                bisStunde, bisMinute)), null);
+    }
+}
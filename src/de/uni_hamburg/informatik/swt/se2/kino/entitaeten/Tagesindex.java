@@ -0,0 +1,201 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ein Tagesindex findet den Tagesplan eines Tages über seinen Epochentag
+ * (siehe {@link de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum#getEpochentag()}).
+ * Die Tagespläne liegen in einem Array, in dem jeder Tag sein eigenes Fach
+ * hat; aufeinanderfolgende Tage liegen in aufeinanderfolgenden Fächern. Ein
+ * Zugriff ist damit nur eine Subtraktion und ein Arrayzugriff, und eine
+ * Woche oder ein Monat ist ein zusammenhängender Ausschnitt.
+ * 
+ * Gelesen werden darf jederzeit und ohne Sperre. Ändern darf immer nur ein
+ * Thread zur Zeit; das muss der Aufrufer sicherstellen. Reicht das Array
+ * nicht mehr, wird ein größeres angelegt und erst danach veröffentlicht,
+ * sodass ein Leser immer ein Array mit dem dazu passenden ersten Tag sieht.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+final class Tagesindex
+{
+    private static final int ANFANGSGROESSE = 64;
+
+    // Die Fächer zusammen mit dem Epochentag des ersten Fachs.
+    private volatile Faecher _faecher;
+
+    // Der früheste und späteste Tag, der je einen Tagesplan hatte. Solange
+    // der Index leer ist, liegt der erste Tag hinter dem letzten.
+    private volatile int _ersterTag;
+    private volatile int _letzterTag;
+
+    /**
+     * Erzeugt einen leeren Tagesindex.
+     */
+    Tagesindex()
+    {
+        _ersterTag = Integer.MAX_VALUE;
+        _letzterTag = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Gibt den Tagesplan des angegebenen Tages zurück oder <code>null</code>,
+     * falls der Index für den Tag keinen hat.
+     * 
+     * @param epochentag der Tag.
+     */
+    Tagesplan get(int epochentag)
+    {
+        Faecher faecher = _faecher;
+        Tagesplan tagesplan = null;
+        if (faecher != null)
+        {
+            long fach = (long) epochentag - faecher._erster;
+            if (fach >= 0 && fach < faecher._plaene.length())
+            {
+                tagesplan = faecher._plaene.get((int) fach);
+            }
+        }
+        return tagesplan;
+    }
+
+    /**
+     * Gibt den ersten Tagesplan zurück, dessen Tag zwischen den angegebenen
+     * Tagen liegt, oder <code>null</code>, falls es keinen gibt. Leere Tage
+     * werden nur übersprungen.
+     * 
+     * @param von der erste Tag.
+     * @param bis der letzte Tag, einschließlich.
+     */
+    Tagesplan naechster(int von, int bis)
+    {
+        Faecher faecher = _faecher;
+        Tagesplan tagesplan = null;
+        if (faecher != null)
+        {
+            long fach = Math.max((long) von - faecher._erster, 0);
+            long letztes = Math.min((long) bis - faecher._erster,
+                    faecher._plaene.length() - 1L);
+            for (; tagesplan == null && fach <= letztes; fach++)
+            {
+                tagesplan = faecher._plaene.get((int) fach);
+            }
+        }
+        return tagesplan;
+    }
+
+    /**
+     * Legt den Tagesplan unter seinem Tag ab und ersetzt einen Tagesplan,
+     * der dort schon lag.
+     * 
+     * @param tagesplan der Tagesplan.
+     * 
+     * @require tagesplan != null
+     */
+    void setze(Tagesplan tagesplan)
+    {
+        assert tagesplan != null : "Vorbedingung verletzt: tagesplan != null";
+
+        int tag = tagesplan.getDatum().getEpochentag();
+        Faecher faecher = faecherFuer(tag);
+        faecher._plaene.set(tag - faecher._erster, tagesplan);
+        if (tag < _ersterTag)
+        {
+            _ersterTag = tag;
+        }
+        if (tag > _letzterTag)
+        {
+            _letzterTag = tag;
+        }
+    }
+
+    /**
+     * Entfernt den Tagesplan des angegebenen Tages, falls es einen gibt.
+     * 
+     * @param epochentag der Tag.
+     */
+    void entferne(int epochentag)
+    {
+        Faecher faecher = _faecher;
+        if (faecher != null)
+        {
+            long fach = (long) epochentag - faecher._erster;
+            if (fach >= 0 && fach < faecher._plaene.length())
+            {
+                faecher._plaene.set((int) fach, null);
+            }
+        }
+    }
+
+    /**
+     * Gibt den frühesten Tag zurück, der einen Tagesplan hat oder hatte. Ist
+     * der Index leer, ist das Ergebnis größer als {@link #getLetzterTag()}.
+     */
+    int getErsterTag()
+    {
+        return _ersterTag;
+    }
+
+    /**
+     * Gibt den spätesten Tag zurück, der einen Tagesplan hat oder hatte. Ist
+     * der Index leer, ist das Ergebnis kleiner als {@link #getErsterTag()}.
+     */
+    int getLetzterTag()
+    {
+        return _letzterTag;
+    }
+
+    /**
+     * Gibt Fächer zurück, die den angegebenen Tag enthalten, und legt dafür
+     * falls nötig größere an. Das Array wächst mindestens auf die doppelte
+     * Größe, und zwar in die Richtung, in der der neue Tag liegt; so bleibt
+     * das Anhängen einzelner Tage im Mittel konstant.
+     */
+    private Faecher faecherFuer(int tag)
+    {
+        Faecher alt = _faecher;
+        Faecher faecher = alt;
+        if (alt == null)
+        {
+            faecher = new Faecher(tag, ANFANGSGROESSE);
+            _faecher = faecher;
+        }
+        else if (tag < alt._erster
+                || (long) tag - alt._erster >= alt._plaene.length())
+        {
+            int laenge = alt._plaene.length();
+            long letzter = Math.max((long) alt._erster + laenge - 1, tag);
+            long erster = Math.min(alt._erster, tag);
+            long groesse = Math.max(letzter - erster + 1, 2L * laenge);
+            assert groesse <= Integer.MAX_VALUE : "Zu viele Tage im Index";
+            if (tag < alt._erster)
+            {
+                erster = Math.max(letzter - groesse + 1, Integer.MIN_VALUE);
+            }
+            faecher = new Faecher((int) erster, (int) groesse);
+            int verschiebung = alt._erster - faecher._erster;
+            for (int i = 0; i < laenge; i++)
+            {
+                faecher._plaene.set(verschiebung + i, alt._plaene.get(i));
+            }
+            _faecher = faecher;
+        }
+        return faecher;
+    }
+
+    /**
+     * Ein Array von Tagesplänen mit dem Epochentag seines ersten Fachs.
+     */
+    private static final class Faecher
+    {
+        private final int _erster;
+        private final AtomicReferenceArray<Tagesplan> _plaene;
+
+        private Faecher(int erster, int groesse)
+        {
+            _erster = erster;
+            _plaene = new AtomicReferenceArray<>(groesse);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TagesindexTest
+{
+    private Tagesindex _index;
+    private Datum _tag;
+
+    @Before
+    public void setUp()
+    {
+        _index = new Tagesindex();
+        _tag = new Datum(1, 1, 2025);
+    }
+
+    @Test
+    public void testeLeererIndex()
+    {
+        assertNull(_index.get(_tag.getEpochentag()));
+        assertTrue(_index.getErsterTag() > _index.getLetzterTag());
+        _index.entferne(_tag.getEpochentag());
+    }
+
+    @Test
+    public void testeSetzenUndEntfernen()
+    {
+        Tagesplan tagesplan = new Tagesplan(_tag);
+        _index.setze(tagesplan);
+        assertSame(tagesplan, _index.get(_tag.getEpochentag()));
+        assertNull(_index.get(_tag.getEpochentag() + 1));
+        assertNull(_index.get(_tag.getEpochentag() - 1));
+
+        _index.entferne(_tag.getEpochentag());
+        assertNull(_index.get(_tag.getEpochentag()));
+    }
+
+    @Test
+    public void testeWachsenInBeideRichtungen()
+    {
+        Tagesplan mitte = new Tagesplan(_tag);
+        Tagesplan frueh = new Tagesplan(_tag.minus(1000));
+        Tagesplan spaet = new Tagesplan(_tag.plus(5000));
+        _index.setze(mitte);
+        _index.setze(spaet);
+        _index.setze(frueh);
+        for (int tag = 1; tag < 300; tag++)
+        {
+            _index.setze(new Tagesplan(_tag.minus(1000 + tag)));
+        }
+
+        assertSame(mitte, _index.get(_tag.getEpochentag()));
+        assertSame(frueh, _index.get(frueh.getDatum().getEpochentag()));
+        assertSame(spaet, _index.get(spaet.getDatum().getEpochentag()));
+        assertEquals(_tag.minus(1299).getEpochentag(), _index.getErsterTag());
+        assertEquals(_tag.plus(5000).getEpochentag(), _index.getLetzterTag());
+        assertEquals(_tag.minus(1200), _index.get(
+                _tag.minus(1200).getEpochentag()).getDatum());
+        assertNull(_index.get(_tag.getEpochentag() + 1));
+    }
+}
@@ -9,7 +9,9 @@ import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
 
 /**
  * Ein Tagesplan verzeichnet alle Vorstellungen, die in dem Kino an einem
- * bestimmten Tag laufen.
+ * bestimmten Tag laufen. Die Vorstellungen werden schon beim Hinzufügen nach
+ * ihrer Anfangszeit einsortiert; gelesen wird eine unveränderliche Sicht,
+ * die nur nach einer Änderung neu erzeugt wird.
  * 
  * @author SE2-Team
  * @version SoSe 2024
@@ -17,9 +19,16 @@ import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
 public class Tagesplan
 {
     private Datum _tag;
+
+    // Die Vorstellungen, nach Anfangszeit sortiert. Gleichzeitige
+    // Vorstellungen stehen in der Reihenfolge, in der sie hinzukamen.
     private List<Vorstellung> _vorstellungen;
 
-    // Der Comparator wird zur Sortierung der Vorstellungen innerhalb eines
+    // Die Sicht, die getVorstellungen() zurückgibt, oder null, falls sie
+    // nach einer Änderung neu erzeugt werden muss.
+    private List<Vorstellung> _ansicht;
+
+    // Der Comparator wird zum Einsortieren der Vorstellungen innerhalb eines
     // Tagesplans verwendet.
     private static Comparator<Vorstellung> _vergleichNachAnfangszeit = (v1, v2) -> {
         assert v1 != null : "Vorbedingung verletzt: v1 != null";
@@ -57,7 +66,10 @@ public class Tagesplan
     }
 
     /**
-     * Fügt diesem Tagesplan eine Vorstellung hinzu.
+     * Fügt diesem Tagesplan eine Vorstellung hinzu. Sie wird per binärer
+     * Suche hinter allen Vorstellungen einsortiert, die nicht später
+     * anfangen; kommen die Vorstellungen nach Anfangszeit, wird also nur
+     * angehängt.
      * 
      * @param v die Vorstellung.
      * 
@@ -69,19 +81,59 @@ public class Tagesplan
         assert v != null : "Vorbedingung verletzt: v != null";
         assert v.getDatum().equals(_tag) : "Vorbedingung verletzt: v.getDatum().equals(_tag)";
 
-        _vorstellungen.add(v);
+        int von = 0;
+        int bis = _vorstellungen.size();
+        while (von < bis)
+        {
+            int mitte = (von + bis) >>> 1;
+            if (_vergleichNachAnfangszeit.compare(_vorstellungen.get(mitte), v) <= 0)
+            {
+                von = mitte + 1;
+            }
+            else
+            {
+                bis = mitte;
+            }
+        }
+        _vorstellungen.add(von, v);
+        _ansicht = null;
     }
 
     /**
      * Gibt alle Vorstellungen des Tages zurück. Die Vorstellungen werden
-     * sortiert nach ihrer Anfangszeit zurückgegeben.
+     * sortiert nach ihrer Anfangszeit zurückgegeben. Die Liste kann nicht
+     * verändert werden und ändert sich auch nicht, wenn später Vorstellungen
+     * hinzukommen; bis dahin liefert jeder Aufruf dieselbe Liste.
      * 
      * @ensure result != null
      */
     public List<Vorstellung> getVorstellungen()
     {
-        List<Vorstellung> result = new ArrayList<>(_vorstellungen);
-        Collections.sort(result, _vergleichNachAnfangszeit);
+        if (_ansicht == null)
+        {
+            _ansicht = Collections.unmodifiableList(new ArrayList<>(
+                    _vorstellungen));
+        }
+        return _ansicht;
+    }
+
+    /**
+     * Gibt alle Vorstellungen des Tages zurück, in denen eine Gruppe der
+     * angegebenen Größe noch nebeneinander in einer Reihe sitzen kann. Die
+     * Vorstellungen werden sortiert nach ihrer Anfangszeit zurückgegeben.
+     * 
+     * @param anzahl die Größe der Gruppe.
+     * 
+     * @require anzahl > 0
+     * 
+     * @ensure result != null
+     */
+    public List<Vorstellung> getVorstellungenMitFreiemBlock(int anzahl)
+    {
+        assert anzahl > 0 : "Vorbedingung verletzt: anzahl > 0";
+
+        List<Vorstellung> result = new ArrayList<>(getVorstellungen());
+        result.removeIf(v -> !v.hatFreienBlock(anzahl));
         return result;
     }
 }
@@ -5,9 +5,14 @@ import org.junit.Test;
 
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class TagesplanTest
@@ -63,6 +68,37 @@ public class TagesplanTest
         assertEquals(_vorstellung2, _t.getVorstellungen().get(1));
     }
 
+    @Test
+    public void testGleichzeitigeVorstellungenBehaltenIhreReihenfolge()
+    {
+        _t.fuegeVorstellungHinzu(_vorstellung3);
+        _t.fuegeVorstellungHinzu(_vorstellung2);
+        _t.fuegeVorstellungHinzu(_vorstellung);
+        assertEquals(_vorstellung, _t.getVorstellungen().get(0));
+        assertEquals(_vorstellung3, _t.getVorstellungen().get(1));
+        assertEquals(_vorstellung2, _t.getVorstellungen().get(2));
+    }
+
+    @Test
+    public void testSichtWirdNurNachAenderungNeuErzeugt()
+    {
+        _t.fuegeVorstellungHinzu(_vorstellung2);
+        List<Vorstellung> sicht = _t.getVorstellungen();
+        assertSame(sicht, _t.getVorstellungen());
+
+        _t.fuegeVorstellungHinzu(_vorstellung);
+        assertEquals(1, sicht.size());
+        assertNotSame(sicht, _t.getVorstellungen());
+        assertEquals(2, _t.getVorstellungen().size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSichtIstUnveraenderlich()
+    {
+        _t.fuegeVorstellungHinzu(_vorstellung);
+        _t.getVorstellungen().remove(0);
+    }
+
     @Test
     public void testGleichzeitigeVorstellungenInVerschiedenenSaelenMoeglich()
     {
@@ -70,4 +106,25 @@ public class TagesplanTest
         _t.fuegeVorstellungHinzu(_vorstellung3);
         assertEquals(2, _t.getVorstellungen().size());
     }
+
+    @Test
+    public void testVorstellungenMitFreiemBlock()
+    {
+        Kinosaal saal = new Kinosaal("Saal 3", 2, 10);
+        Vorstellung voll = new Vorstellung(saal, _film, _startzeit, _endzeit,
+                _datum, 0);
+        Vorstellung frei = new Vorstellung(saal, _film, _startzeit2, _endzeit,
+                _datum, 0);
+        for (int reihe = 0; reihe < 2; reihe++)
+        {
+            voll.verkaufePlatz(new Platz(reihe, 5));
+        }
+        _t.fuegeVorstellungHinzu(frei);
+        _t.fuegeVorstellungHinzu(voll);
+
+        assertEquals(2, _t.getVorstellungenMitFreiemBlock(5).size());
+        List<Vorstellung> gruppe = _t.getVorstellungenMitFreiemBlock(6);
+        assertEquals(1, gruppe.size());
+        assertEquals(frei, gruppe.get(0));
+    }
 }
@@ -0,0 +1,47 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.io.IOException;
+import java.util.List;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+
+/**
+ * Ein Speicher, aus dem ein {@link Kino} die Vorstellungen eines Tages erst
+ * lädt, wenn der Tag gebraucht wird. So muss ein Kino mit einem langen
+ * Archiv vergangener Tage nicht alle Vorstellungen im Speicher halten.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public interface Tagesspeicher
+{
+    /**
+     * Gibt die Kinosäle zurück, in denen die Vorstellungen laufen.
+     * 
+     * @ensure result != null
+     */
+    List<Kinosaal> getKinosaele();
+
+    /**
+     * Gibt die Tage, an denen Vorstellungen laufen, aufsteigend sortiert
+     * zurück.
+     * 
+     * @ensure result != null
+     */
+    List<Datum> getTage();
+
+    /**
+     * Lädt die Vorstellungen des angegebenen Tages. Jeder Aufruf erzeugt neue
+     * Vorstellungen, deren Plätze alle frei sind.
+     * 
+     * @param tag der Tag.
+     * 
+     * @throws IOException falls die Vorstellungen nicht gelesen werden
+     *             können.
+     * 
+     * @require tag != null
+     * 
+     * @ensure result != null
+     */
+    List<Vorstellung> lade(Datum tag) throws IOException;
+}
@@ -0,0 +1,1020 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+/**
+ * Ein Journal, in dem jeder Verkauf, jede Stornierung und jede Blockierung
+ * dauerhaft festgehalten wird, bevor der Aufruf zurückkehrt. Beim Öffnen
+ * wird das Journal eingespielt, so dass nach einem Absturz oder Neustart
+ * alle verkauften und blockierten Plätze wiederhergestellt sind.
+ * 
+ * Das Journal ist eine Binärdatei, an die nur angehängt wird. Jeder Eintrag
+ * beginnt mit seiner Länge und einer CRC32-Prüfsumme. Ein unvollständig
+ * geschriebener Eintrag am Ende, etwa nach einem Stromausfall, wird beim
+ * Öffnen erkannt und abgeschnitten. Eine Vorstellung wird mit ihrem ersten
+ * Verkauf einmal mit Saal, Datum und Anfangszeit eingetragen und danach nur
+ * noch über ihre Nummer angesprochen. Ein Wechsel speichert die
+ * Belegungswörter der geänderten Sitze.
+ * 
+ * Die Einträge werden zunächst in einem Puffer gesammelt. Wer auf seinen
+ * Eintrag warten muss und niemanden schreiben sieht, schreibt den ganzen
+ * Puffer und synchronisiert die Datei. Wer währenddessen einen Eintrag
+ * anhängt, wartet und wird mit dem nächsten Schreibvorgang gesichert. Bei
+ * mehreren Kassen teilen sich so viele Verkäufe eine Synchronisierung
+ * (Group Commit). Schlägt ein Schreibvorgang fehl, nehmen die wartenden
+ * Belegungen ihre Wechsel zurück, und jeder weitere Verkauf und jede weitere
+ * Stornierung wird abgelehnt.
+ * 
+ * Damit das Journal nicht endlos wächst, kann es im Hintergrund verdichtet
+ * werden, während weiter verkauft wird. Dabei wird ein Abbild aller
+ * verkauften und blockierten Plätze in eine neue Datei geschrieben, die
+ * seitdem angehängten Einträge dahinter kopiert und die neue Datei atomar an
+ * die Stelle der alten gesetzt. Das Abbild wird ohne Sperre gelesen und ist
+ * daher nicht in sich konsistent; da aber jeder Eintrag die Sitze auf einen
+ * Zustand setzt, ergibt das Einspielen der danach angehängten Einträge
+ * trotzdem genau die Belegung am Ende des Journals.
+ * 
+ * Festgehalten wird nur, ob ein Platz verkauft oder von Hand blockiert ist.
+ * Reservierungen gehen bei einem Neustart verloren; die Sperren einer
+ * Abstandsregel entstehen aus den verkauften Plätzen neu. Wird eine
+ * Vorstellung in einen anderen Saal verlegt, wird sie unter ihrem neuen
+ * Schlüssel neu eingetragen und ihre übertragenen Plätze als ein Verkauf
+ * festgehalten.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public final class Verkaufsjournal
+{
+    private static final byte VORSTELLUNG = 1;
+    private static final byte VERKAUF = 2;
+    private static final byte STORNO = 3;
+    private static final byte BLOCKIERUNG = 4;
+
+    // Länge und Prüfsumme vor jedem Eintrag.
+    private static final int KOPF = 2 * Integer.BYTES;
+
+    // Längere Einträge gelten beim Einspielen als beschädigt.
+    private static final int MAXIMALE_LAENGE = 1 << 24;
+
+    // Ab dieser Größe wird das Abbild beim Verdichten zwischendurch
+    // geschrieben.
+    private static final int ABBILD_PUFFER = 1 << 20;
+
+    private final Path _datei;
+
+    // Die Datei wird nur gewechselt, während niemand sonst schreibt.
+    private FileChannel _kanal;
+
+    // Die Position, die dem Anfang der Datei entspricht. Positionen zählen
+    // alle jemals angehängten Bytes, auch die weggeworfenen.
+    private long _dateianfang;
+
+    // Die Einträge und Belegungen der Vorstellungen des Kinos, die eine
+    // Nummer haben, nach Nummer. Ist eine Vorstellung gerade nicht geladen,
+    // steht statt der Belegung nur der Stand ihrer verkauften und
+    // blockierten Plätze in _ungeladen, falls es welche gibt. Ein Stand hat
+    // pro Belegungswort ein Wort mit beiden Ebenen.
+    private final Map<Integer, byte[]> _eintraege;
+    private final Map<Integer, Platzbelegung> _belegungen;
+    private final Map<Integer, long[]> _ungeladen;
+
+    // Die Nummern der Vorstellungen nach ihrem Schlüssel und die nächste
+    // freie Nummer.
+    private final Map<String, Integer> _nummern;
+    private int _naechsteNummer;
+
+    // Die geladenen Vorstellungen, die noch keine Nummer haben, nach ihrer
+    // Belegung.
+    private final Map<Platzbelegung, Vorstellung> _ohneNummer;
+
+    // Der Belegungsspeicher, dessen wiederhergestellte Belegungen nicht
+    // eingespielt werden, oder null.
+    private final Belegungsspeicher _speicher;
+
+    // Sperrt das Verdichten gegen sich selbst und das Schließen.
+    private final Object _verdichtung;
+
+    // Die angehängten, noch nicht geschriebenen Einträge.
+    private ByteBuffer _puffer;
+
+    // Der Puffer, den der schreibende Thread gerade leert.
+    private ByteBuffer _reserve;
+
+    // Das Ende der Datei, wenn alle angehängten Einträge geschrieben sind.
+    private long _angehaengt;
+
+    // Bis hierhin ist die Datei synchronisiert.
+    private long _gesichert;
+
+    // Gibt an, ob gerade ein Thread schreibt.
+    private boolean _schreibt;
+
+    // Der Fehler des letzten Schreibvorgangs oder null. Wird ohne Sperre
+    // gelesen, bevor ein Wechsel die Belegung ändert.
+    private volatile IOException _fehler;
+
+    private long _synchronisierungen;
+
+    /**
+     * Erzeugt ein Journal, das an das Ende der angegebenen Datei anhängt.
+     */
+    private Verkaufsjournal(Path datei, FileChannel kanal, long ende,
+            Belegungsspeicher speicher, int naechsteNummer)
+    {
+        _datei = datei;
+        _kanal = kanal;
+        _eintraege = new ConcurrentSkipListMap<>();
+        _belegungen = new ConcurrentHashMap<>();
+        _ungeladen = new ConcurrentHashMap<>();
+        _nummern = new HashMap<>();
+        _naechsteNummer = naechsteNummer;
+        _ohneNummer = new IdentityHashMap<>();
+        _speicher = speicher;
+        _verdichtung = new Object();
+        _puffer = ByteBuffer.allocate(1 << 16);
+        _reserve = ByteBuffer.allocate(1 << 16);
+        _angehaengt = ende;
+        _gesichert = ende;
+    }
+
+    /**
+     * Öffnet das Journal in der angegebenen Datei oder legt es an, spielt es
+     * in die Vorstellungen des Kinos ein und hält ab jetzt jeden Verkauf,
+     * jede Stornierung und jede Blockierung dieser Vorstellungen darin fest.
+     * Einträge zu Vorstellungen, die es in dem Kino nicht mehr gibt, werden
+     * übergangen.
+     * 
+     * Das Journal muss geöffnet werden, bevor Plätze verkauft werden. Ein
+     * Kino darf nur mit einem Journal geöffnet werden. Hat das Kino einen
+     * {@link Tagesspeicher}, wird dafür ein Tag nach dem anderen geladen und
+     * wieder verdrängt. Von Vorstellungen, die nicht geladen sind, merkt sich
+     * das Journal nur die verkauften und blockierten Plätze und gibt sie
+     * ihnen zurück, sobald das Kino sie lädt.
+     * 
+     * @param datei die Datei.
+     * @param kino das Kino.
+     * 
+     * @throws IOException falls die Datei nicht gelesen oder geöffnet werden
+     *             kann.
+     * 
+     * @require datei != null
+     * @require kino != null
+     * 
+     * @ensure result != null
+     */
+    public static Verkaufsjournal oeffne(Path datei, Kino kino)
+            throws IOException
+    {
+        assert datei != null : "Vorbedingung verletzt: datei != null";
+        assert kino != null : "Vorbedingung verletzt: kino != null";
+
+        return oeffne(datei, kino, null);
+    }
+
+    /**
+     * Öffnet das Journal wie {@link #oeffne(Path, Kino)}, spielt es aber nur
+     * in die Vorstellungen ein, deren Belegung nicht aus dem
+     * {@link Belegungsspeicher} wiederhergestellt wurde.
+     * 
+     * @param datei die Datei.
+     * @param kino das Kino.
+     * @param speicher der Belegungsspeicher, der vorher für das Kino geöffnet
+     *            wurde, oder <code>null</code>.
+     * 
+     * @throws IOException falls die Datei nicht gelesen oder geöffnet werden
+     *             kann.
+     * 
+     * @require datei != null
+     * @require kino != null
+     * 
+     * @ensure result != null
+     */
+    public static Verkaufsjournal oeffne(Path datei, Kino kino,
+            Belegungsspeicher speicher) throws IOException
+    {
+        assert datei != null : "Vorbedingung verletzt: datei != null";
+        assert kino != null : "Vorbedingung verletzt: kino != null";
+
+        Map<String, Integer> nummern = new HashMap<>();
+        Map<Integer, byte[]> eintraege = new HashMap<>();
+        Map<Integer, long[]> staende = new HashMap<>();
+        long ende = 0;
+        if (Files.exists(datei))
+        {
+            try (InputStream ein = Files.newInputStream(datei))
+            {
+                ende = spieleEin(new DataInputStream(new BufferedInputStream(
+                        ein)), nummern, eintraege, staende);
+            }
+        }
+        // Nach dem Verdichten fehlen die Nummern vergangener Vorstellungen.
+        int naechsteNummer = nummern.isEmpty() ? 0 : Collections.max(nummern
+                .values()) + 1;
+        if (!nummern.isEmpty())
+        {
+            Set<Integer> vorhanden = new HashSet<>();
+            for (Vorstellung vorstellung : kino.durchlaufeVorstellungen())
+            {
+                Integer nummer = nummern.get(vorstellung.getSchluessel());
+                if (nummer != null)
+                {
+                    vorhanden.add(nummer);
+                }
+            }
+            nummern.values().retainAll(vorhanden);
+        }
+
+        FileChannel kanal = FileChannel.open(datei, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Ein beschädigter Rest am Ende wird abgeschnitten.
+        kanal.truncate(ende);
+        kanal.position(ende);
+        Verkaufsjournal journal = new Verkaufsjournal(datei, kanal, ende,
+                speicher, naechsteNummer);
+        for (Map.Entry<String, Integer> eintrag : nummern.entrySet())
+        {
+            int nummer = eintrag.getValue();
+            journal._nummern.put(eintrag.getKey(), nummer);
+            journal._eintraege.put(nummer, eintraege.get(nummer));
+            long[] stand = staende.get(nummer);
+            if (stand != null && !istLeer(stand))
+            {
+                journal._ungeladen.put(nummer, stand);
+            }
+        }
+        kino.meldeAn(journal.new Wiederanbindung());
+        return journal;
+    }
+
+    /**
+     * Liest alle gültigen Einträge und sammelt pro Nummer den Eintrag der
+     * Vorstellung und den Stand ihrer verkauften und blockierten Plätze.
+     * 
+     * @return die Länge der gültigen Einträge.
+     */
+    private static long spieleEin(DataInputStream ein,
+            Map<String, Integer> nummern, Map<Integer, byte[]> eintraege,
+            Map<Integer, long[]> staende) throws IOException
+    {
+        CRC32 crc = new CRC32();
+        long ende = 0;
+        boolean gueltig = true;
+        while (gueltig)
+        {
+            byte[] eintrag = null;
+            try
+            {
+                int laenge = ein.readInt();
+                int pruefsumme = ein.readInt();
+                if (laenge > 0 && laenge <= MAXIMALE_LAENGE)
+                {
+                    eintrag = new byte[laenge];
+                    ein.readFully(eintrag);
+                    crc.reset();
+                    crc.update(eintrag);
+                    if ((int) crc.getValue() != pruefsumme)
+                    {
+                        eintrag = null;
+                    }
+                }
+            }
+            catch (EOFException e)
+            {
+                eintrag = null;
+            }
+            gueltig = eintrag != null;
+            if (gueltig)
+            {
+                wendeAn(eintrag, nummern, eintraege, staende);
+                ende += KOPF + eintrag.length;
+            }
+        }
+        return ende;
+    }
+
+    /**
+     * Wendet einen gelesenen Eintrag an.
+     */
+    private static void wendeAn(byte[] eintrag, Map<String, Integer> nummern,
+            Map<Integer, byte[]> eintraege, Map<Integer, long[]> staende)
+    {
+        ByteBuffer inhalt = ByteBuffer.wrap(eintrag);
+        byte typ = inhalt.get();
+        int nummer = inhalt.getInt();
+        if (typ == VORSTELLUNG)
+        {
+            byte[] name = new byte[inhalt.getShort()];
+            inhalt.get(name);
+            int jahr = inhalt.getShort();
+            int monat = inhalt.get();
+            int tag = inhalt.get();
+            int stunden = inhalt.get();
+            int minuten = inhalt.get();
+            String schluessel = Vorstellung.schluessel(new String(name,
+                    StandardCharsets.UTF_8), new Datum(tag, monat, jahr),
+                    new Uhrzeit(stunden, minuten));
+            nummern.put(schluessel, nummer);
+            eintraege.put(nummer, eintrag);
+        }
+        else
+        {
+            int erstesWort = inhalt.getInt();
+            int bis = erstesWort + inhalt.getInt();
+            long[] stand = staende.get(nummer);
+            if (stand == null || stand.length < bis)
+            {
+                stand = stand == null ? new long[bis] : Arrays.copyOf(stand,
+                        bis);
+                staende.put(nummer, stand);
+            }
+            int zustand = zustand(typ);
+            for (int i = erstesWort; i < bis; i++)
+            {
+                long wort = inhalt.getInt() & Platzbelegung.UNTERE_EBENE;
+                stand[i] = Platzbelegung.mitZustand(stand[i], wort, zustand);
+            }
+        }
+    }
+
+    /**
+     * Gibt den Zustand zurück, auf den ein Eintrag die Sitze setzt.
+     */
+    private static int zustand(byte typ)
+    {
+        int zustand = Platzbelegung.FREI;
+        if (typ == VERKAUF)
+        {
+            zustand = Platzbelegung.VERKAUFT;
+        }
+        else if (typ == BLOCKIERUNG)
+        {
+            zustand = Platzbelegung.BLOCKIERT;
+        }
+        return zustand;
+    }
+
+    /**
+     * Gibt den Typ des Eintrags zurück, der die Sitze auf den angegebenen
+     * Zustand setzt. Jeder Zustand außer verkauft und blockiert wird als
+     * Stornierung festgehalten, also als frei.
+     */
+    private static byte typ(int zustand)
+    {
+        byte typ = STORNO;
+        if (zustand == Platzbelegung.VERKAUFT)
+        {
+            typ = VERKAUF;
+        }
+        else if (zustand == Platzbelegung.BLOCKIERT)
+        {
+            typ = BLOCKIERUNG;
+        }
+        return typ;
+    }
+
+    /**
+     * Prüft, ob eine Maske keinen Sitz enthält.
+     */
+    private static boolean istLeer(long[] maske)
+    {
+        boolean leer = true;
+        for (int i = 0; i < maske.length && leer; i++)
+        {
+            leer = maske[i] == 0;
+        }
+        return leer;
+    }
+
+    /**
+     * Erzeugt den Inhalt des Eintrags einer Vorstellung.
+     */
+    private static byte[] vorstellungseintrag(int nummer,
+            Vorstellung vorstellung)
+    {
+        byte[] name = vorstellung.getKinosaal().getName().getBytes(
+                StandardCharsets.UTF_8);
+        Datum datum = vorstellung.getDatum();
+        Uhrzeit zeit = vorstellung.getAnfangszeit();
+        ByteBuffer inhalt = ByteBuffer.allocate(1 + Integer.BYTES
+                + Short.BYTES + name.length + Short.BYTES + 4);
+        inhalt.put(VORSTELLUNG);
+        inhalt.putInt(nummer);
+        inhalt.putShort((short) name.length);
+        inhalt.put(name);
+        inhalt.putShort((short) datum.getJahr());
+        inhalt.put((byte) datum.getMonat());
+        inhalt.put((byte) datum.getTag());
+        inhalt.put((byte) zeit.getStunden());
+        inhalt.put((byte) zeit.getMinuten());
+        return inhalt.array();
+    }
+
+    /**
+     * Hängt einen Eintrag mit dem angegebenen Inhalt an.
+     * 
+     * @return das Ende des Eintrags in der Datei.
+     */
+    private synchronized long haengeAn(byte[] inhalt)
+    {
+        _puffer = platzFuer(_puffer, inhalt.length);
+        int anfang = beginneEintrag(_puffer);
+        _puffer.put(inhalt);
+        beendeEintrag(_puffer, anfang);
+        _angehaengt += _puffer.position() - anfang;
+        return _angehaengt;
+    }
+
+    /**
+     * Hängt einen Verkauf, eine Stornierung oder eine Blockierung an. Die
+     * Maske hat ein Wort
+     * pro Belegungswort ab dem angegebenen Wort; führende und folgende leere
+     * Wörter werden nicht gespeichert. Damit Einträge zu denselben Sitzen in
+     * der Reihenfolge der Wechsel im Journal stehen, muss der Wechsel im
+     * selben synchronisierten Block wie dieser Aufruf erfolgen.
+     * 
+     * Hat die Vorstellung noch keine Nummer, wird sie vorher eingetragen.
+     * 
+     * @param belegung die Belegung der Vorstellung.
+     * @param nach der Zustand, in den die Sitze gewechselt sind.
+     * @param erstesWort der Index des ersten Worts der Maske.
+     * @param maske die gewechselten Sitze.
+     * 
+     * @return die Position, auf die mit {@link #warteAuf(long)} gewartet
+     *         werden muss.
+     */
+    synchronized long haengeAn(Platzbelegung belegung, int nach,
+            int erstesWort, long[] maske)
+    {
+        int nummer = belegung.getJournalNummer();
+        if (nummer < 0)
+        {
+            nummer = vergibNummer(belegung);
+        }
+        int anfang = _puffer.position();
+        _puffer = schreibeWechsel(_puffer, nummer, typ(nach), erstesWort,
+                maske);
+        _angehaengt += _puffer.position() - anfang;
+        return _angehaengt;
+    }
+
+    /**
+     * Gibt der Vorstellung einer Belegung, für die noch nichts festgehalten
+     * wurde, die nächste Nummer und hängt ihren Eintrag an.
+     */
+    private int vergibNummer(Platzbelegung belegung)
+    {
+        Vorstellung vorstellung = _ohneNummer.remove(belegung);
+        int nummer = _naechsteNummer++;
+        byte[] inhalt = vorstellungseintrag(nummer, vorstellung);
+        haengeAn(inhalt);
+        _nummern.put(vorstellung.getSchluessel(), nummer);
+        _eintraege.put(nummer, inhalt);
+        _belegungen.put(nummer, belegung);
+        belegung.setJournal(this, nummer);
+        return nummer;
+    }
+
+    /**
+     * Schreibt einen Eintrag des angegebenen Typs in den Puffer, wobei
+     * führende und folgende leere Wörter der Maske weggelassen werden.
+     * 
+     * @return den Puffer, der größer sein kann als der übergebene.
+     */
+    private static ByteBuffer schreibeWechsel(ByteBuffer puffer, int nummer,
+            byte typ, int erstesWort, long[] maske)
+    {
+        int von = 0;
+        while (von < maske.length && maske[von] == 0)
+        {
+            von++;
+        }
+        int bis = maske.length;
+        while (bis > von && maske[bis - 1] == 0)
+        {
+            bis--;
+        }
+        puffer = platzFuer(puffer, 1 + 3 * Integer.BYTES + (bis - von)
+                * Integer.BYTES);
+        int anfang = beginneEintrag(puffer);
+        puffer.put(typ);
+        puffer.putInt(nummer);
+        puffer.putInt(erstesWort + von);
+        puffer.putInt(bis - von);
+        for (int i = von; i < bis; i++)
+        {
+            puffer.putInt((int) maske[i]);
+        }
+        beendeEintrag(puffer, anfang);
+        return puffer;
+    }
+
+    /**
+     * Gibt einen Puffer zurück, der den Inhalt des angegebenen hat und Platz
+     * für Kopf und Inhalt eines weiteren Eintrags.
+     */
+    private static ByteBuffer platzFuer(ByteBuffer puffer, int laenge)
+    {
+        ByteBuffer ergebnis = puffer;
+        if (puffer.remaining() < KOPF + laenge)
+        {
+            ergebnis = ByteBuffer.allocate(Math.max(2 * puffer.capacity(),
+                    puffer.position() + KOPF + laenge));
+            puffer.flip();
+            ergebnis.put(puffer);
+        }
+        return ergebnis;
+    }
+
+    /**
+     * Überspringt den Kopf eines Eintrags und gibt seine Position im Puffer
+     * zurück.
+     */
+    private static int beginneEintrag(ByteBuffer puffer)
+    {
+        int anfang = puffer.position();
+        puffer.position(anfang + KOPF);
+        return anfang;
+    }
+
+    /**
+     * Trägt Länge und Prüfsumme in den Kopf des Eintrags ein.
+     */
+    private static void beendeEintrag(ByteBuffer puffer, int anfang)
+    {
+        int laenge = puffer.position() - anfang - KOPF;
+        CRC32 crc = new CRC32();
+        crc.update(puffer.array(), anfang + KOPF, laenge);
+        puffer.putInt(anfang, laenge);
+        puffer.putInt(anfang + Integer.BYTES, (int) crc.getValue());
+    }
+
+    /**
+     * Prüft, ob das Journal noch schreiben kann. Ist ein Schreibvorgang
+     * fehlgeschlagen, muss jeder weitere Wechsel abgelehnt werden, bevor er
+     * die Belegung ändert, denn er könnte nicht mehr gesichert werden.
+     * 
+     * @throws UncheckedIOException falls ein Schreibvorgang fehlgeschlagen
+     *             ist.
+     */
+    void pruefeSchreibbar()
+    {
+        IOException fehler = _fehler;
+        if (fehler != null)
+        {
+            throw new UncheckedIOException(fehler);
+        }
+    }
+
+    /**
+     * Wartet, bis die Datei bis zur angegebenen Position synchronisiert ist.
+     * Schreibt gerade niemand, schreibt der aufrufende Thread alle bis dahin
+     * angehängten Einträge.
+     * 
+     * @throws UncheckedIOException falls das Schreiben fehlschlägt. Der
+     *             Wechsel ist dann nicht gesichert.
+     */
+    void warteAuf(long position)
+    {
+        ByteBuffer puffer = null;
+        long bis = 0;
+        boolean unterbrochen = false;
+        synchronized (this)
+        {
+            while (_gesichert < position && _schreibt && _fehler == null)
+            {
+                try
+                {
+                    wait();
+                }
+                catch (InterruptedException e)
+                {
+                    unterbrochen = true;
+                }
+            }
+            if (_fehler != null && _gesichert < position)
+            {
+                throw new UncheckedIOException(_fehler);
+            }
+            if (_gesichert < position)
+            {
+                _schreibt = true;
+                puffer = _puffer;
+                _puffer = _reserve;
+                bis = _angehaengt;
+            }
+        }
+        if (puffer != null)
+        {
+            schreibe(puffer, bis);
+        }
+        if (unterbrochen)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Schreibt den Puffer, synchronisiert die Datei und weckt alle Threads,
+     * die auf ihre Einträge warten.
+     */
+    private void schreibe(ByteBuffer puffer, long bis)
+    {
+        IOException fehler = null;
+        try
+        {
+            puffer.flip();
+            while (puffer.hasRemaining())
+            {
+                _kanal.write(puffer);
+            }
+            _kanal.force(false);
+        }
+        catch (IOException e)
+        {
+            fehler = e;
+        }
+        synchronized (this)
+        {
+            puffer.clear();
+            _reserve = puffer;
+            _schreibt = false;
+            if (fehler == null)
+            {
+                _gesichert = bis;
+                _synchronisierungen++;
+            }
+            else
+            {
+                _fehler = fehler;
+            }
+            notifyAll();
+        }
+        if (fehler != null)
+        {
+            throw new UncheckedIOException(fehler);
+        }
+    }
+
+    /**
+     * Verdichtet das Journal: Die Datei wird durch eine ersetzt, die nur die
+     * Vorstellungen des Kinos, ein Abbild ihrer verkauften und blockierten
+     * Plätze und die
+     * seit Beginn des Abbilds angehängten Einträge enthält. Verkäufe laufen
+     * währenddessen weiter; nur das Sichern neuer Einträge wartet, solange
+     * der Rest kopiert und die Datei gewechselt wird. Schlägt das Verdichten
+     * fehl, bleibt die alte Datei unverändert in Gebrauch.
+     * 
+     * @throws IOException falls die neue Datei nicht geschrieben oder an die
+     *             Stelle der alten gesetzt werden kann.
+     */
+    public void verdichte() throws IOException
+    {
+        synchronized (_verdichtung)
+        {
+            long anfang;
+            long gesichert;
+            synchronized (this)
+            {
+                if (_fehler != null)
+                {
+                    throw _fehler;
+                }
+                // Alle Einträge bis hierhin sind schon in den Belegungen
+                // sichtbar, weil Wechsel und Anhängen gemeinsam gesperrt
+                // sind.
+                anfang = _angehaengt;
+            }
+            Path neu = _datei.resolveSibling(_datei.getFileName() + ".neu");
+            FileChannel kanal = FileChannel.open(neu,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean gewechselt = false;
+            try
+            {
+                schreibeAbbild(kanal);
+                // Was bis jetzt gesichert ist, wird vorab kopiert und
+                // synchronisiert, damit während des Wechsels nur noch ein
+                // kurzer Rest übrig bleibt.
+                synchronized (this)
+                {
+                    gesichert = _gesichert;
+                }
+                kopiere(anfang, gesichert, kanal);
+                kanal.force(false);
+                anfang = gesichert;
+
+                warteAufSchreibrecht();
+                try
+                {
+                    synchronized (this)
+                    {
+                        gesichert = _gesichert;
+                    }
+                    kopiere(anfang, gesichert, kanal);
+                    kanal.force(false);
+                    Files.move(neu, _datei, StandardCopyOption.ATOMIC_MOVE);
+                    FileChannel alt = _kanal;
+                    synchronized (this)
+                    {
+                        _kanal = kanal;
+                        _dateianfang = gesichert - kanal.position();
+                    }
+                    gewechselt = true;
+                    alt.close();
+                }
+                finally
+                {
+                    gibSchreibrechtAb();
+                }
+            }
+            finally
+            {
+                if (!gewechselt)
+                {
+                    kanal.close();
+                    Files.deleteIfExists(neu);
+                }
+            }
+        }
+    }
+
+    /**
+     * Schreibt die Einträge aller Vorstellungen des Kinos und ihrer
+     * verkauften und blockierten Plätze.
+     */
+    private void schreibeAbbild(FileChannel kanal) throws IOException
+    {
+        ByteBuffer puffer = ByteBuffer.allocate(ABBILD_PUFFER);
+        for (Map.Entry<Integer, byte[]> eintrag : _eintraege.entrySet())
+        {
+            puffer = platzFuer(puffer, eintrag.getValue().length);
+            int anfang = beginneEintrag(puffer);
+            puffer.put(eintrag.getValue());
+            beendeEintrag(puffer, anfang);
+
+            // Erst der Stand, dann die Belegung: So sieht das
+            // Abbild eine Vorstellung, auch wenn sie gerade verdrängt oder
+            // neu geladen wird.
+            long[] stand = _ungeladen.get(eintrag.getKey());
+            Platzbelegung belegung = _belegungen.get(eintrag.getKey());
+            if (belegung != null)
+            {
+                stand = stand(belegung);
+            }
+            if (stand != null)
+            {
+                long[] verkauft = sitzeImZustand(stand, Platzbelegung.VERKAUFT);
+                long[] blockiert = sitzeImZustand(stand,
+                        Platzbelegung.BLOCKIERT);
+                if (!istLeer(verkauft))
+                {
+                    puffer = schreibeWechsel(puffer, eintrag.getKey(),
+                            VERKAUF, 0, verkauft);
+                }
+                if (!istLeer(blockiert))
+                {
+                    puffer = schreibeWechsel(puffer, eintrag.getKey(),
+                            BLOCKIERUNG, 0, blockiert);
+                }
+            }
+            if (puffer.position() >= ABBILD_PUFFER)
+            {
+                leere(puffer, kanal);
+            }
+        }
+        leere(puffer, kanal);
+    }
+
+    /**
+     * Gibt den Stand der verkauften und von Hand blockierten Plätze einer
+     * Belegung zurück oder <code>null</code>, falls keiner verkauft oder
+     * blockiert ist.
+     */
+    private static long[] stand(Platzbelegung belegung)
+    {
+        long[] stand = new long[belegung.getAnzahlWoerter()];
+        boolean leer = true;
+        for (int i = 0; i < stand.length; i++)
+        {
+            stand[i] = Platzbelegung.mitZustand(Platzbelegung.mitZustand(0,
+                    belegung.sitzeImZustand(i, Platzbelegung.VERKAUFT),
+                    Platzbelegung.VERKAUFT), belegung.blockierteSitze(i),
+                    Platzbelegung.BLOCKIERT);
+            leer &= stand[i] == 0;
+        }
+        return leer ? null : stand;
+    }
+
+    /**
+     * Gibt die Maske der Sitze eines Stands zurück, die den angegebenen
+     * Zustand haben.
+     */
+    private static long[] sitzeImZustand(long[] stand, int zustand)
+    {
+        long[] maske = new long[stand.length];
+        for (int i = 0; i < stand.length; i++)
+        {
+            maske[i] = Platzbelegung.sitzeImZustand(stand[i], zustand);
+        }
+        return maske;
+    }
+
+    /**
+     * Schreibt den Inhalt des Puffers in die Datei und leert ihn.
+     */
+    private static void leere(ByteBuffer puffer, FileChannel kanal)
+            throws IOException
+    {
+        puffer.flip();
+        while (puffer.hasRemaining())
+        {
+            kanal.write(puffer);
+        }
+        puffer.clear();
+    }
+
+    /**
+     * Hängt die Einträge zwischen den angegebenen Positionen aus der
+     * aktuellen Datei an die neue an.
+     */
+    private void kopiere(long von, long bis, FileChannel kanal)
+            throws IOException
+    {
+        long position = von - _dateianfang;
+        long ende = bis - _dateianfang;
+        while (position < ende)
+        {
+            position += _kanal.transferTo(position, ende - position, kanal);
+        }
+    }
+
+    /**
+     * Wartet, bis niemand mehr schreibt, und nimmt anderen Threads das Recht
+     * zu schreiben, bis {@link #gibSchreibrechtAb()} aufgerufen wird.
+     * Angehängt werden kann weiterhin.
+     */
+    private synchronized void warteAufSchreibrecht()
+    {
+        boolean unterbrochen = false;
+        while (_schreibt)
+        {
+            try
+            {
+                wait();
+            }
+            catch (InterruptedException e)
+            {
+                unterbrochen = true;
+            }
+        }
+        _schreibt = true;
+        if (unterbrochen)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gibt das Schreibrecht wieder ab und weckt die wartenden Threads, damit
+     * einer von ihnen die inzwischen angehängten Einträge schreibt.
+     */
+    private synchronized void gibSchreibrechtAb()
+    {
+        _schreibt = false;
+        notifyAll();
+    }
+
+    /**
+     * Gibt zurück, wie oft die Datei bisher synchronisiert wurde. Zusammen mit
+     * der Anzahl der Verkäufe zeigt das, wie gut das Zusammenfassen wirkt.
+     */
+    public synchronized long getAnzahlSynchronisierungen()
+    {
+        return _synchronisierungen;
+    }
+
+    /**
+     * Schließt die Datei. Da jeder Eintrag gesichert ist, bevor der Verkauf
+     * zurückkehrt, geht dabei nichts verloren. Danach schlägt jeder Verkauf
+     * in den Vorstellungen des Kinos fehl.
+     * 
+     * @throws IOException falls die Datei nicht geschlossen werden kann.
+     */
+    public void schliesse() throws IOException
+    {
+        synchronized (_verdichtung)
+        {
+            _kanal.close();
+        }
+    }
+
+    /**
+     * Bindet jede Vorstellung, die das Kino geladen hat oder lädt, an das
+     * Journal und gibt ihr die verkauften und blockierten Plätze zurück, die
+     * sie beim Einspielen oder Verdrängen zurückgelassen hat. Die verkauften
+     * Plätze einer Belegung, die der Belegungsspeicher wiederhergestellt
+     * hat, hat sie schon; blockierte gibt der Speicher beim ersten Anbinden
+     * frei, weil er Blockierungen von Hand nicht von den Sperren einer
+     * Abstandsregel unterscheidet. Beim Verdrängen merkt sich das Journal
+     * den Stand der Belegung und löst sie, damit
+     * niemand über eine alte Instanz am Journal vorbei verkauft. Damit das
+     * Verdichten jede Vorstellung sieht, wird jeweils erst eingetragen und
+     * dann entfernt.
+     */
+    private final class Wiederanbindung implements Kino.Anbindung
+    {
+        @Override
+        public void binde(Vorstellung vorstellung)
+        {
+            synchronized (Verkaufsjournal.this)
+            {
+                Platzbelegung belegung = vorstellung.getBelegung();
+                String schluessel = vorstellung.getSchluessel();
+                Integer nummer = _nummern.get(schluessel);
+                if (nummer == null)
+                {
+                    _ohneNummer.put(belegung, vorstellung);
+                    belegung.setJournal(Verkaufsjournal.this, -1);
+                }
+                else
+                {
+                    long[] stand = _ungeladen.get(nummer);
+                    if (stand != null)
+                    {
+                        // Noch ohne Journal, damit nichts doppelt angehängt
+                        // wird.
+                        stand = Arrays.copyOf(stand,
+                                belegung.getAnzahlWoerter());
+                        if (_speicher == null
+                                || !_speicher.istWiederhergestellt(schluessel))
+                        {
+                            belegung.wechsleAlleDirekt(sitzeImZustand(stand,
+                                    Platzbelegung.VERKAUFT),
+                                    Platzbelegung.FREI, Platzbelegung.VERKAUFT);
+                        }
+                        belegung.wechsleAlleDirekt(sitzeImZustand(stand,
+                                Platzbelegung.BLOCKIERT), Platzbelegung.FREI,
+                                Platzbelegung.BLOCKIERT);
+                    }
+                    belegung.setJournal(Verkaufsjournal.this, nummer);
+                    _belegungen.put(nummer, belegung);
+                    _ungeladen.remove(nummer);
+                }
+            }
+        }
+
+        @Override
+        public void loese(Vorstellung vorstellung)
+        {
+            // Unter der Sperre, unter der auch gewechselt wird: Was bis
+            // hierhin verkauft ist, steht im Stand, danach schlägt jeder
+            // Wechsel über die alte Belegung fehl.
+            synchronized (Verkaufsjournal.this)
+            {
+                Platzbelegung belegung = vorstellung.getBelegung();
+                belegung.loeseJournal();
+                Integer nummer = _nummern.get(vorstellung.getSchluessel());
+                if (nummer == null)
+                {
+                    _ohneNummer.remove(belegung);
+                }
+                else
+                {
+                    long[] stand = stand(belegung);
+                    if (stand != null)
+                    {
+                        _ungeladen.put(nummer, stand);
+                    }
+                    _belegungen.remove(nummer);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,697 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Abstandsregel;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platzzustand;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class VerkaufsjournalTest
+{
+    @Rule
+    public TemporaryFolder _ordner = new TemporaryFolder();
+
+    private final Kinosaal _saal = new Kinosaal("Saal 1", 4, 40);
+    private final Film _film = new Film("Thor", 115, FSK.FSK12, false);
+    private final Datum _datum = new Datum(11, 7, 2008);
+
+    /**
+     * Erzeugt ein Kino mit zwei frischen Vorstellungen, die bei jedem Aufruf
+     * dieselben Schlüssel haben.
+     */
+    private Kino erzeugeKino()
+    {
+        Vorstellung[] vorstellungen = {
+                new Vorstellung(_saal, _film, new Uhrzeit(17, 0), new Uhrzeit(
+                        19, 0), _datum, 800),
+                new Vorstellung(_saal, _film, new Uhrzeit(20, 0), new Uhrzeit(
+                        22, 0), _datum, 800) };
+        return new Kino(new Kinosaal[] { _saal }, vorstellungen);
+    }
+
+    @Test
+    public void testeEinspielenStelltVerkaufteVorstellungenWiederHer()
+            throws IOException
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        Kino kino = erzeugeKino();
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+        Vorstellung frueh = kino.getVorstellungen().get(0);
+        Vorstellung spaet = kino.getVorstellungen().get(1);
+
+        Set<Platz> plaetze = new HashSet<>();
+        plaetze.add(new Platz(0, 5));
+        plaetze.add(new Platz(0, 35));
+        plaetze.add(new Platz(3, 39));
+        frueh.verkaufePlaetze(plaetze);
+        frueh.stornierePlaetze(Collections.singleton(new Platz(0, 35)));
+        frueh.verkaufePlatz(new Platz(1, 1));
+        Reservierung reservierung = frueh.erzeugeReservierung(60000);
+        reservierung.reserviere(Collections.singleton(new Platz(2, 2)));
+        assertTrue(reservierung.verkaufe());
+        spaet.verkaufePlatz(new Platz(2, 20));
+        spaet.storniereAlle();
+        spaet.verkaufePlatz(new Platz(1, 10));
+        journal.schliesse();
+
+        Kino neu = erzeugeKino();
+        journal = Verkaufsjournal.oeffne(datei, neu);
+        frueh = neu.getVorstellungen().get(0);
+        spaet = neu.getVorstellungen().get(1);
+        assertEquals(4, frueh.getAnzahlVerkauftePlaetze());
+        assertTrue(frueh.istPlatzVerkauft(new Platz(0, 5)));
+        assertFalse(frueh.istPlatzVerkauft(new Platz(0, 35)));
+        assertTrue(frueh.istPlatzVerkauft(new Platz(3, 39)));
+        assertTrue(frueh.istPlatzVerkauft(new Platz(1, 1)));
+        assertTrue(frueh.istPlatzVerkauft(new Platz(2, 2)));
+        assertEquals(1, spaet.getAnzahlVerkauftePlaetze());
+        assertTrue(spaet.istPlatzVerkauft(new Platz(1, 10)));
+
+        // Nach dem Einspielen wird weiter angehängt.
+        spaet.verkaufePlatz(new Platz(3, 3));
+        journal.schliesse();
+        neu = erzeugeKino();
+        Verkaufsjournal.oeffne(datei, neu).schliesse();
+        assertEquals(2, neu.getVorstellungen().get(1)
+                .getAnzahlVerkauftePlaetze());
+    }
+
+    @Test
+    public void testeBlockiertePlaetzeUeberlebenNeustart() throws IOException
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        Kino kino = erzeugeKino();
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+        Vorstellung frueh = kino.getVorstellungen().get(0);
+        Vorstellung spaet = kino.getVorstellungen().get(1);
+
+        frueh.verkaufePlatz(new Platz(0, 5));
+        Set<Platz> defekt = new HashSet<>();
+        defekt.add(new Platz(0, 5));
+        defekt.add(new Platz(1, 1));
+        kino.blockierePlaetze(_saal, Platzmaske.ausPlaetzen(defekt), _datum);
+        // Die Sperren der Abstandsregel werden nicht festgehalten, ein von
+        // Hand blockierter Platz in der Sperrzone dagegen schon.
+        spaet.setAbstandsregel(new Abstandsregel(1, 0));
+        spaet.verkaufePlatz(new Platz(2, 20));
+        spaet.blockierePlaetze(Platzmaske.ausPlaetzen(Collections
+                .singleton(new Platz(2, 21))));
+        assertEquals(Platzzustand.BLOCKIERT, spaet.getPlatzzustand(new Platz(
+                2, 19)));
+        journal.verdichte();
+        frueh.blockierePlaetze(Platzmaske.ausPlaetzen(Collections
+                .singleton(new Platz(3, 3))));
+        journal.schliesse();
+
+        Kino neu = erzeugeKino();
+        Verkaufsjournal.oeffne(datei, neu).schliesse();
+        frueh = neu.getVorstellungen().get(0);
+        spaet = neu.getVorstellungen().get(1);
+        assertEquals(0, frueh.getAnzahlVerkauftePlaetze());
+        assertEquals(Platzzustand.BLOCKIERT, frueh.getPlatzzustand(new Platz(
+                0, 5)));
+        assertEquals(Platzzustand.BLOCKIERT, frueh.getPlatzzustand(new Platz(
+                1, 1)));
+        assertEquals(Platzzustand.BLOCKIERT, frueh.getPlatzzustand(new Platz(
+                3, 3)));
+        assertEquals(Platzzustand.BLOCKIERT, spaet.getPlatzzustand(new Platz(
+                1, 1)));
+        assertTrue(spaet.istPlatzVerkauft(new Platz(2, 20)));
+        assertEquals(Platzzustand.BLOCKIERT, spaet.getPlatzzustand(new Platz(
+                2, 21)));
+        assertEquals(Platzzustand.FREI, spaet.getPlatzzustand(new Platz(2,
+                19)));
+    }
+
+    @Test
+    public void testeBlockierenVerdraengtTageUndBehaeltBlockierungen()
+            throws IOException
+    {
+        Path programm = _ordner.getRoot().toPath().resolve("programm.kino");
+        Vorstellung[] vorstellungen = new Vorstellung[3];
+        for (int tag = 0; tag < vorstellungen.length; tag++)
+        {
+            vorstellungen[tag] = new Vorstellung(_saal, _film, new Uhrzeit(
+                    20, 0), new Uhrzeit(22, 0), _datum.plus(tag), 800);
+        }
+        Programmdatei.schreibe(programm, new Kino(new Kinosaal[] { _saal },
+                vorstellungen));
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        List<Datum> geladen = new ArrayList<>();
+        Kino kino = new Kino(zaehle(Programmdatei.oeffne(programm), geladen),
+                0, 0);
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+
+        kino.blockierePlaetze(_saal, Platzmaske.ausPlaetzen(Collections
+                .singleton(new Platz(0, 1))), _datum);
+        // Jeder Tag wurde verdrängt, nachdem er blockiert war, und kommt mit
+        // seiner Blockierung aus dem Journal zurück.
+        for (int tag = 0; tag < vorstellungen.length; tag++)
+        {
+            geladen.clear();
+            Vorstellung vorstellung = kino.getTagesplan(_datum.plus(tag))
+                    .getVorstellungen().get(0);
+            assertEquals(Collections.singletonList(_datum.plus(tag)), geladen);
+            assertEquals(Platzzustand.BLOCKIERT, vorstellung
+                    .getPlatzzustand(new Platz(0, 1)));
+        }
+        journal.schliesse();
+    }
+
+    @Test
+    public void testeUnvollstaendigerEintragWirdAbgeschnitten()
+            throws IOException
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        Kino kino = erzeugeKino();
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+        kino.getVorstellungen().get(0).verkaufePlatz(new Platz(0, 0));
+        journal.schliesse();
+        long laenge = Files.size(datei);
+
+        // Ein Eintrag, dessen Inhalt beim Absturz nicht mehr geschrieben wurde.
+        Files.write(datei, new byte[] { 0, 0, 0, 20, 1, 2, 3, 4, 2, 0 },
+                StandardOpenOption.APPEND);
+        kino = erzeugeKino();
+        journal = Verkaufsjournal.oeffne(datei, kino);
+        assertEquals(laenge, Files.size(datei));
+        assertEquals(1, kino.getVorstellungen().get(0)
+                .getAnzahlVerkauftePlaetze());
+        kino.getVorstellungen().get(0).verkaufePlatz(new Platz(0, 1));
+        journal.schliesse();
+
+        kino = erzeugeKino();
+        Verkaufsjournal.oeffne(datei, kino).schliesse();
+        assertEquals(Platzzustand.VERKAUFT, kino.getVorstellungen().get(0)
+                .getPlatzzustand(0, 1));
+    }
+
+    @Test
+    public void testeGleichzeitigeKassenTeilenSynchronisierungen()
+            throws Exception
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        Kino kino = erzeugeKino();
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+        Vorstellung vorstellung = kino.getVorstellungen().get(0);
+        long vorher = journal.getAnzahlSynchronisierungen();
+
+        List<Thread> kassen = new ArrayList<>();
+        for (int reihe = 0; reihe < _saal.getAnzahlReihen(); reihe++)
+        {
+            int r = reihe;
+            kassen.add(new Thread(() -> {
+                for (int sitz = 0; sitz < _saal.getAnzahlSitzeProReihe(); sitz++)
+                {
+                    vorstellung.verkaufePlatz(new Platz(r, sitz));
+                }
+            }));
+        }
+        for (Thread kasse : kassen)
+        {
+            kasse.start();
+        }
+        for (Thread kasse : kassen)
+        {
+            kasse.join();
+        }
+        journal.schliesse();
+        assertTrue(journal.getAnzahlSynchronisierungen() - vorher <= 160);
+
+        kino = erzeugeKino();
+        Verkaufsjournal.oeffne(datei, kino).schliesse();
+        assertEquals(160, kino.getVorstellungen().get(0)
+                .getAnzahlVerkauftePlaetze());
+    }
+
+    @Test
+    public void testeFehlgeschlagenesSchreibenAendertNichts()
+            throws IOException
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        Kino kino = erzeugeKino();
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+        Vorstellung frueh = kino.getVorstellungen().get(0);
+        Vorstellung spaet = kino.getVorstellungen().get(1);
+        frueh.verkaufePlatz(new Platz(0, 0));
+        spaet.verkaufePlatz(new Platz(0, 0));
+        Reservierung reservierung = frueh.erzeugeReservierung(60000);
+        reservierung.reserviere(Collections.singleton(new Platz(1, 1)));
+        // Danach schlägt jeder Schreibvorgang fehl.
+        journal.schliesse();
+
+        // Der erste Verkauf wird nach dem Fehlschlag zurückgenommen, alle
+        // weiteren Wechsel werden vorher abgelehnt.
+        Set<Platz> plaetze = new HashSet<>();
+        plaetze.add(new Platz(0, 1));
+        plaetze.add(new Platz(2, 30));
+        pruefeAbgelehnt(() -> frueh.verkaufePlaetze(plaetze));
+        pruefeAbgelehnt(() -> frueh.verkaufePlatz(new Platz(0, 1)));
+        pruefeAbgelehnt(() -> frueh.stornierePlatz(new Platz(0, 0)));
+        pruefeAbgelehnt(() -> frueh.storniereAlle());
+        pruefeAbgelehnt(() -> reservierung.verkaufe());
+        assertEquals(1, frueh.getAnzahlVerkauftePlaetze());
+        assertTrue(frueh.istPlatzVerkauft(new Platz(0, 0)));
+        assertEquals(Platzzustand.FREI, frueh.getPlatzzustand(2, 30));
+        assertTrue(reservierung.istOffen());
+        assertTrue(frueh.istPlatzReserviert(new Platz(1, 1)));
+        assertEquals(1, frueh.getBelegungsstand().getAnzahlPlaetze(
+                Platzzustand.VERKAUFT));
+
+        // Auch ein Wechsel über alle Sitze wird zurückgenommen, wenn erst das
+        // Warten auf das Schreiben fehlschlägt.
+        kino = erzeugeKino();
+        journal = Verkaufsjournal.oeffne(datei, kino);
+        Vorstellung neu = kino.getVorstellungen().get(1);
+        assertEquals(1, neu.getAnzahlVerkauftePlaetze());
+        journal.schliesse();
+        pruefeAbgelehnt(() -> neu.storniereAlle());
+        assertTrue(neu.istPlatzVerkauft(new Platz(0, 0)));
+    }
+
+    /**
+     * Prüft, dass ein Wechsel scheitert, weil das Journal nicht schreiben
+     * kann.
+     */
+    private static void pruefeAbgelehnt(Runnable wechsel)
+    {
+        try
+        {
+            wechsel.run();
+            fail("Wechsel ohne Journal wurde angenommen");
+        }
+        catch (UncheckedIOException e)
+        {
+            // erwartet
+        }
+    }
+
+    @Test
+    public void testeVerdichtenKuerztJournalUndBehaeltVerkaeufe()
+            throws IOException
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        Kino kino = erzeugeKino();
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+        Vorstellung frueh = kino.getVorstellungen().get(0);
+        for (int i = 0; i < 50; i++)
+        {
+            frueh.verkaufePlatz(new Platz(1, 1));
+            frueh.stornierePlatz(new Platz(1, 1));
+        }
+        frueh.verkaufePlatz(new Platz(0, 5));
+        frueh.verkaufePlatz(new Platz(3, 39));
+        long vorher = Files.size(datei);
+        journal.verdichte();
+        assertTrue(Files.size(datei) < vorher / 10);
+
+        // Nach dem Verdichten wird an die neue Datei angehängt.
+        frueh.stornierePlatz(new Platz(0, 5));
+        kino.getVorstellungen().get(1).verkaufePlatz(new Platz(2, 2));
+        journal.schliesse();
+
+        kino = erzeugeKino();
+        journal = Verkaufsjournal.oeffne(datei, kino);
+        frueh = kino.getVorstellungen().get(0);
+        assertEquals(1, frueh.getAnzahlVerkauftePlaetze());
+        assertTrue(frueh.istPlatzVerkauft(new Platz(3, 39)));
+        assertTrue(kino.getVorstellungen().get(1).istPlatzVerkauft(
+                new Platz(2, 2)));
+        journal.schliesse();
+    }
+
+    @Test
+    public void testeVerdichtenLaesstVergangeneVorstellungenWeg()
+            throws IOException
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        Kino kino = erzeugeKino();
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+        kino.getVorstellungen().get(0).verkaufePlatz(new Platz(0, 0));
+        kino.getVorstellungen().get(1).verkaufePlatz(new Platz(0, 1));
+        journal.schliesse();
+
+        // Die frühe Vorstellung ist vorbei, dafür gibt es eine neue.
+        Vorstellung spaet = new Vorstellung(_saal, _film, new Uhrzeit(20, 0),
+                new Uhrzeit(22, 0), _datum, 800);
+        Vorstellung neu = new Vorstellung(_saal, _film, new Uhrzeit(22, 0),
+                new Uhrzeit(23, 50), _datum, 800);
+        kino = new Kino(new Kinosaal[] { _saal }, new Vorstellung[] { spaet,
+                neu });
+        journal = Verkaufsjournal.oeffne(datei, kino);
+        journal.verdichte();
+        neu.verkaufePlatz(new Platz(0, 2));
+        journal.schliesse();
+
+        Vorstellung neuNeu = new Vorstellung(_saal, _film,
+                new Uhrzeit(22, 0), new Uhrzeit(23, 50), _datum, 800);
+        Vorstellung weitere = new Vorstellung(_saal, _film,
+                new Uhrzeit(23, 50), new Uhrzeit(23, 55), _datum, 800);
+        kino = new Kino(new Kinosaal[] { _saal }, new Vorstellung[] {
+                neuNeu, weitere });
+        journal = Verkaufsjournal.oeffne(datei, kino);
+        weitere.verkaufePlatz(new Platz(3, 3));
+        journal.schliesse();
+
+        kino = new Kino(new Kinosaal[] { _saal }, new Vorstellung[] {
+                new Vorstellung(_saal, _film, new Uhrzeit(22, 0), new Uhrzeit(
+                        23, 50), _datum, 800),
+                new Vorstellung(_saal, _film, new Uhrzeit(23, 50), new Uhrzeit(
+                        23, 55), _datum, 800) });
+        Verkaufsjournal.oeffne(datei, kino).schliesse();
+        Vorstellung wieder = kino.getVorstellungen().get(0);
+        assertEquals(1, wieder.getAnzahlVerkauftePlaetze());
+        assertTrue(wieder.istPlatzVerkauft(new Platz(0, 2)));
+        wieder = kino.getVorstellungen().get(1);
+        assertEquals(1, wieder.getAnzahlVerkauftePlaetze());
+        assertTrue(wieder.istPlatzVerkauft(new Platz(3, 3)));
+    }
+
+    @Test
+    public void testeVerdichtenWaehrendKassenVerkaufen() throws Exception
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        Kino kino = erzeugeKino();
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+        Vorstellung vorstellung = kino.getVorstellungen().get(0);
+
+        List<Thread> kassen = new ArrayList<>();
+        for (int reihe = 0; reihe < _saal.getAnzahlReihen(); reihe++)
+        {
+            int r = reihe;
+            kassen.add(new Thread(() -> {
+                for (int sitz = 0; sitz < _saal.getAnzahlSitzeProReihe(); sitz++)
+                {
+                    vorstellung.verkaufePlatz(new Platz(r, sitz));
+                    if (sitz % 2 == 1)
+                    {
+                        vorstellung.stornierePlatz(new Platz(r, sitz));
+                    }
+                }
+            }));
+        }
+        for (Thread kasse : kassen)
+        {
+            kasse.start();
+        }
+        for (int i = 0; i < 5; i++)
+        {
+            journal.verdichte();
+        }
+        for (Thread kasse : kassen)
+        {
+            kasse.join();
+        }
+        journal.schliesse();
+
+        kino = erzeugeKino();
+        Verkaufsjournal.oeffne(datei, kino).schliesse();
+        Vorstellung wieder = kino.getVorstellungen().get(0);
+        assertEquals(80, wieder.getAnzahlVerkauftePlaetze());
+        assertTrue(wieder.istPlatzVerkauft(new Platz(2, 38)));
+        assertFalse(wieder.istPlatzVerkauft(new Platz(2, 39)));
+    }
+
+    @Test
+    public void testeStandWartetNichtAufDasJournal() throws Exception
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        Kino kino = erzeugeKino();
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+        Vorstellung vorstellung = kino.getVorstellungen().get(0);
+
+        Thread kasse = new Thread(() -> vorstellung.verkaufePlatz(new Platz(
+                0, 1)));
+        Thread anzeige = new Thread(() -> vorstellung.getBelegungsstand());
+        boolean wartet;
+        synchronized (journal)
+        {
+            kasse.start();
+            while (kasse.getState() != Thread.State.BLOCKED)
+            {
+                Thread.sleep(1);
+            }
+            anzeige.start();
+            anzeige.join(5000);
+            wartet = anzeige.isAlive();
+        }
+        kasse.join();
+        anzeige.join();
+        assertFalse(wartet);
+        assertTrue(vorstellung.istPlatzVerkauft(new Platz(0, 1)));
+        journal.schliesse();
+    }
+
+    @Test
+    public void testeVerdraengteTageBehaltenIhreVerkaeufe() throws IOException
+    {
+        Path programm = _ordner.getRoot().toPath().resolve("programm.kino");
+        Vorstellung[] vorstellungen = new Vorstellung[3];
+        for (int tag = 0; tag < vorstellungen.length; tag++)
+        {
+            vorstellungen[tag] = new Vorstellung(_saal, _film, new Uhrzeit(
+                    20, 0), new Uhrzeit(22, 0), _datum.plus(tag), 800);
+        }
+        Programmdatei.schreibe(programm, new Kino(new Kinosaal[] { _saal },
+                vorstellungen));
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        Kino kino = new Kino(Programmdatei.oeffne(programm), 0, 0);
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+
+        Vorstellung erste = kino.getTagesplan(_datum).getVorstellungen()
+                .get(0);
+        erste.verkaufePlatz(new Platz(0, 1));
+        kino.getTagesplan(_datum.plus(1));
+        kino.getTagesplan(_datum.plus(2));
+        // Das Abbild enthält auch die Verkäufe verdrängter Tage.
+        journal.verdichte();
+
+        Vorstellung neu = kino.getTagesplan(_datum).getVorstellungen().get(0);
+        assertNotSame(erste, neu);
+        assertTrue(neu.istPlatzVerkauft(new Platz(0, 1)));
+        neu.verkaufePlatz(new Platz(0, 2));
+        journal.schliesse();
+
+        Kino wieder = Programmdatei.lade(programm);
+        Verkaufsjournal.oeffne(datei, wieder).schliesse();
+        Vorstellung eingespielt = wieder.getTagesplan(_datum)
+                .getVorstellungen().get(0);
+        assertEquals(2, eingespielt.getAnzahlVerkauftePlaetze());
+        assertTrue(eingespielt.istPlatzVerkauft(new Platz(0, 2)));
+    }
+
+    @Test
+    public void testeVerkaufUeberVerdraengteVorstellungSchlaegtFehl()
+            throws IOException
+    {
+        Path programm = _ordner.getRoot().toPath().resolve("programm.kino");
+        Programmdatei.schreibe(programm, new Kino(new Kinosaal[] { _saal },
+                new Vorstellung[] {
+                        new Vorstellung(_saal, _film, new Uhrzeit(20, 0),
+                                new Uhrzeit(22, 0), _datum, 800),
+                        new Vorstellung(_saal, _film, new Uhrzeit(20, 0),
+                                new Uhrzeit(22, 0), _datum.plus(1), 800) }));
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        Kino kino = new Kino(Programmdatei.oeffne(programm), 0, 0);
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino);
+
+        Vorstellung alt = kino.getTagesplan(_datum).getVorstellungen().get(0);
+        alt.verkaufePlatz(new Platz(0, 1));
+        kino.getTagesplan(_datum.plus(1));
+        try
+        {
+            alt.verkaufePlatz(new Platz(0, 2));
+            fail("Verkauf über eine verdrängte Vorstellung wurde angenommen");
+        }
+        catch (IllegalStateException e)
+        {
+            assertFalse(alt.istPlatzVerkauft(new Platz(0, 2)));
+        }
+
+        Vorstellung neu = kino.getTagesplan(_datum).getVorstellungen().get(0);
+        assertEquals(1, neu.getAnzahlVerkauftePlaetze());
+        neu.verkaufePlatz(new Platz(0, 2));
+        journal.schliesse();
+
+        Kino wieder = Programmdatei.lade(programm);
+        Verkaufsjournal.oeffne(datei, wieder).schliesse();
+        assertEquals(2, wieder.getTagesplan(_datum).getVorstellungen().get(0)
+                .getAnzahlVerkauftePlaetze());
+    }
+
+    @Test
+    public void testeVerkaeufeNachVerlegungWerdenFestgehalten()
+            throws IOException
+    {
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        Kinosaal gross = new Kinosaal("Saal 2", 6, 40);
+        Vorstellung vorstellung = new Vorstellung(_saal, _film, new Uhrzeit(
+                20, 0), new Uhrzeit(22, 0), _datum, 800);
+        Kino kino = new Kino(new Kinosaal[] { _saal, gross },
+                new Vorstellung[] { vorstellung });
+        Belegungsspeicher speicher = Belegungsspeicher.oeffne(_ordner
+                .getRoot().toPath().resolve("belegung.speicher"), kino);
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino,
+                speicher);
+        vorstellung.verkaufePlatz(new Platz(0, 1));
+        Verlegung verlegung = kino.verlegeVorstellung(vorstellung, gross);
+        Platz verlegt = verlegung.getZuordnung().get(new Platz(0, 1));
+        assertTrue(vorstellung.verkaufePlatz(new Platz(5, 39)));
+        journal.schliesse();
+        speicher.schliesse();
+
+        // Nach dem Neustart läuft die Vorstellung im neuen Saal.
+        Vorstellung wieder = new Vorstellung(gross, _film,
+                new Uhrzeit(20, 0), new Uhrzeit(22, 0), _datum, 800);
+        Verkaufsjournal.oeffne(datei, new Kino(new Kinosaal[] { _saal,
+                gross }, new Vorstellung[] { wieder })).schliesse();
+        assertEquals(2, wieder.getAnzahlVerkauftePlaetze());
+        assertTrue(wieder.istPlatzVerkauft(verlegt));
+        assertTrue(wieder.istPlatzVerkauft(new Platz(5, 39)));
+    }
+
+    @Test
+    public void testeOffeneReservierungVerhindertVerdraengen()
+            throws IOException
+    {
+        Path programm = _ordner.getRoot().toPath().resolve("programm.kino");
+        Programmdatei.schreibe(programm, new Kino(new Kinosaal[] { _saal },
+                new Vorstellung[] {
+                        new Vorstellung(_saal, _film, new Uhrzeit(20, 0),
+                                new Uhrzeit(22, 0), _datum, 800),
+                        new Vorstellung(_saal, _film, new Uhrzeit(20, 0),
+                                new Uhrzeit(22, 0), _datum.plus(1), 800) }));
+        Kino kino = new Kino(Programmdatei.oeffne(programm), 0, 0);
+        Belegungsspeicher speicher = Belegungsspeicher.oeffne(_ordner
+                .getRoot().toPath().resolve("belegung.speicher"), kino);
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(_ordner.getRoot()
+                .toPath().resolve("verkauf.journal"), kino);
+
+        // Auch eine Belegung im Speicher bleibt geladen, solange an einer
+        // Kasse reserviert wird.
+        Vorstellung vorstellung = kino.getTagesplan(_datum).getVorstellungen()
+                .get(0);
+        Reservierung reservierung = vorstellung.erzeugeReservierung(60000);
+        kino.getTagesplan(_datum.plus(1));
+        assertSame(vorstellung, kino.getTagesplan(_datum).getVorstellungen()
+                .get(0));
+        reservierung.reserviere(Collections.singleton(new Platz(0, 1)));
+        kino.getTagesplan(_datum.plus(1));
+        assertTrue(reservierung.verkaufe());
+        assertTrue(vorstellung.istPlatzVerkauft(new Platz(0, 1)));
+
+        // Nach dem Verkauf darf der Tag wieder verdrängt werden.
+        kino.getTagesplan(_datum.plus(1));
+        assertNotSame(vorstellung, kino.getTagesplan(_datum)
+                .getVorstellungen().get(0));
+        journal.schliesse();
+        speicher.schliesse();
+    }
+
+    @Test
+    public void testeOeffnenLaedtTageNacheinander() throws IOException
+    {
+        Path programm = _ordner.getRoot().toPath().resolve("programm.kino");
+        Vorstellung[] vorstellungen = new Vorstellung[3];
+        for (int tag = 0; tag < vorstellungen.length; tag++)
+        {
+            vorstellungen[tag] = new Vorstellung(_saal, _film, new Uhrzeit(
+                    20, 0), new Uhrzeit(22, 0), _datum.plus(tag), 800);
+        }
+        Programmdatei.schreibe(programm, new Kino(new Kinosaal[] { _saal },
+                vorstellungen));
+        Path belegungen = _ordner.getRoot().toPath().resolve("belegung.slots");
+        Path datei = _ordner.getRoot().toPath().resolve("verkauf.journal");
+        List<Datum> geladen = new ArrayList<>();
+
+        Kino kino = new Kino(zaehle(Programmdatei.oeffne(programm), geladen),
+                0, 0);
+        Belegungsspeicher speicher = Belegungsspeicher.oeffne(belegungen,
+                kino);
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(datei, kino,
+                speicher);
+        // Vorstellungen ohne Verkauf werden nicht eingetragen.
+        assertEquals(0, Files.size(datei));
+        kino.getTagesplan(_datum).getVorstellungen().get(0).verkaufePlatz(
+                new Platz(0, 1));
+        journal.schliesse();
+        speicher.schliesse();
+
+        geladen.clear();
+        kino = new Kino(zaehle(Programmdatei.oeffne(programm), geladen), 0, 0);
+        speicher = Belegungsspeicher.oeffne(belegungen, kino);
+        journal = Verkaufsjournal.oeffne(datei, kino, speicher);
+        assertEquals(6, geladen.size());
+
+        // Der erste Tag wurde beim Öffnen wieder verdrängt.
+        geladen.clear();
+        Vorstellung erste = kino.getTagesplan(_datum).getVorstellungen()
+                .get(0);
+        assertEquals(Collections.singletonList(_datum), geladen);
+        assertTrue(erste.istPlatzVerkauft(new Platz(0, 1)));
+        kino.getTagesplan(_datum.plus(1)).getVorstellungen().get(0)
+                .verkaufePlatz(new Platz(1, 1));
+        journal.schliesse();
+        speicher.schliesse();
+
+        Kino wieder = Programmdatei.lade(programm);
+        Verkaufsjournal.oeffne(datei, wieder).schliesse();
+        assertTrue(wieder.getTagesplan(_datum).getVorstellungen().get(0)
+                .istPlatzVerkauft(new Platz(0, 1)));
+        assertTrue(wieder.getTagesplan(_datum.plus(1)).getVorstellungen()
+                .get(0).istPlatzVerkauft(new Platz(1, 1)));
+    }
+
+    /**
+     * Gibt einen Tagesspeicher zurück, der jeden geladenen Tag in der Liste
+     * vermerkt.
+     */
+    private static Tagesspeicher zaehle(Tagesspeicher speicher,
+            List<Datum> geladen)
+    {
+        return new Tagesspeicher()
+        {
+            @Override
+            public List<Kinosaal> getKinosaele()
+            {
+                return speicher.getKinosaele();
+            }
+
+            @Override
+            public List<Datum> getTage()
+            {
+                return speicher.getTage();
+            }
+
+            @Override
+            public List<Vorstellung> lade(Datum tag) throws IOException
+            {
+                geladen.add(tag);
+                return speicher.lade(tag);
+            }
+        };
+    }
+}
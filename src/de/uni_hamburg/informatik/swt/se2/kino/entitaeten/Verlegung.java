@@ -0,0 +1,223 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+
+/**
+ * Das Ergebnis der Verlegung einer Vorstellung in einen anderen Kinosaal. Eine
+ * Verlegung ordnet jedem verkauften Platz im alten Saal den Platz im neuen
+ * Saal zu und nennt die verkauften Plätze, für die kein Platz gefunden wurde.
+ * Diese Plätze sind storniert und müssen erstattet werden.
+ *
+ * Nebeneinanderliegende verkaufte Plätze gelten als Gruppe und werden
+ * gemeinsam verlegt, so dass sie auch im neuen Saal nebeneinander liegen. Jede
+ * Gruppe kommt möglichst in die Reihe, die im neuen Saal an derselben relativen
+ * Position liegt, und dort möglichst an dieselbe Stelle relativ zur
+ * Reihenmitte. Passt sie dort nicht hin, wird in den Nachbarreihen mit
+ * wachsendem Abstand gesucht. Große Gruppen werden zuerst verlegt, weil sie am
+ * schwersten unterzubringen sind.
+ *
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public final class Verlegung
+{
+    private final Kinosaal _alterSaal;
+    private final Kinosaal _neuerSaal;
+    private final Map<Platz, Platz> _zuordnung;
+    private final Set<Platz> _nichtVerlegt;
+
+    /**
+     * Erzeugt eine Verlegung.
+     */
+    private Verlegung(Kinosaal alterSaal, Kinosaal neuerSaal,
+            Map<Platz, Platz> zuordnung, Set<Platz> nichtVerlegt)
+    {
+        _alterSaal = alterSaal;
+        _neuerSaal = neuerSaal;
+        _zuordnung = Collections.unmodifiableMap(zuordnung);
+        _nichtVerlegt = Collections.unmodifiableSet(nichtVerlegt);
+    }
+
+    /**
+     * Verlegt die verkauften Plätze der alten Belegung in die neue Belegung
+     * und gibt das Ergebnis zurück. Die alte Belegung wird nicht verändert,
+     * die neue darf noch von niemandem sonst benutzt werden.
+     *
+     * @param alterSaal der alte Kinosaal.
+     * @param alt die Belegung im alten Kinosaal.
+     * @param neuerSaal der neue Kinosaal.
+     * @param neu die leere Belegung im neuen Kinosaal.
+     *
+     * @ensure result != null
+     */
+    static Verlegung verlege(Kinosaal alterSaal, Platzbelegung alt,
+            Kinosaal neuerSaal, Platzbelegung neu)
+    {
+        List<int[]> gruppen = sucheGruppen(alt, alterSaal.getAnzahlReihen());
+        gruppen.sort((g1, g2) -> Integer.compare(g2[2], g1[2]));
+
+        Map<Platz, Platz> zuordnung = new HashMap<>();
+        Set<Platz> nichtVerlegt = new HashSet<>();
+        int alteReihen = alterSaal.getAnzahlReihen();
+        int neueReihen = neuerSaal.getAnzahlReihen();
+        double versatz = (neuerSaal.getAnzahlSitzeProReihe() - alterSaal
+                .getAnzahlSitzeProReihe()) / 2.0;
+        for (int[] gruppe : gruppen)
+        {
+            int reihe = gruppe[0];
+            int anfang = gruppe[1];
+            int laenge = gruppe[2];
+            int bevorzugteReihe = (alteReihen > 1) ? (int) Math.round(reihe
+                    * (neueReihen - 1) / (double) (alteReihen - 1)) : 0;
+            int[] ziel = platziere(neu, neueReihen, bevorzugteReihe, anfang
+                    + versatz, laenge);
+            for (int i = 0; i < laenge; i++)
+            {
+                Platz platz = new Platz(reihe, anfang + i);
+                if (ziel != null)
+                {
+                    zuordnung.put(platz, new Platz(ziel[0], ziel[1] + i));
+                }
+                else
+                {
+                    nichtVerlegt.add(platz);
+                }
+            }
+        }
+        return new Verlegung(alterSaal, neuerSaal, zuordnung, nichtVerlegt);
+    }
+
+    /**
+     * Sucht alle Folgen nebeneinanderliegender verkaufter Sitze. Jede Gruppe
+     * wird als Reihe, erster Sitz und Länge zurückgegeben.
+     */
+    private static List<int[]> sucheGruppen(Platzbelegung belegung,
+            int anzahlReihen)
+    {
+        List<int[]> gruppen = new ArrayList<>();
+        for (int reihe = 0; reihe < anzahlReihen; reihe++)
+        {
+            long[] verkauft = belegung.sitzeDerReiheImZustand(reihe,
+                    Platzbelegung.VERKAUFT);
+            int anfang = Reihenmasken.naechsterGesetzter(verkauft, 0);
+            while (anfang >= 0)
+            {
+                int ende = Reihenmasken.naechsterNichtGesetzter(verkauft,
+                        anfang);
+                gruppen.add(new int[] { reihe, anfang, ende - anfang });
+                anfang = Reihenmasken.naechsterGesetzter(verkauft, ende);
+            }
+        }
+        return gruppen;
+    }
+
+    /**
+     * Verkauft in der neuen Belegung einen Block der angegebenen Länge,
+     * beginnend mit der bevorzugten Reihe und dann mit wachsendem Abstand zu
+     * ihr. Innerhalb einer Reihe wird der freie Block gewählt, der am
+     * nächsten an der bevorzugten Position anfängt.
+     *
+     * @return Reihe und ersten Sitz des Blocks oder <code>null</code>, falls
+     *         in keiner Reihe ein Block frei ist.
+     */
+    private static int[] platziere(Platzbelegung neu, int anzahlReihen,
+            int bevorzugteReihe, double position, int laenge)
+    {
+        int[] result = null;
+        for (int abstand = 0; result == null
+                && abstand < anzahlReihen; abstand++)
+        {
+            for (int richtung = -1; result == null && richtung <= 1; richtung += 2)
+            {
+                int reihe = bevorzugteReihe + richtung * abstand;
+                boolean doppelt = abstand == 0 && richtung == 1;
+                if (!doppelt && reihe >= 0 && reihe < anzahlReihen
+                        && neu.getLaengsteFreieFolge(reihe) >= laenge)
+                {
+                    long[] anfaenge = Reihenmasken.blockanfaenge(neu
+                            .sitzeDerReiheImZustand(reihe, Platzbelegung.FREI),
+                            laenge);
+                    int sitz = Reihenmasken.naechsterSitz(anfaenge, position);
+                    if (sitz >= 0)
+                    {
+                        long[] maske = new long[neu.getAnzahlWoerter()];
+                        for (int i = sitz; i < sitz + laenge; i++)
+                        {
+                            maske[neu.wortIndex(reihe, i)] |= Platzbelegung
+                                    .bitMaske(i);
+                        }
+                        neu.wechsleZustand(maske, Platzbelegung.FREI,
+                                Platzbelegung.VERKAUFT);
+                        result = new int[] { reihe, sitz };
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gibt den Kinosaal zurück, aus dem verlegt wurde.
+     *
+     * @ensure result != null
+     */
+    public Kinosaal getAlterSaal()
+    {
+        return _alterSaal;
+    }
+
+    /**
+     * Gibt den Kinosaal zurück, in den verlegt wurde.
+     *
+     * @ensure result != null
+     */
+    public Kinosaal getNeuerSaal()
+    {
+        return _neuerSaal;
+    }
+
+    /**
+     * Gibt zu jedem verlegten Platz im alten Saal den Platz im neuen Saal
+     * zurück.
+     *
+     * @ensure result != null
+     */
+    public Map<Platz, Platz> getZuordnung()
+    {
+        return _zuordnung;
+    }
+
+    /**
+     * Gibt die verkauften Plätze im alten Saal zurück, für die im neuen Saal
+     * kein Platz gefunden wurde.
+     *
+     * @ensure result != null
+     */
+    public Set<Platz> getNichtVerlegtePlaetze()
+    {
+        return _nichtVerlegt;
+    }
+
+    /**
+     * Prüft, ob alle verkauften Plätze verlegt wurden.
+     */
+    public boolean istVollstaendig()
+    {
+        return _nichtVerlegt.isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Verlegung: " + _alterSaal + " -> " + _neuerSaal + ", verlegt="
+                + _zuordnung.size() + ", nicht verlegt=" + _nichtVerlegt.size();
+    }
+}
@@ -1,10 +1,17 @@
 package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
 
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Set;
 
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Abstandsregel;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Geldbetrag;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Lueckenregel;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platzpraeferenz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platzzustand;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
 
 /**
@@ -13,19 +20,43 @@ import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
  * und wo läuft welcher Film) und zum anderen, welche Plätze für diese
  * Vorstellung bereits verkauft wurden.
  * 
+ * Plätze einer Vorstellung dürfen von mehreren Kassen (Threads) gleichzeitig
+ * verkauft und storniert werden. Soll ein Platz verkauft werden, der
+ * inzwischen von einer anderen Kasse verkauft worden sein könnte, ist
+ * {@link #verkaufePlatzWennFrei(Platz)} zu verwenden. Zwischen Auswahl und
+ * Bezahlung kann eine Kasse Plätze mit einer {@link Reservierung} für sich
+ * zurückhalten. Blockierte Plätze, etwa Rollstuhlplätze oder ein
+ * Pressekontingent, können weder verkauft noch reserviert werden.
+ * 
  * @author SE2-Team
  * @version SoSe 2025
  */
 public class Vorstellung
 {
-    private Kinosaal _kinosaal;
+    // Kinosaal und Belegung werden bei einer Verlegung gemeinsam ersetzt.
+    private volatile Kinosaal _kinosaal;
     private Film _film;
     private Uhrzeit _anfangszeit;
     private Uhrzeit _endzeit;
     private Datum _datum;
     private Geldbetrag _preis;
-    private boolean[][] _verkauft;
-    private int _anzahlVerkauftePlaetze;
+
+    private volatile Platzbelegung _belegung;
+
+    // Wird erst erzeugt, wenn sich der erste BelegungsListener anmeldet.
+    private Aenderungsmelder _melder;
+
+    // Die Regel gegen schmale Lücken oder null, falls es keine gibt.
+    private volatile Lueckenregel _lueckenregel;
+
+    // Der aktive Abstandsmodus oder null, falls kein Abstand gilt.
+    private Abstandsmodus _abstandsmodus;
+
+    // Ob die Vorstellung in einen anderen Saal verlegt wurde.
+    private boolean _verlegt;
+
+    // Die Anzahl der Reservierungen dieser Vorstellung, die noch offen sind.
+    private int _offeneReservierungen;
 
     /**
      * Erstellt eine neue Vorstellung.
@@ -67,9 +98,7 @@ public class Vorstellung
         _endzeit = endzeit;
         _datum = datum;
         _preis = Geldbetrag.ausEurocent(preis);
-        _verkauft = new boolean[kinosaal.getAnzahlReihen()][kinosaal
-                .getAnzahlSitzeProReihe()];
-        _anzahlVerkauftePlaetze = 0;
+        _belegung = new Platzbelegung(kinosaal.getSaalplan());
     }
 
     /**
@@ -159,6 +188,21 @@ public class Vorstellung
         return _kinosaal.hatPlatz(platz);
     }
 
+    /**
+     * Prüft, ob der Sitzplatz mit der angegebenen Reihe und dem angegebenen
+     * Sitz in dieser Vorstellung vorhanden ist.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     * 
+     * @return <code>true</code>, falls der Platz existiert, <code>false</code>
+     *         sonst.
+     */
+    public boolean hatPlatz(int reihe, int sitz)
+    {
+        return _kinosaal.hatPlatz(reihe, sitz);
+    }
+
     /**
      * Prüft, ob alle angegebenen Sitzplätze in dieser Vorstellung vorhanden
      * sind.
@@ -231,49 +275,307 @@ public class Vorstellung
         assert platz != null : "Vorbedingung verletzt: platz != null";
         assert hatPlatz(platz) : "Vorbedingung verletzt: hatPlatz(platz)";
 
-        return _verkauft[platz.getReihe()][platz.getSitz()];
+        return istPlatzVerkauft(platz.getReihe(), platz.getSitz());
+    }
+
+    /**
+     * Gibt an, ob der Platz mit der angegebenen Reihe und dem angegebenen Sitz
+     * bereits verkauft ist. Erzeugt im Gegensatz zu
+     * {@link #istPlatzVerkauft(Platz)} kein Platz-Objekt.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     * 
+     * @return <code>true</code>, falls der Platz verkauft ist,
+     *         <code>false</code> sonst.
+     * 
+     * @require hatPlatz(reihe, sitz)
+     */
+    public boolean istPlatzVerkauft(int reihe, int sitz)
+    {
+        assert hatPlatz(reihe, sitz) : "Vorbedingung verletzt: hatPlatz(reihe, sitz)";
+
+        return _belegung.hatZustand(reihe, sitz, Platzbelegung.VERKAUFT);
+    }
+
+    /**
+     * Gibt an, ob ein bestimmter Platz derzeit für eine Reservierung
+     * zurückgehalten wird.
+     * 
+     * @param platz der Sitzplatz.
+     * 
+     * @return <code>true</code>, falls der Platz reserviert ist,
+     *         <code>false</code> sonst.
+     * 
+     * @require platz != null
+     * @require hatPlatz(platz)
+     */
+    public boolean istPlatzReserviert(Platz platz)
+    {
+        assert platz != null : "Vorbedingung verletzt: platz != null";
+        assert hatPlatz(platz) : "Vorbedingung verletzt: hatPlatz(platz)";
+
+        return istPlatzReserviert(platz.getReihe(), platz.getSitz());
+    }
+
+    /**
+     * Gibt an, ob der Platz mit der angegebenen Reihe und dem angegebenen Sitz
+     * derzeit für eine Reservierung zurückgehalten wird.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     * 
+     * @return <code>true</code>, falls der Platz reserviert ist,
+     *         <code>false</code> sonst.
+     * 
+     * @require hatPlatz(reihe, sitz)
+     */
+    public boolean istPlatzReserviert(int reihe, int sitz)
+    {
+        assert hatPlatz(reihe, sitz) : "Vorbedingung verletzt: hatPlatz(reihe, sitz)";
+
+        return _belegung.hatZustand(reihe, sitz, Platzbelegung.RESERVIERT);
+    }
+
+    /**
+     * Schreibt die verkauften Sitze einer Reihe als Bitmaske in das
+     * angegebene Array: Sitz s ist genau dann verkauft, wenn in
+     * <code>maske[s / 64]</code> das Bit <code>s % 64</code> gesetzt ist. Das
+     * Array wird vom Aufrufer bereitgestellt und kann für alle Reihen
+     * wiederverwendet werden.
+     * 
+     * @param reihe die Reihe.
+     * @param maske das Array, in das die Maske geschrieben wird.
+     * 
+     * @require reihe >= 0 && reihe < getKinosaal().getAnzahlReihen()
+     * @require maske != null
+     * @require maske.length >= (getKinosaal().getAnzahlSitzeProReihe() + 63) / 64
+     */
+    public void getVerkaufteSitze(int reihe, long[] maske)
+    {
+        assert reihe >= 0 && reihe < _kinosaal.getAnzahlReihen() : "Vorbedingung verletzt: reihe >= 0 && reihe < getKinosaal().getAnzahlReihen()";
+        assert maske != null : "Vorbedingung verletzt: maske != null";
+        assert maske.length >= (_kinosaal.getAnzahlSitzeProReihe() + 63) / 64 : "Vorbedingung verletzt: maske.length >= (getKinosaal().getAnzahlSitzeProReihe() + 63) / 64";
+
+        _belegung.kopiereSitzeDerReiheImZustand(reihe, Platzbelegung.VERKAUFT,
+                maske);
+    }
+
+    /**
+     * Gibt einen unveränderlichen Stand der Platzbelegung zurück. Alle
+     * Abfragen auf dem Stand sehen dieselbe, in sich konsistente Belegung,
+     * auch während an anderen Kassen verkauft wird. Solange sich die Belegung
+     * nicht ändert, wird derselbe Stand geliefert; seine Version steigt mit
+     * jeder Änderung.
+     * 
+     * @ensure result != null
+     */
+    public Belegungsstand getBelegungsstand()
+    {
+        return _belegung.getStand();
     }
 
     /**
-     * Verkauft einen Platz.
+     * Ruft den Besucher für jeden verkauften Platz auf, Reihe für Reihe. Es
+     * werden nur die gesetzten Bits der Belegung durchlaufen; Platz-Objekte
+     * werden dabei nicht erzeugt.
+     * 
+     * @param besucher der Besucher.
+     * 
+     * @require besucher != null
+     */
+    public void besucheVerkauftePlaetze(PlatzBesucher besucher)
+    {
+        assert besucher != null : "Vorbedingung verletzt: besucher != null";
+
+        _belegung.besucheSitzeImZustand(Platzbelegung.VERKAUFT, besucher);
+    }
+
+    /**
+     * Gibt den Zustand des angegebenen Platzes zurück.
      * 
      * @param platz der Sitzplatz.
      * 
      * @require platz != null
      * @require hatPlatz(platz)
+     * 
+     * @ensure result != null
+     */
+    public Platzzustand getPlatzzustand(Platz platz)
+    {
+        assert platz != null : "Vorbedingung verletzt: platz != null";
+        assert hatPlatz(platz) : "Vorbedingung verletzt: hatPlatz(platz)";
+
+        return getPlatzzustand(platz.getReihe(), platz.getSitz());
+    }
+
+    /**
+     * Gibt den Zustand des Platzes mit der angegebenen Reihe und dem
+     * angegebenen Sitz zurück.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     * 
+     * @require hatPlatz(reihe, sitz)
+     * 
+     * @ensure result != null
+     */
+    public Platzzustand getPlatzzustand(int reihe, int sitz)
+    {
+        assert hatPlatz(reihe, sitz) : "Vorbedingung verletzt: hatPlatz(reihe, sitz)";
+
+        return Platzbelegung.dekodiere(_belegung.getZustand(reihe, sitz));
+    }
+
+    /**
+     * Gibt die Anzahl der Plätze zurück, die den angegebenen Zustand haben.
+     * Gezählt wird wortweise: Aus beiden Bitebenen eines Worts werden mit
+     * wenigen Bitoperationen die Sitze des Zustands bestimmt und auf einmal
+     * gezählt.
+     * 
+     * @param zustand der Zustand.
+     * 
+     * @require zustand != null
+     */
+    public int getAnzahlPlaetze(Platzzustand zustand)
+    {
+        assert zustand != null : "Vorbedingung verletzt: zustand != null";
+
+        return _belegung.zaehle(Platzbelegung.kodiere(zustand));
+    }
+
+    /**
+     * Prüft, ob alle angegebenen Plätze den angegebenen Zustand haben.
+     * 
+     * @param plaetze die Sitzplätze.
+     * @param zustand der Zustand.
+     * 
+     * @require plaetze != null
+     * @require hatPlaetze(plaetze)
+     * @require zustand != null
+     */
+    public boolean sindImZustand(Set<Platz> plaetze, Platzzustand zustand)
+    {
+        assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
+        assert hatPlaetze(plaetze) : "Vorbedingung verletzt: hatPlaetze(plaetze)";
+        assert zustand != null : "Vorbedingung verletzt: zustand != null";
+
+        return _belegung.alleImZustand(_belegung.erzeugeMaske(plaetze),
+                Platzbelegung.kodiere(zustand));
+    }
+
+    /**
+     * Wechselt den Zustand der angegebenen Plätze nach dem
+     * Alles-oder-nichts-Prinzip, zum Beispiel von frei nach blockiert. Haben
+     * alle Plätze den Ausgangszustand, wechseln sie gemeinsam in den
+     * Zielzustand. Andernfalls wechselt keiner der Plätze, und die Plätze, die
+     * nicht im Ausgangszustand waren, werden zurückgegeben.
+     * 
+     * Reservierte Plätze gehören einer {@link Reservierung} und werden nur
+     * über sie verändert.
+     * 
+     * @param plaetze die Sitzplätze.
+     * @param von der Ausgangszustand.
+     * @param nach der Zielzustand.
+     * 
+     * @return die Plätze, die nicht im Ausgangszustand waren. Ist die Menge
+     *         leer, haben alle Plätze den Zustand gewechselt.
+     * 
+     * @require plaetze != null
+     * @require hatPlaetze(plaetze)
+     * @require von != null && von != Platzzustand.RESERVIERT
+     * @require nach != null && nach != Platzzustand.RESERVIERT
+     * 
+     * @ensure result != null
+     */
+    public Set<Platz> wechslePlatzzustand(Set<Platz> plaetze,
+            Platzzustand von, Platzzustand nach)
+    {
+        assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
+        assert hatPlaetze(plaetze) : "Vorbedingung verletzt: hatPlaetze(plaetze)";
+        assert von != null && von != Platzzustand.RESERVIERT : "Vorbedingung verletzt: von != null && von != Platzzustand.RESERVIERT";
+        assert nach != null && nach != Platzzustand.RESERVIERT : "Vorbedingung verletzt: nach != null && nach != Platzzustand.RESERVIERT";
+
+        return wechsleZustand(plaetze, Platzbelegung.kodiere(von),
+                Platzbelegung.kodiere(nach));
+    }
+
+    /**
+     * Verkauft einen Platz. Verletzt der Verkauf die Abstandsregel oder hat
+     * eine andere Kasse den Platz inzwischen belegt, wird er nicht verkauft.
+     * 
+     * @param platz der Sitzplatz.
+     * 
+     * @return <code>true</code>, falls der Platz verkauft wurde,
+     *         <code>false</code> sonst.
+     * 
+     * @require platz != null
+     * @require hatPlatz(platz)
      * @require !istPlatzVerkauft(platz)
+     * @require !istPlatzReserviert(platz)
+     * @require getPlatzzustand(platz) != Platzzustand.BLOCKIERT
      * 
-     * @ensure istPlatzVerkauft(platz)
+     * @ensure result ? istPlatzVerkauft(platz) : true
      */
-    public void verkaufePlatz(Platz platz)
+    public boolean verkaufePlatz(Platz platz)
     {
         assert platz != null : "Vorbedingung verletzt: platz != null";
         assert hatPlatz(platz) : "Vorbedingung verletzt: hatPlatz(platz)";
         assert !istPlatzVerkauft(platz) : "Vorbedingung verletzt: !istPlatzVerkauft(platz)";
+        assert !istPlatzReserviert(platz) : "Vorbedingung verletzt: !istPlatzReserviert(platz)";
+        assert getPlatzzustand(platz) != Platzzustand.BLOCKIERT : "Vorbedingung verletzt: getPlatzzustand(platz) != Platzzustand.BLOCKIERT";
+
+        return wechsleZustand(platz, Platzbelegung.FREI,
+                Platzbelegung.VERKAUFT);
+    }
+
+    /**
+     * Verkauft einen Platz, sofern er noch frei ist. Im Gegensatz zu
+     * {@link #verkaufePlatz(Platz)} darf der Platz bereits verkauft,
+     * reserviert oder blockiert sein; das Prüfen und Verkaufen geschieht in
+     * einem atomaren Schritt. Verkaufen mehrere Kassen gleichzeitig denselben
+     * Platz, ist genau ein Aufruf erfolgreich.
+     * 
+     * @param platz der Sitzplatz.
+     * 
+     * @return <code>true</code>, falls der Platz durch diesen Aufruf verkauft
+     *         wurde, <code>false</code>, falls er nicht frei war.
+     * 
+     * @require platz != null
+     * @require hatPlatz(platz)
+     */
+    public boolean verkaufePlatzWennFrei(Platz platz)
+    {
+        assert platz != null : "Vorbedingung verletzt: platz != null";
+        assert hatPlatz(platz) : "Vorbedingung verletzt: hatPlatz(platz)";
 
-        _verkauft[platz.getReihe()][platz.getSitz()] = true;
-        _anzahlVerkauftePlaetze++;
+        return wechsleZustand(platz, Platzbelegung.FREI, Platzbelegung.VERKAUFT);
     }
 
     /**
-     * Storniert einen Platz.
+     * Storniert einen Platz. Verletzt die Stornierung die Abstandsregel oder
+     * hat eine andere Kasse den Platz inzwischen storniert, wird nichts
+     * geändert.
      * 
      * @param platz der Sitzplatz.
      * 
+     * @return <code>true</code>, falls der Platz storniert wurde,
+     *         <code>false</code> sonst.
+     * 
      * @require platz != null
      * @require hatPlatz(platz)
      * @require istPlatzVerkauft(platz)
      * 
-     * @ensure !istPlatzVerkauft(platz)
+     * @ensure result ? !istPlatzVerkauft(platz) : true
      */
-    public void stornierePlatz(Platz platz)
+    public boolean stornierePlatz(Platz platz)
     {
         assert platz != null : "Vorbedingung verletzt: platz != null";
         assert hatPlatz(platz) : "Vorbedingung verletzt: hatPlatz(platz)";
         assert istPlatzVerkauft(platz) : "Vorbedingung verletzt: istPlatzVerkauft(platz)";
 
-        _verkauft[platz.getReihe()][platz.getSitz()] = false;
-        _anzahlVerkauftePlaetze--;
+        return wechsleZustand(platz, Platzbelegung.VERKAUFT,
+                Platzbelegung.FREI);
     }
 
     /**
@@ -281,33 +583,69 @@ public class Vorstellung
      */
     public int getAnzahlVerkauftePlaetze()
     {
-        return _anzahlVerkauftePlaetze;
+        return _belegung.zaehle(Platzbelegung.VERKAUFT);
     }
 
     /**
-     * Verkauft die gegebenen Plätze.
+     * Verkauft die gegebenen Plätze nach dem Alles-oder-nichts-Prinzip.
+     * Verletzt der Verkauf die Abstandsregel oder hat eine andere Kasse einen
+     * der Plätze inzwischen belegt, wird keiner der Plätze verkauft.
+     * 
+     * @return <code>true</code>, falls die Plätze verkauft wurden,
+     *         <code>false</code> sonst.
      * 
      * @require plaetze != null
      * @require hatPlaetze(plaetze)
      * @require sindVerkaufbar(plaetze)
      * 
-     * @ensure alle angegebenen Plätze sind verkauft
+     * @ensure result ? alle angegebenen Plätze sind verkauft : true
      */
-    public void verkaufePlaetze(Set<Platz> plaetze)
+    public boolean verkaufePlaetze(Set<Platz> plaetze)
     {
         assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
         assert hatPlaetze(plaetze) : "Vorbedingung verletzt: hatPlaetze(plaetze)";
         assert sindVerkaufbar(plaetze) : "Vorbedingung verletzt: sindVerkaufbar(plaetze)";
 
-        for (Platz platz : plaetze)
-        {
-            verkaufePlatz(platz);
-        }
+        return _belegung.wechsleZustand(_belegung.erzeugeMaske(plaetze),
+                Platzbelegung.FREI, Platzbelegung.VERKAUFT) == null;
+    }
+
+    /**
+     * Verkauft die gegebenen Plätze nach dem Alles-oder-nichts-Prinzip. Sind
+     * alle Plätze frei, werden sie gemeinsam verkauft. Ist mindestens einer
+     * bereits verkauft, reserviert oder blockiert, wird keiner der Plätze
+     * verkauft und die nicht freien Plätze werden zurückgegeben.
+     * 
+     * Anders als bei {@link #verkaufePlaetze(Set)} müssen die Plätze vorher
+     * nicht verkaufbar sein, so dass die Methode auch dann sicher ist, wenn
+     * andere Kassen gleichzeitig Plätze dieser Vorstellung verkaufen. Scheitert
+     * der Verkauf, können andere Kassen einzelne der Plätze für einen kurzen
+     * Moment als verkauft sehen, bevor sie wieder freigegeben werden.
+     * 
+     * @param plaetze die Sitzplätze.
+     * 
+     * @return die Plätze, die nicht frei waren. Ist die Menge leer, wurden
+     *         alle angegebenen Plätze verkauft.
+     * 
+     * @require plaetze != null
+     * @require hatPlaetze(plaetze)
+     * 
+     * @ensure result != null
+     * @ensure plaetze.containsAll(result)
+     */
+    public Set<Platz> verkaufePlaetzeWennFrei(Set<Platz> plaetze)
+    {
+        assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
+        assert hatPlaetze(plaetze) : "Vorbedingung verletzt: hatPlaetze(plaetze)";
+
+        return wechsleZustand(plaetze, Platzbelegung.FREI,
+                Platzbelegung.VERKAUFT);
     }
 
     /**
      * Prüft, ob die gegebenen Plätze alle verkauft werden können. Dafür wird
-     * geschaut, ob keiner der gegebenen Plätze bisher verkauft ist.
+     * geschaut, ob alle gegebenen Plätze frei sind, also weder verkauft,
+     * reserviert noch blockiert.
      * 
      * Liefert true, wenn alle Plätze verkaufbar sind, sonst false.
      * 
@@ -319,33 +657,32 @@ public class Vorstellung
         assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
         assert hatPlaetze(plaetze) : "Vorbedingung verletzt: hatPlaetze(plaetze)";
 
-        boolean result = true;
-        for (Platz platz : plaetze)
-        {
-            result &= !istPlatzVerkauft(platz);
-        }
-        return result;
+        return sindImZustand(plaetze, Platzzustand.FREI);
     }
 
     /**
-     * Storniert die gegebenen Plätze.
+     * Storniert die gegebenen Plätze nach dem Alles-oder-nichts-Prinzip.
+     * Verletzt die Stornierung die Abstandsregel oder hat eine andere Kasse
+     * einen der Plätze inzwischen storniert, wird keiner der Plätze
+     * storniert.
+     * 
+     * @return <code>true</code>, falls die Plätze storniert wurden,
+     *         <code>false</code> sonst.
      * 
      * @require plaetze != null
      * @require hatPlaetze(plaetze)
      * @require sindStornierbar(plaetze)
      * 
-     * @ensure alle angegebenen Plätze sind storniert
+     * @ensure result ? alle angegebenen Plätze sind storniert : true
      */
-    public void stornierePlaetze(Set<Platz> plaetze)
+    public boolean stornierePlaetze(Set<Platz> plaetze)
     {
         assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
         assert hatPlaetze(plaetze) : "Vorbedingung verletzt: hatPlaetze(plaetze)";
         assert sindStornierbar(plaetze) : "Vorbedingung verletzt: sindStornierbar(plaetze)";
 
-        for (Platz platz : plaetze)
-        {
-            stornierePlatz(platz);
-        }
+        return _belegung.wechsleZustand(_belegung.erzeugeMaske(plaetze),
+                Platzbelegung.VERKAUFT, Platzbelegung.FREI) == null;
     }
 
     /**
@@ -362,14 +699,602 @@ public class Vorstellung
         assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
         assert hatPlaetze(plaetze) : "Vorbedingung verletzt: hatPlaetze(plaetze)";
 
-        boolean result = true;
-        for (Platz platz : plaetze)
+        return _belegung.alleImZustand(_belegung.erzeugeMaske(plaetze),
+                Platzbelegung.VERKAUFT);
+    }
+
+    /**
+     * Storniert alle verkauften Plätze dieser Vorstellung in einem Durchgang,
+     * etwa wenn die Vorstellung ausfällt. Pro Belegungswort wird ein einziges
+     * compare-and-set ausgeführt. Reservierte und blockierte Plätze bleiben
+     * unverändert.
+     * 
+     * @return die stornierten Plätze, etwa für die Erstattung.
+     * 
+     * @ensure result != null
+     */
+    public Platzmaske storniereAlle()
+    {
+        return _belegung.erzeugePlatzmaske(_belegung.wechsleAlle(null,
+                Platzbelegung.VERKAUFT, Platzbelegung.FREI));
+    }
+
+    /**
+     * Blockiert alle angegebenen Plätze dieser Vorstellung mit einem
+     * Durchgang pro Belegungswort, etwa weil die Sitze defekt sind. Bereits
+     * verkaufte Plätze werden dabei storniert und zurückgegeben. Reservierte
+     * Plätze bleiben der Kasse erhalten, die sie reserviert hat. Plätze der
+     * Maske, die es in dem Kinosaal nicht gibt, werden übergangen.
+     * 
+     * @param plaetze die Plätze.
+     * 
+     * @return die Plätze, die verkauft waren und storniert wurden.
+     * 
+     * @require plaetze != null
+     * 
+     * @ensure result != null
+     */
+    public Platzmaske blockierePlaetze(Platzmaske plaetze)
+    {
+        assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
+
+        // Erst die freien Plätze, damit zwischen beiden Durchgängen keiner
+        // von ihnen mehr verkauft werden kann.
+        long[] maske = _belegung.erzeugeMaske(plaetze);
+        _belegung.wechsleAlle(maske, Platzbelegung.FREI,
+                Platzbelegung.BLOCKIERT);
+        return _belegung.erzeugePlatzmaske(_belegung.wechsleAlle(maske,
+                Platzbelegung.VERKAUFT, Platzbelegung.BLOCKIERT));
+    }
+
+    /**
+     * Verlegt diese Vorstellung in einen anderen Kinosaal. Die verkauften
+     * Plätze werden auf den neuen Saal übertragen: Nebeneinanderliegende
+     * Plätze bleiben nebeneinander und kommen möglichst in die Reihe, die im
+     * neuen Saal an derselben relativen Position liegt. Eine Gruppe, für die
+     * kein Platz gefunden wird, wird nicht aufgeteilt, sondern als nicht
+     * verlegt gemeldet, etwa für die Erstattung.
+     * 
+     * Vor dem Übertragen werden alle freien und reservierten Plätze im alten
+     * Saal blockiert, damit dort nichts mehr verkauft wird. Offene
+     * Reservierungen können danach nicht mehr verkauft werden und müssen im
+     * neuen Saal neu angelegt werden. Eine Abstandsregel gilt auch im neuen
+     * Saal, blockierte Plätze werden nicht übertragen.
+     * 
+     * Die alte Belegung wird von den Anbindungen gelöst und die neue unter
+     * dem neuen Schlüssel angebunden, bevor die übertragenen Plätze in einem
+     * Schritt verkauft werden. So hält etwa das Verkaufsjournal die
+     * Verlegung und jeden weiteren Verkauf fest.
+     * 
+     * Aufgerufen wird nur über
+     * {@link Kino#verlegeVorstellung(Vorstellung, Kinosaal)}, damit die
+     * Saalkalender des Kinos stimmen.
+     * 
+     * @param kinosaal der neue Kinosaal.
+     * @param anbindungen die Anbindungen des Kinos.
+     * 
+     * @return die Zuordnung der alten zu den neuen Plätzen.
+     * 
+     * @throws UncheckedIOException falls das Verkaufsjournal die
+     *             übertragenen Plätze nicht festhalten kann. Die Vorstellung
+     *             ist dann verlegt, aber ohne verkaufte Plätze.
+     * 
+     * @require kinosaal != null
+     * @require anbindungen != null
+     * 
+     * @ensure result != null
+     * @ensure getKinosaal() == kinosaal
+     */
+    synchronized Verlegung verlegeIn(Kinosaal kinosaal,
+            Collection<Kino.Anbindung> anbindungen)
+    {
+        assert kinosaal != null : "Vorbedingung verletzt: kinosaal != null";
+        assert anbindungen != null : "Vorbedingung verletzt: anbindungen != null";
+
+        Abstandsregel regel = getAbstandsregel();
+        setAbstandsregel(null);
+
+        Platzbelegung alt = _belegung;
+        alt.wechsleAlle(null, Platzbelegung.FREI, Platzbelegung.BLOCKIERT);
+        alt.wechsleAlle(null, Platzbelegung.RESERVIERT, Platzbelegung.BLOCKIERT);
+
+        // Verteilt wird in einer ungebundenen Belegung, damit nicht jede
+        // Gruppe einzeln festgehalten wird.
+        Platzbelegung verteilt = new Platzbelegung(kinosaal.getSaalplan());
+        Verlegung verlegung = Verlegung.verlege(_kinosaal, alt, kinosaal,
+                verteilt);
+        for (Kino.Anbindung anbindung : anbindungen)
+        {
+            anbindung.loese(this);
+        }
+        Platzbelegung neu = new Platzbelegung(kinosaal.getSaalplan());
+        _kinosaal = kinosaal;
+        _belegung = neu;
+        _verlegt = true;
+        for (Kino.Anbindung anbindung : anbindungen)
         {
-            result &= istPlatzVerkauft(platz);
+            anbindung.binde(this);
+        }
+        long[] verkauft = neu.erzeugeMaske(new HashSet<>(verlegung
+                .getZuordnung().values()));
+        if (!verlegung.getZuordnung().isEmpty())
+        {
+            neu.wechsleZustand(verkauft, Platzbelegung.FREI,
+                    Platzbelegung.VERKAUFT);
+        }
+        if (_melder != null)
+        {
+            _melder = _melder.fuer(neu);
+            neu.setMelder(_melder);
+            _melder.merke(verkauft);
+        }
+        setAbstandsregel(regel);
+        return verlegung;
+    }
+
+    /**
+     * Prüft, ob diese Vorstellung in einen anderen Saal verlegt wurde.
+     */
+    synchronized boolean istVerlegt()
+    {
+        return _verlegt;
+    }
+
+    /**
+     * Gibt die Länge der längsten Folge nebeneinanderliegender freier Plätze
+     * in der angegebenen Reihe zurück. Die Länge wird bei jedem Verkauf,
+     * jeder Stornierung und jeder Reservierung für die betroffene Reihe
+     * fortgeschrieben und hier nur gelesen.
+     * 
+     * @param reihe die Nummer der Reihe.
+     * 
+     * @require reihe >= 0 && reihe < getKinosaal().getAnzahlReihen()
+     * 
+     * @ensure result >= 0 && result <= getKinosaal().getAnzahlSitzeProReihe()
+     */
+    public int getLaengsteFreieFolge(int reihe)
+    {
+        assert reihe >= 0 && reihe < _kinosaal.getAnzahlReihen() : "Vorbedingung verletzt: reihe >= 0 && reihe < getKinosaal().getAnzahlReihen()";
+
+        return _belegung.getLaengsteFreieFolge(reihe);
+    }
+
+    /**
+     * Prüft, ob in einer Reihe mindestens die angegebene Anzahl
+     * nebeneinanderliegender Plätze frei ist, etwa für eine Schulklasse, die
+     * zusammen sitzen möchte. Dazu wird nur die längste freie Folge jeder
+     * Reihe gelesen.
+     * 
+     * @param anzahl die Größe der Gruppe.
+     * 
+     * @require anzahl > 0
+     */
+    public boolean hatFreienBlock(int anzahl)
+    {
+        assert anzahl > 0 : "Vorbedingung verletzt: anzahl > 0";
+
+        boolean result = false;
+        for (int reihe = 0; !result && reihe < _kinosaal.getAnzahlReihen(); reihe++)
+        {
+            result = _belegung.getLaengsteFreieFolge(reihe) >= anzahl;
         }
         return result;
     }
 
+    /**
+     * Sucht den besten Block von nebeneinanderliegenden freien Plätzen in
+     * einer Reihe, wobei mittlere Reihen und die Reihenmitte bevorzugt werden.
+     * 
+     * @param anzahl die Anzahl der gewünschten Plätze.
+     * 
+     * @return die Plätze des besten Blocks oder eine leere Menge, falls es in
+     *         keiner Reihe genügend nebeneinanderliegende freie Plätze gibt.
+     * 
+     * @require anzahl > 0
+     * 
+     * @ensure result != null
+     * @ensure result.isEmpty() || result.size() == anzahl
+     * @see #sucheBesteFreiePlaetze(int, Platzpraeferenz)
+     */
+    public Set<Platz> sucheBesteFreiePlaetze(int anzahl)
+    {
+        return sucheBesteFreiePlaetze(anzahl, Platzpraeferenz.MITTE);
+    }
+
+    /**
+     * Sucht den besten Block von nebeneinanderliegenden freien Plätzen in
+     * einer Reihe. Welcher Block am besten ist, bestimmt die angegebene
+     * Präferenz. Die Reihen werden von der bevorzugten Reihe aus nach außen
+     * durchsucht, bis keine Reihe mehr einen besseren Block liefern kann.
+     * Reihen, deren längste freie Folge zu kurz ist, werden übersprungen. In
+     * jeder übrigen Reihe werden die möglichen Blockanfänge mit Verschiebe- und
+     * Und-Operationen auf der Belegungsmaske der Reihe bestimmt.
+     * 
+     * Das Ergebnis kann direkt an {@link #verkaufePlaetze(Set)} oder
+     * {@link #verkaufePlaetzeWennFrei(Set)} übergeben werden.
+     * 
+     * @param anzahl die Anzahl der gewünschten Plätze.
+     * @param praeferenz die Präferenz, nach der die Blöcke bewertet werden.
+     * 
+     * @return die Plätze des besten Blocks oder eine leere Menge, falls es in
+     *         keiner Reihe genügend nebeneinanderliegende freie Plätze gibt.
+     * 
+     * @require anzahl > 0
+     * @require praeferenz != null
+     * 
+     * @ensure result != null
+     * @ensure result.isEmpty() || result.size() == anzahl
+     */
+    public Set<Platz> sucheBesteFreiePlaetze(int anzahl,
+            Platzpraeferenz praeferenz)
+    {
+        assert anzahl > 0 : "Vorbedingung verletzt: anzahl > 0";
+        assert praeferenz != null : "Vorbedingung verletzt: praeferenz != null";
+
+        int reihen = _kinosaal.getAnzahlReihen();
+        int sitze = _kinosaal.getAnzahlSitzeProReihe();
+        double bevorzugteReihe = praeferenz.getBevorzugteReihe(reihen);
+        double bevorzugterAnfang = (sitze - anzahl) / 2.0;
+
+        int besteReihe = -1;
+        int besterSitz = -1;
+        double besteBewertung = Double.MAX_VALUE;
+
+        int vorn = (int) Math.floor(bevorzugteReihe);
+        int hinten = vorn + 1;
+        boolean fertig = false;
+        while (!fertig && (vorn >= 0 || hinten < reihen))
+        {
+            int reihe;
+            if (hinten >= reihen || (vorn >= 0
+                    && bevorzugteReihe - vorn <= hinten - bevorzugteReihe))
+            {
+                reihe = vorn--;
+            }
+            else
+            {
+                reihe = hinten++;
+            }
+
+            // Die Reihen werden mit steigender Reihenbewertung besucht. Ist
+            // sie allein schon schlechter als der beste Block, kann keine
+            // weitere Reihe mehr gewinnen.
+            double reihenbewertung = praeferenz.bewerteReihe(reihe, reihen);
+            fertig = reihenbewertung >= besteBewertung;
+            if (!fertig && _belegung.getLaengsteFreieFolge(reihe) >= anzahl)
+            {
+                long[] anfaenge = Reihenmasken.blockanfaenge(_belegung
+                        .sitzeDerReiheImZustand(reihe, Platzbelegung.FREI),
+                        anzahl);
+                int sitz = Reihenmasken.naechsterSitz(anfaenge,
+                        bevorzugterAnfang);
+                if (sitz >= 0)
+                {
+                    double bewertung = reihenbewertung
+                            + praeferenz.bewerteBlock(sitz, anzahl, sitze);
+                    if (bewertung < besteBewertung)
+                    {
+                        besteBewertung = bewertung;
+                        besteReihe = reihe;
+                        besterSitz = sitz;
+                    }
+                }
+            }
+        }
+
+        Set<Platz> result = new HashSet<>();
+        for (int i = 0; besteReihe >= 0 && i < anzahl; i++)
+        {
+            result.add(new Platz(besteReihe, besterSitz + i));
+        }
+        return result;
+    }
+
+    /**
+     * Gibt die Regel gegen schmale Lücken zurück, die für diese Vorstellung
+     * gilt, oder <code>null</code>, falls es keine gibt.
+     */
+    public Lueckenregel getLueckenregel()
+    {
+        return _lueckenregel;
+    }
+
+    /**
+     * Setzt die Regel gegen schmale Lücken, die für diese Vorstellung gilt.
+     * 
+     * @param regel die Regel oder <code>null</code>, falls es keine geben
+     *            soll.
+     */
+    public void setLueckenregel(Lueckenregel regel)
+    {
+        _lueckenregel = regel;
+    }
+
+    /**
+     * Prüft die angegebene Auswahl gegen die Lückenregel dieser Vorstellung
+     * und gibt die freien Plätze zurück, die neben der Auswahl als zu schmale
+     * Lücke übrig blieben. Die Auswahl zählt dabei als belegt. Geprüft werden
+     * nur die Reihen der Auswahl, jeweils mit Verschiebe- und
+     * Und-Operationen auf der Belegungsmaske der Reihe.
+     * 
+     * @param auswahl die ausgewählten Plätze.
+     * 
+     * @return die Plätze der zu schmalen Lücken. Ist die Menge leer, oder gibt
+     *         es keine Lückenregel, verstößt die Auswahl nicht gegen die
+     *         Regel.
+     * 
+     * @require auswahl != null
+     * @require hatPlaetze(auswahl)
+     * 
+     * @ensure result != null
+     */
+    public Set<Platz> pruefeLuecken(Set<Platz> auswahl)
+    {
+        assert auswahl != null : "Vorbedingung verletzt: auswahl != null";
+        assert hatPlaetze(auswahl) : "Vorbedingung verletzt: hatPlaetze(auswahl)";
+
+        Lueckenregel regel = _lueckenregel;
+        if (regel == null || auswahl.isEmpty())
+        {
+            return new HashSet<>();
+        }
+        long[] maske = _belegung.erzeugeMaske(auswahl);
+        long[] luecken = new long[maske.length];
+        int woerterProReihe = _belegung.getWoerterProReihe();
+        long[] reihenauswahl = new long[woerterProReihe];
+        for (int reihe = 0; reihe < _kinosaal.getAnzahlReihen(); reihe++)
+        {
+            int erstes = reihe * woerterProReihe;
+            System.arraycopy(maske, erstes, reihenauswahl, 0, woerterProReihe);
+            if (!Reihenmasken.istLeer(reihenauswahl))
+            {
+                long[] frei = _belegung.sitzeDerReiheImZustand(reihe,
+                        Platzbelegung.FREI);
+                for (int i = 0; i < woerterProReihe; i++)
+                {
+                    frei[i] &= ~reihenauswahl[i];
+                }
+                System.arraycopy(Reihenmasken.schmaleLuecken(frei,
+                        reihenauswahl, regel.getMindestbreite()), 0, luecken,
+                        erstes, woerterProReihe);
+            }
+        }
+        return _belegung.erzeugePlaetze(luecken);
+    }
+
+    /**
+     * Gibt die Abstandsregel zurück, die für diese Vorstellung gilt, oder
+     * <code>null</code>, falls kein Mindestabstand gilt.
+     */
+    public synchronized Abstandsregel getAbstandsregel()
+    {
+        return _abstandsmodus != null ? _abstandsmodus.getRegel() : null;
+    }
+
+    /**
+     * Setzt die Abstandsregel, die für diese Vorstellung gilt. Mit einer
+     * Regel werden die Nachbarn aller verkauften Plätze blockiert und nach
+     * jedem Verkauf und jeder Stornierung neu berechnet. Plätze, deren Verkauf
+     * den Abstand verletzen würde, können nicht mehr verkauft werden. Ohne
+     * Regel werden alle Plätze freigegeben, die wegen des Abstands blockiert
+     * waren. Von Hand blockierte Plätze bleiben in beiden Fällen blockiert.
+     * 
+     * @param regel die Regel oder <code>null</code>, falls kein Abstand gelten
+     *            soll.
+     * 
+     * @ensure getAbstandsregel() == regel
+     */
+    public synchronized void setAbstandsregel(Abstandsregel regel)
+    {
+        if (_abstandsmodus != null)
+        {
+            _abstandsmodus.deaktiviere();
+            _abstandsmodus = null;
+        }
+        if (regel != null)
+        {
+            _abstandsmodus = new Abstandsmodus(_belegung, regel);
+            _abstandsmodus.aktiviere();
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der Plätze zurück, die noch verkauft werden können, also
+     * weder verkauft noch blockiert sind. Reservierte Plätze zählen mit. Mit
+     * Abstandsregel fehlen die Plätze, die wegen des Abstands blockiert sind;
+     * die Anzahl wird dann pro Reihe mitgeführt und nur noch summiert.
+     * 
+     * Gezählt wird, was einzeln verkauft werden könnte. Wie viele dieser
+     * Plätze zusammen verkauft werden können, ohne den Abstand zu verletzen,
+     * ist meist weniger.
+     */
+    public int getAnzahlVerkaufbarePlaetze()
+    {
+        Abstandsmodus modus;
+        synchronized (this)
+        {
+            modus = _abstandsmodus;
+        }
+        return modus != null ? modus.getAnzahlVerkaufbarePlaetze()
+                : _belegung.zaehle(Platzbelegung.FREI)
+                        + _belegung.zaehle(Platzbelegung.RESERVIERT);
+    }
+
+    /**
+     * Erzeugt eine neue, leere Reservierung für diese Vorstellung. Mit ihr
+     * kann eine Kasse Plätze zwischen Auswahl und Bezahlung für sich
+     * zurückhalten. Die Reservierung verfällt, wenn sie nicht innerhalb der
+     * angegebenen Dauer verkauft oder verlängert wird; ihre Plätze werden dann
+     * automatisch wieder frei.
+     * 
+     * @param dauerInMillis die Dauer, für die Plätze zurückgehalten werden.
+     * 
+     * @require dauerInMillis > 0
+     * 
+     * @ensure result != null
+     * @ensure result.istOffen()
+     */
+    public Reservierung erzeugeReservierung(long dauerInMillis)
+    {
+        assert dauerInMillis > 0 : "Vorbedingung verletzt: dauerInMillis > 0";
+
+        return erzeugeReservierung(dauerInMillis, Zeitrad.getStandard());
+    }
+
+    /**
+     * Erzeugt eine neue, leere Reservierung, deren Ablauf von dem angegebenen
+     * Zeitrad überwacht wird.
+     */
+    Reservierung erzeugeReservierung(long dauerInMillis, Zeitrad zeitrad)
+    {
+        Reservierung reservierung = new Reservierung(this, _belegung,
+                dauerInMillis, zeitrad);
+        zeitrad.plane(reservierung);
+        return reservierung;
+    }
+
+    /**
+     * Vermerkt, dass eine Reservierung dieser Vorstellung geöffnet oder
+     * geschlossen wurde. Solange eine Reservierung offen ist, darf die
+     * Vorstellung nicht verdrängt werden, weil die Reservierung ihre Plätze
+     * später über die jetzige Belegung verkauft.
+     * 
+     * @param offen ob die Reservierung geöffnet wurde.
+     */
+    synchronized void vermerkeReservierung(boolean offen)
+    {
+        _offeneReservierungen += offen ? 1 : -1;
+    }
+
+    /**
+     * Meldet einen Listener an, der über jede Änderung der Platzbelegung
+     * informiert wird. Die Events werden von einem eigenen Thread
+     * ausgeliefert; Änderungen, die bis dahin in derselben Reihe anfallen,
+     * werden zu einem Event zusammengefasst. Das Verkaufen wird durch die
+     * Anzahl der Listener nicht langsamer.
+     * 
+     * @param listener der Listener.
+     * 
+     * @require listener != null
+     */
+    public void addBelegungsListener(BelegungsListener listener)
+    {
+        assert listener != null : "Vorbedingung verletzt: listener != null";
+
+        addBelegungsListener(listener, Belegungsverteiler.getStandard());
+    }
+
+    /**
+     * Meldet einen Listener an, dessen Events von dem angegebenen Verteiler
+     * ausgeliefert werden. Der Verteiler des ersten Listeners gilt für alle
+     * weiteren Listener dieser Vorstellung.
+     */
+    synchronized void addBelegungsListener(BelegungsListener listener,
+            Belegungsverteiler verteiler)
+    {
+        if (_melder == null)
+        {
+            _melder = new Aenderungsmelder(this, _belegung, verteiler);
+            _belegung.setMelder(_melder);
+        }
+        _melder.addListener(listener);
+    }
+
+    /**
+     * Meldet einen Listener wieder ab.
+     * 
+     * @param listener der Listener.
+     * 
+     * @require listener != null
+     */
+    public synchronized void removeBelegungsListener(BelegungsListener listener)
+    {
+        assert listener != null : "Vorbedingung verletzt: listener != null";
+
+        if (_melder != null)
+        {
+            _melder.removeListener(listener);
+        }
+    }
+
+    /**
+     * Gibt die aktuelle Platzbelegung dieser Vorstellung zurück.
+     */
+    Platzbelegung getBelegung()
+    {
+        return _belegung;
+    }
+
+    /**
+     * Ersetzt die Platzbelegung dieser Vorstellung, etwa durch eine Belegung
+     * im {@link Belegungsspeicher}. Das ist nur möglich, solange sich kein
+     * Listener angemeldet hat und keine Abstandsregel gilt.
+     * 
+     * @require belegung != null
+     */
+    synchronized void setBelegung(Platzbelegung belegung)
+    {
+        assert belegung != null : "Vorbedingung verletzt: belegung != null";
+        assert _melder == null && _abstandsmodus == null : "Vorbedingung verletzt: kein Listener und keine Abstandsregel";
+
+        _belegung = belegung;
+    }
+
+    /**
+     * Prüft, ob diese Vorstellung verworfen und später neu geladen werden
+     * kann, ohne dass etwas verloren geht: Es hört kein Listener zu, es gilt
+     * keine Regel, sie wurde nicht verlegt, keine Reservierung ist offen und
+     * ihre Belegung ist gesichert.
+     */
+    synchronized boolean istVerdraengbar()
+    {
+        return _melder == null && _abstandsmodus == null
+                && _lueckenregel == null && !_verlegt
+                && _offeneReservierungen == 0 && _belegung.istGesichert();
+    }
+
+    /**
+     * Gibt den Schlüssel zurück, unter dem diese Vorstellung gespeichert
+     * wird: Saal, Datum und Anfangszeit. Im selben Saal beginnen nie zwei
+     * Vorstellungen zur selben Zeit.
+     */
+    String getSchluessel()
+    {
+        return schluessel(_kinosaal.getName(), _datum, _anfangszeit);
+    }
+
+    /**
+     * Gibt den Schlüssel einer Vorstellung mit den angegebenen Daten zurück.
+     */
+    static String schluessel(String saal, Datum datum, Uhrzeit anfangszeit)
+    {
+        return saal + '|' + datum.getJahr() + '-' + datum.getMonat() + '-'
+                + datum.getTag() + '|' + anfangszeit.getStunden() + ':'
+                + anfangszeit.getMinuten();
+    }
+
+    /**
+     * Wechselt den Zustand eines Platzes, sofern er im Ausgangszustand ist.
+     */
+    private boolean wechsleZustand(Platz platz, int von, int nach)
+    {
+        int sitz = platz.getSitz();
+        return _belegung.wechsleWort(_belegung.wortIndex(platz.getReihe(),
+                sitz), Platzbelegung.bitMaske(sitz), von, nach) == 0;
+    }
+
+    /**
+     * Wechselt den Zustand aller Plätze nach dem Alles-oder-nichts-Prinzip und
+     * gibt die Plätze zurück, die nicht im Ausgangszustand waren.
+     */
+    private Set<Platz> wechsleZustand(Set<Platz> plaetze, int von, int nach)
+    {
+        long[] konflikte = _belegung.wechsleZustand(
+                _belegung.erzeugeMaske(plaetze), von, nach);
+        return (konflikte == null) ? new HashSet<>() : _belegung
+                .erzeugePlaetze(konflikte);
+    }
+
     @Override
     public String toString()
     {
@@ -3,17 +3,27 @@ package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
 import org.junit.Before;
 import org.junit.Test;
 
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Abstandsregel;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Lueckenregel;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platzpraeferenz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platzzustand;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Saalplan;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -95,10 +105,10 @@ public class VorstellungTest
         Platz platz = new Platz(5, 5);
         assertFalse(v.istPlatzVerkauft(platz));
 
-        v.verkaufePlatz(platz);
+        assertTrue(v.verkaufePlatz(platz));
         assertTrue(v.istPlatzVerkauft(platz));
 
-        v.stornierePlatz(platz);
+        assertTrue(v.stornierePlatz(platz));
         assertFalse(v.istPlatzVerkauft(platz));
     }
 
@@ -117,10 +127,10 @@ public class VorstellungTest
 
         assertFalse(v.sindStornierbar(plaetze));
 
-        v.verkaufePlaetze(plaetze);
+        assertTrue(v.verkaufePlaetze(plaetze));
         assertTrue(v.sindStornierbar(plaetze));
 
-        v.stornierePlaetze(plaetze);
+        assertTrue(v.stornierePlaetze(plaetze));
         assertFalse(v.sindStornierbar(plaetze));
     }
 
@@ -205,4 +215,479 @@ public class VorstellungTest
         }
         assertEquals(30, v.getAnzahlVerkauftePlaetze());
     }
+
+    @Test
+    public void testeVerkaufenInReihenMitMehrerenWoertern()
+    {
+        Kinosaal breiterSaal = new Kinosaal("Breit", 3, 130);
+        Vorstellung v = new Vorstellung(breiterSaal, _hdR1, _16_45, _20_15,
+                _11_07_2008, 1230);
+
+        Set<Platz> plaetze = new HashSet<>();
+        plaetze.add(new Platz(0, 63));
+        plaetze.add(new Platz(0, 64));
+        plaetze.add(new Platz(1, 0));
+        plaetze.add(new Platz(2, 129));
+
+        assertTrue(v.sindVerkaufbar(plaetze));
+        v.verkaufePlaetze(plaetze);
+        assertEquals(4, v.getAnzahlVerkauftePlaetze());
+        assertTrue(v.istPlatzVerkauft(new Platz(0, 64)));
+        assertFalse(v.istPlatzVerkauft(new Platz(0, 65)));
+        assertFalse(v.istPlatzVerkauft(new Platz(1, 64)));
+        assertTrue(v.sindStornierbar(plaetze));
+
+        v.stornierePlatz(new Platz(0, 63));
+        assertFalse(v.sindStornierbar(plaetze));
+        assertFalse(v.sindVerkaufbar(plaetze));
+        assertEquals(3, v.getAnzahlVerkauftePlaetze());
+    }
+
+    @Test
+    public void testeGleichzeitigerVerkaufVerkauftJedenPlatzGenauEinmal()
+            throws InterruptedException
+    {
+        final Vorstellung v = new Vorstellung(_kinoA, _hdR1, _16_45, _20_15,
+                _11_07_2008, 1230);
+        final List<Platz> plaetze = _kinoA.getPlaetze();
+        final AtomicInteger verkauft = new AtomicInteger();
+
+        List<Thread> kassen = new ArrayList<>();
+        for (int k = 0; k < 4; k++)
+        {
+            Thread kasse = new Thread(() -> {
+                for (Platz platz : plaetze)
+                {
+                    if (v.verkaufePlatzWennFrei(platz))
+                    {
+                        verkauft.incrementAndGet();
+                    }
+                }
+            });
+            kassen.add(kasse);
+            kasse.start();
+        }
+        for (Thread kasse : kassen)
+        {
+            kasse.join();
+        }
+
+        assertEquals(plaetze.size(), verkauft.get());
+        assertEquals(plaetze.size(), v.getAnzahlVerkauftePlaetze());
+        assertFalse(v.verkaufePlatzWennFrei(new Platz(0, 0)));
+    }
+
+    @Test
+    public void testeVerkaufeWennFreiVerkauftAlleOderKeinen()
+    {
+        Kinosaal breiterSaal = new Kinosaal("Breit", 3, 100);
+        Vorstellung v = new Vorstellung(breiterSaal, _hdR1, _16_45, _20_15,
+                _11_07_2008, 1230);
+        Platz schonVerkauft = new Platz(1, 70);
+        v.verkaufePlatz(schonVerkauft);
+
+        Set<Platz> plaetze = new HashSet<>();
+        plaetze.add(new Platz(0, 5));
+        plaetze.add(new Platz(1, 3));
+        plaetze.add(schonVerkauft);
+        plaetze.add(new Platz(2, 99));
+
+        Set<Platz> konflikte = v.verkaufePlaetzeWennFrei(plaetze);
+        assertEquals(1, konflikte.size());
+        assertTrue(konflikte.contains(schonVerkauft));
+        assertEquals(1, v.getAnzahlVerkauftePlaetze());
+
+        plaetze.remove(schonVerkauft);
+        assertTrue(v.verkaufePlaetzeWennFrei(plaetze).isEmpty());
+        assertTrue(v.sindStornierbar(plaetze));
+        assertEquals(4, v.getAnzahlVerkauftePlaetze());
+    }
+
+    @Test
+    public void testeSucheBesteFreiePlaetzeInLeeremSaal()
+    {
+        Kinosaal saal = new Kinosaal("Mitte", 9, 10);
+        Vorstellung v = new Vorstellung(saal, _hdR1, _16_45, _20_15,
+                _11_07_2008, 1230);
+
+        Set<Platz> erwartet = new HashSet<>();
+        erwartet.add(new Platz(4, 3));
+        erwartet.add(new Platz(4, 4));
+        erwartet.add(new Platz(4, 5));
+        erwartet.add(new Platz(4, 6));
+        assertEquals(erwartet, v.sucheBesteFreiePlaetze(4));
+        assertTrue(v.sucheBesteFreiePlaetze(11).isEmpty());
+    }
+
+    @Test
+    public void testeSucheBesteFreiePlaetzeUmgehtVerkauftePlaetze()
+    {
+        Kinosaal saal = new Kinosaal("Mitte", 3, 70);
+        Vorstellung v = new Vorstellung(saal, _hdR1, _16_45, _20_15,
+                _11_07_2008, 1230);
+        // In der mittleren Reihe ist nur am Rand noch ein Block frei, über
+        // die Wortgrenze bei Sitz 32 hinweg.
+        for (int sitz = 0; sitz < 70; sitz++)
+        {
+            if (sitz < 28 || sitz > 35)
+            {
+                v.verkaufePlatz(new Platz(1, sitz));
+            }
+        }
+
+        Platzpraeferenz mittlereReihe = new Platzpraeferenz(0.5, 10.0, 1.0);
+        Set<Platz> plaetze = v.sucheBesteFreiePlaetze(8, mittlereReihe);
+        assertEquals(8, plaetze.size());
+        assertTrue(plaetze.contains(new Platz(1, 28)));
+        assertTrue(plaetze.contains(new Platz(1, 35)));
+
+        // Zählt die Reihenmitte genauso viel, gewinnt die Mitte der ersten
+        // Reihe.
+        plaetze = v.sucheBesteFreiePlaetze(8, Platzpraeferenz.MITTE);
+        assertTrue(plaetze.contains(new Platz(0, 31)));
+        assertTrue(plaetze.contains(new Platz(0, 38)));
+        assertTrue(v.sindVerkaufbar(plaetze));
+        assertTrue(v.verkaufePlaetzeWennFrei(plaetze).isEmpty());
+    }
+
+    @Test
+    public void testeLaengsteFreieFolgeWirdFortgeschrieben()
+    {
+        Kinosaal saal = new Kinosaal("Lang", 2, 70);
+        Vorstellung v = new Vorstellung(saal, _hdR1, _16_45, _20_15,
+                _11_07_2008, 1230);
+        assertEquals(70, v.getLaengsteFreieFolge(0));
+        assertTrue(v.hatFreienBlock(70));
+        assertFalse(v.hatFreienBlock(71));
+
+        v.verkaufePlatz(new Platz(0, 10));
+        v.verkaufePlatz(new Platz(0, 60));
+        assertEquals(49, v.getLaengsteFreieFolge(0));
+        assertEquals(70, v.getLaengsteFreieFolge(1));
+
+        Set<Platz> plaetze = new HashSet<>();
+        plaetze.add(new Platz(0, 30));
+        plaetze.add(new Platz(0, 40));
+        v.verkaufePlaetze(plaetze);
+        assertEquals(19, v.getLaengsteFreieFolge(0));
+
+        Reservierung reservierung = v.erzeugeReservierung(60000);
+        plaetze.clear();
+        for (int sitz = 0; sitz < 70; sitz += 2)
+        {
+            plaetze.add(new Platz(1, sitz));
+        }
+        reservierung.reserviere(plaetze);
+        assertEquals(1, v.getLaengsteFreieFolge(1));
+        assertFalse(v.hatFreienBlock(20));
+        reservierung.hebeAuf();
+        assertEquals(70, v.getLaengsteFreieFolge(1));
+
+        v.stornierePlatz(new Platz(0, 30));
+        assertEquals(29, v.getLaengsteFreieFolge(0));
+    }
+
+    @Test
+    public void testePlatzabfragenOhnePlatzObjekte()
+    {
+        Kinosaal saal = new Kinosaal("Lang", 3, 70);
+        Vorstellung v = new Vorstellung(saal, _hdR1, _16_45, _20_15,
+                _11_07_2008, 1230);
+        v.verkaufePlatz(new Platz(1, 0));
+        v.verkaufePlatz(new Platz(1, 33));
+        v.verkaufePlatz(new Platz(1, 69));
+        v.verkaufePlatz(new Platz(2, 5));
+        assertTrue(v.istPlatzVerkauft(1, 33));
+        assertFalse(v.istPlatzVerkauft(1, 32));
+        assertFalse(v.istPlatzReserviert(1, 33));
+        assertTrue(v.hatPlatz(2, 69));
+        assertFalse(v.hatPlatz(3, 0));
+
+        long[] maske = new long[2];
+        v.getVerkaufteSitze(1, maske);
+        assertEquals(1L | 1L << 33, maske[0]);
+        assertEquals(1L << (69 - 64), maske[1]);
+        v.getVerkaufteSitze(0, maske);
+        assertEquals(0, maske[0]);
+        assertEquals(0, maske[1]);
+
+        List<Platz> besucht = new ArrayList<>();
+        v.besucheVerkauftePlaetze((reihe, sitz) -> besucht.add(new Platz(
+                reihe, sitz)));
+        assertEquals(4, besucht.size());
+        assertEquals(new Platz(1, 0), besucht.get(0));
+        assertEquals(new Platz(1, 33), besucht.get(1));
+        assertEquals(new Platz(1, 69), besucht.get(2));
+        assertEquals(new Platz(2, 5), besucht.get(3));
+    }
+
+    @Test
+    public void testeBlockiertePlaetze()
+    {
+        Kinosaal saal = new Kinosaal("Lang", 2, 40);
+        Vorstellung v = new Vorstellung(saal, _hdR1, _16_45, _20_15,
+                _11_07_2008, 1230);
+        Set<Platz> rollstuhlplaetze = new HashSet<>();
+        rollstuhlplaetze.add(new Platz(1, 0));
+        rollstuhlplaetze.add(new Platz(1, 39));
+        v.verkaufePlatz(new Platz(0, 5));
+
+        assertTrue(v.sindImZustand(rollstuhlplaetze, Platzzustand.FREI));
+        assertTrue(v.wechslePlatzzustand(rollstuhlplaetze, Platzzustand.FREI,
+                Platzzustand.BLOCKIERT).isEmpty());
+        assertEquals(Platzzustand.BLOCKIERT, v.getPlatzzustand(1, 39));
+        assertEquals(Platzzustand.VERKAUFT, v.getPlatzzustand(new Platz(0, 5)));
+        assertEquals(Platzzustand.FREI, v.getPlatzzustand(0, 6));
+        assertEquals(2, v.getAnzahlPlaetze(Platzzustand.BLOCKIERT));
+        assertEquals(1, v.getAnzahlPlaetze(Platzzustand.VERKAUFT));
+        assertEquals(77, v.getAnzahlPlaetze(Platzzustand.FREI));
+        assertEquals(0, v.getAnzahlPlaetze(Platzzustand.RESERVIERT));
+
+        // Blockierte Plätze sind nicht verkauft, aber auch nicht verkaufbar.
+        assertFalse(v.istPlatzVerkauft(new Platz(1, 0)));
+        assertFalse(v.sindVerkaufbar(rollstuhlplaetze));
+        assertFalse(v.verkaufePlatzWennFrei(new Platz(1, 0)));
+        assertEquals(38, v.getLaengsteFreieFolge(1));
+
+        Set<Platz> gemischt = new HashSet<>();
+        gemischt.add(new Platz(1, 0));
+        gemischt.add(new Platz(0, 5));
+        Set<Platz> konflikte = v.wechslePlatzzustand(gemischt,
+                Platzzustand.BLOCKIERT, Platzzustand.FREI);
+        assertEquals(1, konflikte.size());
+        assertTrue(konflikte.contains(new Platz(0, 5)));
+        assertEquals(Platzzustand.BLOCKIERT, v.getPlatzzustand(1, 0));
+
+        Belegungsstand stand = v.getBelegungsstand();
+        assertEquals(Platzzustand.BLOCKIERT, stand.getPlatzzustand(1, 0));
+        assertEquals(77, stand.getAnzahlPlaetze(Platzzustand.FREI));
+        List<Platz> blockiert = new ArrayList<>();
+        stand.besuchePlaetze(Platzzustand.BLOCKIERT, (reihe, sitz) -> blockiert
+                .add(new Platz(reihe, sitz)));
+        assertEquals(2, blockiert.size());
+    }
+
+    @Test
+    public void testeLueckenregel()
+    {
+        Kinosaal saal = new Kinosaal("Lang", 2, 70);
+        Vorstellung v = new Vorstellung(saal, _hdR1, _16_45, _20_15,
+                _11_07_2008, 1230);
+        v.verkaufePlatz(new Platz(0, 30));
+        v.verkaufePlatz(new Platz(0, 36));
+        Set<Platz> auswahl = new HashSet<>();
+        auswahl.add(new Platz(0, 32));
+        auswahl.add(new Platz(0, 33));
+
+        // Ohne Regel wird nichts beanstandet.
+        assertTrue(v.pruefeLuecken(auswahl).isEmpty());
+
+        // Sitz 31 bliebe allein zwischen 30 und 32 frei, 34 und 35 bilden
+        // eine Lücke aus zwei Plätzen.
+        v.setLueckenregel(Lueckenregel.KEINE_EINZELPLAETZE);
+        Set<Platz> luecken = v.pruefeLuecken(auswahl);
+        assertEquals(1, luecken.size());
+        assertTrue(luecken.contains(new Platz(0, 31)));
+
+        v.setLueckenregel(new Lueckenregel(3, false));
+        luecken = v.pruefeLuecken(auswahl);
+        assertEquals(3, luecken.size());
+        assertTrue(luecken.contains(new Platz(0, 34)));
+        assertTrue(luecken.contains(new Platz(0, 35)));
+
+        // Lücken, die nicht an die Auswahl grenzen, zählen nicht.
+        auswahl.clear();
+        auswahl.add(new Platz(0, 0));
+        auswahl.add(new Platz(0, 1));
+        assertTrue(v.pruefeLuecken(auswahl).isEmpty());
+
+        // Am Reihenende bleibt Sitz 69 allein übrig.
+        v.setLueckenregel(Lueckenregel.KEINE_EINZELPLAETZE);
+        auswahl.clear();
+        auswahl.add(new Platz(1, 68));
+        assertEquals(1, v.pruefeLuecken(auswahl).size());
+        assertTrue(v.pruefeLuecken(auswahl).contains(new Platz(1, 69)));
+        auswahl.add(new Platz(1, 69));
+        assertTrue(v.pruefeLuecken(auswahl).isEmpty());
+    }
+
+    @Test
+    public void testeAbstandsregel()
+    {
+        Kinosaal saal = new Kinosaal("Lang", 5, 70);
+        Vorstellung v = new Vorstellung(saal, _hdR1, _16_45, _20_15,
+                _11_07_2008, 1230);
+        v.verkaufePlatz(new Platz(2, 40));
+        Set<Platz> handblockiert = new HashSet<>();
+        handblockiert.add(new Platz(4, 0));
+        v.wechslePlatzzustand(handblockiert, Platzzustand.FREI,
+                Platzzustand.BLOCKIERT);
+        assertEquals(348, v.getAnzahlVerkaufbarePlaetze());
+
+        // Um den verkauften Platz wird ein Rechteck von 5 mal 3 Plätzen über
+        // die Wortgrenze bei Sitz 32 hinaus blockiert.
+        v.setAbstandsregel(new Abstandsregel(2, 1));
+        assertEquals(new Abstandsregel(2, 1), v.getAbstandsregel());
+        assertEquals(Platzzustand.BLOCKIERT, v.getPlatzzustand(1, 38));
+        assertEquals(Platzzustand.BLOCKIERT, v.getPlatzzustand(3, 42));
+        assertEquals(Platzzustand.BLOCKIERT, v.getPlatzzustand(2, 41));
+        assertEquals(Platzzustand.FREI, v.getPlatzzustand(2, 43));
+        assertEquals(Platzzustand.FREI, v.getPlatzzustand(0, 40));
+        assertEquals(334, v.getAnzahlVerkaufbarePlaetze());
+
+        // Ein Verkauf in der Zone scheitert, einer daneben dehnt sie aus.
+        Set<Platz> plaetze = new HashSet<>();
+        plaetze.add(new Platz(2, 42));
+        plaetze.add(new Platz(2, 43));
+        assertEquals(1, v.verkaufePlaetzeWennFrei(plaetze).size());
+        assertTrue(v.verkaufePlaetzeWennFrei(
+                Collections.singleton(new Platz(2, 43))).isEmpty());
+        assertEquals(Platzzustand.BLOCKIERT, v.getPlatzzustand(2, 45));
+        assertEquals(Platzzustand.BLOCKIERT, v.getPlatzzustand(3, 45));
+
+        // Ein reservierter Platz in der Zone kann nicht verkauft werden.
+        Reservierung r = v.erzeugeReservierung(60000);
+        assertTrue(r.reserviere(Collections.singleton(new Platz(4, 60)))
+                .isEmpty());
+        v.verkaufePlatz(new Platz(3, 60));
+        assertFalse(r.verkaufe());
+        assertTrue(r.istOffen());
+        r.hebeAuf();
+        assertEquals(Platzzustand.BLOCKIERT, v.getPlatzzustand(4, 60));
+
+        // Nach der Stornierung werden nur noch die Nachbarn von 2/40 blockiert.
+        v.stornierePlaetze(Collections.singleton(new Platz(2, 43)));
+        v.stornierePlaetze(Collections.singleton(new Platz(3, 60)));
+        assertEquals(Platzzustand.FREI, v.getPlatzzustand(2, 45));
+        assertEquals(Platzzustand.FREI, v.getPlatzzustand(4, 60));
+        assertEquals(Platzzustand.BLOCKIERT, v.getPlatzzustand(2, 42));
+        assertEquals(334, v.getAnzahlVerkaufbarePlaetze());
+
+        // Ohne Regel bleibt nur der von Hand blockierte Platz blockiert.
+        v.setAbstandsregel(null);
+        assertNull(v.getAbstandsregel());
+        assertEquals(1, v.getAnzahlPlaetze(Platzzustand.BLOCKIERT));
+        assertEquals(Platzzustand.BLOCKIERT, v.getPlatzzustand(4, 0));
+        assertEquals(348, v.getAnzahlVerkaufbarePlaetze());
+    }
+
+    @Test
+    public void testeUnregelmaessigerSaal()
+    {
+        // Eine Reihe mit Gang über die Wortgrenze bei Sitz 32 hinweg.
+        Kinosaal saal = new Kinosaal("Balkon", Saalplan.ausText(
+                "XXXXXXXXXXXXXXXXXXXXXXXXXXXXXX    XXXXX",
+                "  XXXXXXXX"));
+        Vorstellung v = new Vorstellung(saal, _hdR1, _16_45, _20_15,
+                _11_07_2008, 1230);
+        assertEquals(43, v.getAnzahlPlaetze(Platzzustand.FREI));
+        assertEquals(0, v.getAnzahlPlaetze(Platzzustand.VERKAUFT));
+        assertFalse(v.hatPlatz(0, 31));
+        assertFalse(v.hatPlatz(1, 0));
+        assertEquals(30, v.getLaengsteFreieFolge(0));
+        assertEquals(8, v.getLaengsteFreieFolge(1));
+        assertFalse(v.getBelegungsstand().hatPlatz(0, 32));
+        assertTrue(v.getBelegungsstand().hatPlatz(0, 34));
+
+        // Ein Block wird nicht über den Gang hinweg gefunden.
+        v.verkaufePlatz(new Platz(0, 15));
+        assertEquals(15, v.getLaengsteFreieFolge(0));
+        Set<Platz> block = v.sucheBesteFreiePlaetze(8);
+        assertEquals(8, block.size());
+        assertTrue(v.hatPlaetze(block));
+        assertTrue(v.sindVerkaufbar(block));
+        assertTrue(v.sucheBesteFreiePlaetze(16).isEmpty());
+        assertEquals(42, v.getAnzahlPlaetze(Platzzustand.FREI));
+    }
+
+    @Test
+    public void testeMassenoperationen()
+    {
+        Kinosaal saal = new Kinosaal("Lang", 3, 70);
+        Vorstellung v = new Vorstellung(saal, _hdR1, _16_45, _20_15,
+                _11_07_2008, 1230);
+        v.verkaufePlatz(new Platz(0, 1));
+        v.verkaufePlatz(new Platz(2, 40));
+        v.verkaufePlatz(new Platz(2, 69));
+        Reservierung r = v.erzeugeReservierung(60000);
+        r.reserviere(Collections.singleton(new Platz(1, 1)));
+
+        // Ein defekter Sitz in jeder Reihe: Der verkaufte wird storniert, der
+        // reservierte bleibt reserviert.
+        Set<Platz> defekt = new HashSet<>();
+        defekt.add(new Platz(0, 1));
+        defekt.add(new Platz(1, 1));
+        defekt.add(new Platz(2, 1));
+        defekt.add(new Platz(7, 1));
+        Platzmaske erstattung = v.blockierePlaetze(Platzmaske
+                .ausPlaetzen(defekt));
+        assertEquals(1, erstattung.getAnzahlPlaetze());
+        assertTrue(erstattung.enthaelt(0, 1));
+        assertEquals(Platzzustand.BLOCKIERT, v.getPlatzzustand(0, 1));
+        assertEquals(Platzzustand.RESERVIERT, v.getPlatzzustand(1, 1));
+        assertEquals(Platzzustand.BLOCKIERT, v.getPlatzzustand(2, 1));
+        assertEquals(68, v.getLaengsteFreieFolge(0));
+
+        erstattung = v.storniereAlle();
+        assertEquals(2, erstattung.getAnzahlPlaetze());
+        assertTrue(erstattung.enthaelt(2, 40));
+        assertTrue(erstattung.enthaelt(2, 69));
+        assertEquals(0, v.getAnzahlVerkauftePlaetze());
+        assertEquals(2, v.getAnzahlPlaetze(Platzzustand.BLOCKIERT));
+        assertEquals(68, v.getLaengsteFreieFolge(2));
+        assertTrue(v.storniereAlle().istLeer());
+    }
+
+    @Test
+    public void testeVerlegung()
+    {
+        Vorstellung v = new Vorstellung(new Kinosaal("Klein", 3, 10), _hdR1,
+                _16_45, _20_15, _11_07_2008, 1230);
+        Set<Platz> gruppe = new HashSet<>();
+        gruppe.add(new Platz(0, 2));
+        gruppe.add(new Platz(0, 3));
+        gruppe.add(new Platz(0, 4));
+        v.verkaufePlaetze(gruppe);
+        v.verkaufePlatz(new Platz(1, 0));
+        v.verkaufePlatz(new Platz(2, 9));
+        v.setAbstandsregel(new Abstandsregel(1, 0));
+        Reservierung r = v.erzeugeReservierung(60000);
+        r.reserviere(Collections.singleton(new Platz(2, 5)));
+
+        Kinosaal gross = new Kinosaal("Groß", 6, 20);
+        Verlegung verlegung = v.verlegeIn(gross,
+                Collections.emptyList());
+        assertTrue(verlegung.istVollstaendig());
+        assertSame(gross, v.getKinosaal());
+        assertEquals(5, v.getAnzahlVerkauftePlaetze());
+        assertEquals(new Abstandsregel(1, 0), v.getAbstandsregel());
+
+        // Die Gruppe bleibt zusammen, die Reihen behalten ihre relative Lage.
+        Platz erster = verlegung.getZuordnung().get(new Platz(0, 2));
+        assertEquals(0, erster.getReihe());
+        assertEquals(new Platz(0, erster.getSitz() + 1), verlegung
+                .getZuordnung().get(new Platz(0, 3)));
+        assertEquals(new Platz(0, erster.getSitz() + 2), verlegung
+                .getZuordnung().get(new Platz(0, 4)));
+        assertEquals(3, verlegung.getZuordnung().get(new Platz(1, 0))
+                .getReihe());
+        assertEquals(5, verlegung.getZuordnung().get(new Platz(2, 9))
+                .getReihe());
+        for (Platz platz : verlegung.getZuordnung().values())
+        {
+            assertTrue(v.istPlatzVerkauft(platz));
+        }
+
+        // Die alte Reservierung gilt nicht im neuen Saal.
+        assertFalse(r.verkaufe());
+        assertEquals(5, v.getAnzahlVerkauftePlaetze());
+
+        // Im Mini-Saal passt die Dreiergruppe nicht und wird nicht aufgeteilt.
+        Kinosaal mini = new Kinosaal("Mini", 1, 2);
+        verlegung = v.verlegeIn(mini, Collections.emptyList());
+        assertFalse(verlegung.istVollstaendig());
+        assertEquals(3, verlegung.getNichtVerlegtePlaetze().size());
+        assertEquals(2, verlegung.getZuordnung().size());
+        assertEquals(2, v.getAnzahlVerkauftePlaetze());
+    }
 }
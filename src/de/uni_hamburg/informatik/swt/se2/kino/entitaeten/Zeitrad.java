@@ -0,0 +1,186 @@
+package de.uni_hamburg.informatik.swt.se2.kino.entitaeten;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Ein Zeitrad überwacht den Ablauf von Reservierungen. Statt für jede
+ * Reservierung einen eigenen Timer zu starten, werden die Reservierungen nach
+ * ihrem Ablaufzeitpunkt auf die Fächer eines Rads verteilt. Bei jedem Takt
+ * wird nur das Fach des aktuellen Takts geprüft.
+ * 
+ * Neue Reservierungen werden zunächst in einer nebenläufigen Warteschlange
+ * abgelegt und erst beim nächsten Takt in die Fächer einsortiert. Die Fächer
+ * selbst werden nur von dem Thread bearbeitet, der das Rad weiterdreht.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+final class Zeitrad
+{
+    private static final long STANDARD_TAKT = 100;
+    private static final int STANDARD_FAECHER = 512;
+
+    private static Zeitrad _standard;
+
+    private final LongSupplier _uhr;
+    private final long _takt;
+    private final List<List<Reservierung>> _faecher;
+    private final Queue<Reservierung> _neu;
+
+    // Der zuletzt bearbeitete Takt.
+    private long _aktuellerTakt;
+
+    /**
+     * Erzeugt ein Zeitrad, das nicht von selbst weiterdreht.
+     * 
+     * @param uhr die Uhr, die die aktuelle Zeit in Millisekunden liefert.
+     * @param takt die Dauer eines Takts in Millisekunden.
+     * @param anzahlFaecher die Anzahl der Fächer.
+     * 
+     * @require uhr != null
+     * @require takt > 0
+     * @require anzahlFaecher > 0
+     */
+    Zeitrad(LongSupplier uhr, long takt, int anzahlFaecher)
+    {
+        assert uhr != null : "Vorbedingung verletzt: uhr != null";
+        assert takt > 0 : "Vorbedingung verletzt: takt > 0";
+        assert anzahlFaecher > 0 : "Vorbedingung verletzt: anzahlFaecher > 0";
+
+        _uhr = uhr;
+        _takt = takt;
+        _faecher = new ArrayList<>(anzahlFaecher);
+        for (int i = 0; i < anzahlFaecher; i++)
+        {
+            _faecher.add(new ArrayList<>());
+        }
+        _neu = new ConcurrentLinkedQueue<>();
+        _aktuellerTakt = uhr.getAsLong() / takt;
+    }
+
+    /**
+     * Gibt das Zeitrad zurück, das die Reservierungen aller Vorstellungen
+     * überwacht. Es wird beim ersten Aufruf erzeugt und von einem eigenen
+     * Daemon-Thread weitergedreht.
+     * 
+     * @ensure result != null
+     */
+    static synchronized Zeitrad getStandard()
+    {
+        if (_standard == null)
+        {
+            _standard = new Zeitrad(System::currentTimeMillis, STANDARD_TAKT,
+                    STANDARD_FAECHER);
+            _standard.starte();
+        }
+        return _standard;
+    }
+
+    /**
+     * Gibt die aktuelle Zeit dieses Zeitrads in Millisekunden zurück.
+     */
+    long jetzt()
+    {
+        return _uhr.getAsLong();
+    }
+
+    /**
+     * Nimmt eine Reservierung in die Überwachung auf. Kann von beliebigen
+     * Threads aufgerufen werden.
+     * 
+     * @require reservierung != null
+     */
+    void plane(Reservierung reservierung)
+    {
+        assert reservierung != null : "Vorbedingung verletzt: reservierung != null";
+
+        _neu.add(reservierung);
+    }
+
+    /**
+     * Dreht das Rad bis zur aktuellen Zeit weiter und lässt dabei alle
+     * fälligen Reservierungen ablaufen. Kann das Verkaufsjournal den Ablauf
+     * einer Reservierung nicht festhalten, wird der Fehler dem
+     * {@link Thread.UncaughtExceptionHandler} des aufrufenden Threads
+     * übergeben und mit den übrigen weitergemacht, damit der Thread des Rads
+     * nicht endet. Andere Fehler, etwa verletzte Verträge, werden nicht
+     * abgefangen.
+     */
+    synchronized void dreheWeiter()
+    {
+        long jetzt = jetzt();
+        long zielTakt = jetzt / _takt;
+
+        Reservierung reservierung;
+        while ((reservierung = _neu.poll()) != null)
+        {
+            einsortieren(reservierung);
+        }
+
+        while (_aktuellerTakt < zielTakt)
+        {
+            _aktuellerTakt++;
+            int index = (int) (_aktuellerTakt % _faecher.size());
+            List<Reservierung> fach = _faecher.get(index);
+            _faecher.set(index, new ArrayList<>());
+            for (Reservierung r : fach)
+            {
+                try
+                {
+                    if (r.pruefeAblauf(jetzt))
+                    {
+                        einsortieren(r);
+                    }
+                }
+                catch (UncheckedIOException e)
+                {
+                    // Die Reservierung wird nicht weiter überwacht und läuft
+                    // beim nächsten Zugriff ab.
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(
+                            thread, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Legt eine Reservierung in das Fach ihres Ablaufzeitpunkts. Liegt der
+     * Ablaufzeitpunkt nicht nach dem aktuellen Takt, wird sie beim nächsten
+     * Takt geprüft.
+     */
+    private void einsortieren(Reservierung reservierung)
+    {
+        long takt = Math.max(reservierung.getAblaufzeitpunkt() / _takt,
+                _aktuellerTakt + 1);
+        _faecher.get((int) (takt % _faecher.size())).add(reservierung);
+    }
+
+    /**
+     * Startet einen Daemon-Thread, der das Rad in jedem Takt weiterdreht.
+     */
+    private void starte()
+    {
+        Thread thread = new Thread(() -> {
+            try
+            {
+                while (true)
+                {
+                    Thread.sleep(_takt);
+                    dreheWeiter();
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }, "Zeitrad");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,47 @@
+package de.uni_hamburg.informatik.swt.se2.kino.startup;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Programmdatei;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Übersetzt ein Programm im Textformat in eine Programmdatei, die beim Start
+ * geladen wird. Das Textformat ist bei
+ * {@link Programmdatei#konvertiere(BufferedReader, java.nio.file.Path)}
+ * beschrieben.
+ * 
+ * Aufruf: java de.uni_hamburg.informatik.swt.se2.kino.startup.Programmkonverter programm.txt programm.kino
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public class Programmkonverter
+{
+    /**
+     * Die Main-Methode.
+     * 
+     * @param args die Textdatei und die Programmdatei.
+     */
+    public static void main(String[] args)
+    {
+        if (args.length != 2)
+        {
+            System.err.println("Aufruf: Programmkonverter <programm.txt> <programm.kino>");
+            System.exit(2);
+        }
+        try (BufferedReader text = Files.newBufferedReader(Paths.get(args[0]),
+                StandardCharsets.UTF_8))
+        {
+            Programmdatei.konvertiere(text, Paths.get(args[1]));
+        }
+        catch (IOException e)
+        {
+            System.err.println("Programm konnte nicht übersetzt werden: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
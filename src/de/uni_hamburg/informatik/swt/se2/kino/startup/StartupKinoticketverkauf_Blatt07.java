@@ -1,14 +1,25 @@
 package de.uni_hamburg.informatik.swt.se2.kino.startup;
 
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Belegungsspeicher;
 import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
 import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kino;
 import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Programmdatei;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Verkaufsjournal;
 import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
 import de.uni_hamburg.informatik.swt.se2.kino.ui.kasse.KassenController;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 import javax.swing.SwingUtilities;
 
 /**
@@ -19,18 +30,174 @@ import javax.swing.SwingUtilities;
  */
 public class StartupKinoticketverkauf_Blatt07
 {
+    // Die Datei, in der die Verkäufe festgehalten werden, falls beim Aufruf
+    // keine angegeben ist.
+    private static final String JOURNAL = "verkaeufe.journal";
+
+    // Die Datei, in der die Platzbelegungen liegen, falls beim Aufruf keine
+    // angegeben ist.
+    private static final String SPEICHER = "belegung.speicher";
+
+    // Die Programmdatei, aus der das Kino geladen wird, falls beim Aufruf
+    // keine angegeben ist.
+    private static final String PROGRAMM = "programm.kino";
+
+    // Die Tage nach heute, die immer geladen bleiben, und der Speicher, den
+    // die übrigen geladenen Tage höchstens brauchen sollen.
+    private static final int HEISSE_TAGE = 14;
+    private static final long BUDGET = 64L << 20;
+
+    // Der Abstand, in dem das Verkaufsjournal im Hintergrund verdichtet wird.
+    private static final long VERDICHTUNG_MINUTEN = 10;
+
     /**
      * Die Main-Methode.
      * 
-     * @param args die Aufrufparameter.
+     * @param args die Aufrufparameter. Der erste Parameter ist optional die
+     *            Datei des Verkaufsjournals, der zweite die Datei des
+     *            Belegungsspeichers, der dritte die Programmdatei.
      */
     public static void main(String[] args)
     {
     	pruefeObAssertionsAktiviert();
-        final Kino kino = erzeugeKinoMitBeispieldaten();
+        final Kino kino = ladeKino(args.length > 2 ? args[2] : PROGRAMM);
+        Belegungsspeicher speicher = oeffneBelegungsspeicher(kino,
+                args.length > 1 ? args[1] : SPEICHER);
+        oeffneVerkaufsjournal(kino, args.length > 0 ? args[0] : JOURNAL,
+                speicher);
+        meldeUeberschneidungen(kino);
         SwingUtilities.invokeLater(() -> new KassenController(kino));
     }
 
+    /**
+     * Öffnet das Kino über der Programmdatei, aus der es seine Tage bei
+     * Bedarf lädt. Gibt es sie nicht oder kann sie nicht gelesen werden,
+     * wird ein Kino mit Beispieldaten erzeugt.
+     */
+    private static Kino ladeKino(String datei)
+    {
+        Path pfad = Paths.get(datei);
+        Kino kino = null;
+        if (Files.exists(pfad))
+        {
+            try
+            {
+                kino = new Kino(Programmdatei.oeffne(pfad), HEISSE_TAGE,
+                        BUDGET);
+            }
+            catch (IOException e)
+            {
+                System.err.println("Programmdatei konnte nicht geladen werden, es werden Beispieldaten benutzt: " + e);
+            }
+        }
+        if (kino == null)
+        {
+            kino = erzeugeKinoMitBeispieldaten();
+        }
+        return kino;
+    }
+
+    /**
+     * Öffnet den Belegungsspeicher, legt die Platzbelegungen der Vorstellungen
+     * darin ab und schließt ihn beim Beenden der Anwendung.
+     * 
+     * @return den Belegungsspeicher oder <code>null</code>, falls er nicht
+     *         geöffnet werden konnte.
+     */
+    private static Belegungsspeicher oeffneBelegungsspeicher(Kino kino,
+            String datei)
+    {
+        Belegungsspeicher speicher = null;
+        try
+        {
+            Belegungsspeicher geoeffnet = Belegungsspeicher.oeffne(
+                    Paths.get(datei), kino);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try
+                {
+                    geoeffnet.schliesse();
+                }
+                catch (IOException e)
+                {
+                    System.err.println("Belegungsspeicher konnte nicht geschlossen werden: " + e);
+                }
+            }));
+            speicher = geoeffnet;
+        }
+        catch (IOException e)
+        {
+            System.err.println("Belegungsspeicher konnte nicht geöffnet werden, Belegungen werden aus dem Journal wiederhergestellt: " + e);
+        }
+        return speicher;
+    }
+
+    /**
+     * Öffnet das Verkaufsjournal, stellt damit die Verkäufe eines früheren
+     * Laufs wieder her, soweit der Belegungsspeicher sie nicht schon enthält,
+     * verdichtet es regelmäßig im Hintergrund und schließt es beim Beenden
+     * der Anwendung.
+     * 
+     * @param speicher der Belegungsspeicher, kann <code>null</code> sein.
+     */
+    private static void oeffneVerkaufsjournal(Kino kino, String datei,
+            Belegungsspeicher speicher)
+    {
+        try
+        {
+            Verkaufsjournal journal = Verkaufsjournal.oeffne(Paths.get(datei),
+                    kino, speicher);
+            ScheduledExecutorService verdichtung = Executors
+                    .newSingleThreadScheduledExecutor(aufgabe -> {
+                        Thread thread = new Thread(aufgabe, "Verdichtung");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            // Ein Fehler, der aus der Aufgabe herausliefe, würde jede weitere
+            // Verdichtung stillschweigend absagen.
+            verdichtung.scheduleWithFixedDelay(() -> {
+                try
+                {
+                    journal.verdichte();
+                }
+                catch (IOException | RuntimeException e)
+                {
+                    System.err.println("Verkaufsjournal konnte nicht verdichtet werden: " + e);
+                }
+            }, VERDICHTUNG_MINUTEN, VERDICHTUNG_MINUTEN, TimeUnit.MINUTES);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try
+                {
+                    journal.schliesse();
+                }
+                catch (IOException e)
+                {
+                    System.err.println("Verkaufsjournal konnte nicht geschlossen werden: " + e);
+                }
+            }));
+        }
+        catch (IOException e)
+        {
+            System.err.println("Verkaufsjournal konnte nicht geöffnet werden, Verkäufe werden nicht gesichert: " + e);
+        }
+    }
+
+    /**
+     * Meldet die Vorstellungen, die sich mit einer anderen im selben Saal
+     * überschneiden und deshalb im Saalkalender fehlen. Da das
+     * Verkaufsjournal beim Öffnen jeden Tag einmal lädt, sind das alle
+     * Überschneidungen der Programmdatei.
+     */
+    private static void meldeUeberschneidungen(Kino kino)
+    {
+        for (Vorstellung vorstellung : kino.getUeberschneidungen())
+        {
+            System.err.println("Vorstellung am " + vorstellung.getDatum()
+                    + " um " + vorstellung.getAnfangszeit() + " in "
+                    + vorstellung.getKinosaal().getName()
+                    + " überschneidet sich mit einer anderen und fehlt im Saalkalender");
+        }
+    }
+
     /**
      * Erzeugt ein Kino mit einigen Vorstellungen.
      */
@@ -1,5 +1,6 @@
 package de.uni_hamburg.informatik.swt.se2.kino.ui.platzverkauf;
 
+import javax.swing.Box;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
 
@@ -159,6 +160,24 @@ class JPlatzplan extends JComponent
         informiereSelectionListener(_ausgewaehltePlaetze);
     }
 
+    /**
+     * Entfernt den Platz mit der angegebenen Reihe und dem angegebenen Sitz
+     * aus diesem Platzplan, etwa weil dort ein Gang ist. An seiner Stelle
+     * bleibt eine Lücke.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     */
+    public void entfernePlatz(int reihe, int sitz)
+    {
+        JPlatzButton button = _buttons[reihe][sitz];
+        remove(button);
+        imGitterEinfuegen(Box.createRigidArea(PLATZBUTTON_GROESSE), sitz + 1,
+                reihe);
+        _ausgewaehltePlaetze.remove(button.getPlatz());
+        revalidate();
+    }
+
     /**
      * Fügt ein GUI-Element in das Darstellungsgitter ein.
      * 
@@ -196,6 +215,28 @@ class JPlatzplan extends JComponent
         repaint();
     }
 
+    /**
+     * Entfernt die angegebenen Plätze aus der Auswahl und benachrichtigt die
+     * SelectionListener über die geänderte Auswahl.
+     * 
+     * @param plaetze die Plätze, die nicht mehr ausgewählt sein sollen.
+     * 
+     * @require plaetze != null
+     */
+    public void entferneAusAuswahl(Set<Platz> plaetze)
+    {
+        assert plaetze != null : "Vorbedingung verletzt: plaetze != null";
+        for (Platz platz : plaetze)
+        {
+            if (_ausgewaehltePlaetze.remove(platz))
+            {
+                _buttons[platz.getReihe()][platz.getSitz()].setAusgewaehlt(false);
+            }
+        }
+        informiereSelectionListener(_ausgewaehltePlaetze);
+        repaint();
+    }
+
     /**
      * Markiert den angegebenen Platz als verkauft.
      * 
@@ -206,7 +247,19 @@ class JPlatzplan extends JComponent
     public void markierePlatzAlsVerkauft(Platz platz)
     {
         assert platz != null : "Vorbedingung verletzt: platz != null";
-        _buttons[platz.getReihe()][platz.getSitz()].setVerkauft(true);
+        markierePlatzAlsVerkauft(platz.getReihe(), platz.getSitz());
+    }
+
+    /**
+     * Markiert den Platz mit der angegebenen Reihe und dem angegebenen Sitz
+     * als verkauft.
+     * 
+     * @param reihe die Reihe des Platzes.
+     * @param sitz der Sitz des Platzes in seiner Reihe.
+     */
+    public void markierePlatzAlsVerkauft(int reihe, int sitz)
+    {
+        _buttons[reihe][sitz].setVerkauft(true);
         repaint();
     }
 
@@ -1,14 +1,21 @@
 package de.uni_hamburg.informatik.swt.se2.kino.ui.platzverkauf;
 
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Belegungsstand;
 import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Reservierung;
 import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Geldbetrag;
 import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platzzustand;
 
 import javax.swing.JFrame;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Mit diesem UI-Modul können Plätze verkauft und storniert werden. Es arbeitet
@@ -23,21 +30,49 @@ import java.util.Set;
  */
 public class PlatzVerkaufsController
 {
+    // So lange werden ausgewählte Plätze nach der letzten Änderung der
+    // Auswahl für diese Kasse zurückgehalten.
+    private static final long RESERVIERUNGSDAUER = 5 * 60 * 1000;
+
     // Die aktuelle Vorstellung, deren Plätze angezeigt werden. Kann null sein.
     private Vorstellung _vorstellung;
 
+    // Hält die ausgewählten freien Plätze bis zur Bezahlung zurück. Kann null
+    // sein.
+    private Reservierung _reservierung;
+
     private PlatzVerkaufsView _view;
     
-    private VerkaufsfensterController _verkaufsfensterController;
+    // Fragt den Preis an der Kasse ab und gibt an, ob bezahlt wurde.
+    private Predicate<Geldbetrag> _barzahlung;
 
     /**
      * Initialisiert den PlatzVerkaufsController.
      */
     public PlatzVerkaufsController()
     {
-        _view = new PlatzVerkaufsView();
-      //  JFrame parentFrame = (JFrame) SwingUtilities.getWindowAncestor(_view.getUIPanel());
-        _verkaufsfensterController = new VerkaufsfensterController(null);
+        this(new PlatzVerkaufsView(),
+                new VerkaufsfensterController(null)::zeigeBarzahlung);
+    }
+
+    /**
+     * Initialisiert den PlatzVerkaufsController mit der angegebenen View und
+     * Barzahlung.
+     * 
+     * @param view die View.
+     * @param barzahlung fragt den Preis ab und gibt an, ob bezahlt wurde.
+     * 
+     * @require view != null
+     * @require barzahlung != null
+     */
+    PlatzVerkaufsController(PlatzVerkaufsView view,
+            Predicate<Geldbetrag> barzahlung)
+    {
+        assert view != null : "Vorbedingung verletzt: view != null";
+        assert barzahlung != null : "Vorbedingung verletzt: barzahlung != null";
+
+        _view = view;
+        _barzahlung = barzahlung;
         
         registriereUIAktionen();
         // Am Anfang wird keine Vorstellung angezeigt:
@@ -73,15 +108,109 @@ public class PlatzVerkaufsController
 
     /**
      * Reagiert darauf, dass sich die Menge der ausgewählten Plätze geändert
-     * hat.
+     * hat. Die ausgewählten freien Plätze werden reserviert. Lässt die
+     * Auswahl eine zu schmale Lücke zurück, wird darauf hingewiesen; ist die
+     * Lückenregel verbindlich, kann die Auswahl nicht verkauft werden.
      * 
      * @param plaetze die jetzt ausgewählten Plätze.
      */
     private void reagiereAufNeuePlatzAuswahl(Set<Platz> plaetze)
     {
-        _view.getVerkaufenButton().setEnabled(istVerkaufenMoeglich(plaetze));
-        _view.getStornierenButton().setEnabled(istStornierenMoeglich(plaetze));
-        aktualisierePreisanzeige(plaetze);
+        Set<Platz> konflikte = aktualisiereReservierung(plaetze);
+        if (konflikte.isEmpty())
+        {
+            Set<Platz> luecken = pruefeLuecken(plaetze);
+            boolean verboten = !luecken.isEmpty()
+                    && _vorstellung.getLueckenregel().istVerbindlich();
+            _view.getVerkaufenButton().setEnabled(
+                    istVerkaufenMoeglich(plaetze) && !verboten);
+            _view.getStornierenButton().setEnabled(istStornierenMoeglich(plaetze));
+            aktualisierePreisanzeige(plaetze);
+            if (!luecken.isEmpty())
+            {
+                zeigeLuecken(luecken, verboten);
+            }
+        }
+        else
+        {
+            // Die Plätze werden aus der Auswahl genommen, wodurch diese
+            // Methode erneut aufgerufen wird.
+            zeigeKonflikte(konflikte);
+        }
+    }
+
+    /**
+     * Prüft die Auswahl gegen die Lückenregel der Vorstellung. Zum Stornieren
+     * ausgewählte verkaufte Plätze werden nicht geprüft.
+     * 
+     * @param plaetze die ausgewählten Plätze.
+     * @return die Plätze der zu schmalen Lücken.
+     */
+    private Set<Platz> pruefeLuecken(Set<Platz> plaetze)
+    {
+        Set<Platz> luecken = new HashSet<>();
+        if (_vorstellung != null && _vorstellung.getLueckenregel() != null
+                && istVerkaufenMoeglich(plaetze))
+        {
+            luecken = _vorstellung.pruefeLuecken(plaetze);
+        }
+        return luecken;
+    }
+
+    /**
+     * Zeigt unter dem Preis an, welche Plätze als zu schmale Lücke übrig
+     * blieben.
+     * 
+     * @param luecken die Plätze der zu schmalen Lücken.
+     * @param verboten ob die Auswahl deshalb nicht verkauft werden kann.
+     */
+    private void zeigeLuecken(Set<Platz> luecken, boolean verboten)
+    {
+        String hinweis = verboten ? "Nicht verkaufbar, es blieben zu kleine Lücken: "
+                : "Achtung, es blieben zu kleine Lücken: ";
+        _view.getPreisLabel().setText("<html>" + _view.getPreisLabel().getText()
+                + "<br>" + hinweis + luecken + "</html>");
+    }
+
+    /**
+     * Passt die Reservierung an die Auswahl an: Nicht mehr ausgewählte Plätze
+     * werden freigegeben, neu ausgewählte freie Plätze werden reserviert.
+     * Bereits verkaufte Plätze werden nicht reserviert, weil sie zum
+     * Stornieren ausgewählt sein können.
+     * 
+     * @param plaetze die jetzt ausgewählten Plätze.
+     * @return die Plätze, die nicht reserviert werden konnten.
+     */
+    private Set<Platz> aktualisiereReservierung(Set<Platz> plaetze)
+    {
+        Set<Platz> konflikte = new HashSet<>();
+        if (_reservierung != null)
+        {
+            Set<Platz> nichtMehrAusgewaehlt = _reservierung.getPlaetze();
+            nichtMehrAusgewaehlt.removeAll(plaetze);
+            _reservierung.gibFrei(nichtMehrAusgewaehlt);
+        }
+        if (_vorstellung != null)
+        {
+            Set<Platz> unverkauft = new HashSet<>();
+            for (Platz platz : plaetze)
+            {
+                if (!_vorstellung.istPlatzVerkauft(platz))
+                {
+                    unverkauft.add(platz);
+                }
+            }
+            if (!unverkauft.isEmpty())
+            {
+                if (_reservierung == null || !_reservierung.istOffen())
+                {
+                    _reservierung = _vorstellung
+                            .erzeugeReservierung(RESERVIERUNGSDAUER);
+                }
+                konflikte = _reservierung.reserviere(unverkauft);
+            }
+        }
+        return konflikte;
     }
 
     /**
@@ -123,13 +252,15 @@ public class PlatzVerkaufsController
     }
 
     /**
-     * Prüft, ob die angegebenen Plätze alle verkauft werden können.
+     * Prüft, ob die angegebenen Plätze alle verkauft werden können. Das ist
+     * der Fall, wenn sie alle für diese Kasse reserviert sind.
      * 
-     * @return true, wenn der Platz sowohl leer als auch die Vorstellung zum Verkauf steht
+     * @return true, wenn Plätze ausgewählt und alle für diese Kasse reserviert sind
      */
     private boolean istVerkaufenMoeglich(Set<Platz> plaetze)
     {
-        return !plaetze.isEmpty() && _vorstellung.sindVerkaufbar(plaetze);
+        return !plaetze.isEmpty() && _reservierung != null
+                && _reservierung.umfasst(plaetze);
     }
 
     /**
@@ -139,6 +270,11 @@ public class PlatzVerkaufsController
      */
     public void setVorstellung(Vorstellung vorstellung)
     {
+        if (_reservierung != null)
+        {
+            _reservierung.hebeAuf();
+            _reservierung = null;
+        }
         _vorstellung = vorstellung;
         aktualisierePlatzplan();
     }
@@ -153,14 +289,24 @@ public class PlatzVerkaufsController
             Kinosaal saal = _vorstellung.getKinosaal();
             _view.getPlatzplan().setAnzahlPlaetze(saal.getAnzahlReihen(),
                     saal.getAnzahlSitzeProReihe());
-
-            for (Platz platz : saal.getPlaetze())
+            for (int reihe = 0; reihe < saal.getAnzahlReihen(); reihe++)
             {
-                if (_vorstellung.istPlatzVerkauft(platz))
+                for (int sitz = 0; sitz < saal.getAnzahlSitzeProReihe(); sitz++)
                 {
-                    _view.getPlatzplan().markierePlatzAlsVerkauft(platz);
+                    if (!saal.hatPlatz(reihe, sitz))
+                    {
+                        _view.getPlatzplan().entfernePlatz(reihe, sitz);
+                    }
                 }
             }
+
+            // Blockierte Plätze werden wie verkaufte angezeigt, damit sie
+            // nicht ausgewählt werden können.
+            Belegungsstand stand = _vorstellung.getBelegungsstand();
+            stand.besucheVerkauftePlaetze(
+                    _view.getPlatzplan()::markierePlatzAlsVerkauft);
+            stand.besuchePlaetze(Platzzustand.BLOCKIERT,
+                    _view.getPlatzplan()::markierePlatzAlsVerkauft);
         }
         else
         {
@@ -169,27 +315,164 @@ public class PlatzVerkaufsController
     }
 
     /**
-     * Verkauft die ausgewählten Plaetze.
+     * Verkauft die ausgewählten Plaetze. Während der Bezahlung sind die Plätze
+     * für diese Kasse reserviert. Ist die Reservierung währenddessen
+     * abgelaufen, werden die Plätze verkauft, sofern sie noch frei sind.
+     * Verletzt der Verkauf die Abstandsregel, weil inzwischen ein Nachbarplatz
+     * verkauft wurde, wird nichts verkauft und die Plätze bleiben reserviert
+     * und ausgewählt. Kann das Verkaufsjournal den Verkauf nicht festhalten
+     * oder wurde die Vorstellung nach Ablauf der Reservierung aus dem
+     * Speicher verdrängt, wird nichts verkauft und die Reservierung
+     * freigegeben.
      */
     private void verkaufePlaetze(Vorstellung vorstellung)
     {
         Set<Platz> plaetze = _view.getPlatzplan().getAusgewaehltePlaetze();
         Geldbetrag preis = getPreisFuerPlaetze(plaetze);
-        boolean bezahlt = _verkaufsfensterController.zeigeBarzahlung(preis);
+        boolean bezahlt = _barzahlung.test(preis);
         if (bezahlt)
         {
-            vorstellung.verkaufePlaetze(plaetze);
+            try
+            {
+                verkaufeBezahltePlaetze(vorstellung, plaetze);
+            }
+            catch (UncheckedIOException e)
+            {
+                zeigeFehlgeschlagenenVerkauf("der Verkauf konnte nicht "
+                        + "gespeichert werden.");
+            }
+            catch (IllegalStateException e)
+            {
+                zeigeFehlgeschlagenenVerkauf("die Vorstellung wurde "
+                        + "inzwischen neu geladen und muss neu ausgewählt "
+                        + "werden.");
+            }
+        }
+    }
+
+    /**
+     * Verkauft die bezahlten Plätze über die Reservierung oder, falls diese
+     * abgelaufen ist, sofern sie noch frei sind.
+     * 
+     * @throws UncheckedIOException falls das Verkaufsjournal den Verkauf
+     *             nicht festhalten kann.
+     * @throws IllegalStateException falls die Vorstellung verdrängt wurde.
+     */
+    private void verkaufeBezahltePlaetze(Vorstellung vorstellung,
+            Set<Platz> plaetze)
+    {
+        if (_reservierung.verkaufe())
+        {
             aktualisierePlatzplan();
         }
+        else if (_reservierung.istOffen())
+        {
+            zeigeAbstandsverstoss();
+        }
+        else
+        {
+            Set<Platz> konflikte = vorstellung.verkaufePlaetzeWennFrei(plaetze);
+            if (konflikte.isEmpty())
+            {
+                aktualisierePlatzplan();
+            }
+            else
+            {
+                zeigeKonflikte(konflikte);
+            }
+        }
+    }
+
+    /**
+     * Zeigt unter dem Preis an, dass die bezahlten Plätze nicht verkauft
+     * wurden, gibt die Reservierung frei und sperrt den Verkauf.
+     * 
+     * @param grund der Grund, warum nicht verkauft wurde.
+     */
+    private void zeigeFehlgeschlagenenVerkauf(String grund)
+    {
+        _reservierung.hebeAuf();
+        _view.getVerkaufenButton().setEnabled(false);
+        _view.getPreisLabel().setText("<html>" + _view.getPreisLabel().getText()
+                + "<br>Nicht verkauft, " + grund + "</html>");
     }
 
     /**
-     * Storniert die ausgewählten Plaetze.
+     * Zeigt unter dem Preis an, dass die Auswahl die Abstandsregel verletzt,
+     * und sperrt den Verkauf, bis die Auswahl geändert wird.
+     */
+    private void zeigeAbstandsverstoss()
+    {
+        _view.getVerkaufenButton().setEnabled(false);
+        _view.getPreisLabel().setText("<html>" + _view.getPreisLabel().getText()
+                + "<br>Nicht verkaufbar, die Auswahl hält den Abstand zu "
+                + "verkauften Plätzen nicht ein.</html>");
+    }
+
+    /**
+     * Markiert Plätze, die inzwischen an einer anderen Kasse verkauft oder
+     * reserviert wurden, als verkauft und nimmt sie aus der Auswahl. Die übrigen ausgewählten
+     * Plätze bleiben ausgewählt, so dass Ersatzplätze hinzugewählt werden
+     * können.
+     * 
+     * @param konflikte die nicht verfügbaren Plätze.
+     */
+    private void zeigeKonflikte(Set<Platz> konflikte)
+    {
+        for (Platz platz : konflikte)
+        {
+            _view.getPlatzplan().markierePlatzAlsVerkauft(platz);
+        }
+        _view.getPlatzplan().entferneAusAuswahl(konflikte);
+        JOptionPane.showMessageDialog(_view.getUIPanel(),
+                "Diese Plätze sind nicht mehr verfügbar: " + konflikte,
+                "Plätze nicht verfügbar", JOptionPane.WARNING_MESSAGE);
+    }
+
+    /**
+     * Storniert die ausgewählten Plaetze. Wurde einer der Plätze inzwischen
+     * an einer anderen Kasse storniert, kann das Verkaufsjournal die
+     * Stornierung nicht festhalten oder wurde die Vorstellung verdrängt, wird
+     * nichts storniert und die Plätze bleiben ausgewählt.
      */
     private void stornierePlaetze(Vorstellung vorstellung)
     {
         Set<Platz> plaetze = _view.getPlatzplan().getAusgewaehltePlaetze();
-        vorstellung.stornierePlaetze(plaetze);
-        aktualisierePlatzplan();
+        try
+        {
+            if (vorstellung.wechslePlatzzustand(plaetze,
+                    Platzzustand.VERKAUFT, Platzzustand.FREI).isEmpty())
+            {
+                aktualisierePlatzplan();
+            }
+            else
+            {
+                zeigeStornoverstoss("die Auswahl wurde inzwischen an einer "
+                        + "anderen Kasse storniert.");
+            }
+        }
+        catch (UncheckedIOException e)
+        {
+            zeigeStornoverstoss("die Stornierung konnte nicht gespeichert "
+                    + "werden.");
+        }
+        catch (IllegalStateException e)
+        {
+            zeigeStornoverstoss("die Vorstellung wurde inzwischen neu geladen "
+                    + "und muss neu ausgewählt werden.");
+        }
+    }
+
+    /**
+     * Zeigt unter dem Preis an, dass die Auswahl nicht storniert werden
+     * konnte, und sperrt das Stornieren, bis die Auswahl geändert wird.
+     * 
+     * @param grund der Grund, warum nicht storniert wurde.
+     */
+    private void zeigeStornoverstoss(String grund)
+    {
+        _view.getStornierenButton().setEnabled(false);
+        _view.getPreisLabel().setText("<html>" + _view.getPreisLabel().getText()
+                + "<br>Nicht stornierbar, " + grund + "</html>");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package de.uni_hamburg.informatik.swt.se2.kino.ui.platzverkauf;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Film;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kino;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Kinosaal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Verkaufsjournal;
+import de.uni_hamburg.informatik.swt.se2.kino.entitaeten.Vorstellung;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Abstandsregel;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Datum;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.FSK;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platz;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Platzzustand;
+import de.uni_hamburg.informatik.swt.se2.kino.wertobjekte.Uhrzeit;
+
+import java.awt.Component;
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlatzVerkaufsControllerTest
+{
+    @Rule
+    public TemporaryFolder _ordner = new TemporaryFolder();
+
+    private PlatzVerkaufsView _view;
+    private PlatzVerkaufsController _controller;
+    private Vorstellung _vorstellung;
+
+    @Before
+    public void setUp()
+    {
+        _view = new PlatzVerkaufsView();
+        // Jede Barzahlung gelingt, ohne dass ein Dialog erscheint.
+        _controller = new PlatzVerkaufsController(_view, preis -> true);
+        _vorstellung = new Vorstellung(new Kinosaal("Saal 1", 5, 10),
+                new Film("Rio", 96, FSK.FSK0, false), new Uhrzeit(17, 30),
+                new Uhrzeit(19, 30), new Datum(11, 7, 2008), 800);
+    }
+
+    @Test
+    public void testeVerkaufeAusgewaehltePlaetze()
+    {
+        _controller.setVorstellung(_vorstellung);
+        waehleAus(new Platz(2, 4));
+        assertTrue(_vorstellung.istPlatzReserviert(new Platz(2, 4)));
+
+        _view.getVerkaufenButton().doClick();
+        assertTrue(_vorstellung.istPlatzVerkauft(new Platz(2, 4)));
+        assertTrue(_view.getPlatzplan().getAusgewaehltePlaetze().isEmpty());
+    }
+
+    @Test
+    public void testeAbstandsverstossVerkauftNichts()
+    {
+        _vorstellung.setAbstandsregel(new Abstandsregel(1, 0));
+        _controller.setVorstellung(_vorstellung);
+        waehleAus(new Platz(2, 4));
+
+        // Eine andere Kasse verkauft den Nachbarplatz, solange reserviert ist.
+        _vorstellung.verkaufePlatz(new Platz(2, 5));
+        _view.getVerkaufenButton().doClick();
+
+        assertFalse(_vorstellung.istPlatzVerkauft(new Platz(2, 4)));
+        assertTrue(_vorstellung.istPlatzReserviert(new Platz(2, 4)));
+        assertEquals(1, _vorstellung.getAnzahlVerkauftePlaetze());
+        assertEquals(Collections.singleton(new Platz(2, 4)), _view
+                .getPlatzplan().getAusgewaehltePlaetze());
+        assertFalse(_view.getVerkaufenButton().isEnabled());
+        assertTrue(_view.getPreisLabel().getText().contains("Abstand"));
+    }
+
+    @Test
+    public void testeGleichzeitigeStornierungStorniertNichts()
+    {
+        _vorstellung.verkaufePlatz(new Platz(2, 4));
+        _controller.setVorstellung(_vorstellung);
+        waehleAus(new Platz(2, 4));
+        assertTrue(_view.getStornierenButton().isEnabled());
+
+        // Eine andere Kasse storniert den Platz, bevor diese Kasse es tut.
+        assertTrue(_vorstellung.stornierePlatz(new Platz(2, 4)));
+        _view.getStornierenButton().doClick();
+
+        assertFalse(_vorstellung.istPlatzVerkauft(new Platz(2, 4)));
+        assertFalse(_view.getStornierenButton().isEnabled());
+        assertTrue(_view.getPreisLabel().getText().contains("storniert"));
+    }
+
+    @Test
+    public void testeUngespeicherterVerkaufGibtReservierungFrei()
+            throws IOException
+    {
+        Kinosaal saal = _vorstellung.getKinosaal();
+        Verkaufsjournal journal = Verkaufsjournal.oeffne(_ordner.getRoot()
+                .toPath().resolve("verkauf.journal"), new Kino(
+                        new Kinosaal[] { saal }, new Vorstellung[] {
+                                _vorstellung }));
+        _controller.setVorstellung(_vorstellung);
+        waehleAus(new Platz(2, 4));
+        // Danach kann das Journal keinen Verkauf mehr festhalten.
+        journal.schliesse();
+
+        _view.getVerkaufenButton().doClick();
+
+        assertEquals(Platzzustand.FREI, _vorstellung.getPlatzzustand(2, 4));
+        assertFalse(_view.getVerkaufenButton().isEnabled());
+        assertTrue(_view.getPreisLabel().getText().contains("gespeichert"));
+    }
+
+    /**
+     * Wählt einen Platz aus, indem sein Button im Platzplan gedrückt wird.
+     */
+    private void waehleAus(Platz platz)
+    {
+        for (Component komponente : _view.getPlatzplan().getComponents())
+        {
+            if (komponente instanceof JPlatzButton
+                    && ((JPlatzButton) komponente).getPlatz().equals(platz))
+            {
+                ((JPlatzButton) komponente).doClick();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package de.uni_hamburg.informatik.swt.se2.kino.wertobjekte;
+
+/**
+ * Eine Abstandsregel für Vorstellungen mit Mindestabstand. Neben jedem
+ * verkauften Platz müssen in seiner Reihe die angegebene Anzahl Sitze und
+ * davor und dahinter die angegebene Anzahl Reihen frei bleiben. Gesperrt wird
+ * jeweils das Rechteck um den verkauften Platz, also auch schräg davor und
+ * dahinter.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public final class Abstandsregel
+{
+    private final int _sitze;
+    private final int _reihen;
+
+    /**
+     * Wählt eine Abstandsregel aus.
+     * 
+     * @param sitze die Anzahl der Sitze, die links und rechts frei bleiben.
+     * @param reihen die Anzahl der Reihen, die davor und dahinter frei
+     *            bleiben.
+     * 
+     * @require sitze >= 0
+     * @require reihen >= 0
+     */
+    public Abstandsregel(int sitze, int reihen)
+    {
+        assert sitze >= 0 : "Vorbedingung verletzt: sitze >= 0";
+        assert reihen >= 0 : "Vorbedingung verletzt: reihen >= 0";
+
+        _sitze = sitze;
+        _reihen = reihen;
+    }
+
+    /**
+     * Gibt die Anzahl der Sitze zurück, die links und rechts eines verkauften
+     * Platzes frei bleiben.
+     */
+    public int getSitze()
+    {
+        return _sitze;
+    }
+
+    /**
+     * Gibt die Anzahl der Reihen zurück, die vor und hinter einem verkauften
+     * Platz frei bleiben.
+     */
+    public int getReihen()
+    {
+        return _reihen;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        boolean ergebnis = false;
+        if (o instanceof Abstandsregel)
+        {
+            Abstandsregel r = (Abstandsregel) o;
+            ergebnis = _sitze == r._sitze && _reihen == r._reihen;
+        }
+        return ergebnis;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * _sitze + _reihen;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Abstandsregel: Sitze=" + _sitze + ", Reihen=" + _reihen;
+    }
+}
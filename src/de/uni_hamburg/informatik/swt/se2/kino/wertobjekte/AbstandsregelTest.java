@@ -0,0 +1,27 @@
+package de.uni_hamburg.informatik.swt.se2.kino.wertobjekte;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class AbstandsregelTest
+{
+    @Test
+    public void testeKonstruktorUndGetter()
+    {
+        Abstandsregel regel = new Abstandsregel(2, 1);
+        assertEquals(2, regel.getSitze());
+        assertEquals(1, regel.getReihen());
+    }
+
+    @Test
+    public void testeEqualsUndHashCode()
+    {
+        assertEquals(new Abstandsregel(2, 1), new Abstandsregel(2, 1));
+        assertEquals(new Abstandsregel(2, 1).hashCode(),
+                new Abstandsregel(2, 1).hashCode());
+        assertNotEquals(new Abstandsregel(1, 2), new Abstandsregel(2, 1));
+        assertNotEquals(new Abstandsregel(2, 0), new Abstandsregel(2, 1));
+    }
+}
@@ -15,8 +15,6 @@ import java.util.TimeZone;
  */
 public final class Datum implements Comparable<Datum>
 {
-    private static final long MILLISECONDS_PER_DAY = 1000 * 60 * 60 * 24L;
-
     private final int _jahr;
     private final int _monat;
     private final int _tag;
@@ -55,6 +53,35 @@ public final class Datum implements Comparable<Datum>
         _jahr = jahr;
     }
 
+    /**
+     * Liefert das Datum zurück, das die angegebene Anzahl Tage nach dem
+     * 1.1.1970 liegt (Epochentag). Gerechnet wird ohne Calendar und ohne
+     * Sperre im gregorianischen Kalender.
+     * 
+     * @param epochentag die Tage seit dem 1.1.1970, negativ für Tage davor.
+     * 
+     * @ensure result != null
+     * @ensure result.getEpochentag() == epochentag
+     */
+    public static Datum ausEpochentag(int epochentag)
+    {
+        // Gezählt wird in 400-Jahres-Zyklen ab dem 1.3.0000, damit der
+        // Schalttag am Ende eines Jahres liegt.
+        long tage = epochentag + 719468L;
+        long zyklus = Math.floorDiv(tage, 146097);
+        long tagImZyklus = tage - zyklus * 146097;
+        long jahrImZyklus = (tagImZyklus - tagImZyklus / 1460 + tagImZyklus
+                / 36524 - tagImZyklus / 146096) / 365;
+        long tagImJahr = tagImZyklus
+                - (365 * jahrImZyklus + jahrImZyklus / 4 - jahrImZyklus / 100);
+        long monatAbMaerz = (5 * tagImJahr + 2) / 153;
+        int tag = (int) (tagImJahr - (153 * monatAbMaerz + 2) / 5 + 1);
+        int monat = (int) (monatAbMaerz < 10 ? monatAbMaerz + 3
+                : monatAbMaerz - 9);
+        int jahr = (int) (jahrImZyklus + zyklus * 400 + (monat <= 2 ? 1 : 0));
+        return new Datum(tag, monat, jahr);
+    }
+
     /**
      * Liefert das heutige Datum zurück.
      * 
@@ -111,7 +138,7 @@ public final class Datum implements Comparable<Datum>
     @Override
     public int compareTo(Datum datum)
     {
-        return tageSeit(datum);
+        return Integer.compare(getEpochentag(), datum.getEpochentag());
     }
 
     @Override
@@ -159,6 +186,22 @@ public final class Datum implements Comparable<Datum>
         return _tag;
     }
 
+    /**
+     * Gibt die Anzahl der Tage seit dem 1.1.1970 zurück (Epochentag), für
+     * frühere Tage negativ. Gerechnet wird ohne Calendar und ohne Sperre.
+     */
+    public int getEpochentag()
+    {
+        long jahr = _monat <= 2 ? _jahr - 1 : _jahr;
+        long zyklus = Math.floorDiv(jahr, 400);
+        long jahrImZyklus = jahr - zyklus * 400;
+        long tagImJahr = (153 * (_monat > 2 ? _monat - 3 : _monat + 9) + 2)
+                / 5 + _tag - 1;
+        long tagImZyklus = jahrImZyklus * 365 + jahrImZyklus / 4
+                - jahrImZyklus / 100 + tagImJahr;
+        return (int) (zyklus * 146097 + tagImZyklus - 719468);
+    }
+
     /**
      * Subtrahiert von diesem Datum eine übergebene Anzahl an Tagen und gibt das
      * Ergebnis als neues Datum zurück.
@@ -243,23 +286,7 @@ public final class Datum implements Comparable<Datum>
     {
         assert startDatum != null : "Vorbedingung verletzt: startDatum != null";
 
-        long startMillis = startDatum.inMillisekunden();
-        long endMillis = this.inMillisekunden();
-
-        return (int) ((endMillis - startMillis) / MILLISECONDS_PER_DAY);
-    }
-
-    /**
-     * Gibt dieses Datum in Millisekunden zurück.
-     */
-    private long inMillisekunden()
-    {
-        synchronized (CALENDAR)
-        {
-            CALENDAR.clear();
-            CALENDAR.set(_jahr, _monat - 1, _tag);
-            return CALENDAR.getTimeInMillis();
-        }
+        return getEpochentag() - startDatum.getEpochentag();
     }
 
     /**
@@ -111,6 +111,26 @@ public class DatumTest
         assertTrue(Datum.istGueltig(1, 12, 2006));
     }
 
+    @Test
+    public void testEpochentag()
+    {
+        assertEquals(0, new Datum(1, 1, 1970).getEpochentag());
+        assertEquals(-1, new Datum(31, 12, 1969).getEpochentag());
+        assertEquals(11016, new Datum(29, 2, 2000).getEpochentag());
+        assertEquals(new Datum(1, 3, 2000), Datum.ausEpochentag(11017));
+        assertEquals(new Datum(31, 12, 1969), Datum.ausEpochentag(-1));
+
+        Datum start = new Datum(1, 1, 1999);
+        Datum datum = start;
+        for (int i = 0; i < 2000; i++)
+        {
+            assertEquals(datum.tageSeit(start), datum.getEpochentag()
+                    - start.getEpochentag());
+            assertEquals(datum, Datum.ausEpochentag(datum.getEpochentag()));
+            datum = datum.naechsterTag();
+        }
+    }
+
     @Test
     public void testHeute()
     {
@@ -0,0 +1,89 @@
+package de.uni_hamburg.informatik.swt.se2.kino.wertobjekte;
+
+/**
+ * Eine Regel gegen Lücken in den Reihen. Eine Auswahl verstößt gegen die
+ * Regel, wenn sie neben sich eine Lücke aus weniger als der Mindestbreite
+ * freien Plätzen zurücklässt, die sich später kaum noch verkaufen lässt. Mit
+ * der Mindestbreite 2 sind also genau einzelne freie Plätze verboten.
+ * 
+ * Eine verbindliche Regel verhindert den Verkauf einer solchen Auswahl, eine
+ * unverbindliche Regel führt nur zu einem Hinweis.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public final class Lueckenregel
+{
+    /**
+     * Verbietet Auswahlen, die einen einzelnen freien Platz zurücklassen.
+     */
+    public static final Lueckenregel KEINE_EINZELPLAETZE = new Lueckenregel(2,
+            true);
+
+    private final int _mindestbreite;
+    private final boolean _verbindlich;
+
+    /**
+     * Wählt eine Lückenregel aus.
+     * 
+     * @param mindestbreite die Anzahl freier Plätze, die eine Lücke
+     *            mindestens haben muss.
+     * @param verbindlich ob eine Auswahl, die gegen die Regel verstößt, nicht
+     *            verkauft werden darf.
+     * 
+     * @require mindestbreite >= 2
+     */
+    public Lueckenregel(int mindestbreite, boolean verbindlich)
+    {
+        assert mindestbreite >= 2 : "Vorbedingung verletzt: mindestbreite >= 2";
+
+        _mindestbreite = mindestbreite;
+        _verbindlich = verbindlich;
+    }
+
+    /**
+     * Gibt die Anzahl freier Plätze zurück, die eine Lücke mindestens haben
+     * muss.
+     * 
+     * @ensure result >= 2
+     */
+    public int getMindestbreite()
+    {
+        return _mindestbreite;
+    }
+
+    /**
+     * Gibt an, ob eine Auswahl, die gegen die Regel verstößt, nicht verkauft
+     * werden darf.
+     */
+    public boolean istVerbindlich()
+    {
+        return _verbindlich;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        boolean ergebnis = false;
+        if (o instanceof Lueckenregel)
+        {
+            Lueckenregel r = (Lueckenregel) o;
+            ergebnis = _mindestbreite == r._mindestbreite
+                    && _verbindlich == r._verbindlich;
+        }
+        return ergebnis;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * _mindestbreite + (_verbindlich ? 1 : 0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Lueckenregel: Mindestbreite=" + _mindestbreite
+                + (_verbindlich ? ", verbindlich" : ", Hinweis");
+    }
+}
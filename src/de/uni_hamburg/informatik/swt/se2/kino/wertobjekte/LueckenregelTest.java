@@ -0,0 +1,33 @@
+package de.uni_hamburg.informatik.swt.se2.kino.wertobjekte;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LueckenregelTest
+{
+    @Test
+    public void testeKonstruktorUndGetter()
+    {
+        Lueckenregel regel = new Lueckenregel(3, false);
+        assertEquals(3, regel.getMindestbreite());
+        assertFalse(regel.istVerbindlich());
+        assertEquals(2, Lueckenregel.KEINE_EINZELPLAETZE.getMindestbreite());
+        assertTrue(Lueckenregel.KEINE_EINZELPLAETZE.istVerbindlich());
+    }
+
+    @Test
+    public void testeEqualsUndHashCode()
+    {
+        assertEquals(new Lueckenregel(2, true), Lueckenregel.KEINE_EINZELPLAETZE);
+        assertEquals(new Lueckenregel(2, true).hashCode(),
+                Lueckenregel.KEINE_EINZELPLAETZE.hashCode());
+        assertNotEquals(new Lueckenregel(2, false),
+                Lueckenregel.KEINE_EINZELPLAETZE);
+        assertNotEquals(new Lueckenregel(3, true),
+                Lueckenregel.KEINE_EINZELPLAETZE);
+    }
+}
@@ -0,0 +1,151 @@
+package de.uni_hamburg.informatik.swt.se2.kino.wertobjekte;
+
+/**
+ * Beschreibt, welche Plätze in einem Kinosaal bevorzugt werden. Bevorzugt wird
+ * eine bestimmte Reihe, angegeben als relative Position zwischen der ersten
+ * (0.0) und der letzten Reihe (1.0), und innerhalb der Reihe die Mitte. Zwei
+ * Gewichte legen fest, wie stark eine Abweichung von der bevorzugten Reihe
+ * bzw. von der Reihenmitte zählt.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public final class Platzpraeferenz
+{
+    /**
+     * Bevorzugt die mittleren Reihen und innerhalb der Reihe die Mitte,
+     * beides gleich stark.
+     */
+    public static final Platzpraeferenz MITTE = new Platzpraeferenz(0.5, 1.0,
+            1.0);
+
+    private final double _reihenposition;
+    private final double _reihengewicht;
+    private final double _sitzgewicht;
+
+    /**
+     * Wählt eine Platzpräferenz aus.
+     * 
+     * @param reihenposition die bevorzugte Reihe relativ zur Saaltiefe (0.0 =
+     *            erste Reihe, 1.0 = letzte Reihe).
+     * @param reihengewicht das Gewicht für den Abstand zur bevorzugten Reihe.
+     * @param sitzgewicht das Gewicht für den Abstand zur Reihenmitte.
+     * 
+     * @require reihenposition >= 0 && reihenposition <= 1
+     * @require reihengewicht >= 0
+     * @require sitzgewicht >= 0
+     */
+    public Platzpraeferenz(double reihenposition, double reihengewicht,
+            double sitzgewicht)
+    {
+        assert reihenposition >= 0 && reihenposition <= 1 : "Vorbedingung verletzt: reihenposition >= 0 && reihenposition <= 1";
+        assert reihengewicht >= 0 : "Vorbedingung verletzt: reihengewicht >= 0";
+        assert sitzgewicht >= 0 : "Vorbedingung verletzt: sitzgewicht >= 0";
+
+        _reihenposition = reihenposition;
+        _reihengewicht = reihengewicht;
+        _sitzgewicht = sitzgewicht;
+    }
+
+    /**
+     * Gibt die bevorzugte Reihe relativ zur Saaltiefe zurück.
+     */
+    public double getReihenposition()
+    {
+        return _reihenposition;
+    }
+
+    /**
+     * Gibt das Gewicht für den Abstand zur bevorzugten Reihe zurück.
+     */
+    public double getReihengewicht()
+    {
+        return _reihengewicht;
+    }
+
+    /**
+     * Gibt das Gewicht für den Abstand zur Reihenmitte zurück.
+     */
+    public double getSitzgewicht()
+    {
+        return _sitzgewicht;
+    }
+
+    /**
+     * Gibt die bevorzugte Reihe in einem Saal mit der angegebenen Anzahl
+     * Reihen zurück.
+     * 
+     * @require anzahlReihen > 0
+     */
+    public double getBevorzugteReihe(int anzahlReihen)
+    {
+        assert anzahlReihen > 0 : "Vorbedingung verletzt: anzahlReihen > 0";
+
+        return _reihenposition * (anzahlReihen - 1);
+    }
+
+    /**
+     * Bewertet die Abweichung einer Reihe von der bevorzugten Reihe. Kleinere
+     * Werte sind besser.
+     * 
+     * @require anzahlReihen > 0
+     * @ensure result >= 0
+     */
+    public double bewerteReihe(int reihe, int anzahlReihen)
+    {
+        assert anzahlReihen > 0 : "Vorbedingung verletzt: anzahlReihen > 0";
+
+        return _reihengewicht * Math.abs(reihe - getBevorzugteReihe(anzahlReihen));
+    }
+
+    /**
+     * Bewertet die Abweichung eines Blocks von der Reihenmitte. Kleinere Werte
+     * sind besser.
+     * 
+     * @param ersterSitz der erste Sitz des Blocks.
+     * @param anzahl die Anzahl der Sitze im Block.
+     * @param sitzeProReihe die Anzahl der Sitze in der Reihe.
+     * 
+     * @require anzahl > 0
+     * @ensure result >= 0
+     */
+    public double bewerteBlock(int ersterSitz, int anzahl, int sitzeProReihe)
+    {
+        assert anzahl > 0 : "Vorbedingung verletzt: anzahl > 0";
+
+        double blockmitte = ersterSitz + (anzahl - 1) / 2.0;
+        double reihenmitte = (sitzeProReihe - 1) / 2.0;
+        return _sitzgewicht * Math.abs(blockmitte - reihenmitte);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        boolean ergebnis = false;
+        if (o instanceof Platzpraeferenz)
+        {
+            Platzpraeferenz p = (Platzpraeferenz) o;
+            ergebnis = Double.compare(_reihenposition, p._reihenposition) == 0
+                    && Double.compare(_reihengewicht, p._reihengewicht) == 0
+                    && Double.compare(_sitzgewicht, p._sitzgewicht) == 0;
+        }
+        return ergebnis;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        final int prime = 31;
+        int result = Double.hashCode(_reihenposition);
+        result = prime * result + Double.hashCode(_reihengewicht);
+        result = prime * result + Double.hashCode(_sitzgewicht);
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Platzpraeferenz: Reihe=" + _reihenposition + ", Gewichte="
+                + _reihengewicht + "/" + _sitzgewicht;
+    }
+}
@@ -0,0 +1,31 @@
+package de.uni_hamburg.informatik.swt.se2.kino.wertobjekte;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PlatzpraeferenzTest
+{
+    @Test
+    public void testeBewertung()
+    {
+        Platzpraeferenz p = new Platzpraeferenz(0.5, 2.0, 1.0);
+        assertEquals(4.5, p.getBevorzugteReihe(10), 0.0001);
+        assertEquals(0.0, p.bewerteBlock(3, 4, 10), 0.0001);
+        assertEquals(3.0, p.bewerteBlock(0, 4, 10), 0.0001);
+        assertEquals(1.0, p.bewerteReihe(5, 10), 0.0001);
+        assertTrue(p.bewerteReihe(0, 10) > p.bewerteReihe(4, 10));
+    }
+
+    @Test
+    public void testeEqualsUndHashCode()
+    {
+        Platzpraeferenz p1 = new Platzpraeferenz(0.6, 1.0, 1.0);
+        Platzpraeferenz p2 = new Platzpraeferenz(0.6, 1.0, 1.0);
+        assertEquals(p1, p2);
+        assertEquals(p1.hashCode(), p2.hashCode());
+        assertNotEquals(p1, Platzpraeferenz.MITTE);
+    }
+}
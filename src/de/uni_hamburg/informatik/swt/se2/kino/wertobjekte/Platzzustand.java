@@ -0,0 +1,15 @@
+package de.uni_hamburg.informatik.swt.se2.kino.wertobjekte;
+
+/**
+ * Die Zustände, die ein Platz in einer Vorstellung haben kann. Ein Platz ist
+ * frei, verkauft, für eine Reservierung zurückgehalten oder blockiert, etwa
+ * wegen Wartung, als Rollstuhlplatz oder für ein Pressekontingent.
+ * Blockierte Plätze können weder verkauft noch reserviert werden.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public enum Platzzustand
+{
+    FREI, VERKAUFT, RESERVIERT, BLOCKIERT;
+}
@@ -0,0 +1,265 @@
+package de.uni_hamburg.informatik.swt.se2.kino.wertobjekte;
+
+import java.util.Arrays;
+
+/**
+ * Der Grundriss eines Kinosaals. Ein Saalplan legt fest, welche Sitze es in
+ * welcher Reihe gibt. Reihen dürfen unterschiedlich lang sein und Gänge oder
+ * Lücken haben, etwa auf einem Balkon oder in geschwungenen Reihen.
+ * 
+ * Ein Sitz wird über seine Spalte im Plan adressiert, Lücken zählen also mit.
+ * Pro Reihe wird eine Maske der vorhandenen Sitze gespeichert: Sitz s steht in
+ * Bit s % 64 von Wort s / 64. Abfragen sind damit einfache Bitzugriffe.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2025
+ */
+public final class Saalplan
+{
+    /**
+     * Das Zeichen, das in {@link #ausText(String...)} einen Sitz darstellt.
+     */
+    public static final char SITZ = 'X';
+
+    private final long[][] _reihen;
+    private final int _breite;
+    private final int _anzahlSitze;
+
+    // Der Hash-Code wird einmal berechnet, weil Säle als Schlüssel dienen,
+    // etwa für die Saalkalender eines Kinos.
+    private final int _hashCode;
+
+    /**
+     * Wählt einen Saalplan aus. Die Masken werden nicht kopiert, aber auf die
+     * Breite des Plans gekürzt, damit gleiche Pläne gleiche Masken haben.
+     */
+    private Saalplan(long[][] reihen)
+    {
+        int breite = 0;
+        int anzahl = 0;
+        for (long[] reihe : reihen)
+        {
+            for (int i = 0; i < reihe.length; i++)
+            {
+                if (reihe[i] != 0)
+                {
+                    breite = Math.max(breite, i * Long.SIZE + Long.SIZE
+                            - Long.numberOfLeadingZeros(reihe[i]));
+                }
+                anzahl += Long.bitCount(reihe[i]);
+            }
+        }
+        int woerter = erzeugeReihe(breite).length;
+        for (int r = 0; r < reihen.length; r++)
+        {
+            if (reihen[r].length != woerter)
+            {
+                reihen[r] = Arrays.copyOf(reihen[r], woerter);
+            }
+        }
+        _reihen = reihen;
+        _breite = breite;
+        _anzahlSitze = anzahl;
+        _hashCode = Arrays.deepHashCode(reihen);
+    }
+
+    /**
+     * Wählt einen rechteckigen Saalplan ohne Lücken aus.
+     * 
+     * @param anzahlReihen die Anzahl der Reihen.
+     * @param anzahlSitzeProReihe die Anzahl der Sitze pro Reihe.
+     * 
+     * @require anzahlReihen > 0
+     * @require anzahlSitzeProReihe > 0
+     * 
+     * @ensure result != null
+     */
+    public static Saalplan ausRechteck(int anzahlReihen, int anzahlSitzeProReihe)
+    {
+        assert anzahlReihen > 0 : "Vorbedingung verletzt: anzahlReihen > 0";
+        assert anzahlSitzeProReihe > 0 : "Vorbedingung verletzt: anzahlSitzeProReihe > 0";
+
+        long[][] reihen = new long[anzahlReihen][];
+        long[] reihe = erzeugeReihe(anzahlSitzeProReihe);
+        for (int i = 0; i < anzahlSitzeProReihe; i++)
+        {
+            reihe[i / Long.SIZE] |= 1L << i;
+        }
+        for (int r = 0; r < anzahlReihen; r++)
+        {
+            reihen[r] = reihe;
+        }
+        return new Saalplan(reihen);
+    }
+
+    /**
+     * Wählt einen Saalplan aus, der Reihe für Reihe als Maske angegeben ist,
+     * wie sie {@link #getSitze(int, int)} liefert. Die Masken werden kopiert.
+     * 
+     * @param reihen die Masken der Reihen, vorne beginnend.
+     * 
+     * @require reihen != null && reihen.length > 0
+     * @require jede Reihe ist nicht null
+     * @require der Plan enthält mindestens einen Sitz
+     * 
+     * @ensure result != null
+     */
+    public static Saalplan ausMasken(long[][] reihen)
+    {
+        assert reihen != null && reihen.length > 0 : "Vorbedingung verletzt: reihen != null && reihen.length > 0";
+
+        long[][] masken = new long[reihen.length][];
+        for (int r = 0; r < reihen.length; r++)
+        {
+            assert reihen[r] != null : "Vorbedingung verletzt: jede Reihe ist nicht null";
+            masken[r] = reihen[r].clone();
+        }
+        Saalplan plan = new Saalplan(masken);
+        assert plan.getAnzahlSitze() > 0 : "Vorbedingung verletzt: der Plan enthält mindestens einen Sitz";
+        return plan;
+    }
+
+    /**
+     * Wählt einen Saalplan aus, der Reihe für Reihe als Text angegeben ist.
+     * Jedes Zeichen {@link #SITZ} ist ein Sitz, jedes andere Zeichen eine
+     * Lücke. Der Plan
+     * 
+     * <pre>
+     *   XXXX  XXXX
+     *  XXXXX  XXXXX
+     * </pre>
+     * 
+     * hat zum Beispiel zwei unterschiedlich lange Reihen mit einem Gang in der
+     * Mitte.
+     * 
+     * @param reihen die Reihen, vorne beginnend.
+     * 
+     * @require reihen != null && reihen.length > 0
+     * @require jede Reihe ist nicht null
+     * @require der Plan enthält mindestens einen Sitz
+     * 
+     * @ensure result != null
+     */
+    public static Saalplan ausText(String... reihen)
+    {
+        assert reihen != null && reihen.length > 0 : "Vorbedingung verletzt: reihen != null && reihen.length > 0";
+
+        long[][] masken = new long[reihen.length][];
+        int breite = 0;
+        for (String reihe : reihen)
+        {
+            assert reihe != null : "Vorbedingung verletzt: jede Reihe ist nicht null";
+            breite = Math.max(breite, reihe.length());
+        }
+        for (int r = 0; r < reihen.length; r++)
+        {
+            masken[r] = erzeugeReihe(breite);
+            for (int i = 0; i < reihen[r].length(); i++)
+            {
+                if (reihen[r].charAt(i) == SITZ)
+                {
+                    masken[r][i / Long.SIZE] |= 1L << i;
+                }
+            }
+        }
+        Saalplan plan = new Saalplan(masken);
+        assert plan.getAnzahlSitze() > 0 : "Vorbedingung verletzt: der Plan enthält mindestens einen Sitz";
+        return plan;
+    }
+
+    /**
+     * Erzeugt eine leere Reihenmaske für die angegebene Breite.
+     */
+    private static long[] erzeugeReihe(int breite)
+    {
+        return new long[Math.max(1, (breite + Long.SIZE - 1) / Long.SIZE)];
+    }
+
+    /**
+     * Gibt die Anzahl der Reihen dieses Plans zurück.
+     * 
+     * @ensure result > 0
+     */
+    public int getAnzahlReihen()
+    {
+        return _reihen.length;
+    }
+
+    /**
+     * Gibt die Breite dieses Plans zurück, also die Spalte hinter dem
+     * rechtesten Sitz aller Reihen.
+     * 
+     * @ensure result > 0
+     */
+    public int getBreite()
+    {
+        return _breite;
+    }
+
+    /**
+     * Gibt die Anzahl aller Sitze dieses Plans zurück.
+     * 
+     * @ensure result > 0
+     */
+    public int getAnzahlSitze()
+    {
+        return _anzahlSitze;
+    }
+
+    /**
+     * Prüft, ob es in der angegebenen Reihe an der angegebenen Spalte einen
+     * Sitz gibt.
+     * 
+     * @param reihe die Reihe.
+     * @param sitz die Spalte des Sitzes in seiner Reihe.
+     */
+    public boolean hatSitz(int reihe, int sitz)
+    {
+        return reihe >= 0 && reihe < _reihen.length && sitz >= 0
+                && sitz < _breite
+                && (_reihen[reihe][sitz / Long.SIZE] & (1L << sitz)) != 0;
+    }
+
+    /**
+     * Gibt die Sitze der angegebenen Reihe zurück, die im angegebenen
+     * 64-Bit-Wort liegen: Sitz s steht in Bit s % 64 von Wort s / 64.
+     * 
+     * @param reihe die Reihe.
+     * @param wort der Index des Worts.
+     * 
+     * @require reihe >= 0 && reihe < getAnzahlReihen()
+     * @require wort >= 0
+     */
+    public long getSitze(int reihe, int wort)
+    {
+        assert reihe >= 0 && reihe < _reihen.length : "Vorbedingung verletzt: reihe >= 0 && reihe < getAnzahlReihen()";
+        assert wort >= 0 : "Vorbedingung verletzt: wort >= 0";
+
+        long[] masken = _reihen[reihe];
+        return wort < masken.length ? masken[wort] : 0;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        boolean ergebnis = false;
+        if (o instanceof Saalplan)
+        {
+            ergebnis = Arrays.deepEquals(_reihen, ((Saalplan) o)._reihen);
+        }
+        return ergebnis;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return _hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Saalplan: Reihen=" + _reihen.length + ", Breite=" + _breite
+                + ", Sitze=" + _anzahlSitze;
+    }
+}
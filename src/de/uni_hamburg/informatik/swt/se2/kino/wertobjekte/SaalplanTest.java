@@ -0,0 +1,63 @@
+package de.uni_hamburg.informatik.swt.se2.kino.wertobjekte;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SaalplanTest
+{
+    @Test
+    public void testeRechteck()
+    {
+        Saalplan plan = Saalplan.ausRechteck(3, 70);
+        assertEquals(3, plan.getAnzahlReihen());
+        assertEquals(70, plan.getBreite());
+        assertEquals(210, plan.getAnzahlSitze());
+        assertTrue(plan.hatSitz(2, 69));
+        assertFalse(plan.hatSitz(2, 70));
+        assertFalse(plan.hatSitz(3, 0));
+        assertFalse(plan.hatSitz(-1, 0));
+        assertEquals(-1L, plan.getSitze(0, 0));
+        assertEquals(0x3FL, plan.getSitze(0, 1));
+        assertEquals(0, plan.getSitze(0, 2));
+    }
+
+    @Test
+    public void testeText()
+    {
+        Saalplan plan = Saalplan.ausText("  XXXX  XXXX", "XXXXXX  XXXXXX");
+        assertEquals(2, plan.getAnzahlReihen());
+        assertEquals(14, plan.getBreite());
+        assertEquals(20, plan.getAnzahlSitze());
+        assertFalse(plan.hatSitz(0, 0));
+        assertTrue(plan.hatSitz(0, 2));
+        assertFalse(plan.hatSitz(0, 6));
+        assertFalse(plan.hatSitz(0, 12));
+        assertTrue(plan.hatSitz(1, 13));
+    }
+
+    @Test
+    public void testeMasken()
+    {
+        Saalplan text = Saalplan.ausText("  XXXX  XXXX", "XXXXXX  XXXXXX");
+        long[][] masken = { { text.getSitze(0, 0) }, { text.getSitze(1, 0) } };
+        Saalplan plan = Saalplan.ausMasken(masken);
+        assertEquals(text, plan);
+        masken[0][0] = 0;
+        assertTrue(plan.hatSitz(0, 2));
+    }
+
+    @Test
+    public void testeEqualsUndHashCode()
+    {
+        assertEquals(Saalplan.ausRechteck(2, 3), Saalplan.ausText("XXX",
+                "XXX   "));
+        assertEquals(Saalplan.ausRechteck(2, 3).hashCode(), Saalplan.ausText(
+                "XXX", "XXX").hashCode());
+        assertNotEquals(Saalplan.ausRechteck(2, 3), Saalplan.ausText("XXX",
+                "X X"));
+    }
+}